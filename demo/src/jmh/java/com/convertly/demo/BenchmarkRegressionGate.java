@@ -0,0 +1,193 @@
+package com.convertly.demo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the checked-in baseline and exits with
+ * status 1 if a benchmark lost throughput or allocates more per operation than
+ * the tolerances allow.
+ *
+ * <p>Usage: {@code BenchmarkRegressionGate <baseline> <results> [--throughput-tolerance=0.25]
+ * [--allocation-tolerance=0.05] [--update]}. Tolerances are fractions of the baseline
+ * value; a baseline entry may pin its own {@code allocationTolerance}. With
+ * {@code --update} the baseline is rewritten from the results, keeping pinned
+ * tolerances.
+ */
+public final class BenchmarkRegressionGate {
+
+    /**
+     * Allocation the gc profiler may attribute to an operation by chance, in bytes.
+     * Smaller than any boxed value, so reintroduced boxing still fails a pinned entry.
+     */
+    private static final double ALLOCATION_SLACK_BYTES = 8;
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BenchmarkRegressionGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkRegressionGate <baseline> <results> "
+                    + "[--throughput-tolerance=x] [--allocation-tolerance=y] [--update]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path resultsPath = Path.of(args[1]);
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        JsonNode baseline = baselinePath.toFile().exists()
+                ? mapper.readTree(baselinePath.toFile())
+                : mapper.createObjectNode();
+        double throughputTolerance = baseline.path("throughputTolerance").asDouble(0.25);
+        double allocationTolerance = baseline.path("allocationTolerance").asDouble(0.05);
+        boolean update = false;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--throughput-tolerance=")) {
+                throughputTolerance = Double.parseDouble(arg.substring(arg.indexOf('=') + 1));
+            } else if (arg.startsWith("--allocation-tolerance=")) {
+                allocationTolerance = Double.parseDouble(arg.substring(arg.indexOf('=') + 1));
+            } else if (arg.equals("--update")) {
+                update = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        Map<String, Measurement> results = readResults(mapper.readTree(resultsPath.toFile()));
+        if (update) {
+            mapper.writeValue(baselinePath.toFile(),
+                    toBaseline(mapper, baseline, results, throughputTolerance, allocationTolerance));
+            System.out.println("Wrote " + results.size() + " benchmarks to " + baselinePath);
+            return;
+        }
+
+        List<String> failures = new ArrayList<>();
+        System.out.printf("%-90s %-6s %12s %12s %8s %8s%n", "Benchmark", "Metric", "Baseline", "Current",
+                "Change", "Limit");
+        for (JsonNode entry : baseline.path("benchmarks")) {
+            String key = key(entry.path("benchmark").asText(), entry.path("params"));
+            Measurement current = results.remove(key);
+            if (current == null) {
+                System.out.printf("%-90s %s%n", key, "MISSING");
+                failures.add(key + " was not run");
+                continue;
+            }
+            double expectedThroughput = entry.path("throughput").asDouble();
+            double throughputLimit = -entry.path("throughputTolerance").asDouble(throughputTolerance);
+            compare(failures, key, "ops/us", expectedThroughput, current.throughput(),
+                    current.throughput() < expectedThroughput * (1 + throughputLimit), throughputLimit);
+
+            if (entry.has("allocation") && current.allocation() != null) {
+                double expectedAllocation = entry.path("allocation").asDouble();
+                double allocationLimit = entry.path("allocationTolerance").asDouble(allocationTolerance);
+                compare(failures, key, "B/op", expectedAllocation, current.allocation(),
+                        current.allocation() > expectedAllocation * (1 + allocationLimit) + ALLOCATION_SLACK_BYTES,
+                        allocationLimit);
+            }
+        }
+        results.keySet().forEach(key -> System.out.printf("%-90s %s%n", key, "not in baseline"));
+
+        if (!failures.isEmpty()) {
+            System.out.println();
+            System.out.println(failures.size() + " benchmark metric(s) regressed:");
+            failures.forEach(failure -> System.out.println("  " + failure));
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.println("No benchmark regressed");
+    }
+
+    private static void compare(List<String> failures, String key, String metric, double expected, double actual,
+                                boolean regressed, double limit) {
+        double change = expected == 0 ? 0 : (actual - expected) / expected;
+        System.out.printf("%-90s %-6s %12.4g %12.4g %+7.1f%% %+7.1f%%%s%n", key, metric, expected, actual,
+                change * 100, limit * 100, regressed ? "  REGRESSED" : "");
+        if (regressed) {
+            failures.add(String.format("%s %s: %.4g -> %.4g (%+.1f%%, limit %+.1f%%)", key, metric,
+                    expected, actual, change * 100, limit * 100));
+        }
+    }
+
+    /**
+     * Reads the throughput-mode entries of a JMH JSON result file, keyed by benchmark and parameters.
+     */
+    private static Map<String, Measurement> readResults(JsonNode results) {
+        Map<String, Measurement> measurements = new TreeMap<>();
+        for (JsonNode result : results) {
+            if (!result.path("mode").asText().equals("thrpt")) {
+                continue;
+            }
+            JsonNode allocation = result.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+            measurements.put(key(result.path("benchmark").asText(), result.path("params")),
+                    new Measurement(result.path("benchmark").asText(), result.path("params"),
+                            result.path("primaryMetric").path("score").asDouble(),
+                            allocation.isNumber() ? allocation.asDouble() : null));
+        }
+        return measurements;
+    }
+
+    private static ObjectNode toBaseline(ObjectMapper mapper, JsonNode previous, Map<String, Measurement> results,
+                                         double throughputTolerance, double allocationTolerance) {
+        Map<String, JsonNode> previousEntries = new TreeMap<>();
+        for (JsonNode entry : previous.path("benchmarks")) {
+            previousEntries.put(key(entry.path("benchmark").asText(), entry.path("params")), entry);
+        }
+        ObjectNode baseline = mapper.createObjectNode();
+        baseline.put("throughputTolerance", throughputTolerance);
+        baseline.put("allocationTolerance", allocationTolerance);
+        ArrayNode benchmarks = baseline.putArray("benchmarks");
+        results.forEach((key, measurement) -> {
+            ObjectNode entry = benchmarks.addObject();
+            entry.put("benchmark", measurement.benchmark());
+            if (!measurement.params().isMissingNode()) {
+                entry.set("params", measurement.params());
+            }
+            entry.put("throughput", round(measurement.throughput()));
+            if (measurement.allocation() != null) {
+                entry.put("allocation", round(measurement.allocation()));
+            }
+            JsonNode pinned = previousEntries.getOrDefault(key, mapper.createObjectNode());
+            for (String field : List.of("throughputTolerance", "allocationTolerance")) {
+                if (pinned.has(field)) {
+                    entry.set(field, pinned.get(field));
+                }
+            }
+        });
+        return baseline;
+    }
+
+    private static String key(String benchmark, JsonNode params) {
+        if (params.isMissingNode() || params.isEmpty()) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        return benchmark + sorted;
+    }
+
+    private static double round(double value) {
+        return new BigDecimal(value).round(new MathContext(4)).doubleValue();
+    }
+
+    private record Measurement(String benchmark, JsonNode params, double throughput, Double allocation) {
+    }
+}
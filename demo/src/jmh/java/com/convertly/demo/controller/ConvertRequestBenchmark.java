@@ -0,0 +1,95 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.validation.ConversionRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-request work of {@code POST /convert} around the conversion itself:
+ * reading the JSON body, validating it and writing the JSON response. Compares Jackson's
+ * reflective property access with the Blackbird module, and Bean Validation with
+ * {@link ConversionRequestValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertRequestBenchmark {
+
+    private static final byte[] BODY = """
+            {"category":"length","fromUnit":"kilometer","toUnit":"mile","value":42.195}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"reflection", "blackbird"})
+    public String codec;
+
+    @Param({"bean-validation", "precompiled"})
+    public String validation;
+
+    private ValidatorFactory validatorFactory;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (codec.equals("blackbird")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper objectMapper = builder.build();
+        reader = objectMapper.readerFor(ConversionRequest.class);
+        writer = objectMapper.writerFor(ConversionResponse.class);
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validation.equals("precompiled")
+                ? new ConversionRequestValidator()
+                : new SpringValidatorAdapter(validatorFactory.getValidator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public byte[] readValidateWrite() throws IOException {
+        ConversionRequest request = reader.readValue(BODY);
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(request, "conversionRequest");
+        validator.validate(request, errors);
+        if (errors.hasErrors()) {
+            throw new IllegalStateException(errors.toString());
+        }
+        ConversionResponse response = new ConversionResponse(26.21875, "42.195000 kilometer × 0.621371 = 26.218757 mile",
+                request);
+        return writer.writeValueAsBytes(response);
+    }
+}
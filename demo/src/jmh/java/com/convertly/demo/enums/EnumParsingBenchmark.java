@@ -0,0 +1,67 @@
+package com.convertly.demo.enums;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@code fromValue} parsers used to bind request JSON, including
+ * the rejection of an unknown unit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumParsingBenchmark {
+
+    public String category = "Weight";
+    public String temperatureUnit = "kelvin";
+    public String lengthUnit = "foot";
+    public String weightUnit = "ounce";
+    public String timeUnit = "days";
+    public String invalidUnit = "parsec";
+
+    @Benchmark
+    public Category category() {
+        return Category.fromValue(category);
+    }
+
+    @Benchmark
+    public TemperatureUnit temperatureUnit() {
+        return TemperatureUnit.fromValue(temperatureUnit);
+    }
+
+    @Benchmark
+    public LengthUnit lengthUnit() {
+        return LengthUnit.fromValue(lengthUnit);
+    }
+
+    @Benchmark
+    public WeightUnit weightUnit() {
+        return WeightUnit.fromValue(weightUnit);
+    }
+
+    @Benchmark
+    public com.convertly.demo.enums.TimeUnit timeUnit() {
+        return com.convertly.demo.enums.TimeUnit.fromValue(timeUnit);
+    }
+
+    @Benchmark
+    public Object invalidLengthUnit() {
+        try {
+            return LengthUnit.fromValue(invalidUnit);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
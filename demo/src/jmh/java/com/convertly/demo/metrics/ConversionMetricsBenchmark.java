@@ -0,0 +1,71 @@
+package com.convertly.demo.metrics;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost {@link ConversionMetrics} adds to each request, with the
+ * Prometheus registry the application uses, a simple in-memory registry and a
+ * registry without backends whose meters do nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionMetricsBenchmark {
+
+    @Param({"prometheus", "simple", "noop"})
+    public String registry;
+
+    private final ConversionRequest request =
+            new ConversionRequest(Category.LENGTH, "kilometer", "mile", 42.195);
+    private final ConversionRequest invalidRequest =
+            new ConversionRequest(Category.LENGTH, "parsec", "mile", 42.195);
+
+    private ConversionMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = switch (registry) {
+            case "prometheus" -> new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            case "simple" -> new SimpleMeterRegistry();
+            default -> new CompositeMeterRegistry();
+        };
+        metrics = new ConversionMetrics(meterRegistry);
+    }
+
+    @Benchmark
+    public void recordConversion() {
+        metrics.recordConversion(request, 1500, true);
+    }
+
+    @Benchmark
+    public void recordInvalidConversion() {
+        metrics.recordConversion(invalidRequest, 1500, false);
+    }
+
+    @Benchmark
+    public void recordValidationFailure() {
+        metrics.recordValidationFailure("InvalidUnitException");
+    }
+}
@@ -0,0 +1,100 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks recording conversions from several threads, into one shared client
+ * partition and into one partition per thread, and exporting histories of
+ * several sizes as CSV.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionHistoryServiceBenchmark {
+
+    private static final LengthService LENGTH_SERVICE = new LengthService();
+
+    @State(Scope.Benchmark)
+    public static class Recording {
+        final ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", 100.0);
+        final ConversionResponse response = LENGTH_SERVICE.convert(request);
+        final AtomicInteger clients = new AtomicInteger();
+        ConversionHistoryService historyService;
+
+        @Setup
+        public void setUp() {
+            historyService = newHistoryService(10000);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String clientId;
+
+        @Setup
+        public void setUp(Recording recording) {
+            clientId = "client-" + recording.clients.incrementAndGet();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Filled {
+        @Param({"100", "1000", "10000"})
+        public int historySize;
+
+        ConversionHistoryService historyService;
+
+        @Setup
+        public void setUp() {
+            historyService = newHistoryService(historySize);
+            for (int i = 0; i < historySize; i++) {
+                ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+                historyService.addConversion("benchmark", request, LENGTH_SERVICE.convert(request));
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String addConversionSharedClient(Recording recording) {
+        return recording.historyService.addConversion("benchmark", recording.request, recording.response);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String addConversionPerThreadClient(Recording recording, Client client) {
+        return recording.historyService.addConversion(client.clientId, recording.request, recording.response);
+    }
+
+    @Benchmark
+    public String exportHistoryAsCSV(Filled filled) throws IOException {
+        return filled.historyService.exportHistoryAsCSV("benchmark");
+    }
+
+    private static ConversionHistoryService newHistoryService(int capacity) {
+        return new ConversionHistoryService(List.of(), List.of(LENGTH_SERVICE), capacity,
+                Duration.ofMinutes(30), 10_000, 1024, 1024, "", 1024);
+    }
+}
@@ -0,0 +1,70 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion and formula generation of each {@link ConversionService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionServiceBenchmark {
+
+    @Param({"temperature", "length", "weight", "time"})
+    public String category;
+
+    private ConversionService service;
+    private ConversionRequest request;
+    private Double result;
+
+    @Setup
+    public void setUp() {
+        switch (Category.fromValue(category)) {
+            case TEMPERATURE -> {
+                service = new TemperatureService();
+                request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
+            }
+            case LENGTH -> {
+                service = new LengthService();
+                request = new ConversionRequest(Category.LENGTH, "kilometer", "mile", 42.195);
+            }
+            case WEIGHT -> {
+                service = new WeightService();
+                request = new ConversionRequest(Category.WEIGHT, "pound", "kilogram", 150.0);
+            }
+            case TIME -> {
+                service = new TimeService();
+                request = new ConversionRequest(Category.TIME, "hours", "seconds", 2.5);
+            }
+        }
+        result = service.convert(request).getResult();
+    }
+
+    @Benchmark
+    public ConversionResponse convert() {
+        return service.convert(request);
+    }
+
+    @Benchmark
+    public String generateFormula() {
+        return service.generateFormula(request, result);
+    }
+}
@@ -0,0 +1,85 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.exception.InvalidUnitException;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a conversion through {@link ConversionServiceManager}, with the history,
+ * heavy hitter and metrics recording it performs, against the same routing and conversion
+ * without recording, and the rejection of a request with an unknown unit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionServiceManagerBenchmark {
+
+    private final ConversionRequest request =
+            new ConversionRequest(Category.LENGTH, "kilometer", "mile", 42.195);
+    private final ConversionRequest invalidRequest =
+            new ConversionRequest(Category.LENGTH, "parsec", "mile", 42.195);
+
+    private List<ConversionService> services;
+    private ConversionServiceManager manager;
+
+    @Setup
+    public void setUp() {
+        TemperatureService temperatureService = new TemperatureService();
+        LengthService lengthService = new LengthService();
+        WeightService weightService = new WeightService();
+        TimeService timeService = new TimeService();
+        services = List.of(temperatureService, lengthService, weightService, timeService);
+        ConversionHistoryService historyService = new ConversionHistoryService(List.of(), services, 10000,
+                Duration.ofMinutes(30), 10_000, 1024, 1024, "", 1024);
+        HeavyHitterService heavyHitterService = new HeavyHitterService(0.005, 0.99, 64, Duration.ofMinutes(5), 12);
+        manager = new ConversionServiceManager(temperatureService, lengthService, weightService, timeService,
+                historyService, heavyHitterService,
+                new ConversionMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+    }
+
+    @Benchmark
+    public ConversionResponse convertWithHistory() {
+        return manager.convert(request, "benchmark");
+    }
+
+    @Benchmark
+    public Object convertInvalidUnit() {
+        try {
+            return manager.convert(invalidRequest, "benchmark");
+        } catch (InvalidUnitException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ConversionResponse convertWithoutHistory() {
+        String category = request.getCategory().getValue();
+        for (ConversionService service : services) {
+            if (service.supports(category)) {
+                return service.convert(request);
+            }
+        }
+        throw new IllegalStateException("No service for " + category);
+    }
+}
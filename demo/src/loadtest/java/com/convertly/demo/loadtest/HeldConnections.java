@@ -0,0 +1,138 @@
+package com.convertly.demo.loadtest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Slow uploads that each keep a request, and with it a request thread of a
+ * thread-per-request server, busy for the whole run.
+ *
+ * <p>Every connection posts a chunked CSV history import and then sends one empty
+ * line every few seconds, well within the server's read timeout, so the request
+ * blocks reading its body until the connection is closed. A single thread feeds
+ * all connections, so thousands can be held without a thread each.
+ */
+final class HeldConnections implements AutoCloseable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long TRICKLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final String CSV_HEADER = "ID,Timestamp,Category,From Unit,To Unit,Input Value,Result,Formula\n";
+    private static final byte[] EMPTY_LINE = chunk("\n");
+
+    private final List<SocketChannel> channels;
+    private final int opened;
+    private final int requested;
+    private final Thread feeder;
+    private volatile boolean closed;
+    private volatile int dropped;
+
+    private HeldConnections(List<SocketChannel> channels, int requested) {
+        this.channels = channels;
+        this.opened = channels.size();
+        this.requested = requested;
+        this.feeder = new Thread(this::feed, "held-connections");
+        this.feeder.setDaemon(true);
+    }
+
+    /**
+     * Opens the connections and starts their uploads. Opening stops at the first
+     * connection the server does not accept in time.
+     */
+    static HeldConnections open(String baseUrl, int count) {
+        URI uri = URI.create(baseUrl);
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), uri.getPort() < 0 ? 80 : uri.getPort());
+        List<SocketChannel> channels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.socket().connect(address, CONNECT_TIMEOUT_MILLIS);
+                write(channel, ("POST /history/import?format=csv HTTP/1.1\r\n"
+                        + "Host: " + uri.getAuthority() + "\r\n"
+                        + "X-Client-Id: loadtest-held-" + i + "\r\n"
+                        + "Content-Type: text/csv\r\n"
+                        + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                write(channel, chunk(CSV_HEADER));
+                channels.add(channel);
+            } catch (IOException e) {
+                System.out.printf("Opened only %d of %d held connections: %s%n", channels.size(), count, e);
+                closeQuietly(channel);
+                break;
+            }
+        }
+        HeldConnections held = new HeldConnections(channels, count);
+        held.feeder.start();
+        return held;
+    }
+
+    int opened() {
+        return opened;
+    }
+
+    int requested() {
+        return requested;
+    }
+
+    /**
+     * Number of held connections the server closed before the end of the run.
+     */
+    int dropped() {
+        return dropped;
+    }
+
+    private void feed() {
+        while (!closed) {
+            LockSupport.parkNanos(TRICKLE_INTERVAL_NANOS);
+            Iterator<SocketChannel> iterator = channels.iterator();
+            while (iterator.hasNext() && !closed) {
+                SocketChannel channel = iterator.next();
+                try {
+                    write(channel, EMPTY_LINE);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                    iterator.remove();
+                    dropped++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(feeder);
+        feeder.join();
+        channels.forEach(HeldConnections::closeQuietly);
+    }
+
+    private static void write(SocketChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] chunk(String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+        return (Integer.toHexString(bytes.length) + "\r\n" + data + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The server may already have closed it
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.convertly.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous HTTP calls against the application. Response bodies are read
+ * completely and discarded unless they are needed.
+ */
+final class LoadClient {
+
+    private static final String[][] CONVERSIONS = {
+            {"temperature", "celsius", "fahrenheit", "kelvin"},
+            {"length", "meter", "kilometer", "mile", "inch", "foot"},
+            {"weight", "gram", "kilogram", "pound", "ounce"},
+            {"time", "seconds", "minutes", "hours", "days"}
+    };
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long EXPORT_POLL_MILLIS = 50;
+    private static final long EXPORT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    CompletableFuture<Integer> convert(String clientId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] units = CONVERSIONS[random.nextInt(CONVERSIONS.length)];
+        String body = String.format(Locale.ROOT,
+                "{\"category\":\"%s\",\"fromUnit\":\"%s\",\"toUnit\":\"%s\",\"value\":%.2f}",
+                units[0], units[1 + random.nextInt(units.length - 1)], units[1 + random.nextInt(units.length - 1)],
+                random.nextDouble(0, 1000));
+        HttpRequest request = request("/convert", clientId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    CompletableFuture<Integer> get(String path, String clientId) {
+        HttpRequest request = request(path, clientId).GET().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    CompletableFuture<Integer> export(String clientId) {
+        HttpRequest start = request("/history/exports?format=csv", clientId)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return http.sendAsync(start, HttpResponse.BodyHandlers.discarding()).thenCompose(response -> {
+            String location = response.headers().firstValue("Location").orElse(null);
+            if (response.statusCode() != 202 || location == null) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            return awaitExport(location, clientId, System.nanoTime() + EXPORT_TIMEOUT_NANOS)
+                    .thenCompose(status -> status == 200 ? get(location + "/download", clientId)
+                            : CompletableFuture.completedFuture(status))
+                    .thenCompose(status -> delete(location, clientId).thenApply(deleted -> status));
+        });
+    }
+
+    /**
+     * Polls an export until it has completed (200), failed (500) or taken too long (504).
+     */
+    private CompletableFuture<Integer> awaitExport(String location, String clientId, long deadline) {
+        HttpRequest poll = request(location, clientId).GET().build();
+        return http.sendAsync(poll, HttpResponse.BodyHandlers.ofString()).thenCompose(response -> {
+            if (response.statusCode() != 200) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            String state = readState(response.body());
+            if (state.equals("completed")) {
+                return CompletableFuture.completedFuture(200);
+            }
+            if (state.equals("failed")) {
+                return CompletableFuture.completedFuture(500);
+            }
+            if (System.nanoTime() > deadline) {
+                return CompletableFuture.completedFuture(504);
+            }
+            return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(EXPORT_POLL_MILLIS, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> awaitExport(location, clientId, deadline));
+        });
+    }
+
+    private CompletableFuture<Integer> delete(String location, String clientId) {
+        HttpRequest request = request(location, clientId).DELETE().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private String readState(String body) {
+        try {
+            JsonNode status = objectMapper.readTree(body);
+            return status.path("state").asText();
+        } catch (Exception e) {
+            return "failed";
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String clientId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("X-Client-Id", clientId);
+    }
+}
@@ -0,0 +1,334 @@
+package com.convertly.demo.loadtest;
+
+import com.convertly.demo.DemoApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator for the converter and history endpoints.
+ *
+ * <p>Requests are started on a fixed schedule, evenly or exponentially spaced,
+ * whether or not earlier ones have completed, and each latency is measured from
+ * the time the request was scheduled to start rather than the time it was sent.
+ * A server stall therefore shows up in every request that should have been sent
+ * during it, instead of holding back the senders and hiding itself (coordinated
+ * omission). The latency from the actual send is reported alongside for comparison.
+ * Requests still unanswered when the drain period ends are recorded as errors with
+ * their latency at that point, so a hung server cannot drop them from the results.
+ *
+ * <p>Without {@code --target} the application is started in this JVM on a random
+ * port, so it competes with the generator for CPU; point it at a separately
+ * started instance for more faithful numbers.
+ *
+ * <p>With {@code --connections} that many slow uploads are held open alongside the
+ * measured requests. On the default platform thread pool each one occupies a request
+ * thread, so the measured requests queue once the pool is used up; comparing runs
+ * with and without {@code --spring.threads.virtual.enabled=true} shows what virtual
+ * threads change.
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final LoadTestOptions options;
+    private final LoadClient client;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Set<PendingRequest> pending = ConcurrentHashMap.newKeySet();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadGenerator(LoadTestOptions options, LoadClient client) {
+        this.options = options;
+        this.client = client;
+        this.operations = options.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> appArgs = new LinkedHashMap<>();
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args, appArgs);
+            if (options.target() != null && !appArgs.isEmpty()) {
+                throw new IllegalArgumentException("Unknown options for a remote target: " + appArgs.keySet());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ConfigurableApplicationContext app = null;
+        String target = options.target();
+        if (target == null) {
+            appArgs.putIfAbsent("server.port", "0");
+            appArgs.putIfAbsent("logging.level.root", "WARN");
+            if (options.connections() > 0) {
+                // Tomcat accepts 8192 connections by default; leave room for the measured requests
+                appArgs.putIfAbsent("server.tomcat.max-connections", String.valueOf(options.connections() + 1000));
+            }
+            List<String> springArgs = new ArrayList<>();
+            appArgs.forEach((name, value) -> springArgs.add("--" + name + "=" + value));
+            // DevTools would restart this main method with only the application's arguments
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            app = SpringApplication.run(DemoApplication.class, springArgs.toArray(String[]::new));
+            target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            new LoadGenerator(options, new LoadClient(target)).run();
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    void run() throws IOException, InterruptedException {
+        if (options.connections() == 0) {
+            schedule(null);
+            return;
+        }
+        System.out.printf("Opening %d held connections%n", options.connections());
+        try (HeldConnections held = HeldConnections.open(client.getBaseUrl(), options.connections())) {
+            schedule(held);
+        }
+    }
+
+    private void schedule(HeldConnections held) throws IOException {
+        long meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long recordFrom = start + options.warmup().toNanos();
+        long end = recordFrom + options.duration().toNanos();
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        long maxSendLag = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        System.out.printf(Locale.ROOT, "Sending %.1f req/s (%s arrivals) to %s: %ds warmup, %ds measured%n",
+                options.rate(), options.poisson() ? "poisson" : "uniform", client.getBaseUrl(),
+                options.warmup().toSeconds(), options.duration().toSeconds());
+
+        long scheduled = start;
+        while (scheduled < end) {
+            long now = System.nanoTime();
+            while (now < scheduled) {
+                LockSupport.parkNanos(scheduled - now);
+                now = System.nanoTime();
+            }
+            if (scheduled >= recordFrom) {
+                maxSendLag = Math.max(maxSendLag, now - scheduled);
+            }
+            send(pick(random), "loadtest-" + random.nextInt(options.clients()), scheduled, now,
+                    scheduled >= recordFrom);
+
+            if (now >= nextProgress) {
+                System.out.printf(Locale.ROOT, "%5ds  %s, %d in flight%n",
+                        TimeUnit.NANOSECONDS.toSeconds(now - start),
+                        now < recordFrom ? "warming up" : "recording", inFlight.get());
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+            }
+            scheduled += options.poisson()
+                    ? (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos)
+                    : meanIntervalNanos;
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        report(maxSendLag, recordUnanswered(System.nanoTime()), held);
+    }
+
+    private void send(Operation operation, String clientId, long scheduled, long sent, boolean recorded) {
+        PendingRequest request = recorded ? new PendingRequest(operation, scheduled, sent) : null;
+        if (request != null) {
+            pending.add(request);
+        }
+        inFlight.incrementAndGet();
+        try {
+            operation.execute(client, clientId).whenComplete((status, error) -> {
+                complete(request, System.nanoTime(), error == null && status >= 200 && status < 300);
+                inFlight.decrementAndGet();
+            });
+        } catch (RuntimeException e) {
+            complete(request, System.nanoTime(), false);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Records a measured request once, whether it completed or was given up on at the drain deadline.
+     */
+    private boolean complete(PendingRequest request, long completed, boolean success) {
+        if (request == null || !pending.remove(request)) {
+            return false;
+        }
+        stats.get(request.operation).record(request.scheduled, request.sent, completed, success);
+        return true;
+    }
+
+    private long recordUnanswered(long now) {
+        long unanswered = 0;
+        for (PendingRequest request : pending) {
+            if (complete(request, now, false)) {
+                unanswered++;
+            }
+        }
+        return unanswered;
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void report(long maxSendLag, long unanswered, HeldConnections held) throws IOException {
+        OperationStats all = new OperationStats();
+        stats.values().forEach(all::add);
+        double seconds = options.duration().toNanos() / 1e9;
+
+        System.out.println();
+        System.out.println("Latency from scheduled start (corrected for coordinated omission), ms:");
+        printTable(all, seconds, true);
+        System.out.println();
+        System.out.println("Latency from actual send (service time, uncorrected), ms:");
+        printTable(all, seconds, false);
+        if (unanswered > 0) {
+            System.out.println();
+            System.out.printf("%d requests were still in flight after the %ds drain and are counted as errors "
+                    + "with their latency at that point%n", unanswered,
+                    TimeUnit.NANOSECONDS.toSeconds(DRAIN_TIMEOUT_NANOS));
+        }
+        if (held != null) {
+            System.out.println();
+            System.out.printf("%d of %d held connections were open, %d of them closed early by the server%n",
+                    held.opened(), held.requested(), held.dropped());
+        }
+        if (maxSendLag > TimeUnit.MILLISECONDS.toNanos(10)) {
+            System.out.println();
+            System.out.printf(Locale.ROOT, "The generator sent up to %.1f ms late; it may be saturated and "
+                    + "the corrected latencies include that delay%n", maxSendLag / 1e6);
+        }
+
+        Files.createDirectories(options.output());
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            entry.getValue().write(options.output(), entry.getKey().getValue());
+        }
+        all.write(options.output(), "all");
+        System.out.println();
+        System.out.println("Percentile distributions written to " + options.output().toAbsolutePath());
+    }
+
+    private void printTable(OperationStats all, double seconds, boolean corrected) {
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-10s %9s %7s %9s", "Operation",
+                "Count", "Errors", "Req/s"));
+        for (double percentile : PERCENTILES) {
+            header.append(String.format(Locale.ROOT, " %9s", "p" + format(percentile)));
+        }
+        System.out.println(header.append(String.format(Locale.ROOT, " %9s", "max")));
+        stats.forEach((operation, operationStats) ->
+                printRow(operation.getValue(), operationStats, seconds, corrected));
+        printRow("all", all, seconds, corrected);
+    }
+
+    private static void printRow(String name, OperationStats operationStats, double seconds, boolean corrected) {
+        Histogram histogram = corrected ? operationStats.corrected : operationStats.uncorrected;
+        StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-10s %9d %7d %9.1f", name,
+                histogram.getTotalCount(), operationStats.errors.sum(), histogram.getTotalCount() / seconds));
+        for (double percentile : PERCENTILES) {
+            row.append(String.format(Locale.ROOT, " %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        System.out.println(row.append(String.format(Locale.ROOT, " %9.2f", histogram.getMaxValue() / 1000.0)));
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * A measured request that has not been recorded yet. Compared by identity, since
+     * two requests may be scheduled and sent in the same nanosecond.
+     */
+    private static final class PendingRequest {
+        final Operation operation;
+        final long scheduled;
+        final long sent;
+
+        PendingRequest(Operation operation, long scheduled, long sent) {
+            this.operation = operation;
+            this.scheduled = scheduled;
+            this.sent = sent;
+        }
+    }
+
+    /**
+     * Latency histograms, in microseconds, and error count of one operation.
+     */
+    private static final class OperationStats {
+        final Histogram corrected = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final Histogram uncorrected = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long scheduled, long sent, long completed, boolean success) {
+            corrected.recordValue(toMicros(completed - scheduled));
+            uncorrected.recordValue(toMicros(completed - sent));
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        void add(OperationStats other) {
+            corrected.add(other.corrected);
+            uncorrected.add(other.uncorrected);
+            errors.add(other.errors.sum());
+        }
+
+        void write(Path directory, String name) throws IOException {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")))) {
+                corrected.outputPercentileDistribution(out, 1000.0);
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + "-service.hgrm")))) {
+                uncorrected.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        private static long toMicros(long nanos) {
+            return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+        }
+    }
+}
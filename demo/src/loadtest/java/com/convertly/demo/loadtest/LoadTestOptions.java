@@ -0,0 +1,107 @@
+package com.convertly.demo.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, parsed from {@code --name=value} arguments.
+ *
+ * @param target base URL of a running application, or null to start one in-process
+ * @param rate requests started per second
+ * @param duration how long requests are recorded, after the warmup
+ * @param warmup how long requests are sent before recording starts
+ * @param poisson whether arrivals are exponentially spaced instead of evenly
+ * @param mix relative weight of each operation
+ * @param clients number of distinct client IDs the requests are spread over
+ * @param connections number of slow uploads held open for the whole run
+ * @param output directory the percentile distribution files are written to
+ */
+record LoadTestOptions(String target, double rate, Duration duration, Duration warmup, boolean poisson,
+                       Map<Operation, Integer> mix, int clients, int connections, Path output) {
+
+    static final String USAGE = """
+            Options:
+              --target=URL        base URL of a running application (default: start one in-process)
+              --rate=N            requests started per second (default: 200)
+              --duration=D        recorded duration, e.g. 30s or 5m (default: 30s)
+              --warmup=D          unrecorded warmup before the measurement (default: 10s)
+              --arrivals=A        uniform or poisson (default: uniform)
+              --mix=OP:W,...      operation weights; operations: convert, history, download, export
+                                  (default: convert:90,history:8,download:1,export:1)
+              --clients=N         distinct X-Client-Id values (default: 50)
+              --connections=N     slow history imports held open throughout, each occupying a
+                                  request thread unless requests run on virtual threads or the
+                                  reactive profile (default: 0)
+              --output=DIR        directory for .hgrm percentile files (default: target/loadtest)
+            Other arguments are passed to the in-process application, e.g. --convertly.export.max-jobs=256,
+            --spring.threads.virtual.enabled=true or --spring.profiles.active=reactive
+            """;
+
+    static LoadTestOptions parse(String[] args, Map<String, String> appArgs) {
+        String target = null;
+        double rate = 200;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        boolean poisson = false;
+        Map<Operation, Integer> mix = parseMix("convert:90,history:8,download:1,export:1");
+        int clients = 50;
+        int connections = 0;
+        Path output = Path.of("target", "loadtest");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "target" -> target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "rate" -> rate = Double.parseDouble(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "arrivals" -> poisson = switch (value) {
+                    case "uniform" -> false;
+                    case "poisson" -> true;
+                    default -> throw new IllegalArgumentException("Arrivals must be uniform or poisson: " + value);
+                };
+                case "mix" -> mix = parseMix(value);
+                case "clients" -> clients = Integer.parseInt(value);
+                case "connections" -> connections = Integer.parseInt(value);
+                case "output" -> output = Path.of(value);
+                default -> appArgs.put(name, value);
+            }
+        }
+        if (rate <= 0 || clients <= 0) {
+            throw new IllegalArgumentException("Rate and clients must be positive");
+        }
+        if (connections < 0) {
+            throw new IllegalArgumentException("Connections must not be negative");
+        }
+        return new LoadTestOptions(target, rate, duration, warmup, poisson, mix, clients, connections, output);
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be operation:weight: " + part);
+            }
+            int parsed = Integer.parseInt(weight[1].trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + part);
+            }
+            if (parsed > 0) {
+                mix.put(Operation.fromValue(weight[0].trim()), parsed);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain an operation with positive weight");
+        }
+        return mix;
+    }
+}
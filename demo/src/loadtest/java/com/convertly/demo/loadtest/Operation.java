@@ -0,0 +1,75 @@
+package com.convertly.demo.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Request types the load generator can send. Each completes with the HTTP status
+ * of its last response.
+ */
+enum Operation {
+
+    /**
+     * A random conversion, {@code POST /convert}.
+     */
+    CONVERT("convert") {
+        @Override
+        CompletableFuture<Integer> execute(LoadClient client, String clientId) {
+            return client.convert(clientId);
+        }
+    },
+
+    /**
+     * The client's history, {@code GET /history}.
+     */
+    HISTORY("history") {
+        @Override
+        CompletableFuture<Integer> execute(LoadClient client, String clientId) {
+            return client.get("/history", clientId);
+        }
+    },
+
+    /**
+     * The synchronous CSV export, {@code GET /history/download/csv}.
+     */
+    DOWNLOAD("download") {
+        @Override
+        CompletableFuture<Integer> execute(LoadClient client, String clientId) {
+            return client.get("/history/download/csv", clientId);
+        }
+    },
+
+    /**
+     * A background export from start to deletion: {@code POST /history/exports},
+     * polling until it completes, downloading the file and deleting it.
+     */
+    EXPORT("export") {
+        @Override
+        CompletableFuture<Integer> execute(LoadClient client, String clientId) {
+            return client.export(clientId);
+        }
+    };
+
+    private final String value;
+
+    Operation(String value) {
+        this.value = value;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    abstract CompletableFuture<Integer> execute(LoadClient client, String clientId);
+
+    static Operation fromValue(String value) {
+        for (Operation operation : values()) {
+            if (operation.value.equals(value.toLowerCase(Locale.ROOT))) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Invalid operation: " + value + ". Valid operations are: "
+                + String.join(", ", Arrays.stream(values()).map(Operation::getValue).toList()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.convertly.demo.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson customizations for the application's ObjectMapper.
+ *
+ * <p>Spring Boot registers every {@link Module} bean with the shared mapper. The
+ * Blackbird module binds model getters, setters and constructors through generated
+ * lambdas instead of reflection, which speeds up reading requests and writing
+ * responses without changing the JSON.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "convertly.json.blackbird", havingValue = "true")
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,23 @@
+package com.convertly.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves the reactive profile from Netty.
+ *
+ * <p>Tomcat stays on the classpath for the servlet stack, and Spring Boot would
+ * otherwise prefer it for a reactive application too; declaring the factory
+ * here selects Netty's event loops instead.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,12 @@
+package com.convertly.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled housekeeping tasks such as history partition eviction.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+package com.convertly.demo.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the application's own background pools.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} Spring Boot runs servlet
+ * requests, {@code @Async} tasks and scheduled tasks on virtual threads. Pools the
+ * application creates itself use {@link #threadFactory} to follow the same setting.
+ * Virtual threads need a Java 21 runtime; on an older one the setting is ignored
+ * and platform threads are used, as Spring Boot does.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether this runtime can create virtual threads.
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Creates a factory for threads named with the given prefix.
+     *
+     * @param prefix the thread name prefix, e.g. {@code "export-"}
+     * @param virtual whether virtual threads are wanted
+     * @return a virtual thread factory if wanted and supported, otherwise a platform one
+     */
+    public static ThreadFactory threadFactory(String prefix, boolean virtual) {
+        if (virtual && isSupported()) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        return new CustomizableThreadFactory(prefix);
+    }
+}
@@ -0,0 +1,95 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.service.ConversionHistoryService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the client key that selects a caller's history partition.
+ * Checks the client ID header, then the API key header, then an existing
+ * HTTP session, and falls back to a shared default partition. The application
+ * never starts a session itself, so without a header callers share that
+ * partition; it cannot be cleared.
+ */
+@Component
+public class ClientKeyResolver {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final String clientHeader;
+    private final String apiKeyHeader;
+
+    public ClientKeyResolver(
+            @Value("${convertly.history.client-header:X-Client-Id}") String clientHeader,
+            @Value("${convertly.history.api-key-header:X-API-Key}") String apiKeyHeader) {
+        this.clientHeader = clientHeader;
+        this.apiKeyHeader = apiKeyHeader;
+    }
+
+    /**
+     * Resolves the client key for a request.
+     *
+     * @param request the HTTP request
+     * @return the client key
+     */
+    public String resolve(HttpServletRequest request) {
+        String key = resolveHeaders(request.getHeader(clientHeader), request.getHeader(apiKeyHeader));
+        if (key != null) {
+            return key;
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "session:" + session.getId();
+        }
+        return ConversionHistoryService.DEFAULT_CLIENT;
+    }
+
+    /**
+     * Resolves the client key for a reactive request. The session is only
+     * looked up when neither header is usable.
+     *
+     * @param exchange the server exchange
+     * @return the client key
+     */
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String key = resolveHeaders(headers.getFirst(clientHeader), headers.getFirst(apiKeyHeader));
+        if (key != null) {
+            return Mono.just(key);
+        }
+        // A session that has not been started was created for this request, so it has no history
+        return exchange.getSession().map(session -> session.isStarted()
+                ? "session:" + session.getId()
+                : ConversionHistoryService.DEFAULT_CLIENT);
+    }
+
+    /**
+     * Tells whether a client key is the default partition shared by all callers
+     * without client identification.
+     *
+     * @param clientKey a resolved client key
+     * @return true for the shared partition
+     */
+    public static boolean isShared(String clientKey) {
+        return ConversionHistoryService.DEFAULT_CLIENT.equals(clientKey);
+    }
+
+    private static String resolveHeaders(String clientId, String apiKey) {
+        if (isUsable(clientId)) {
+            return "client:" + clientId.trim();
+        }
+        if (isUsable(apiKey)) {
+            return "key:" + apiKey.trim();
+        }
+        return null;
+    }
+
+    private static boolean isUsable(String value) {
+        return value != null && !value.isBlank() && value.length() <= MAX_KEY_LENGTH;
+    }
+}
@@ -1,9 +1,14 @@
 package com.convertly.demo.controller;
 
 import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ResponseView;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
 import com.convertly.demo.service.ConversionServiceManager;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
+import com.convertly.demo.validation.ConversionRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,26 +17,60 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * REST controller for unit conversion operations.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Unit Converter", description = "API for converting units across different measurement categories")
 public class ConverterController {
 
     private final ConversionServiceManager conversionServiceManager;
+    private final ClientKeyResolver clientKeyResolver;
+    private final ConversionRequestValidator conversionRequestValidator;
+    private final ObjectMapper objectMapper;
+    private final CacheControl metadataCacheControl;
+    private final Map<String, PrecomputedJson> metadataResponses = new ConcurrentHashMap<>();
 
     @Autowired
-    public ConverterController(ConversionServiceManager conversionServiceManager) {
+    public ConverterController(ConversionServiceManager conversionServiceManager,
+                               ClientKeyResolver clientKeyResolver,
+                               ConversionRequestValidator conversionRequestValidator,
+                               ObjectMapper objectMapper,
+                               @Value("${convertly.metadata.cache-max-age:1d}") Duration metadataMaxAge) {
         this.conversionServiceManager = conversionServiceManager;
+        this.clientKeyResolver = clientKeyResolver;
+        this.conversionRequestValidator = conversionRequestValidator;
+        this.objectMapper = objectMapper;
+        this.metadataCacheControl = CacheControl.maxAge(metadataMaxAge).cachePublic();
+    }
+
+    /**
+     * Validates conversion requests with {@link ConversionRequestValidator} in place of
+     * Bean Validation; {@code @Valid} still triggers it and reports failures the same way.
+     */
+    @InitBinder("conversionRequest")
+    public void initConversionRequestBinder(WebDataBinder binder) {
+        binder.setValidator(conversionRequestValidator);
     }
 
     /**
@@ -39,14 +78,17 @@ public class ConverterController {
      */
     @PostMapping("/convert")
     @Operation(summary = "Convert units", 
-               description = "Converts a value from one unit to another within a given category")
+               description = "Converts a value from one unit to another within a given category. " +
+                             "The compact view returns only the result and formula, the result view only the " +
+                             "result; they can also be requested by accepting " +
+                             "application/vnd.convertly.compact+json or application/vnd.convertly.result+json.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Conversion successful",
                     content = @Content(mediaType = "application/json",
                                      schema = @Schema(implementation = ConversionResponse.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input")
     })
-    public ResponseEntity<ConversionResponse> convert(
+    public ResponseEntity<MappingJacksonValue> convert(
             @Valid @RequestBody 
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "Conversion request payload",
@@ -77,10 +119,24 @@ public class ConverterController {
                     }
                 )
             )
-            ConversionRequest request) {
+            ConversionRequest request,
+            @Parameter(description = "How much of the conversion to return",
+                      schema = @Schema(allowableValues = {"full", "compact", "result"}))
+            @RequestParam(required = false) String view,
+            HttpServletRequest httpRequest) {
+        ResponseView responseView = ResponseViews.resolve(view, httpRequest);
+        // Validation has run since the body was bound
+        StageTimer.mark(Stage.VALIDATE);
         
-        ConversionResponse response = conversionServiceManager.convert(request);
-        return ResponseEntity.ok(response);
+        String clientId = clientKeyResolver.resolve(httpRequest);
+        ConversionResponse response = conversionServiceManager.convert(request, clientId);
+
+        // The view filters properties while serializing, so compact responses are not copied
+        MappingJacksonValue body = new MappingJacksonValue(response);
+        if (responseView != ResponseView.FULL) {
+            body.setSerializationView(responseView.getJsonView());
+        }
+        return ResponseEntity.ok(body);
     }
 
     /**
@@ -89,10 +145,14 @@ public class ConverterController {
     @GetMapping("/categories")
     @Operation(summary = "Get all categories", 
                description = "Returns a list of all available conversion categories")
-    @ApiResponse(responseCode = "200", description = "Categories retrieved successfully")
-    public ResponseEntity<List<String>> getCategories() {
-        List<String> categories = conversionServiceManager.getCategories();
-        return ResponseEntity.ok(categories);
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Categories retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Categories unchanged since the given ETag")
+    })
+    public ResponseEntity<byte[]> getCategories(WebRequest webRequest) {
+        PrecomputedJson categories = metadataResponses.computeIfAbsent("categories",
+                key -> PrecomputedJson.of(objectMapper, conversionServiceManager.getCategories()));
+        return metadataResponse(categories, webRequest);
     }
 
     /**
@@ -103,16 +163,38 @@ public class ConverterController {
                description = "Returns a list of all supported units for a given category")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Units retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Units unchanged since the given ETag"),
         @ApiResponse(responseCode = "400", description = "Invalid category")
     })
-    public ResponseEntity<List<String>> getUnits(
+    public ResponseEntity<byte[]> getUnits(
             @Parameter(description = "The category to get units for", 
                       example = "temperature",
                       schema = @Schema(allowableValues = {"temperature", "length", "weight", "time"}))
-            @RequestParam String category) {
+            @RequestParam String category,
+            WebRequest webRequest) {
         
-        List<String> units = conversionServiceManager.getUnitsForCategory(category);
-        return ResponseEntity.ok(units);
+        // Invalid categories throw before anything is cached, so the map stays bounded
+        String normalized = category.trim().toLowerCase(Locale.ROOT);
+        PrecomputedJson units = metadataResponses.computeIfAbsent("units:" + normalized,
+                key -> PrecomputedJson.of(objectMapper, conversionServiceManager.getUnitsForCategory(normalized)));
+        return metadataResponse(units, webRequest);
+    }
+
+    /**
+     * Sends a precomputed metadata response, or 304 if the caller already has it.
+     * Metadata only changes on redeploy, so responses may be cached for a long time.
+     * {@link WebRequest#checkNotModified(String)} also writes the ETag header.
+     */
+    private ResponseEntity<byte[]> metadataResponse(PrecomputedJson json, WebRequest webRequest) {
+        if (webRequest.checkNotModified(json.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(metadataCacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(metadataCacheControl)
+                .body(json.body());
     }
 
     /**
@@ -0,0 +1,114 @@
+package com.convertly.demo.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sends immutable files, with {@code sendfile} where the container supports it.
+ *
+ * <p>On Tomcat's NIO connector the file is handed to the container, which sends
+ * it with {@code sendfile} after the request returns, so the bytes never pass
+ * through the heap. Other containers get a plain copy: the file is read in chunks
+ * into the response's output stream on the request thread. A single byte range is
+ * honoured with {@code 206 Partial Content}; multiple ranges are answered with the
+ * whole file.
+ */
+final class FileDownloads {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileDownloads() {
+    }
+
+    /**
+     * Writes a file, or the requested byte range of it, to the response.
+     *
+     * @param file the file; must not change or be deleted while it may be downloaded,
+     *             which with sendfile is until after the request has returned
+     * @param contentType the media type of the file
+     * @param filename the name offered to the client
+     * @param etag the quoted entity tag of the file, checked against If-Range
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @throws IOException if the file cannot be read or the response written
+     */
+    static void send(Path file, String contentType, String filename, String etag,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count <= 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        // The output stream is not a file channel, so transferTo copies through a buffer
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (count > 0) {
+                long sent = channel.transferTo(position, count, out);
+                if (sent <= 0) {
+                    throw new IOException("File " + file + " is shorter than " + length + " bytes");
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+    }
+}
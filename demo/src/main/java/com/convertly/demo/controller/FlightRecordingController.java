@@ -0,0 +1,252 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.model.RecordingStatus;
+import com.convertly.demo.service.FlightRecordingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints to capture Java Flight Recorder recordings on demand.
+ *
+ * <p>Only registered when {@code convertly.jfr.enabled} is set, and every request
+ * must carry the configured admin token in the {@code X-Admin-Token} header.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/jfr/recordings")
+@ConditionalOnProperty(name = "convertly.jfr.enabled", havingValue = "true")
+@Tag(name = "Flight Recordings", description = "Admin API for on-demand Java Flight Recorder recordings")
+public class FlightRecordingController {
+
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final FlightRecordingService recordingService;
+    private final byte[] adminToken;
+
+    @Autowired
+    public FlightRecordingController(FlightRecordingService recordingService,
+                                     @Value("${convertly.jfr.admin-token:}") String adminToken) {
+        if (adminToken.isBlank()) {
+            throw new IllegalStateException("convertly.jfr.admin-token must be set when convertly.jfr.enabled is true");
+        }
+        this.recordingService = recordingService;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lists all recordings.
+     */
+    @GetMapping
+    @Operation(summary = "List recordings", description = "Returns all recordings that have not been deleted")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recordings retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = RecordingStatus.class)))),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong admin token")
+    })
+    public ResponseEntity<List<RecordingStatus>> getRecordings(HttpServletRequest httpRequest) {
+        if (!isAuthorized(httpRequest)) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(withDownloadUrls(recordingService.getRecordings()));
+    }
+
+    /**
+     * Starts a recording.
+     */
+    @PostMapping
+    @Operation(summary = "Start a recording",
+               description = "Starts a flight recording with a JDK settings profile and the application's " +
+                             "conversion and export events. It stops by itself after the duration.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Recording started",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RecordingStatus.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown profile or duration out of range"),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong admin token"),
+        @ApiResponse(responseCode = "503", description = "Too many recordings are kept; delete one first")
+    })
+    public ResponseEntity<RecordingStatus> startRecording(
+            @Parameter(description = "JFR settings profile: default (low overhead) or profile (more detail)",
+                    example = "profile")
+            @RequestParam(defaultValue = "default") String profile,
+            @Parameter(description = "How long to record, e.g. 60s or 5m", example = "60s")
+            @RequestParam(defaultValue = "60s") String duration,
+            HttpServletRequest httpRequest) {
+
+        if (!isAuthorized(httpRequest)) {
+            return unauthorized();
+        }
+        RecordingStatus status = recordingService.start(profile, DurationStyle.detectAndParse(duration));
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+        return ResponseEntity.created(URI.create("/admin/jfr/recordings/" + status.getId())).body(status);
+    }
+
+    /**
+     * Gets the status of a recording.
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get recording status",
+               description = "Returns the state of a recording, and its download URL once stopped")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recording found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RecordingStatus.class))),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong admin token"),
+        @ApiResponse(responseCode = "404", description = "Recording not found")
+    })
+    public ResponseEntity<RecordingStatus> getRecording(
+            @Parameter(description = "The recording ID")
+            @PathVariable long id,
+            HttpServletRequest httpRequest) {
+
+        if (!isAuthorized(httpRequest)) {
+            return unauthorized();
+        }
+        RecordingStatus status = recordingService.getRecording(id);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(withDownloadUrl(status));
+    }
+
+    /**
+     * Stops a recording early.
+     */
+    @PostMapping("/{id}/stop")
+    @Operation(summary = "Stop a recording",
+               description = "Stops a running recording and writes its file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recording stopped",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RecordingStatus.class))),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong admin token"),
+        @ApiResponse(responseCode = "404", description = "Recording not found")
+    })
+    public ResponseEntity<RecordingStatus> stopRecording(
+            @Parameter(description = "The recording ID")
+            @PathVariable long id,
+            HttpServletRequest httpRequest) {
+
+        if (!isAuthorized(httpRequest)) {
+            return unauthorized();
+        }
+        RecordingStatus status = recordingService.stop(id);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(withDownloadUrl(status));
+    }
+
+    /**
+     * Downloads the file of a stopped recording.
+     */
+    @GetMapping("/{id}/download")
+    @Operation(summary = "Download a recording",
+               description = "Sends the .jfr file of a stopped recording, for JDK Mission Control or the jfr tool. " +
+                             "Supports a single byte range (Range header).")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File sent"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range sent"),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong admin token"),
+        @ApiResponse(responseCode = "404", description = "Recording not found or still running"),
+        @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    })
+    public void downloadRecording(
+            @Parameter(description = "The recording ID")
+            @PathVariable long id,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) throws IOException {
+
+        if (!isAuthorized(httpRequest)) {
+            httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        Path file = recordingService.getRecordingFile(id);
+        if (file == null) {
+            httpResponse.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FileDownloads.send(file, "application/octet-stream", "convertly-" + id + ".jfr", "\"jfr-" + id + "\"",
+                httpRequest, httpResponse);
+    }
+
+    /**
+     * Deletes a recording and its file.
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a recording",
+               description = "Stops the recording if it is running and deletes its file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recording deleted"),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong admin token"),
+        @ApiResponse(responseCode = "404", description = "Recording not found")
+    })
+    public ResponseEntity<Map<String, String>> deleteRecording(
+            @Parameter(description = "The recording ID")
+            @PathVariable long id,
+            HttpServletRequest httpRequest) {
+
+        if (!isAuthorized(httpRequest)) {
+            return unauthorized();
+        }
+        if (!recordingService.delete(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("message", "Recording deleted successfully"));
+    }
+
+    /**
+     * Compares the admin token in constant time, so response times do not reveal
+     * how much of a guess was right.
+     */
+    private boolean isAuthorized(HttpServletRequest httpRequest) {
+        String token = httpRequest.getHeader(ADMIN_TOKEN_HEADER);
+        return token != null && MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> ResponseEntity<T> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    private static List<RecordingStatus> withDownloadUrls(List<RecordingStatus> statuses) {
+        statuses.forEach(FlightRecordingController::withDownloadUrl);
+        return statuses;
+    }
+
+    private static RecordingStatus withDownloadUrl(RecordingStatus status) {
+        if (status.getSizeBytes() != null) {
+            status.setDownloadUrl("/admin/jfr/recordings/" + status.getId() + "/download");
+        }
+        return status;
+    }
+}
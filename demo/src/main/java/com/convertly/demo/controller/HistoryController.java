@@ -1,37 +1,118 @@
 package com.convertly.demo.controller;
 
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.ExportState;
+import com.convertly.demo.enums.ResponseView;
+import com.convertly.demo.model.AggregateRow;
+import com.convertly.demo.history.HistorySnapshot;
+import com.convertly.demo.jfr.HistoryExportEvent;
+import com.convertly.demo.metrics.ExportMetrics;
 import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ExportJobStatus;
+import com.convertly.demo.model.HistoryChanges;
+import com.convertly.demo.model.ImportResult;
+import com.convertly.demo.model.QuantileSummary;
+import com.convertly.demo.service.ConversionFeedService;
 import com.convertly.demo.service.ConversionHistoryService;
+import com.convertly.demo.service.ConversionStatsService;
+import com.convertly.demo.service.HeavyHitterService;
+import com.convertly.demo.service.HistoryAggregationService;
+import com.convertly.demo.service.HistoryExportService;
+import com.convertly.demo.service.HistoryImportService;
+import com.convertly.demo.service.HistoryJsonCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST controller for conversion history operations.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/history")
 @Tag(name = "Conversion History", description = "API for managing conversion history")
 public class HistoryController {
 
+    static final String SEQUENCE_HEADER = "X-History-Sequence";
+
+    /**
+     * History is per client and changes with every conversion, so caches must
+     * revalidate it on every use.
+     */
+    static final CacheControl HISTORY_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    static final TypeReference<Map<String, String>> SKETCHES_TYPE = new TypeReference<>() {
+    };
+
+    static final String SHARED_HISTORY_MESSAGE =
+            "Requests without a client ID or API key share one history, which cannot be cleared";
+
     private final ConversionHistoryService historyService;
+    private final HeavyHitterService heavyHitterService;
+    private final ConversionStatsService statsService;
+    private final HistoryAggregationService aggregationService;
+    private final HistoryJsonCache historyJsonCache;
+    private final ConversionFeedService feedService;
+    private final HistoryExportService exportService;
+    private final HistoryImportService importService;
+    private final ExportMetrics exportMetrics;
+    private final ClientKeyResolver clientKeyResolver;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public HistoryController(ConversionHistoryService historyService) {
+    public HistoryController(ConversionHistoryService historyService,
+                             HeavyHitterService heavyHitterService,
+                             ConversionStatsService statsService,
+                             HistoryAggregationService aggregationService,
+                             HistoryJsonCache historyJsonCache,
+                             ConversionFeedService feedService,
+                             HistoryExportService exportService,
+                             HistoryImportService importService,
+                             ExportMetrics exportMetrics,
+                             ClientKeyResolver clientKeyResolver,
+                             ObjectMapper objectMapper) {
         this.historyService = historyService;
+        this.heavyHitterService = heavyHitterService;
+        this.statsService = statsService;
+        this.aggregationService = aggregationService;
+        this.historyJsonCache = historyJsonCache;
+        this.feedService = feedService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.exportMetrics = exportMetrics;
+        this.clientKeyResolver = clientKeyResolver;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -39,11 +120,88 @@ public class HistoryController {
      */
     @GetMapping
     @Operation(summary = "Get all conversion history", 
-               description = "Returns all conversion history entries stored in memory")
-    @ApiResponse(responseCode = "200", description = "History retrieved successfully")
-    public ResponseEntity<List<ConversionHistory>> getAllHistory() {
-        List<ConversionHistory> history = historyService.getAllHistory();
-        return ResponseEntity.ok(history);
+               description = "Returns all of the caller's conversion history entries stored in memory. " +
+                             "The compact and result views leave out the echoed request and status of each " +
+                             "response (and the formula, for result); they can also be requested by accepting " +
+                             "application/vnd.convertly.compact+json or application/vnd.convertly.result+json.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "History retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = ConversionHistory.class)))),
+        @ApiResponse(responseCode = "304", description = "History unchanged since the given ETag")
+    })
+    public ResponseEntity<StreamingResponseBody> getAllHistory(
+            @Parameter(description = "How much of each entry to return",
+                      schema = @Schema(allowableValues = {"full", "compact", "result"}))
+            @RequestParam(required = false) String view,
+            HttpServletRequest httpRequest,
+            WebRequest webRequest) {
+
+        ResponseView responseView = ResponseViews.resolve(view, httpRequest);
+        // Taking a snapshot only reads the current version; entries are read while streaming
+        HistorySnapshot history = historyService.getHistorySnapshot(clientKeyResolver.resolve(httpRequest));
+        String etag = historyETag(historyRepresentation("history", responseView), history.sequence());
+        if (webRequest.checkNotModified(etag)) {
+            return notModified();
+        }
+        return ResponseEntity.ok()
+                .contentType(ResponseViews.contentType(responseView, view))
+                .cacheControl(HISTORY_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(SEQUENCE_HEADER, String.valueOf(history.sequence()))
+                .body(out -> historyJsonCache.writeArray(history, responseView, out));
+    }
+
+    /**
+     * Gets the changes to the caller's history since a sequence number.
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "Get history changes", 
+               description = "Returns the inserts, evictions and clears after the given sequence number. " +
+                             "If resync is true the changes are no longer available: reload GET /history and " +
+                             "continue from its " + SEQUENCE_HEADER + " header.")
+    @ApiResponse(responseCode = "200", description = "Changes retrieved successfully")
+    public ResponseEntity<HistoryChanges> getHistoryChanges(
+            @Parameter(description = "Last sequence number applied by the client", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            HttpServletRequest httpRequest) {
+        
+        return ResponseEntity.ok(historyService.getChangesSince(clientKeyResolver.resolve(httpRequest), since));
+    }
+
+    /**
+     * Streams the caller's conversions as they are recorded.
+     */
+    @GetMapping("/feed")
+    @Operation(summary = "Live conversion feed", 
+               description = "Server-Sent Events stream of the caller's conversions recorded from now on. " +
+                             "Each conversion is a 'conversion' event with the history entry as JSON. " +
+                             "A subscriber that falls behind loses its oldest buffered conversions and receives " +
+                             "a 'dropped' event with the number lost.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Feed opened",
+                    content = @Content(mediaType = "text/event-stream")),
+        @ApiResponse(responseCode = "400", description = "Invalid category"),
+        @ApiResponse(responseCode = "503", description = "Too many open feeds")
+    })
+    public ResponseEntity<SseEmitter> getFeed(
+            @Parameter(description = "Only stream these categories", example = "temperature,length")
+            @RequestParam(defaultValue = "") List<String> category,
+            HttpServletRequest httpRequest) {
+        
+        Set<Category> categories = EnumSet.noneOf(Category.class);
+        for (String value : category) {
+            if (!value.isBlank()) {
+                categories.add(Category.fromValue(value));
+            }
+        }
+        SseEmitter emitter = feedService.subscribe(clientKeyResolver.resolve(httpRequest), categories);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
     }
 
     /**
@@ -53,18 +211,28 @@ public class HistoryController {
     @Operation(summary = "Get conversion history by ID", 
                description = "Returns a specific conversion history entry by its ID")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "History entry found"),
+        @ApiResponse(responseCode = "200", description = "History entry found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ConversionHistory.class))),
         @ApiResponse(responseCode = "404", description = "History entry not found")
     })
-    public ResponseEntity<ConversionHistory> getHistoryById(
+    public ResponseEntity<byte[]> getHistoryById(
             @Parameter(description = "The history entry ID")
-            @PathVariable String id) {
+            @PathVariable String id,
+            @Parameter(description = "How much of the entry to return",
+                      schema = @Schema(allowableValues = {"full", "compact", "result"}))
+            @RequestParam(required = false) String view,
+            HttpServletRequest httpRequest) {
         
-        ConversionHistory history = historyService.getHistoryById(id);
+        ResponseView responseView = ResponseViews.resolve(view, httpRequest);
+        ConversionHistory history = historyService.getHistoryById(clientKeyResolver.resolve(httpRequest), id);
         if (history == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(history);
+        return ResponseEntity.ok()
+                .contentType(ResponseViews.contentType(responseView, view))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(historyJsonCache.toJson(history, responseView));
     }
 
     /**
@@ -73,12 +241,150 @@ public class HistoryController {
     @GetMapping("/stats")
     @Operation(summary = "Get history statistics", 
                description = "Returns statistics about the conversion history")
-    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
-    public ResponseEntity<Map<String, Object>> getHistoryStats() {
-        int count = historyService.getHistoryCount();
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Statistics unchanged since the given ETag")
+    })
+    public ResponseEntity<Map<String, Object>> getHistoryStats(HttpServletRequest httpRequest, WebRequest webRequest) {
+        String clientId = clientKeyResolver.resolve(httpRequest);
+        String etag = historyETag("stats", historyService.getHistoryVersion(clientId));
+        if (webRequest.checkNotModified(etag)) {
+            return notModified();
+        }
+        int count = historyService.getHistoryCount(clientId);
+        return ResponseEntity.ok()
+                .cacheControl(HISTORY_CACHE_CONTROL)
+                .body(Map.of(
+                        "totalConversions", count,
+                        "status", count > 0 ? "History available" : "No conversions yet"
+                ));
+    }
+
+    /**
+     * Gets how history is split between live objects and compressed blocks.
+     */
+    @GetMapping("/stats/storage")
+    @Operation(summary = "Get history storage statistics", 
+               description = "Returns the number of hot (live) and cold (compressed) history entries " +
+                             "and the encoded size of the cold blocks, across all clients. " +
+                             "hotJsonBytes is the size of cached JSON bytes, which are held in " +
+                             "addition to the hot entry objects")
+    @ApiResponse(responseCode = "200", description = "Storage statistics retrieved successfully")
+    public ResponseEntity<Map<String, Long>> getStorageStats() {
+        return ResponseEntity.ok(historyService.getTierStats());
+    }
+
+    /**
+     * Gets approximate quantiles of input and result values.
+     */
+    @GetMapping("/stats/quantiles")
+    @Operation(summary = "Get value quantiles", 
+               description = "Returns approximate min/p50/p90/p99/max of input and result values " +
+                             "per category and unit pair, from streaming sketches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Quantiles retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid category or units")
+    })
+    public ResponseEntity<List<QuantileSummary>> getQuantiles(
+            @Parameter(description = "Restrict to a category", example = "temperature")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Restrict to a source unit (requires category and toUnit)", example = "celsius")
+            @RequestParam(required = false) String fromUnit,
+            @Parameter(description = "Restrict to a target unit (requires category and fromUnit)", example = "fahrenheit")
+            @RequestParam(required = false) String toUnit) {
+        
+        return ResponseEntity.ok(statsService.getQuantiles(category, fromUnit, toUnit));
+    }
+
+    /**
+     * Exports the quantile sketches in serialized form.
+     */
+    @GetMapping("/stats/sketches")
+    @Operation(summary = "Export quantile sketches", 
+               description = "Returns the serialized (Base64) quantile sketches so another node can merge them")
+    @ApiResponse(responseCode = "200", description = "Sketches exported successfully")
+    public ResponseEntity<Map<String, String>> exportSketches() {
+        return ResponseEntity.ok(statsService.exportSketches());
+    }
+
+    /**
+     * Merges quantile sketches exported by another node. Merged sketches change the
+     * statistics of every client, so only callers with the merge token may send them,
+     * and the body is refused unread when it is too large.
+     */
+    @PostMapping("/stats/sketches")
+    @Operation(summary = "Merge quantile sketches", 
+               description = "Merges serialized quantile sketches exported by another node into this node's " +
+                             "sketches. Requires convertly.stats.merge-token, sent in the X-Admin-Token header.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sketches merged successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown key, malformed sketch or too many keys"),
+        @ApiResponse(responseCode = "401", description = "Missing or wrong merge token"),
+        @ApiResponse(responseCode = "404", description = "Merging is not enabled"),
+        @ApiResponse(responseCode = "413", description = "Body larger than convertly.stats.max-merge-bytes")
+    })
+    public ResponseEntity<Map<String, Object>> mergeSketches(HttpServletRequest httpRequest) throws IOException {
+        if (!statsService.isMergeEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!statsService.isMergeAuthorized(httpRequest.getHeader(FlightRecordingController.ADMIN_TOKEN_HEADER))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        int maxBytes = statsService.getMaxMergeBytes();
+        if (httpRequest.getContentLengthLong() > maxBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        byte[] body = httpRequest.getInputStream().readNBytes(maxBytes + 1);
+        if (body.length > maxBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        int merged = statsService.mergeSketches(readSketches(objectMapper, body));
+        return ResponseEntity.ok(Map.of("merged", merged));
+    }
+
+    /**
+     * Runs a group-by aggregation over the history of all clients.
+     */
+    @GetMapping("/aggregate")
+    @Operation(summary = "Aggregate history", 
+               description = "Groups the history of all clients by category, units and/or time bucket and returns " +
+                             "count, sum, min, max and average of the input or result values")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Aggregation completed successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown dimension or field, or invalid bucket")
+    })
+    public ResponseEntity<List<AggregateRow>> aggregateHistory(
+            @Parameter(description = "Dimensions to group by: category, fromUnit, toUnit, time", example = "fromUnit,time")
+            @RequestParam(defaultValue = "") List<String> groupBy,
+            @Parameter(description = "Time bucket width when grouping by time", example = "1h")
+            @RequestParam(defaultValue = "1h") String bucket,
+            @Parameter(description = "Value to aggregate: input or result", example = "input")
+            @RequestParam(defaultValue = "input") String field) {
+        
+        List<HistoryAggregationService.Dimension> dimensions = groupBy.stream()
+                .filter(dimension -> !dimension.isBlank())
+                .map(HistoryAggregationService.Dimension::fromValue)
+                .toList();
+        return ResponseEntity.ok(aggregationService.aggregate(dimensions, DurationStyle.detectAndParse(bucket),
+                HistoryAggregationService.Field.fromValue(field)));
+    }
+
+    /**
+     * Gets the most frequent unit pairs and input values.
+     */
+    @GetMapping("/top")
+    @Operation(summary = "Get most frequent conversions", 
+               description = "Returns the most frequent unit pairs and input values over the recent time windows. " +
+                             "Counts are approximate upper bounds from a fixed-size sketch.")
+    @ApiResponse(responseCode = "200", description = "Top entries retrieved successfully")
+    public ResponseEntity<Map<String, Object>> getTopConversions(
+            @Parameter(description = "Maximum number of entries per list", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        
         return ResponseEntity.ok(Map.of(
-                "totalConversions", count,
-                "status", count > 0 ? "History available" : "No conversions yet"
+                "windowSeconds", heavyHitterService.getWindowSpan().toSeconds(),
+                "unitPairs", heavyHitterService.getTopUnitPairs(limit),
+                "inputValues", heavyHitterService.getTopInputValues(limit)
         ));
     }
 
@@ -88,10 +394,18 @@ public class HistoryController {
     @GetMapping("/download/json")
     @Operation(summary = "Download history as JSON", 
                description = "Downloads all conversion history as a JSON file")
-    @ApiResponse(responseCode = "200", description = "JSON file generated successfully",
-                content = @Content(mediaType = "application/json"))
-    public ResponseEntity<List<ConversionHistory>> downloadHistoryAsJson() {
-        List<ConversionHistory> history = historyService.getAllHistory();
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "JSON file generated successfully",
+                    content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "304", description = "History unchanged since the given ETag")
+    })
+    public ResponseEntity<StreamingResponseBody> downloadHistoryAsJson(HttpServletRequest httpRequest,
+                                                                       WebRequest webRequest) {
+        HistorySnapshot history = historyService.getHistorySnapshot(clientKeyResolver.resolve(httpRequest));
+        String etag = historyETag("json", history.sequence());
+        if (webRequest.checkNotModified(etag)) {
+            return notModified();
+        }
         
         HttpHeaders headers = new HttpHeaders();
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=conversion-history.json");
@@ -99,7 +413,18 @@ public class HistoryController {
         
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(history);
+                .cacheControl(HISTORY_CACHE_CONTROL)
+                .body(out -> {
+                    HistoryExportEvent event = new HistoryExportEvent();
+                    event.begin();
+                    long start = System.nanoTime();
+                    long bytes = -1;
+                    try {
+                        bytes = historyJsonCache.writeArray(history, out);
+                    } finally {
+                        recordDownload(exportMetrics, ExportFormat.JSON, history.size(), bytes, start, event);
+                    }
+                });
     }
 
     /**
@@ -111,11 +436,25 @@ public class HistoryController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "CSV file generated successfully",
                     content = @Content(mediaType = "text/csv")),
+        @ApiResponse(responseCode = "304", description = "History unchanged since the given ETag"),
         @ApiResponse(responseCode = "500", description = "Error generating CSV file")
     })
-    public ResponseEntity<String> downloadHistoryAsCSV() {
+    public ResponseEntity<String> downloadHistoryAsCSV(HttpServletRequest httpRequest, WebRequest webRequest) {
+        String clientId = clientKeyResolver.resolve(httpRequest);
+        // Read before exporting, so the tag is never newer than the content
+        String etag = historyETag("csv", historyService.getHistoryVersion(clientId));
+        if (webRequest.checkNotModified(etag)) {
+            return notModified();
+        }
+        HistoryExportEvent event = new HistoryExportEvent();
+        event.begin();
+        long start = System.nanoTime();
+        HistorySnapshot history = historyService.getHistorySnapshot(clientId);
         try {
-            String csvContent = historyService.exportHistoryAsCSV();
+            StringWriter writer = new StringWriter();
+            historyService.writeHistoryAsCSV(history, writer);
+            String csvContent = writer.toString();
+            recordDownload(exportMetrics, ExportFormat.CSV, history.size(), utf8Length(csvContent), start, event);
             
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=conversion-history.csv");
@@ -123,22 +462,256 @@ public class HistoryController {
             
             return ResponseEntity.ok()
                     .headers(headers)
+                    .cacheControl(HISTORY_CACHE_CONTROL)
                     .body(csvContent);
         } catch (IOException e) {
+            recordDownload(exportMetrics, ExportFormat.CSV, history.size(), -1, start, event);
             return ResponseEntity.internalServerError()
                     .body("Error generating CSV file: " + e.getMessage());
         }
     }
 
+    /**
+     * Starts exporting the caller's history to a file in the background.
+     */
+    @PostMapping("/exports")
+    @Operation(summary = "Start a history export", 
+               description = "Snapshots the caller's history and writes it to a CSV or JSON file in the background. " +
+                             "Poll the returned Location for progress and download the file once completed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Export started",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExportJobStatus.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid format"),
+        @ApiResponse(responseCode = "503", description = "Too many exports retained")
+    })
+    public ResponseEntity<ExportJobStatus> startExport(
+            @Parameter(description = "File format: csv or json", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest httpRequest) {
+        
+        ExportJobStatus status = exportService.startExport(clientKeyResolver.resolve(httpRequest),
+                ExportFormat.fromValue(format));
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/history/exports/" + status.getId()))
+                .body(status);
+    }
+
+    /**
+     * Gets the progress of one of the caller's exports.
+     */
+    @GetMapping("/exports/{exportId}")
+    @Operation(summary = "Get export status", 
+               description = "Returns the state and progress of an export, and its download URL once completed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExportJobStatus.class))),
+        @ApiResponse(responseCode = "404", description = "Export not found or expired")
+    })
+    public ResponseEntity<ExportJobStatus> getExport(
+            @Parameter(description = "The export ID")
+            @PathVariable String exportId,
+            HttpServletRequest httpRequest) {
+        
+        ExportJobStatus status = exportService.getExport(clientKeyResolver.resolve(httpRequest), exportId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (status.getState() == ExportState.COMPLETED) {
+            status.setDownloadUrl("/history/exports/" + exportId + "/download");
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Downloads the file of a completed export.
+     */
+    @GetMapping("/exports/{exportId}/download")
+    @Operation(summary = "Download an export", 
+               description = "Sends the finished export file. Supports a single byte range (Range header) " +
+                             "so interrupted downloads can be resumed.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File sent"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range sent"),
+        @ApiResponse(responseCode = "404", description = "Export not found, expired or not completed"),
+        @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    })
+    public void downloadExport(
+            @Parameter(description = "The export ID")
+            @PathVariable String exportId,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) throws IOException {
+        
+        String clientId = clientKeyResolver.resolve(httpRequest);
+        try (HistoryExportService.ExportFile export = exportService.openExportFile(clientId, exportId)) {
+            if (export == null) {
+                httpResponse.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            FileDownloads.send(export.getPath(), export.getFormat().getContentType(),
+                    "conversion-history." + export.getFormat().getValue(), "\"" + exportId + "\"",
+                    httpRequest, httpResponse);
+        }
+    }
+
+    /**
+     * Cancels one of the caller's exports and deletes its file.
+     */
+    @DeleteMapping("/exports/{exportId}")
+    @Operation(summary = "Delete an export", 
+               description = "Cancels the export if it is still running and deletes its file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export deleted"),
+        @ApiResponse(responseCode = "404", description = "Export not found or expired")
+    })
+    public ResponseEntity<Map<String, String>> deleteExport(
+            @Parameter(description = "The export ID")
+            @PathVariable String exportId,
+            HttpServletRequest httpRequest) {
+        
+        if (!exportService.deleteExport(clientKeyResolver.resolve(httpRequest), exportId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("message", "Export deleted successfully"));
+    }
+
+    /**
+     * Appends the entries of an exported file to the caller's history.
+     */
+    @PostMapping("/import")
+    @Operation(summary = "Import history", 
+               description = "Appends the entries of a CSV or JSON file produced by the history export, sent as " +
+                             "the request body, to the caller's history. Invalid rows are skipped; with dedupe, " +
+                             "rows whose ID is already present are skipped too. Only the newest entries up to the " +
+                             "per-client maximum are kept.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "History imported",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportResult.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid format or malformed file")
+    })
+    public ResponseEntity<ImportResult> importHistory(
+            @Parameter(description = "File format: csv or json", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Skip rows whose ID is already in the history or earlier in the file")
+            @RequestParam(defaultValue = "false") boolean dedupe,
+            HttpServletRequest httpRequest) throws IOException {
+        
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        ImportResult result = importService.importHistory(clientKeyResolver.resolve(httpRequest),
+                exportFormat, httpRequest.getInputStream(), dedupe);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Clears all conversion history.
+     * Callers without a client ID share one history, so they may not clear it.
      */
     @DeleteMapping
     @Operation(summary = "Clear all history", 
-               description = "Clears all conversion history entries")
+               description = "Clears all of the caller's conversion history entries")
     @ApiResponse(responseCode = "200", description = "History cleared successfully")
-    public ResponseEntity<Map<String, String>> clearHistory() {
-        historyService.clearHistory();
+    @ApiResponse(responseCode = "403", description = "The caller sent no client ID or API key")
+    public ResponseEntity<Map<String, String>> clearHistory(HttpServletRequest httpRequest) {
+        String clientId = clientKeyResolver.resolve(httpRequest);
+        if (ClientKeyResolver.isShared(clientId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", SHARED_HISTORY_MESSAGE));
+        }
+        historyService.clearHistory(clientId);
         return ResponseEntity.ok(Map.of("message", "Conversion history cleared successfully"));
     }
+
+    /**
+     * Names the representation of a history resource in a view, so each view has its own ETag.
+     */
+    static String historyRepresentation(String resource, ResponseView view) {
+        return view == ResponseView.FULL ? resource : resource + "-" + view.getValue();
+    }
+
+    /**
+     * Builds a strong ETag for one representation of a client's history. History
+     * versions are sequence numbers unique across all clients and carry the epoch
+     * of the run that issued them, so the tag changes whenever the content does,
+     * including across restarts.
+     */
+    static String historyETag(String representation, long version) {
+        return "\"" + representation + "-" + version + "\"";
+    }
+
+    /**
+     * Reads a merge request body: a JSON object of key to Base64-encoded sketch.
+     *
+     * @throws IllegalArgumentException if the body is not such an object
+     */
+    static Map<String, String> readSketches(ObjectMapper objectMapper, byte[] body) {
+        Map<String, String> sketches;
+        try {
+            sketches = objectMapper.readValue(body, SKETCHES_TYPE);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed sketches: " + (e instanceof JsonProcessingException json
+                    ? json.getOriginalMessage() : e.getMessage()), e);
+        }
+        if (sketches == null) {
+            throw new IllegalArgumentException("Malformed sketches: expected a JSON object");
+        }
+        return sketches;
+    }
+
+    /**
+     * Builds the 304 response. {@link WebRequest#checkNotModified(String)} has
+     * already written the ETag header, for unchanged and changed content alike.
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(HISTORY_CACHE_CONTROL)
+                .build();
+    }
+
+    /**
+     * Records a streamed download in the export metrics and, while a flight
+     * recording is running, as a {@link HistoryExportEvent}.
+     *
+     * @param bytes the size written, or -1 if the download failed
+     */
+    static void recordDownload(ExportMetrics exportMetrics, ExportFormat format, int entries, long bytes,
+                               long startNanos, HistoryExportEvent event) {
+        if (bytes < 0) {
+            exportMetrics.recordFailedExport(format, ExportMetrics.Mode.DOWNLOAD, System.nanoTime() - startNanos);
+        } else {
+            exportMetrics.recordExport(format, ExportMetrics.Mode.DOWNLOAD, System.nanoTime() - startNanos, bytes);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = format.getValue();
+            event.mode = "download";
+            event.valueCount = entries;
+            event.bytes = Math.max(bytes, 0);
+            event.success = bytes >= 0;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts the bytes a string takes as UTF-8, the charset text responses are
+     * written in, without encoding it a second time.
+     */
+    private static long utf8Length(String text) {
+        long length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800) {
+                // Three bytes, or four for a surrogate pair whose two chars already count two
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
 }
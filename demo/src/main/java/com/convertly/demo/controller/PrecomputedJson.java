@@ -0,0 +1,32 @@
+package com.convertly.demo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+
+/**
+ * A JSON response body serialized once, with a strong ETag derived from its bytes.
+ *
+ * @param body the UTF-8 JSON bytes
+ * @param etag the quoted entity tag
+ */
+record PrecomputedJson(byte[] body, String etag) {
+
+    /**
+     * Serializes a value.
+     *
+     * @param objectMapper the mapper to serialize with
+     * @param value the value
+     * @return the serialized body and its ETag
+     */
+    static PrecomputedJson of(ObjectMapper objectMapper, Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new PrecomputedJson(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ResponseView;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.service.ConversionServiceManager;
+import com.convertly.demo.validation.ConversionRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reactive variant of {@link ConverterController} for the {@code reactive} profile,
+ * with the same paths, parameters and responses.
+ *
+ * <p>Once the request body has been read, the conversion moves to the bounded elastic
+ * scheduler. Recording it takes the client's history lock, which another request
+ * for the same client, an import or a block being written to disk may hold, and an
+ * event loop thread must not wait for it.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConverterController {
+
+    private final ConversionServiceManager conversionServiceManager;
+    private final ClientKeyResolver clientKeyResolver;
+    private final ConversionRequestValidator conversionRequestValidator;
+    private final ObjectMapper objectMapper;
+    private final CacheControl metadataCacheControl;
+    private final Map<String, PrecomputedJson> metadataResponses = new ConcurrentHashMap<>();
+    private final Scheduler conversionScheduler;
+
+    @Autowired
+    public ReactiveConverterController(ConversionServiceManager conversionServiceManager,
+                                       ClientKeyResolver clientKeyResolver,
+                                       ConversionRequestValidator conversionRequestValidator,
+                                       ObjectMapper objectMapper,
+                                       @Value("${convertly.metadata.cache-max-age:1d}") Duration metadataMaxAge) {
+        this.conversionServiceManager = conversionServiceManager;
+        this.clientKeyResolver = clientKeyResolver;
+        this.conversionRequestValidator = conversionRequestValidator;
+        this.objectMapper = objectMapper;
+        this.metadataCacheControl = CacheControl.maxAge(metadataMaxAge).cachePublic();
+        this.conversionScheduler = Schedulers.boundedElastic();
+    }
+
+    /**
+     * Validates conversion requests with {@link ConversionRequestValidator} in place of
+     * Bean Validation. The binder of a {@code Mono} body is named after the body type
+     * with a {@code Mono} suffix.
+     */
+    @InitBinder("conversionRequestMono")
+    public void initConversionRequestBinder(WebDataBinder binder) {
+        binder.setValidator(conversionRequestValidator);
+    }
+
+    /**
+     * Converts a value from one unit to another within a given category.
+     */
+    @PostMapping("/convert")
+    public Mono<MappingJacksonValue> convert(@Valid @RequestBody Mono<ConversionRequest> conversionRequest,
+                                             @RequestParam(required = false) String view,
+                                             ServerWebExchange exchange) {
+        ResponseView responseView = ResponseViews.resolve(view, exchange.getRequest());
+        return clientKeyResolver.resolve(exchange)
+                .zipWith(conversionRequest)
+                .publishOn(conversionScheduler)
+                .map(request -> {
+                    MappingJacksonValue body = new MappingJacksonValue(
+                            conversionServiceManager.convert(request.getT2(), request.getT1()));
+                    if (responseView != ResponseView.FULL) {
+                        body.setSerializationView(responseView.getJsonView());
+                    }
+                    return body;
+                });
+    }
+
+    /**
+     * Returns a list of all available conversion categories.
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<byte[]> getCategories(ServerWebExchange exchange) {
+        PrecomputedJson categories = metadataResponses.computeIfAbsent("categories",
+                key -> PrecomputedJson.of(objectMapper, conversionServiceManager.getCategories()));
+        return metadataResponse(categories, exchange);
+    }
+
+    /**
+     * Returns a list of all supported units for a given category.
+     */
+    @GetMapping("/units")
+    public ResponseEntity<byte[]> getUnits(@RequestParam String category, ServerWebExchange exchange) {
+        // Invalid categories throw before anything is cached, so the map stays bounded
+        String normalized = category.trim().toLowerCase(Locale.ROOT);
+        PrecomputedJson units = metadataResponses.computeIfAbsent("units:" + normalized,
+                key -> PrecomputedJson.of(objectMapper, conversionServiceManager.getUnitsForCategory(normalized)));
+        return metadataResponse(units, exchange);
+    }
+
+    /**
+     * Sends a precomputed metadata response, or 304 if the caller already has it.
+     * {@link ServerWebExchange#checkNotModified(String)} also writes the ETag header.
+     */
+    private ResponseEntity<byte[]> metadataResponse(PrecomputedJson json, ServerWebExchange exchange) {
+        if (exchange.checkNotModified(json.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(metadataCacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(metadataCacheControl)
+                .body(json.body());
+    }
+
+    /**
+     * Returns a sample request body for the /convert endpoint.
+     */
+    @GetMapping("/sample-payload")
+    public ConversionRequest getSamplePayload() {
+        return new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 100.0);
+    }
+
+    /**
+     * Simple health check endpoint.
+     */
+    @GetMapping("/health")
+    public Map<String, String> health() {
+        return Map.of("status", "Unit Converter API is up and running");
+    }
+}
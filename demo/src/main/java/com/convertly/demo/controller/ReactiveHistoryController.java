@@ -0,0 +1,564 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.ExportState;
+import com.convertly.demo.enums.ResponseView;
+import com.convertly.demo.history.HistorySnapshot;
+import com.convertly.demo.jfr.HistoryExportEvent;
+import com.convertly.demo.metrics.ExportMetrics;
+import com.convertly.demo.model.AggregateRow;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ExportJobStatus;
+import com.convertly.demo.model.HistoryChanges;
+import com.convertly.demo.model.ImportResult;
+import com.convertly.demo.model.QuantileSummary;
+import com.convertly.demo.service.ConversionFeedService;
+import com.convertly.demo.service.ConversionHistoryService;
+import com.convertly.demo.service.ConversionStatsService;
+import com.convertly.demo.service.HeavyHitterService;
+import com.convertly.demo.service.HistoryAggregationService;
+import com.convertly.demo.service.HistoryExportService;
+import com.convertly.demo.service.HistoryImportService;
+import com.convertly.demo.service.HistoryJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.Connection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive variant of {@link HistoryController} for the {@code reactive} profile,
+ * with the same paths, parameters, caching headers and responses.
+ *
+ * <p>Nothing blocks an event loop thread. History is streamed entry by entry as the
+ * connection asks for more, as a JSON array or, for clients accepting
+ * {@code application/x-ndjson}, one entry per line. Reading history only touches
+ * memory unless sealed blocks are kept on disk, in which case it moves to the
+ * bounded elastic scheduler, as do aggregation and imports. An import body is
+ * spooled to a temporary file first, so a slow upload holds no thread.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/history")
+public class ReactiveHistoryController {
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_SEPARATOR = {','};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+    private static final byte[] LINE_END = {'\n'};
+
+    private final ConversionHistoryService historyService;
+    private final HeavyHitterService heavyHitterService;
+    private final ConversionStatsService statsService;
+    private final HistoryAggregationService aggregationService;
+    private final HistoryJsonCache historyJsonCache;
+    private final ConversionFeedService feedService;
+    private final HistoryExportService exportService;
+    private final HistoryImportService importService;
+    private final ExportMetrics exportMetrics;
+    private final ClientKeyResolver clientKeyResolver;
+    private final ObjectMapper objectMapper;
+    private final Scheduler historyScheduler;
+
+    @Autowired
+    public ReactiveHistoryController(ConversionHistoryService historyService,
+                                     HeavyHitterService heavyHitterService,
+                                     ConversionStatsService statsService,
+                                     HistoryAggregationService aggregationService,
+                                     HistoryJsonCache historyJsonCache,
+                                     ConversionFeedService feedService,
+                                     HistoryExportService exportService,
+                                     HistoryImportService importService,
+                                     ExportMetrics exportMetrics,
+                                     ClientKeyResolver clientKeyResolver,
+                                     ObjectMapper objectMapper,
+                                     @Value("${convertly.history.cold-directory:}") String coldDirectory) {
+        this.historyService = historyService;
+        this.heavyHitterService = heavyHitterService;
+        this.statsService = statsService;
+        this.aggregationService = aggregationService;
+        this.historyJsonCache = historyJsonCache;
+        this.feedService = feedService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.exportMetrics = exportMetrics;
+        this.clientKeyResolver = clientKeyResolver;
+        this.objectMapper = objectMapper;
+        // Sealed blocks in memory are decoded on the spot; on disk they are read with blocking I/O
+        this.historyScheduler = coldDirectory.isBlank() ? Schedulers.immediate() : Schedulers.boundedElastic();
+    }
+
+    /**
+     * Streams all of the caller's conversion history entries.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllHistory(@RequestParam(required = false) String view,
+                                                                ServerWebExchange exchange) {
+        ResponseView responseView = ResponseViews.resolve(view, exchange.getRequest());
+        boolean ndjson = acceptsNdjson(exchange);
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            // Taking a snapshot only reads the current version; entries are read while streaming
+            HistorySnapshot history = historyService.getHistorySnapshot(clientId);
+            String representation = HistoryController.historyRepresentation(ndjson ? "history-ndjson" : "history",
+                    responseView);
+            if (exchange.checkNotModified(HistoryController.historyETag(representation, history.sequence()))) {
+                return notModified();
+            }
+            DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+            return ResponseEntity.ok()
+                    .contentType(ndjson ? MediaType.APPLICATION_NDJSON : ResponseViews.contentType(responseView, view))
+                    .cacheControl(HistoryController.HISTORY_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(HistoryController.SEQUENCE_HEADER, String.valueOf(history.sequence()))
+                    .body(ndjson ? jsonLines(history, responseView, bufferFactory)
+                            : jsonArray(history, responseView, bufferFactory, null));
+        });
+    }
+
+    /**
+     * Gets the changes to the caller's history since a sequence number.
+     */
+    @GetMapping("/changes")
+    public Mono<HistoryChanges> getHistoryChanges(@RequestParam(defaultValue = "0") long since,
+                                                  ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> historyService.getChangesSince(clientId, since));
+    }
+
+    /**
+     * Streams the caller's conversions as they are recorded, as Server-Sent Events.
+     */
+    @GetMapping("/feed")
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> getFeed(
+            @RequestParam(defaultValue = "") List<String> category, ServerWebExchange exchange) {
+        Set<Category> categories = EnumSet.noneOf(Category.class);
+        for (String value : category) {
+            if (!value.isBlank()) {
+                categories.add(Category.fromValue(value));
+            }
+        }
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            Flux<ServerSentEvent<String>> feed = feedService.stream(clientId, categories);
+            if (feed == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .<Flux<ServerSentEvent<String>>>build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_EVENT_STREAM)
+                    .body(feed);
+        });
+    }
+
+    /**
+     * Gets a specific conversion history entry by ID.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> getHistoryById(@PathVariable String id,
+                                                       @RequestParam(required = false) String view,
+                                                       ServerWebExchange exchange) {
+        ResponseView responseView = ResponseViews.resolve(view, exchange.getRequest());
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            ConversionHistory history = historyService.getHistoryById(clientId, id);
+            if (history == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(ResponseViews.contentType(responseView, view))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(historyJsonCache.toJson(history, responseView));
+        });
+    }
+
+    /**
+     * Gets conversion history statistics.
+     */
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<Map<String, Object>>> getHistoryStats(ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            String etag = HistoryController.historyETag("stats", historyService.getHistoryVersion(clientId));
+            if (exchange.checkNotModified(etag)) {
+                return notModified();
+            }
+            int count = historyService.getHistoryCount(clientId);
+            return ResponseEntity.ok()
+                    .cacheControl(HistoryController.HISTORY_CACHE_CONTROL)
+                    .body(Map.of(
+                            "totalConversions", count,
+                            "status", count > 0 ? "History available" : "No conversions yet"
+                    ));
+        });
+    }
+
+    /**
+     * Gets how history is split between live objects and compressed blocks.
+     */
+    @GetMapping("/stats/storage")
+    public Map<String, Long> getStorageStats() {
+        return historyService.getTierStats();
+    }
+
+    /**
+     * Gets approximate quantiles of input and result values.
+     */
+    @GetMapping("/stats/quantiles")
+    public List<QuantileSummary> getQuantiles(@RequestParam(required = false) String category,
+                                              @RequestParam(required = false) String fromUnit,
+                                              @RequestParam(required = false) String toUnit) {
+        return statsService.getQuantiles(category, fromUnit, toUnit);
+    }
+
+    /**
+     * Exports the quantile sketches in serialized form.
+     */
+    @GetMapping("/stats/sketches")
+    public Map<String, String> exportSketches() {
+        return statsService.exportSketches();
+    }
+
+    /**
+     * Merges quantile sketches exported by another node. Only callers with the merge
+     * token may send them, and no more of the body than the limit is buffered.
+     */
+    @PostMapping("/stats/sketches")
+    public Mono<ResponseEntity<Map<String, Object>>> mergeSketches(ServerWebExchange exchange) {
+        if (!statsService.isMergeEnabled()) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        String token = exchange.getRequest().getHeaders().getFirst(FlightRecordingController.ADMIN_TOKEN_HEADER);
+        if (!statsService.isMergeAuthorized(token)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return DataBufferUtils.join(exchange.getRequest().getBody(), statsService.getMaxMergeBytes())
+                .map(buffer -> {
+                    byte[] body = new byte[buffer.readableByteCount()];
+                    buffer.read(body);
+                    DataBufferUtils.release(buffer);
+                    return body;
+                })
+                .defaultIfEmpty(new byte[0])
+                .map(body -> {
+                    int merged = statsService.mergeSketches(HistoryController.readSketches(objectMapper, body));
+                    return ResponseEntity.ok(Map.<String, Object>of("merged", merged));
+                })
+                .onErrorResume(DataBufferLimitException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build()));
+    }
+
+    /**
+     * Runs a group-by aggregation over the history of all clients. The calling
+     * thread waits for the aggregation pool, so it is not an event loop thread.
+     */
+    @GetMapping("/aggregate")
+    public Mono<List<AggregateRow>> aggregateHistory(@RequestParam(defaultValue = "") List<String> groupBy,
+                                                     @RequestParam(defaultValue = "1h") String bucket,
+                                                     @RequestParam(defaultValue = "input") String field) {
+        List<HistoryAggregationService.Dimension> dimensions = groupBy.stream()
+                .filter(dimension -> !dimension.isBlank())
+                .map(HistoryAggregationService.Dimension::fromValue)
+                .toList();
+        HistoryAggregationService.Field aggregated = HistoryAggregationService.Field.fromValue(field);
+        return Mono.fromCallable(() -> aggregationService.aggregate(dimensions, DurationStyle.detectAndParse(bucket),
+                        aggregated))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Gets the most frequent unit pairs and input values.
+     */
+    @GetMapping("/top")
+    public Map<String, Object> getTopConversions(@RequestParam(defaultValue = "10") int limit) {
+        return Map.of(
+                "windowSeconds", heavyHitterService.getWindowSpan().toSeconds(),
+                "unitPairs", heavyHitterService.getTopUnitPairs(limit),
+                "inputValues", heavyHitterService.getTopInputValues(limit)
+        );
+    }
+
+    /**
+     * Downloads conversion history as JSON, streamed as the connection asks for more.
+     */
+    @GetMapping("/download/json")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadHistoryAsJson(ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            HistorySnapshot history = historyService.getHistorySnapshot(clientId);
+            if (exchange.checkNotModified(HistoryController.historyETag("json", history.sequence()))) {
+                return notModified();
+            }
+            HistoryExportEvent event = new HistoryExportEvent();
+            event.begin();
+            long start = System.nanoTime();
+            AtomicLong bytes = new AtomicLong();
+            Flux<DataBuffer> body = jsonArray(history, ResponseView.FULL, exchange.getResponse().bufferFactory(), bytes)
+                    .doOnComplete(() -> HistoryController.recordDownload(exportMetrics, ExportFormat.JSON,
+                            history.size(), bytes.get(), start, event))
+                    .doOnError(error -> HistoryController.recordDownload(exportMetrics, ExportFormat.JSON,
+                            history.size(), -1, start, event));
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=conversion-history.json")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(HistoryController.HISTORY_CACHE_CONTROL)
+                    .body(body);
+        });
+    }
+
+    /**
+     * Downloads conversion history as CSV.
+     */
+    @GetMapping("/download/csv")
+    public Mono<ResponseEntity<byte[]>> downloadHistoryAsCSV(ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).flatMap(clientId -> {
+            // Read before exporting, so the tag is never newer than the content
+            String etag = HistoryController.historyETag("csv", historyService.getHistoryVersion(clientId));
+            if (exchange.checkNotModified(etag)) {
+                return Mono.just(notModified());
+            }
+            return Mono.fromCallable(() -> {
+                HistoryExportEvent event = new HistoryExportEvent();
+                event.begin();
+                long start = System.nanoTime();
+                HistorySnapshot history = historyService.getHistorySnapshot(clientId);
+                StringWriter writer = new StringWriter();
+                try {
+                    historyService.writeHistoryAsCSV(history, writer);
+                } catch (RuntimeException | IOException e) {
+                    HistoryController.recordDownload(exportMetrics, ExportFormat.CSV, history.size(), -1, start, event);
+                    throw e;
+                }
+                byte[] csvContent = writer.toString().getBytes(StandardCharsets.UTF_8);
+                HistoryController.recordDownload(exportMetrics, ExportFormat.CSV, history.size(), csvContent.length,
+                        start, event);
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=conversion-history.csv")
+                        .contentType(MediaType.parseMediaType("text/csv"))
+                        .cacheControl(HistoryController.HISTORY_CACHE_CONTROL)
+                        .body(csvContent);
+            }).subscribeOn(historyScheduler);
+        });
+    }
+
+    /**
+     * Starts exporting the caller's history to a file in the background.
+     */
+    @PostMapping("/exports")
+    public Mono<ResponseEntity<ExportJobStatus>> startExport(@RequestParam(defaultValue = "csv") String format,
+                                                             ServerWebExchange exchange) {
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            ExportJobStatus status = exportService.startExport(clientId, exportFormat);
+            if (status == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "60")
+                        .build();
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/history/exports/" + status.getId()))
+                    .body(status);
+        });
+    }
+
+    /**
+     * Gets the progress of one of the caller's exports.
+     */
+    @GetMapping("/exports/{exportId}")
+    public Mono<ResponseEntity<ExportJobStatus>> getExport(@PathVariable String exportId,
+                                                           ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            ExportJobStatus status = exportService.getExport(clientId, exportId);
+            if (status == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (status.getState() == ExportState.COMPLETED) {
+                status.setDownloadUrl("/history/exports/" + exportId + "/download");
+            }
+            return ResponseEntity.ok(status);
+        });
+    }
+
+    /**
+     * Downloads the file of a completed export. WebFlux answers a single byte range
+     * with 206 and sends the file with zero-copy transfer on Netty. Netty opens the
+     * file after this returns, within the export service's delete grace.
+     */
+    @GetMapping("/exports/{exportId}/download")
+    public Mono<ResponseEntity<Resource>> downloadExport(@PathVariable String exportId,
+                                                         ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            try (HistoryExportService.ExportFile export = exportService.openExportFile(clientId, exportId)) {
+                if (export == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(export.getFormat().getContentType()))
+                        .eTag("\"" + exportId + "\"")
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("conversion-history." + export.getFormat().getValue())
+                                .build()
+                                .toString())
+                        .body(new FileSystemResource(export.getPath()));
+            }
+        });
+    }
+
+    /**
+     * Cancels one of the caller's exports and deletes its file.
+     */
+    @DeleteMapping("/exports/{exportId}")
+    public Mono<ResponseEntity<Map<String, String>>> deleteExport(@PathVariable String exportId,
+                                                                  ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            if (!exportService.deleteExport(clientId, exportId)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(Map.of("message", "Export deleted successfully"));
+        });
+    }
+
+    /**
+     * Appends the entries of an exported file to the caller's history. The body is
+     * written to a temporary file as it arrives and imported once complete.
+     */
+    @PostMapping("/import")
+    public Mono<ImportResult> importHistory(@RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam(defaultValue = "false") boolean dedupe,
+                                            ServerWebExchange exchange) {
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        return clientKeyResolver.resolve(exchange).flatMap(clientId -> Mono.usingWhen(
+                Mono.fromCallable(() -> Files.createTempFile("convertly-import-", "." + exportFormat.getValue()))
+                        .subscribeOn(Schedulers.boundedElastic()),
+                file -> DataBufferUtils.write(exchange.getRequest().getBody(), file)
+                        .then(Mono.fromCallable(() -> {
+                            if (isClosed(exchange)) {
+                                throw new IOException("Connection closed before the upload was complete");
+                            }
+                            try (InputStream in = Files.newInputStream(file)) {
+                                return importService.importHistory(clientId, exportFormat, in, dedupe);
+                            }
+                        }).subscribeOn(Schedulers.boundedElastic())),
+                file -> Mono.fromCallable(() -> Files.deleteIfExists(file))
+                        .subscribeOn(Schedulers.boundedElastic())));
+    }
+
+    /**
+     * Clears all conversion history.
+     * Callers without a client ID share one history, so they may not clear it.
+     */
+    @DeleteMapping
+    public Mono<ResponseEntity<Map<String, String>>> clearHistory(ServerWebExchange exchange) {
+        return clientKeyResolver.resolve(exchange).map(clientId -> {
+            if (ClientKeyResolver.isShared(clientId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("message", HistoryController.SHARED_HISTORY_MESSAGE));
+            }
+            historyService.clearHistory(clientId);
+            return ResponseEntity.ok(Map.of("message", "Conversion history cleared successfully"));
+        });
+    }
+
+    /**
+     * Streams entries as a JSON array, two buffers per entry so the cached JSON of
+     * an entry is sent without being copied.
+     *
+     * @param bytes counts the bytes sent, or null
+     */
+    private Flux<DataBuffer> jsonArray(HistorySnapshot history, ResponseView view, DataBufferFactory bufferFactory,
+                                       AtomicLong bytes) {
+        if (history.size() == 0) {
+            return Flux.defer(() -> {
+                count(bytes, EMPTY_ARRAY.length);
+                return Flux.just(bufferFactory.wrap(EMPTY_ARRAY));
+            });
+        }
+        Flux<DataBuffer> entries = Flux.fromIterable(history)
+                .index()
+                .concatMapIterable(entry -> {
+                    byte[] json = historyJsonCache.toJson(entry.getT2(), view);
+                    count(bytes, json.length + 1);
+                    return List.of(bufferFactory.wrap(entry.getT1() == 0 ? ARRAY_START : ARRAY_SEPARATOR),
+                            bufferFactory.wrap(json));
+                });
+        return entries.subscribeOn(historyScheduler)
+                .concatWith(Flux.defer(() -> {
+                    count(bytes, ARRAY_END.length);
+                    return Flux.just(bufferFactory.wrap(ARRAY_END));
+                }));
+    }
+
+    /**
+     * Streams entries as newline-delimited JSON.
+     */
+    private Flux<DataBuffer> jsonLines(HistorySnapshot history, ResponseView view, DataBufferFactory bufferFactory) {
+        return Flux.fromIterable(history)
+                .concatMapIterable(entry -> List.of(bufferFactory.wrap(historyJsonCache.toJson(entry, view)),
+                        bufferFactory.wrap(LINE_END)))
+                .subscribeOn(historyScheduler);
+    }
+
+    private static void count(AtomicLong bytes, long length) {
+        if (bytes != null) {
+            bytes.addAndGet(length);
+        }
+    }
+
+    /**
+     * Checks whether the connection of a request has been closed. When the server
+     * stops, Netty ends the bodies of open requests as if they were complete, so a
+     * cut-off upload must not be imported.
+     */
+    private static boolean isClosed(ServerWebExchange exchange) {
+        Object request = ServerHttpRequestDecorator.getNativeRequest(exchange.getRequest());
+        return request instanceof Connection connection && connection.isDisposed();
+    }
+
+    private static boolean acceptsNdjson(ServerWebExchange exchange) {
+        for (MediaType mediaType : exchange.getRequest().getHeaders().getAccept()) {
+            if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the 304 response. {@link ServerWebExchange#checkNotModified(String)} has
+     * already written the ETag header, for unchanged and changed content alike.
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(HistoryController.HISTORY_CACHE_CONTROL)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.enums.ResponseView;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * Resolves the {@link ResponseView} a request asks for: the {@code view} query
+ * parameter if present, otherwise the first view media type listed in the
+ * Accept header, otherwise the full view.
+ */
+final class ResponseViews {
+
+    private static final String VIEW_MEDIA_TYPE_MARKER = "vnd.convertly.";
+    private static final ResponseView[] VIEWS = ResponseView.values();
+    private static final MediaType[] VIEW_MEDIA_TYPES = new MediaType[VIEWS.length];
+
+    static {
+        for (ResponseView view : VIEWS) {
+            VIEW_MEDIA_TYPES[view.ordinal()] = MediaType.valueOf(view.getContentType());
+        }
+    }
+
+    private ResponseViews() {
+    }
+
+    /**
+     * Resolves the view of a request.
+     *
+     * @param view the {@code view} query parameter, or null
+     * @param request the HTTP request
+     * @return the view
+     * @throws IllegalArgumentException if the query parameter is not a valid view
+     */
+    static ResponseView resolve(String view, HttpServletRequest request) {
+        return resolve(view, request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Resolves the view of a reactive request.
+     *
+     * @param view the {@code view} query parameter, or null
+     * @param request the HTTP request
+     * @return the view
+     * @throws IllegalArgumentException if the query parameter is not a valid view
+     */
+    static ResponseView resolve(String view, ServerHttpRequest request) {
+        return resolve(view, request.getHeaders().getFirst(HttpHeaders.ACCEPT));
+    }
+
+    private static ResponseView resolve(String view, String accept) {
+        if (view != null) {
+            return ResponseView.fromValue(view);
+        }
+        // Most clients accept plain JSON; only parse headers that name a view type
+        if (accept == null || !accept.contains(VIEW_MEDIA_TYPE_MARKER)) {
+            return ResponseView.FULL;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            for (ResponseView candidate : VIEWS) {
+                if (candidate != ResponseView.FULL
+                        && VIEW_MEDIA_TYPES[candidate.ordinal()].equalsTypeAndSubtype(mediaType)) {
+                    return candidate;
+                }
+            }
+        }
+        return ResponseView.FULL;
+    }
+
+    /**
+     * Gets the content type of a response written directly in a view: the view's
+     * media type if the client asked for it in the Accept header, JSON otherwise.
+     *
+     * @param view the resolved view
+     * @param viewParameter the {@code view} query parameter, or null
+     * @return the content type
+     */
+    static MediaType contentType(ResponseView view, String viewParameter) {
+        return viewParameter == null ? VIEW_MEDIA_TYPES[view.ordinal()] : MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,28 @@
+package com.convertly.demo.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enum representing the kinds of history mutations reported by the change feed.
+ */
+public enum ChangeType {
+    INSERT("insert"),
+    EVICT("evict"),
+    CLEAR("clear");
+
+    private final String value;
+
+    ChangeType(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,49 @@
+package com.convertly.demo.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enum representing the file formats of history exports.
+ */
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    JSON("json", "application/json");
+
+    private final String value;
+    private final String contentType;
+
+    ExportFormat(String value, String contentType) {
+        this.value = value;
+        this.contentType = contentType;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Converts a string value to ExportFormat enum (case-insensitive).
+     *
+     * @param value the string value
+     * @return the corresponding ExportFormat
+     * @throws IllegalArgumentException if the value is not a valid format
+     */
+    public static ExportFormat fromValue(String value) {
+        for (ExportFormat format : ExportFormat.values()) {
+            if (format.value.equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid export format: " + value + ". Valid formats are: csv, json");
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,29 @@
+package com.convertly.demo.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enum representing the lifecycle of a background history export.
+ */
+public enum ExportState {
+    PENDING("pending"),
+    RUNNING("running"),
+    COMPLETED("completed"),
+    FAILED("failed");
+
+    private final String value;
+
+    ExportState(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,58 @@
+package com.convertly.demo.enums;
+
+import com.convertly.demo.model.Views;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enum representing how much of a conversion a response contains.
+ * Each view can also be requested through its own JSON media type.
+ */
+public enum ResponseView {
+    FULL("full", Views.Full.class, "application/json"),
+    COMPACT("compact", Views.Compact.class, "application/vnd.convertly.compact+json"),
+    RESULT("result", Views.Result.class, "application/vnd.convertly.result+json");
+
+    private final String value;
+    private final Class<?> jsonView;
+    private final String contentType;
+
+    ResponseView(String value, Class<?> jsonView, String contentType) {
+        this.value = value;
+        this.jsonView = jsonView;
+        this.contentType = contentType;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public Class<?> getJsonView() {
+        return jsonView;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Converts a string value to ResponseView enum (case-insensitive).
+     *
+     * @param value the string value
+     * @return the corresponding ResponseView
+     * @throws IllegalArgumentException if the value is not a valid view
+     */
+    public static ResponseView fromValue(String value) {
+        for (ResponseView view : ResponseView.values()) {
+            if (view.value.equalsIgnoreCase(value.trim())) {
+                return view;
+            }
+        }
+        throw new IllegalArgumentException("Invalid view: " + value + ". Valid views are: full, compact, result");
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,221 @@
+package com.convertly.demo.enums;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ordinal lookups across all categories and their units.
+ * Lets hot paths refer to units by small integers instead of strings.
+ */
+public final class UnitCatalog {
+
+    /**
+     * Returned when a unit name does not belong to the category.
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final String[][] UNIT_VALUES = new String[CATEGORIES.length][];
+    private static final List<String> CATEGORY_LIST = Arrays.stream(CATEGORIES).map(Category::getValue).toList();
+    private static final List<List<String>> UNIT_LISTS;
+    private static final String[] INVALID_UNIT_PREFIXES = new String[CATEGORIES.length];
+    private static final String[] INVALID_UNIT_SUFFIXES = new String[CATEGORIES.length];
+    private static final String[] NULL_UNIT_MESSAGES = new String[CATEGORIES.length];
+    private static final int MAX_UNITS;
+
+    /**
+     * Upper bound (exclusive) of keys produced by {@link #pairKey}.
+     */
+    public static final int PAIR_KEY_LIMIT;
+
+    static {
+        UNIT_VALUES[Category.TEMPERATURE.ordinal()] = Arrays.stream(TemperatureUnit.values())
+                .map(TemperatureUnit::getValue).toArray(String[]::new);
+        UNIT_VALUES[Category.LENGTH.ordinal()] = Arrays.stream(LengthUnit.values())
+                .map(LengthUnit::getValue).toArray(String[]::new);
+        UNIT_VALUES[Category.WEIGHT.ordinal()] = Arrays.stream(WeightUnit.values())
+                .map(WeightUnit::getValue).toArray(String[]::new);
+        UNIT_VALUES[Category.TIME.ordinal()] = Arrays.stream(TimeUnit.values())
+                .map(TimeUnit::getValue).toArray(String[]::new);
+        UNIT_LISTS = Arrays.stream(UNIT_VALUES).map(List::of).toList();
+        MAX_UNITS = Arrays.stream(UNIT_VALUES).mapToInt(units -> units.length).max().orElse(0);
+        PAIR_KEY_LIMIT = CATEGORIES.length * MAX_UNITS * MAX_UNITS;
+        for (Category category : CATEGORIES) {
+            String name = category.getValue();
+            INVALID_UNIT_PREFIXES[category.ordinal()] = "Invalid " + name + " unit: ";
+            INVALID_UNIT_SUFFIXES[category.ordinal()] = ". Valid units are: "
+                    + String.join(", ", UNIT_VALUES[category.ordinal()]);
+            NULL_UNIT_MESSAGES[category.ordinal()] = Character.toUpperCase(name.charAt(0)) + name.substring(1)
+                    + " unit value cannot be null";
+        }
+    }
+
+    private UnitCatalog() {
+    }
+
+    /**
+     * Gets the category for an ordinal.
+     *
+     * @param ordinal the category ordinal
+     * @return the category
+     */
+    public static Category category(int ordinal) {
+        return CATEGORIES[ordinal];
+    }
+
+    /**
+     * Gets the names of all categories, in declaration order.
+     *
+     * @return an immutable list shared by all callers
+     */
+    public static List<String> categoryValues() {
+        return CATEGORY_LIST;
+    }
+
+    /**
+     * Resolves a category name (case-insensitive) without throwing.
+     *
+     * @param value the category name
+     * @return the category, or null if the name is not valid
+     */
+    public static Category findCategory(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        for (Category category : CATEGORIES) {
+            if (category.getValue().equalsIgnoreCase(trimmed)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the names of all units of a category, in ordinal order.
+     *
+     * @param category the category
+     * @return an immutable list shared by all callers
+     */
+    public static List<String> unitValues(Category category) {
+        return UNIT_LISTS.get(category.ordinal());
+    }
+
+    /**
+     * Resolves a unit name to its ordinal within the category (case-insensitive).
+     *
+     * @param category the category
+     * @param unit the unit name
+     * @return the unit ordinal, or {@link #UNKNOWN} if the unit is not valid
+     */
+    public static int unitOrdinal(Category category, String unit) {
+        if (category == null || unit == null) {
+            return UNKNOWN;
+        }
+        String[] values = UNIT_VALUES[category.ordinal()];
+        String trimmed = unit.trim();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equalsIgnoreCase(trimmed)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Describes why {@link #unitOrdinal} returned {@link #UNKNOWN}, with the same text as
+     * the exception thrown by the unit enum's {@code fromValue}. Only the rejected name is
+     * concatenated per call; the list of valid units is prepared once per category.
+     *
+     * @param category the category
+     * @param unit the rejected unit name
+     * @return the error message
+     */
+    public static String invalidUnitMessage(Category category, String unit) {
+        if (unit == null) {
+            return NULL_UNIT_MESSAGES[category.ordinal()];
+        }
+        return INVALID_UNIT_PREFIXES[category.ordinal()] + unit + INVALID_UNIT_SUFFIXES[category.ordinal()];
+    }
+
+    /**
+     * Gets the canonical unit name for an ordinal within the category.
+     *
+     * @param category the category
+     * @param ordinal the unit ordinal
+     * @return the unit name
+     */
+    public static String unitValue(Category category, int ordinal) {
+        return UNIT_VALUES[category.ordinal()][ordinal];
+    }
+
+    /**
+     * Packs a category and unit pair into a dense key in {@code [0, PAIR_KEY_LIMIT)}.
+     *
+     * @param category the category
+     * @param fromOrdinal the source unit ordinal
+     * @param toOrdinal the target unit ordinal
+     * @return the packed key
+     */
+    public static int pairKey(Category category, int fromOrdinal, int toOrdinal) {
+        return (category.ordinal() * MAX_UNITS + fromOrdinal) * MAX_UNITS + toOrdinal;
+    }
+
+    /**
+     * Checks whether a key produced by {@link #pairKey} refers to real units.
+     *
+     * @param pairKey the packed key
+     * @return true if both units exist in the category
+     */
+    public static boolean isValidPair(int pairKey) {
+        if (pairKey < 0 || pairKey >= PAIR_KEY_LIMIT) {
+            return false;
+        }
+        int unitCount = UNIT_VALUES[pairKey / (MAX_UNITS * MAX_UNITS)].length;
+        return (pairKey / MAX_UNITS) % MAX_UNITS < unitCount && pairKey % MAX_UNITS < unitCount;
+    }
+
+    /**
+     * Gets the category of a key produced by {@link #pairKey}.
+     *
+     * @param pairKey the packed key
+     * @return the category
+     */
+    public static Category pairCategory(int pairKey) {
+        return category(pairKey / (MAX_UNITS * MAX_UNITS));
+    }
+
+    /**
+     * Gets the source unit ordinal of a key produced by {@link #pairKey}.
+     *
+     * @param pairKey the packed key
+     * @return the source unit ordinal
+     */
+    public static int pairFromOrdinal(int pairKey) {
+        return (pairKey / MAX_UNITS) % MAX_UNITS;
+    }
+
+    /**
+     * Gets the target unit ordinal of a key produced by {@link #pairKey}.
+     *
+     * @param pairKey the packed key
+     * @return the target unit ordinal
+     */
+    public static int pairToOrdinal(int pairKey) {
+        return pairKey % MAX_UNITS;
+    }
+
+    /**
+     * Formats a key produced by {@link #pairKey} as {@code category:from->to}.
+     *
+     * @param pairKey the packed key
+     * @return the readable form of the unit pair
+     */
+    public static String describePair(long pairKey) {
+        int key = (int) pairKey;
+        Category category = pairCategory(key);
+        return category.getValue() + ":"
+                + unitValue(category, pairFromOrdinal(key)) + "->"
+                + unitValue(category, pairToOrdinal(key));
+    }
+}
@@ -1,7 +1,10 @@
 package com.convertly.demo.exception;
 
+import com.convertly.demo.metrics.ConversionMetrics;
 import com.convertly.demo.model.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -14,11 +17,20 @@ import java.util.stream.Collectors;
 
 /**
  * Global exception handler for the application.
- * Provides structured error responses for various exception types.
+ * Provides structured error responses for various exception types,
+ * and counts the requests rejected as invalid by error type.
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
+    private final ConversionMetrics conversionMetrics;
+
+    @Autowired
+    public GlobalExceptionHandler(ConversionMetrics conversionMetrics) {
+        this.conversionMetrics = conversionMetrics;
+    }
+
     /**
      * Handles InvalidUnitException.
      */
@@ -33,6 +45,7 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()
         );
         
+        conversionMetrics.recordValidationFailure(errorResponse.getError());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -54,6 +67,7 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()
         );
         
+        conversionMetrics.recordValidationFailure(errorResponse.getError());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -73,6 +87,7 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()
         );
         
+        conversionMetrics.recordValidationFailure(errorResponse.getError());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -90,6 +105,7 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()
         );
         
+        conversionMetrics.recordValidationFailure(errorResponse.getError());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -2,14 +2,17 @@ package com.convertly.demo.exception;
 
 /**
  * Custom exception thrown when an invalid unit is provided for conversion.
+ *
+ * <p>It reports bad client input, which is answered with a 400 and never logged, so no
+ * stack trace is captured: rejecting a request costs about as much as converting it.
  */
 public class InvalidUnitException extends RuntimeException {
 
     public InvalidUnitException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public InvalidUnitException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,113 @@
+package com.convertly.demo.exception;
+
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.model.ErrorResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.stream.Collectors;
+
+/**
+ * Exception handler of the reactive controllers, answering the same exceptions with
+ * the same error responses and metrics as {@link GlobalExceptionHandler}.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private final ConversionMetrics conversionMetrics;
+
+    @Autowired
+    public ReactiveExceptionHandler(ConversionMetrics conversionMetrics) {
+        this.conversionMetrics = conversionMetrics;
+    }
+
+    /**
+     * Handles InvalidUnitException.
+     */
+    @ExceptionHandler(InvalidUnitException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidUnitException(
+            InvalidUnitException ex, ServerWebExchange exchange) {
+        return badRequest("InvalidUnitException", ex.getMessage(), exchange);
+    }
+
+    /**
+     * Handles validation errors from @Valid request bodies.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(
+            WebExchangeBindException ex, ServerWebExchange exchange) {
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        return badRequest("ValidationException", message, exchange);
+    }
+
+    /**
+     * Handles unreadable bodies and parameters of the wrong type (e.g., invalid enum values).
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleInputException(
+            ServerWebInputException ex, ServerWebExchange exchange) {
+        return badRequest("TypeMismatchException", ex.getReason(), exchange);
+    }
+
+    /**
+     * Handles IllegalArgumentException (e.g., from enum parsing).
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
+            IllegalArgumentException ex, ServerWebExchange exchange) {
+        return badRequest("IllegalArgumentException", ex.getMessage(), exchange);
+    }
+
+    /**
+     * Handles the framework's own errors, such as unknown paths and unsupported
+     * methods, with the status they carry.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException(
+            ResponseStatusException ex, ServerWebExchange exchange) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getClass().getSimpleName(),
+                ex.getReason(),
+                ex.getStatusCode().value(),
+                exchange.getRequest().getPath().value()
+        );
+        return new ResponseEntity<>(errorResponse, ex.getHeaders(), ex.getStatusCode());
+    }
+
+    /**
+     * Handles all other exceptions.
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, ServerWebExchange exchange) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                "InternalServerError",
+                "An unexpected error occurred: " + ex.getMessage(),
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                exchange.getRequest().getPath().value()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private ResponseEntity<ErrorResponse> badRequest(String error, String message, ServerWebExchange exchange) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                error,
+                message,
+                HttpStatus.BAD_REQUEST.value(),
+                exchange.getRequest().getPath().value()
+        );
+        conversionMetrics.recordValidationFailure(errorResponse.getError());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+}
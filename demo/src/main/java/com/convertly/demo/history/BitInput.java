@@ -0,0 +1,55 @@
+package com.convertly.demo.history;
+
+/**
+ * Reads a bit stream produced by {@link BitOutput}.
+ */
+final class BitInput {
+
+    private final byte[] bytes;
+    private long position;
+
+    BitInput(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    long readBits(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        if (position + bits > (long) bytes.length << 3) {
+            throw new IllegalStateException("Read past end of compressed block");
+        }
+        long value = 0;
+        int remaining = bits;
+        while (remaining > 0) {
+            int index = (int) (position >>> 3);
+            int offset = (int) (position & 7);
+            int available = 8 - offset;
+            int take = Math.min(available, remaining);
+            int chunk = ((bytes[index] & 0xFF) >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            position += take;
+            remaining -= take;
+        }
+        return value;
+    }
+
+    boolean readBit() {
+        return readBits(1) == 1;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            long group = readBits(8);
+            value |= (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    void seek(long bitPosition) {
+        this.position = bitPosition;
+    }
+}
@@ -0,0 +1,70 @@
+package com.convertly.demo.history;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit stream used by the compressed block encoder.
+ * Bits are written most-significant first.
+ */
+final class BitOutput {
+
+    private long[] words = new long[64];
+    private long bitLength;
+
+    /**
+     * Writes the lowest {@code bits} bits of a value.
+     */
+    void writeBits(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int index = (int) (bitLength >>> 6);
+        int used = (int) (bitLength & 63);
+        ensureCapacity(index + 2);
+        int free = 64 - used;
+        if (bits <= free) {
+            words[index] |= value << (free - bits);
+        } else {
+            int spill = bits - free;
+            words[index] |= value >>> spill;
+            words[index + 1] |= value << (64 - spill);
+        }
+        bitLength += bits;
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes a non-negative value in 7-bit groups, low group first.
+     */
+    void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeBits((value & 0x7F) | 0x80, 8);
+            value >>>= 7;
+        }
+        writeBits(value, 8);
+    }
+
+    long bitLength() {
+        return bitLength;
+    }
+
+    byte[] toByteArray() {
+        byte[] bytes = new byte[(int) ((bitLength + 7) >>> 3)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[i >>> 3] >>> (56 - ((i & 7) << 3)));
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > words.length) {
+            words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+        }
+    }
+}
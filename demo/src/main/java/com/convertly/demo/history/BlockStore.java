@@ -0,0 +1,59 @@
+package com.convertly.demo.history;
+
+import java.nio.file.Path;
+
+/**
+ * Where sealed history blocks are kept.
+ */
+@FunctionalInterface
+public interface BlockStore {
+
+    /**
+     * Stores an encoded block.
+     *
+     * @param encoded the encoded block
+     * @param count the number of entries in the block
+     * @return a handle to the stored block
+     */
+    SealedBlock store(byte[] encoded, int count);
+
+    /**
+     * Releases resources held by the store. Blocks must not be loaded afterwards.
+     */
+    default void close() {
+    }
+
+    /**
+     * Keeps sealed blocks on the heap as byte arrays.
+     *
+     * @return the store
+     */
+    static BlockStore inMemory() {
+        return (encoded, count) -> new SealedBlock() {
+            @Override
+            public int count() {
+                return count;
+            }
+
+            @Override
+            public long encodedBytes() {
+                return encoded.length;
+            }
+
+            @Override
+            public byte[] load() {
+                return encoded;
+            }
+        };
+    }
+
+    /**
+     * Keeps sealed blocks as files in a directory, one file per block.
+     *
+     * @param directory the directory, created if missing
+     * @return the store
+     */
+    static BlockStore onDisk(Path directory) {
+        return new DiskBlockStore(directory);
+    }
+}
@@ -0,0 +1,130 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.enums.ChangeType;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.HistoryChange;
+import com.convertly.demo.model.HistoryChanges;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded log of the most recent mutations of one partition.
+ * Sequence numbers come from a counter shared by all partitions, so they are
+ * unique and increase monotonically across the whole history, including across
+ * partitions that were evicted and re-created for the same client. The counter
+ * starts at a per-run epoch, so numbers from an earlier run fall outside every
+ * log's range and get a resync marker.
+ */
+public class ChangeLog {
+
+    private final AtomicLong sequencer;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<HistoryChange> changes = new ArrayDeque<>();
+    private long compactedThrough;
+    private long latest;
+
+    /**
+     * Creates a log.
+     *
+     * @param sequencer the shared sequence counter
+     * @param capacity the number of changes retained
+     */
+    public ChangeLog(AtomicLong sequencer, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Change log capacity must be positive");
+        }
+        this.sequencer = sequencer;
+        this.capacity = capacity;
+        // Changes made before this log existed are not available from it
+        this.compactedThrough = sequencer.get();
+        this.latest = compactedThrough;
+    }
+
+    /**
+     * Records an inserted entry.
+     *
+     * @param entry the entry
+     * @return the sequence number of the change
+     */
+    public long inserted(ConversionHistory entry) {
+        return append(ChangeType.INSERT, entry, null);
+    }
+
+    /**
+     * Records that the oldest entries were removed.
+     *
+     * @param count the number of entries removed
+     * @return the sequence number of the change
+     */
+    public long evicted(int count) {
+        return append(ChangeType.EVICT, null, count);
+    }
+
+    /**
+     * Records that all entries were removed.
+     *
+     * @return the sequence number of the change
+     */
+    public long cleared() {
+        return append(ChangeType.CLEAR, null, null);
+    }
+
+    /**
+     * Gets the changes after a sequence number.
+     *
+     * @param since the last sequence number the caller has applied
+     * @return the newer changes, or a resync marker if some of them were compacted
+     *         away or the caller is ahead of this log
+     */
+    public HistoryChanges changesSince(long since) {
+        lock.lock();
+        try {
+            if (since < compactedThrough || since > latest) {
+                return new HistoryChanges(latest, true, List.of());
+            }
+            List<HistoryChange> newer = new ArrayList<>();
+            for (HistoryChange change : changes) {
+                if (change.getSequence() > since) {
+                    newer.add(change);
+                }
+            }
+            return new HistoryChanges(latest, false, newer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the sequence number of the latest change.
+     *
+     * @return the latest sequence number
+     */
+    public long latestSequence() {
+        lock.lock();
+        try {
+            return latest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(ChangeType type, ConversionHistory entry, Integer count) {
+        lock.lock();
+        try {
+            long sequence = sequencer.incrementAndGet();
+            changes.addLast(new HistoryChange(sequence, type, entry, count));
+            latest = sequence;
+            while (changes.size() > capacity) {
+                compactedThrough = changes.pollFirst().getSequence();
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.convertly.demo.history;
+
+/**
+ * Settings for sealing older history entries into compressed blocks.
+ *
+ * @param hotEntries entries always kept as live objects
+ * @param blockSize entries per sealed block
+ * @param store where sealed blocks are kept
+ * @param formulas regenerates formulas omitted from sealed blocks
+ */
+public record ColdTier(int hotEntries, int blockSize, BlockStore store, FormulaSource formulas) {
+
+    public ColdTier {
+        if (hotEntries < 0) {
+            throw new IllegalArgumentException("Hot entry count must not be negative");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+    }
+}
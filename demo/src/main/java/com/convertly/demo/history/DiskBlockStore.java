@@ -0,0 +1,71 @@
+package com.convertly.demo.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps sealed blocks as files, one file per block. A file is deleted once its
+ * block is no longer referenced by a partition or an open snapshot, and any
+ * remaining files are deleted when the store is closed.
+ */
+final class DiskBlockStore implements BlockStore {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Path directory;
+    private final Set<Path> files = ConcurrentHashMap.newKeySet();
+
+    DiskBlockStore(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create history block directory " + directory, e);
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public SealedBlock store(byte[] encoded, int count) {
+        Path file = directory.resolve(UUID.randomUUID() + ".blk");
+        try {
+            Files.write(file, encoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write history block " + file, e);
+        }
+        files.add(file);
+        DiskBlock block = new DiskBlock(file, count, encoded.length);
+        CLEANER.register(block, () -> delete(file));
+        return block;
+    }
+
+    @Override
+    public void close() {
+        files.forEach(this::delete);
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Best effort; the file is no longer referenced
+        }
+        files.remove(file);
+    }
+
+    private record DiskBlock(Path file, int count, long encodedBytes) implements SealedBlock {
+        @Override
+        public byte[] load() {
+            try {
+                return Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read history block " + file, e);
+            }
+        }
+    }
+}
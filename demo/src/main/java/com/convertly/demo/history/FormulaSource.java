@@ -0,0 +1,20 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.model.ConversionRequest;
+
+/**
+ * Regenerates the formula text of a conversion, so compressed blocks can
+ * leave it out and rebuild it on decode.
+ */
+@FunctionalInterface
+public interface FormulaSource {
+
+    /**
+     * Generates the formula for a conversion.
+     *
+     * @param request the conversion request
+     * @param result the conversion result
+     * @return the formula text, or null if it cannot be generated
+     */
+    String formulaFor(ConversionRequest request, Double result);
+}
@@ -0,0 +1,548 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Encodes history entries into immutable compressed blocks and decodes them back.
+ *
+ * <p>A block stores one column per field, each padded to a byte boundary:
+ * <ul>
+ *   <li>IDs as raw 128-bit UUIDs (other IDs as strings)</li>
+ *   <li>timestamps as delta-of-delta with variable-width buckets</li>
+ *   <li>category and units as a dictionary-encoded pair key</li>
+ *   <li>input values and results XOR-compressed against the previous value</li>
+ *   <li>formulas and status only where they differ from what can be regenerated</li>
+ * </ul>
+ * Non-canonical unit spellings, custom formulas and statuses are kept in escape
+ * records, so decoding returns the same field values that were encoded.
+ */
+public final class HistoryBlockCodec {
+
+    private static final int VERSION = 1;
+    private static final int SECTIONS = 6;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES + 1 + SECTIONS * Integer.BYTES;
+    private static final int IDS = 0;
+    private static final int TIMESTAMPS = 1;
+    private static final int UNITS = 2;
+    private static final int VALUES = 3;
+    private static final int RESULTS = 4;
+    private static final int OVERRIDES = 5;
+
+    private static final int PAIR_BITS = 32 - Integer.numberOfLeadingZeros(UnitCatalog.PAIR_KEY_LIMIT);
+    private static final int PAIR_ESCAPE = UnitCatalog.PAIR_KEY_LIMIT;
+    private static final int NULL_CATEGORY = 0xFF;
+    private static final long NULL_DOUBLE_BITS = 0x7FF0_DEAD_0000_0001L;
+    private static final String SUCCESS = "success";
+
+    private HistoryBlockCodec() {
+    }
+
+    /**
+     * Encodes entries into a compressed block.
+     *
+     * @param entries the entries, in insertion order
+     * @param formulas regenerates formulas so they can be omitted from the block
+     * @return the encoded block
+     */
+    public static byte[] encode(List<ConversionHistory> entries, FormulaSource formulas) {
+        boolean nanos = needsNanos(entries);
+        BitOutput[] sections = new BitOutput[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            sections[i] = new BitOutput();
+        }
+
+        TimestampEncoder timestamps = new TimestampEncoder(sections[TIMESTAMPS]);
+        DoubleEncoder values = new DoubleEncoder(sections[VALUES]);
+        DoubleEncoder results = new DoubleEncoder(sections[RESULTS]);
+        for (ConversionHistory entry : entries) {
+            ConversionRequest request = entry.getRequest();
+            ConversionResponse response = entry.getResponse();
+            writeId(sections[IDS], entry.getId());
+            timestamps.write(toEpochUnits(entry.getTimestamp(), nanos));
+            writeUnits(sections[UNITS], request);
+            values.write(request.getValue());
+            results.write(response.getResult());
+            writeOverrides(sections[OVERRIDES], request, response, formulas);
+        }
+
+        byte[][] sectionBytes = new byte[SECTIONS][];
+        int total = HEADER_BYTES;
+        for (int i = 0; i < SECTIONS; i++) {
+            sectionBytes[i] = sections[i].toByteArray();
+            total += sectionBytes[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        buffer.put((byte) VERSION).putInt(entries.size()).put((byte) (nanos ? 1 : 0));
+        int offset = HEADER_BYTES;
+        for (int i = 0; i < SECTIONS; i++) {
+            buffer.putInt(offset);
+            offset += sectionBytes[i].length;
+        }
+        for (byte[] section : sectionBytes) {
+            buffer.put(section);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes all entries of a block.
+     *
+     * @param block the encoded block
+     * @param formulas regenerates the formulas omitted from the block
+     * @return the entries, in insertion order
+     */
+    public static List<ConversionHistory> decode(byte[] block, FormulaSource formulas) {
+        Header header = Header.read(block);
+        BitInput ids = header.section(block, IDS);
+        TimestampDecoder timestamps = new TimestampDecoder(header.section(block, TIMESTAMPS));
+        BitInput units = header.section(block, UNITS);
+        DoubleDecoder values = new DoubleDecoder(header.section(block, VALUES));
+        DoubleDecoder results = new DoubleDecoder(header.section(block, RESULTS));
+        BitInput overrides = header.section(block, OVERRIDES);
+
+        List<ConversionHistory> entries = new ArrayList<>(header.count);
+        for (int i = 0; i < header.count; i++) {
+            String id = readId(ids);
+            LocalDateTime timestamp = fromEpochUnits(timestamps.read(), header.nanos);
+            ConversionRequest request = readUnits(units);
+            request.setValue(values.read());
+            Double result = results.read();
+            ConversionResponse response = readOverrides(overrides, request, result, formulas);
+
+            ConversionHistory entry = new ConversionHistory(id, request, response);
+            entry.setTimestamp(timestamp);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Receives the numeric columns of one entry during {@link #scan}.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+
+        /**
+         * Visits one entry.
+         *
+         * @param epochMillis the timestamp as milliseconds since the epoch (UTC)
+         * @param category the category ordinal, or {@link UnitCatalog#UNKNOWN}
+         * @param fromUnit the source unit ordinal, or {@link UnitCatalog#UNKNOWN}
+         * @param toUnit the target unit ordinal, or {@link UnitCatalog#UNKNOWN}
+         * @param value the input value, NaN if absent
+         * @param result the converted result, NaN if absent
+         */
+        void visit(long epochMillis, int category, int fromUnit, int toUnit, double value, double result);
+    }
+
+    /**
+     * Streams the timestamp, unit and value columns of a block without
+     * materializing entries, IDs or formulas.
+     *
+     * @param block the encoded block
+     * @param skip the number of leading entries to skip
+     * @param visitor receives each remaining entry
+     */
+    public static void scan(byte[] block, int skip, RowVisitor visitor) {
+        Header header = Header.read(block);
+        TimestampDecoder timestamps = new TimestampDecoder(header.section(block, TIMESTAMPS));
+        BitInput units = header.section(block, UNITS);
+        DoubleDecoder values = new DoubleDecoder(header.section(block, VALUES));
+        DoubleDecoder results = new DoubleDecoder(header.section(block, RESULTS));
+        long unitsPerMilli = header.nanos ? 1_000_000L : 1_000L;
+
+        for (int i = 0; i < header.count; i++) {
+            long epochMillis = Math.floorDiv(timestamps.read(), unitsPerMilli);
+            int pairKey = (int) units.readBits(PAIR_BITS);
+            int category;
+            int from;
+            int to;
+            if (pairKey != PAIR_ESCAPE) {
+                category = UnitCatalog.pairCategory(pairKey).ordinal();
+                from = UnitCatalog.pairFromOrdinal(pairKey);
+                to = UnitCatalog.pairToOrdinal(pairKey);
+            } else {
+                int categoryOrdinal = (int) units.readBits(8);
+                Category cat = categoryOrdinal == NULL_CATEGORY ? null : UnitCatalog.category(categoryOrdinal);
+                category = cat == null ? UnitCatalog.UNKNOWN : categoryOrdinal;
+                from = UnitCatalog.unitOrdinal(cat, readString(units));
+                to = UnitCatalog.unitOrdinal(cat, readString(units));
+            }
+            Double value = values.read();
+            Double result = results.read();
+            if (i >= skip) {
+                visitor.visit(epochMillis, category, from, to,
+                        value == null ? Double.NaN : value, result == null ? Double.NaN : result);
+            }
+        }
+    }
+
+    /**
+     * Finds the position of an entry in a block by scanning only the ID column.
+     *
+     * @param block the encoded block
+     * @param id the entry ID
+     * @return the position, or -1 if the block does not contain the ID
+     */
+    public static int indexOf(byte[] block, String id) {
+        Header header = Header.read(block);
+        BitInput ids = header.section(block, IDS);
+        UUID uuid = parseCanonicalUuid(id);
+        for (int i = 0; i < header.count; i++) {
+            if (!ids.readBit()) {
+                long msb = ids.readBits(64);
+                long lsb = ids.readBits(64);
+                if (uuid != null && uuid.getMostSignificantBits() == msb && uuid.getLeastSignificantBits() == lsb) {
+                    return i;
+                }
+            } else if (id.equals(readString(ids))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of entries in a block.
+     *
+     * @param block the encoded block
+     * @return the entry count
+     */
+    public static int count(byte[] block) {
+        return Header.read(block).count;
+    }
+
+    private static void writeId(BitOutput out, String id) {
+        UUID uuid = parseCanonicalUuid(id);
+        if (uuid != null) {
+            out.writeBit(false);
+            out.writeBits(uuid.getMostSignificantBits(), 64);
+            out.writeBits(uuid.getLeastSignificantBits(), 64);
+        } else {
+            out.writeBit(true);
+            writeString(out, id);
+        }
+    }
+
+    private static String readId(BitInput in) {
+        if (!in.readBit()) {
+            return new UUID(in.readBits(64), in.readBits(64)).toString();
+        }
+        return readString(in);
+    }
+
+    private static void writeUnits(BitOutput out, ConversionRequest request) {
+        Category category = request.getCategory();
+        if (category != null) {
+            int from = UnitCatalog.unitOrdinal(category, request.getFromUnit());
+            int to = UnitCatalog.unitOrdinal(category, request.getToUnit());
+            if (from != UnitCatalog.UNKNOWN && to != UnitCatalog.UNKNOWN
+                    && UnitCatalog.unitValue(category, from).equals(request.getFromUnit())
+                    && UnitCatalog.unitValue(category, to).equals(request.getToUnit())) {
+                out.writeBits(UnitCatalog.pairKey(category, from, to), PAIR_BITS);
+                return;
+            }
+        }
+        out.writeBits(PAIR_ESCAPE, PAIR_BITS);
+        out.writeBits(category == null ? NULL_CATEGORY : category.ordinal(), 8);
+        writeString(out, request.getFromUnit());
+        writeString(out, request.getToUnit());
+    }
+
+    private static ConversionRequest readUnits(BitInput in) {
+        int pairKey = (int) in.readBits(PAIR_BITS);
+        if (pairKey != PAIR_ESCAPE) {
+            Category category = UnitCatalog.pairCategory(pairKey);
+            return new ConversionRequest(category,
+                    UnitCatalog.unitValue(category, UnitCatalog.pairFromOrdinal(pairKey)),
+                    UnitCatalog.unitValue(category, UnitCatalog.pairToOrdinal(pairKey)), null);
+        }
+        int categoryOrdinal = (int) in.readBits(8);
+        Category category = categoryOrdinal == NULL_CATEGORY ? null : UnitCatalog.category(categoryOrdinal);
+        return new ConversionRequest(category, readString(in), readString(in), null);
+    }
+
+    private static void writeOverrides(BitOutput out, ConversionRequest request,
+            ConversionResponse response, FormulaSource formulas) {
+        String regenerated;
+        try {
+            regenerated = formulas.formulaFor(request, response.getResult());
+        } catch (RuntimeException e) {
+            regenerated = null;
+        }
+        boolean exact = response.getOriginalInput() == request
+                && SUCCESS.equals(response.getStatus())
+                && regenerated != null
+                && regenerated.equals(response.getFormula());
+        out.writeBit(!exact);
+        if (!exact) {
+            writeString(out, response.getFormula());
+            writeString(out, response.getStatus());
+            out.writeBit(response.getOriginalInput() != null);
+        }
+    }
+
+    private static ConversionResponse readOverrides(BitInput in, ConversionRequest request,
+            Double result, FormulaSource formulas) {
+        if (!in.readBit()) {
+            return new ConversionResponse(result, formulas.formulaFor(request, result), request, SUCCESS);
+        }
+        String formula = readString(in);
+        String status = readString(in);
+        boolean hasOriginalInput = in.readBit();
+        return new ConversionResponse(result, formula, hasOriginalInput ? request : null, status);
+    }
+
+    private static void writeString(BitOutput out, String value) {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarLong(bytes.length + 1L);
+        for (byte b : bytes) {
+            out.writeBits(b, 8);
+        }
+    }
+
+    private static String readString(BitInput in) {
+        int length = (int) in.readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) in.readBits(8);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static UUID parseCanonicalUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean needsNanos(List<ConversionHistory> entries) {
+        boolean subMicro = false;
+        for (ConversionHistory entry : entries) {
+            LocalDateTime timestamp = Objects.requireNonNull(entry.getTimestamp(), "History timestamp is required");
+            long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+            if (Math.abs(seconds) > Long.MAX_VALUE / 1_000_000_000L - 1) {
+                return false;
+            }
+            subMicro |= timestamp.getNano() % 1000 != 0;
+        }
+        return subMicro;
+    }
+
+    private static long toEpochUnits(LocalDateTime timestamp, boolean nanos) {
+        long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+        return nanos
+                ? seconds * 1_000_000_000L + timestamp.getNano()
+                : seconds * 1_000_000L + timestamp.getNano() / 1000;
+    }
+
+    private static LocalDateTime fromEpochUnits(long units, boolean nanos) {
+        long perSecond = nanos ? 1_000_000_000L : 1_000_000L;
+        int nanoFactor = nanos ? 1 : 1000;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(units, perSecond),
+                (int) Math.floorMod(units, perSecond) * nanoFactor, ZoneOffset.UTC);
+    }
+
+    private record Header(int count, boolean nanos, int[] offsets) {
+
+        static Header read(byte[] block) {
+            ByteBuffer buffer = ByteBuffer.wrap(block);
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported history block version: " + version);
+            }
+            int count = buffer.getInt();
+            boolean nanos = buffer.get() == 1;
+            int[] offsets = new int[SECTIONS];
+            for (int i = 0; i < SECTIONS; i++) {
+                offsets[i] = buffer.getInt();
+            }
+            return new Header(count, nanos, offsets);
+        }
+
+        BitInput section(byte[] block, int section) {
+            BitInput in = new BitInput(block);
+            in.seek((long) offsets[section] << 3);
+            return in;
+        }
+    }
+
+    /**
+     * Delta-of-delta encoding with buckets of 0, 7, 12, 20, 32 and 64 bits
+     * (zigzag-encoded), as in Facebook's Gorilla time series store.
+     */
+    private static final class TimestampEncoder {
+        private final BitOutput out;
+        private boolean first = true;
+        private long previous;
+        private long previousDelta;
+
+        TimestampEncoder(BitOutput out) {
+            this.out = out;
+        }
+
+        void write(long timestamp) {
+            if (first) {
+                out.writeBits(timestamp, 64);
+                first = false;
+            } else {
+                long delta = timestamp - previous;
+                long dod = delta - previousDelta;
+                long zigzag = (dod << 1) ^ (dod >> 63);
+                if (zigzag == 0) {
+                    out.writeBits(0b0, 1);
+                } else if (zigzag < 1L << 7) {
+                    out.writeBits(0b10, 2);
+                    out.writeBits(zigzag, 7);
+                } else if (zigzag < 1L << 12) {
+                    out.writeBits(0b110, 3);
+                    out.writeBits(zigzag, 12);
+                } else if (zigzag < 1L << 20) {
+                    out.writeBits(0b1110, 4);
+                    out.writeBits(zigzag, 20);
+                } else if (zigzag < 1L << 32) {
+                    out.writeBits(0b11110, 5);
+                    out.writeBits(zigzag, 32);
+                } else {
+                    out.writeBits(0b11111, 5);
+                    out.writeBits(zigzag, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = timestamp;
+        }
+    }
+
+    private static final class TimestampDecoder {
+        private static final int[] BUCKET_BITS = { 7, 12, 20, 32, 64 };
+
+        private final BitInput in;
+        private boolean first = true;
+        private long previous;
+        private long previousDelta;
+
+        TimestampDecoder(BitInput in) {
+            this.in = in;
+        }
+
+        long read() {
+            if (first) {
+                first = false;
+                previous = in.readBits(64);
+                return previous;
+            }
+            int bucket = 0;
+            while (bucket < BUCKET_BITS.length && in.readBit()) {
+                bucket++;
+            }
+            long dod = 0;
+            if (bucket > 0) {
+                long zigzag = in.readBits(BUCKET_BITS[bucket - 1]);
+                dod = (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            previousDelta += dod;
+            previous += previousDelta;
+            return previous;
+        }
+    }
+
+    /**
+     * XOR compression of consecutive doubles, as in Facebook's Gorilla time series store.
+     */
+    private static final class DoubleEncoder {
+        private final BitOutput out;
+        private boolean first = true;
+        private long previous;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        DoubleEncoder(BitOutput out) {
+            this.out = out;
+        }
+
+        void write(Double value) {
+            long bits = value == null ? NULL_DOUBLE_BITS : Double.doubleToRawLongBits(value);
+            if (first) {
+                out.writeBits(bits, 64);
+                first = false;
+                previous = bits;
+                return;
+            }
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                out.writeBits(significant - 1, 6);
+                out.writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    private static final class DoubleDecoder {
+        private final BitInput in;
+        private boolean first = true;
+        private long previous;
+        private int previousLeading;
+        private int previousTrailing;
+
+        DoubleDecoder(BitInput in) {
+            this.in = in;
+        }
+
+        Double read() {
+            if (first) {
+                first = false;
+                previous = in.readBits(64);
+            } else if (in.readBit()) {
+                if (in.readBit()) {
+                    previousLeading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6) + 1;
+                    previousTrailing = 64 - previousLeading - significant;
+                }
+                int significant = 64 - previousLeading - previousTrailing;
+                previous ^= in.readBits(significant) << previousTrailing;
+            }
+            return previous == NULL_DOUBLE_BITS ? null : Double.longBitsToDouble(previous);
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.HistoryChanges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * History store for a single client.
+ * Writes are serialized by a per-partition lock, so clients never contend
+ * with each other; reads are lock-free. The partition holds at most
+ * {@code capacity} entries and drops the oldest ones beyond that.
+ *
+ * <p>Recent entries live in a hot tier of append-only chunks. With a {@link ColdTier},
+ * older entries are sealed into immutable compressed blocks once the hot tier
+ * holds a full block beyond its target size, and decoded again when read. The
+ * writer that crosses that size encodes the block after releasing the lock, so
+ * other writers never wait for an encode; one block is sealed at a time.
+ *
+ * <p>The layout of both tiers is published as one immutable version on every
+ * write, so {@link #snapshot()} returns a consistent view without copying entries.
+ */
+public class HistoryPartition {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final int capacity;
+    private final ColdTier coldTier;
+    private final ChangeLog changeLog;
+    private final int chunkSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ConversionHistory> hotById = new ConcurrentHashMap<>();
+    private volatile Version version;
+    private volatile long lastAccessMillis;
+    private boolean retired;
+    private boolean sealing;
+
+    /**
+     * Creates a partition that keeps every entry as a live object.
+     *
+     * @param capacity the maximum number of entries kept
+     * @param nowMillis the creation time
+     */
+    public HistoryPartition(int capacity, long nowMillis) {
+        this(capacity, null, null, nowMillis);
+    }
+
+    /**
+     * Creates a partition.
+     *
+     * @param capacity the maximum number of entries kept
+     * @param coldTier settings for sealing older entries, or null to keep all entries hot
+     * @param changeLog log that records every mutation, or null to not record them
+     * @param nowMillis the creation time
+     */
+    public HistoryPartition(int capacity, ColdTier coldTier, ChangeLog changeLog, long nowMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Partition capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.coldTier = coldTier;
+        this.changeLog = changeLog;
+        this.chunkSize = coldTier != null ? coldTier.blockSize() : DEFAULT_CHUNK_SIZE;
+        this.version = changeLog == null ? Version.EMPTY : Version.EMPTY.withSequence(changeLog.latestSequence());
+        this.lastAccessMillis = nowMillis;
+    }
+
+    /**
+     * Adds an entry, evicting the oldest entry if the partition is full.
+     *
+     * @param history the entry to add
+     * @return false if the partition has been retired and the caller must use a new one
+     */
+    public boolean add(ConversionHistory history) {
+        List<ConversionHistory> claimed;
+        lock.lock();
+        try {
+            if (retired) {
+                return false;
+            }
+            Version current = version;
+            List<ConversionHistory[]> chunks = current.hotChunks;
+            int end = current.hotHead + current.hotSize;
+            if (end == chunks.size() * chunkSize) {
+                chunks = new ArrayList<>(chunks);
+                chunks.add(new ConversionHistory[chunkSize]);
+            }
+            // The slot is beyond the published size, so no reader can see it yet
+            chunks.get(end / chunkSize)[end % chunkSize] = history;
+            hotById.put(history.getId(), history);
+            Version appended = current.withHot(chunks, current.hotHead, current.hotSize + 1);
+
+            Version next = evictOverflow(appended);
+            if (changeLog != null) {
+                long sequence = changeLog.inserted(history);
+                int evicted = appended.coldSize + appended.hotSize - next.coldSize - next.hotSize;
+                if (evicted > 0) {
+                    sequence = changeLog.evicted(evicted);
+                }
+                next = next.withSequence(sequence);
+            }
+            publish(appended, next);
+            claimed = claimSeal();
+        } finally {
+            lock.unlock();
+        }
+        sealClaimed(claimed);
+        return true;
+    }
+
+    /**
+     * Adds entries in order under a single lock acquisition and publishes them as
+     * one version. Entries that would be evicted by later entries of the same batch
+     * are never stored, and overflow is evicted before sealing, so no block is
+     * encoded only to be dropped.
+     *
+     * @param entries the entries to add, oldest first
+     * @return false if the partition has been retired and the caller must use a new one
+     */
+    public boolean addAll(List<ConversionHistory> entries) {
+        List<ConversionHistory> claimed;
+        lock.lock();
+        try {
+            if (retired) {
+                return false;
+            }
+            if (entries.isEmpty()) {
+                return true;
+            }
+            List<ConversionHistory> kept = entries.subList(Math.max(0, entries.size() - capacity), entries.size());
+            Version current = version;
+            List<ConversionHistory[]> chunks = new ArrayList<>(current.hotChunks);
+            int end = current.hotHead + current.hotSize;
+            for (ConversionHistory history : kept) {
+                if (end == chunks.size() * chunkSize) {
+                    chunks.add(new ConversionHistory[chunkSize]);
+                }
+                // Slots beyond the published size are not visible to readers yet
+                chunks.get(end / chunkSize)[end % chunkSize] = history;
+                hotById.put(history.getId(), history);
+                end++;
+            }
+            Version appended = current.withHot(chunks, current.hotHead, current.hotSize + kept.size());
+
+            Version next = evictOverflow(appended);
+            if (changeLog != null) {
+                long sequence = 0;
+                for (ConversionHistory history : kept) {
+                    sequence = changeLog.inserted(history);
+                }
+                int evicted = appended.coldSize + appended.hotSize - next.coldSize - next.hotSize;
+                if (evicted > 0) {
+                    sequence = changeLog.evicted(evicted);
+                }
+                next = next.withSequence(sequence);
+            }
+            publish(appended, next);
+            claimed = claimSeal();
+        } finally {
+            lock.unlock();
+        }
+        sealClaimed(claimed);
+        return true;
+    }
+
+    /**
+     * Gets an entry by ID, decoding its sealed block if it is no longer hot.
+     *
+     * @param id the entry ID
+     * @return the entry, or null if not found
+     */
+    public ConversionHistory get(String id) {
+        ConversionHistory history = hotById.get(id);
+        if (history != null) {
+            return history;
+        }
+        Version current = version;
+        for (int i = current.blocks.size() - 1; i >= 0; i--) {
+            byte[] block = current.blocks.get(i).load();
+            int index = HistoryBlockCodec.indexOf(block, id);
+            if (index >= 0) {
+                if (i == 0 && index < current.skip) {
+                    return null;
+                }
+                return HistoryBlockCodec.decode(block, coldTier.formulas()).get(index);
+            }
+        }
+        // The entry may have been sealed between the hot lookup and reading the version
+        return hotById.get(id);
+    }
+
+    /**
+     * Gets a consistent view of all entries, oldest first, without copying them.
+     *
+     * @return the snapshot
+     */
+    public HistorySnapshot snapshot() {
+        Version current = version;
+        return new HistorySnapshot(current.blocks, current.skip, current.coldSize, current.hotChunks, chunkSize,
+                current.hotHead, current.hotSize, coldTier == null ? null : coldTier.formulas(), current.sequence);
+    }
+
+    /**
+     * Gets the changes after a sequence number.
+     *
+     * @param since the last sequence number the caller has applied
+     * @return the newer changes, or a resync marker if they are no longer available
+     */
+    public HistoryChanges changesSince(long since) {
+        if (changeLog == null) {
+            return new HistoryChanges(version.sequence, true, List.of());
+        }
+        return changeLog.changesSince(since);
+    }
+
+    /**
+     * Gets the sequence number of the latest change, without reading any entries.
+     *
+     * @return the sequence number, or 0 if changes are not recorded
+     */
+    public long sequence() {
+        return version.sequence;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        Version current = version;
+        return current.coldSize + current.hotSize;
+    }
+
+    /**
+     * Removes all entries. Snapshots taken earlier remain readable.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            version = changeLog == null ? Version.EMPTY : Version.EMPTY.withSequence(changeLog.cleared());
+            hotById.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the owning client used the partition.
+     *
+     * @param nowMillis the access time
+     */
+    public void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+
+    /**
+     * Gets when the owning client last used the partition.
+     *
+     * @return the last access time in epoch milliseconds
+     */
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * Retires the partition if it has been idle since the cutoff.
+     * A retired partition rejects further writes and drops its entries.
+     *
+     * @param cutoffMillis partitions last used before this time are retired
+     * @return true if the partition was retired
+     */
+    public boolean retireIfIdle(long cutoffMillis) {
+        lock.lock();
+        try {
+            if (lastAccessMillis >= cutoffMillis) {
+                return false;
+            }
+            retired = true;
+            version = Version.EMPTY;
+            hotById.clear();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims the oldest hot block for sealing if the hot tier has grown past its
+     * target and no other thread is sealing. Called with the lock held.
+     *
+     * @return the entries to seal, or null if there is nothing to do
+     */
+    private List<ConversionHistory> claimSeal() {
+        Version current = version;
+        if (coldTier == null || sealing || current.hotSize < coldTier.hotEntries() + coldTier.blockSize()) {
+            return null;
+        }
+        sealing = true;
+        List<ConversionHistory> claimed = new ArrayList<>(coldTier.blockSize());
+        for (int i = 0; i < coldTier.blockSize(); i++) {
+            claimed.add(current.hot(i, chunkSize));
+        }
+        return claimed;
+    }
+
+    /**
+     * Encodes and stores claimed blocks without holding the lock, then swaps each
+     * in for its hot entries. Entries are only dropped from the head of the hot
+     * tier, so if the oldest one is still the first claimed entry, none of them
+     * has been evicted or cleared meanwhile; otherwise the block is discarded.
+     */
+    private void sealClaimed(List<ConversionHistory> claimed) {
+        while (claimed != null) {
+            SealedBlock block;
+            try {
+                block = coldTier.store().store(HistoryBlockCodec.encode(claimed, coldTier.formulas()), claimed.size());
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    sealing = false;
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+            lock.lock();
+            try {
+                sealing = false;
+                Version current = version;
+                if (current.hotSize >= claimed.size() && current.hot(0, chunkSize) == claimed.get(0)) {
+                    List<SealedBlock> blocks = new ArrayList<>(current.blocks);
+                    blocks.add(block);
+                    publish(current, current.withCold(blocks, current.skip).dropHot(claimed.size(), chunkSize));
+                }
+                claimed = retired ? null : claimSeal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Version evictOverflow(Version current) {
+        int excess = current.coldSize + current.hotSize - capacity;
+        if (excess <= 0) {
+            return current;
+        }
+        Version next = current;
+        if (current.coldSize > 0) {
+            List<SealedBlock> blocks = new ArrayList<>(current.blocks);
+            int skip = current.skip;
+            while (excess > 0 && !blocks.isEmpty()) {
+                int remaining = blocks.get(0).count() - skip;
+                if (remaining <= excess) {
+                    blocks.remove(0);
+                    excess -= remaining;
+                    skip = 0;
+                } else {
+                    skip += excess;
+                    excess = 0;
+                }
+            }
+            next = next.withCold(blocks, skip);
+        }
+        return excess > 0 ? next.dropHot(excess, chunkSize) : next;
+    }
+
+    /**
+     * Publishes a new version, then forgets the IDs of entries that left the hot
+     * tier since the previous one. Publishing first means a lock-free reader always finds an entry in
+     * either the ID index or the sealed blocks.
+     */
+    private void publish(Version previous, Version next) {
+        version = next;
+        for (int i = 0; i < previous.hotSize - next.hotSize; i++) {
+            ConversionHistory gone = previous.hot(i, chunkSize);
+            hotById.remove(gone.getId(), gone);
+        }
+    }
+
+    /**
+     * One immutable version of the partition layout. Sealed blocks are followed by
+     * hot chunks; the first {@code skip} entries of the oldest block and the first
+     * {@code hotHead} slots of the oldest chunk have been evicted or sealed.
+     */
+    private static final class Version {
+        static final Version EMPTY = new Version(List.of(), 0, 0, List.of(), 0, 0, 0);
+
+        final List<SealedBlock> blocks;
+        final int skip;
+        final int coldSize;
+        final List<ConversionHistory[]> hotChunks;
+        final int hotHead;
+        final int hotSize;
+        final long sequence;
+
+        Version(List<SealedBlock> blocks, int skip, int coldSize,
+                List<ConversionHistory[]> hotChunks, int hotHead, int hotSize, long sequence) {
+            this.blocks = blocks;
+            this.skip = skip;
+            this.coldSize = coldSize;
+            this.hotChunks = hotChunks;
+            this.hotHead = hotHead;
+            this.hotSize = hotSize;
+            this.sequence = sequence;
+        }
+
+        ConversionHistory hot(int index, int chunkSize) {
+            int position = hotHead + index;
+            return hotChunks.get(position / chunkSize)[position % chunkSize];
+        }
+
+        Version withHot(List<ConversionHistory[]> chunks, int head, int size) {
+            return new Version(blocks, skip, coldSize, List.copyOf(chunks), head, size, sequence);
+        }
+
+        Version withCold(List<SealedBlock> newBlocks, int newSkip) {
+            int count = newBlocks.stream().mapToInt(SealedBlock::count).sum() - newSkip;
+            return new Version(List.copyOf(newBlocks), newSkip, count, hotChunks, hotHead, hotSize, sequence);
+        }
+
+        Version withSequence(long newSequence) {
+            return new Version(blocks, skip, coldSize, hotChunks, hotHead, hotSize, newSequence);
+        }
+
+        Version dropHot(int count, int chunkSize) {
+            int head = hotHead + count;
+            int fullChunks = head / chunkSize;
+            List<ConversionHistory[]> chunks = hotChunks.subList(fullChunks, hotChunks.size());
+            return withHot(chunks, head - fullChunks * chunkSize, hotSize - count);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.model.ConversionHistory;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable point-in-time view of a partition's history, oldest first.
+ *
+ * <p>The view shares the partition's sealed blocks and hot chunks instead of
+ * copying them: hot chunks are append-only and entries below the captured
+ * length never change, and sealed blocks are immutable. Iteration decodes one
+ * sealed block at a time, so concurrent readers of a large history only hold
+ * one decoded block each.
+ */
+public final class HistorySnapshot extends AbstractList<ConversionHistory> {
+
+    /**
+     * Snapshot of a history with no entries and no recorded changes.
+     */
+    public static final HistorySnapshot EMPTY = new HistorySnapshot(List.of(), 0, 0, List.of(), 1, 0, 0, null, 0);
+
+    private final List<SealedBlock> blocks;
+    private final int skip;
+    private final int coldSize;
+    private final List<ConversionHistory[]> hotChunks;
+    private final int chunkSize;
+    private final int hotHead;
+    private final int hotSize;
+    private final FormulaSource formulas;
+    private final long sequence;
+    private volatile DecodedBlock lastDecoded;
+
+    HistorySnapshot(List<SealedBlock> blocks, int skip, int coldSize, List<ConversionHistory[]> hotChunks,
+            int chunkSize, int hotHead, int hotSize, FormulaSource formulas, long sequence) {
+        this.blocks = blocks;
+        this.skip = skip;
+        this.coldSize = coldSize;
+        this.hotChunks = hotChunks;
+        this.chunkSize = chunkSize;
+        this.hotHead = hotHead;
+        this.hotSize = hotSize;
+        this.formulas = formulas;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public int size() {
+        return coldSize + hotSize;
+    }
+
+    @Override
+    public ConversionHistory get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        if (index >= coldSize) {
+            return hot(index - coldSize);
+        }
+        int position = index + skip;
+        for (int i = 0; i < blocks.size(); i++) {
+            int count = blocks.get(i).count();
+            if (position < count) {
+                return decoded(i).get(position);
+            }
+            position -= count;
+        }
+        throw new IllegalStateException("Sealed blocks do not match snapshot size");
+    }
+
+    @Override
+    public Iterator<ConversionHistory> iterator() {
+        return new Iterator<>() {
+            private int block;
+            private List<ConversionHistory> current = Collections.emptyList();
+            private int offset;
+            private int hotIndex;
+
+            @Override
+            public boolean hasNext() {
+                while (offset >= current.size() && block < blocks.size()) {
+                    current = HistoryBlockCodec.decode(blocks.get(block).load(), formulas);
+                    offset = block == 0 ? skip : 0;
+                    block++;
+                }
+                return offset < current.size() || hotIndex < hotSize;
+            }
+
+            @Override
+            public ConversionHistory next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (offset < current.size()) {
+                    return current.get(offset++);
+                }
+                return hot(hotIndex++);
+            }
+        };
+    }
+
+    /**
+     * Gets the sequence number of the last change included in the view.
+     *
+     * @return the sequence number, or 0 if changes are not recorded
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the sealed blocks of the view, oldest first.
+     *
+     * @return the blocks
+     */
+    public List<SealedBlock> sealedBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Gets the number of evicted entries at the start of the oldest sealed block.
+     *
+     * @return the entries to skip
+     */
+    public int sealedSkip() {
+        return skip;
+    }
+
+    /**
+     * Gets the live entries of the view, oldest first, without decoding sealed blocks.
+     *
+     * @return the hot entries
+     */
+    public List<ConversionHistory> hotEntries() {
+        return subList(coldSize, size());
+    }
+
+    private ConversionHistory hot(int index) {
+        int position = hotHead + index;
+        return hotChunks.get(position / chunkSize)[position % chunkSize];
+    }
+
+    private List<ConversionHistory> decoded(int blockIndex) {
+        DecodedBlock cached = lastDecoded;
+        if (cached == null || cached.index != blockIndex) {
+            cached = new DecodedBlock(blockIndex, HistoryBlockCodec.decode(blocks.get(blockIndex).load(), formulas));
+            lastDecoded = cached;
+        }
+        return cached.entries;
+    }
+
+    private record DecodedBlock(int index, List<ConversionHistory> entries) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.convertly.demo.history;
+
+/**
+ * An immutable compressed block of history entries produced by {@link HistoryBlockCodec}.
+ * A block stays readable for as long as it is referenced, so snapshots taken
+ * before the block was evicted can still be iterated.
+ */
+public interface SealedBlock {
+
+    /**
+     * Gets the number of entries in the block.
+     *
+     * @return the entry count
+     */
+    int count();
+
+    /**
+     * Gets the size of the encoded block.
+     *
+     * @return the size in bytes
+     */
+    long encodedBytes();
+
+    /**
+     * Loads the encoded block.
+     *
+     * @return the encoded bytes
+     */
+    byte[] load();
+}
@@ -0,0 +1,37 @@
+package com.convertly.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one conversion through the service manager, from
+ * routing to the history insert. Its duration is the time the conversion took.
+ */
+@Name("com.convertly.Conversion")
+@Label("Conversion")
+@Category("Convertly")
+@Description("A unit conversion, including recording it in history")
+@StackTrace(false)
+public class ConversionEvent extends Event {
+
+    @Label("Category")
+    public String category;
+
+    @Label("From Unit")
+    public String fromUnit;
+
+    @Label("To Unit")
+    public String toUnit;
+
+    @Label("Value Count")
+    @Description("Number of values converted")
+    public int valueCount;
+
+    @Label("Success")
+    @Description("False if the conversion was rejected or failed")
+    public boolean success;
+}
@@ -0,0 +1,39 @@
+package com.convertly.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one history export, streamed as a download or
+ * written to a file in the background. Its duration is the time spent writing.
+ */
+@Name("com.convertly.HistoryExport")
+@Label("History Export")
+@Category("Convertly")
+@Description("A history export written as CSV or JSON")
+@StackTrace(false)
+public class HistoryExportEvent extends Event {
+
+    @Label("Format")
+    public String format;
+
+    @Label("Mode")
+    @Description("download or background")
+    public String mode;
+
+    @Label("Value Count")
+    @Description("Number of history entries written")
+    public long valueCount;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,268 @@
+package com.convertly.demo.lite;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ResponseView;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.exception.InvalidUnitException;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.model.ErrorResponse;
+import com.convertly.demo.service.ConversionService;
+import com.convertly.demo.validation.ConversionRequestValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.springframework.util.DigestUtils;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.SimpleErrors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@code POST /convert}, {@code GET /categories} and {@code GET /units} with
+ * the same request and response bodies as {@code ConverterController}.
+ *
+ * <p>Requests go straight to the conversion services: there is no history, no
+ * metrics and no request filter. Metadata responses are serialized once, with the
+ * same ETags as the Spring application. Errors use the {@link ErrorResponse} body;
+ * unreadable requests, missing parameters, unknown paths and wrong methods get
+ * 400, 404 and 405 instead of the 500 the servlet stack answers with.
+ */
+final class ConverterHandler implements HttpHandler {
+
+    private static final String JSON = "application/json";
+    private static final ResponseView[] VIEWS = ResponseView.values();
+
+    private final Map<Category, ConversionService> services = new EnumMap<>(Category.class);
+    private final ConversionRequestValidator validator = new ConversionRequestValidator();
+    private final ObjectReader requestReader;
+    private final ObjectWriter[] responseWriters = new ObjectWriter[VIEWS.length];
+    private final ObjectWriter errorWriter;
+    private final String cacheControl;
+    private final Metadata categories;
+    private final Map<Category, Metadata> units = new EnumMap<>(Category.class);
+
+    ConverterHandler(ObjectMapper objectMapper, List<ConversionService> conversionServices,
+                     Duration metadataMaxAge) {
+        for (Category category : Category.values()) {
+            for (ConversionService service : conversionServices) {
+                if (service.supports(category.getValue())) {
+                    services.put(category, service);
+                    break;
+                }
+            }
+        }
+        this.requestReader = objectMapper.readerFor(ConversionRequest.class);
+        for (ResponseView view : VIEWS) {
+            ObjectWriter writer = objectMapper.writerFor(ConversionResponse.class);
+            responseWriters[view.ordinal()] = view == ResponseView.FULL ? writer : writer.withView(view.getJsonView());
+        }
+        this.errorWriter = objectMapper.writerFor(ErrorResponse.class);
+        this.cacheControl = "max-age=" + metadataMaxAge.toSeconds() + ", public";
+        this.categories = Metadata.of(objectMapper, UnitCatalog.categoryValues());
+        for (Category category : Category.values()) {
+            units.put(category, Metadata.of(objectMapper, UnitCatalog.unitValues(category)));
+        }
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            try {
+                route(exchange, path);
+            } catch (InvalidUnitException e) {
+                sendError(exchange, 400, "InvalidUnitException", e.getMessage(), path);
+            } catch (JsonProcessingException e) {
+                // Invalid enum values fail inside Jackson; report them like the services do
+                if (e.getCause() instanceof IllegalArgumentException cause) {
+                    sendError(exchange, 400, "IllegalArgumentException", cause.getMessage(), path);
+                } else {
+                    sendError(exchange, 400, "TypeMismatchException", "Failed to read HTTP message", path);
+                }
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "IllegalArgumentException", e.getMessage(), path);
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, "InternalServerError", "An unexpected error occurred: " + e.getMessage(),
+                        path);
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String path) throws IOException {
+        switch (path) {
+            case "/convert" -> {
+                if (allow(exchange, "POST", path)) {
+                    convert(exchange, path);
+                }
+            }
+            case "/categories" -> {
+                if (allow(exchange, "GET", path)) {
+                    sendMetadata(exchange, categories);
+                }
+            }
+            case "/units" -> {
+                if (allow(exchange, "GET", path)) {
+                    units(exchange, path);
+                }
+            }
+            default -> sendError(exchange, 404, "NotFound",
+                    "No endpoint " + exchange.getRequestMethod() + " " + path, path);
+        }
+    }
+
+    private void convert(HttpExchange exchange, String path) throws IOException {
+        String viewParameter = queryParameter(exchange, "view");
+        ResponseView view = resolveView(viewParameter, exchange.getRequestHeaders().getFirst("Accept"));
+        ConversionRequest request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = requestReader.readValue(body);
+        }
+        if (request == null) {
+            throw new IllegalArgumentException("Request body is required");
+        }
+        SimpleErrors errors = new SimpleErrors(request, "conversionRequest");
+        validator.validate(request, errors);
+        if (errors.hasErrors()) {
+            String message = errors.getFieldErrors().stream()
+                    .map(FieldError::getDefaultMessage)
+                    .collect(Collectors.joining(", "));
+            sendError(exchange, 400, "ValidationException", message, path);
+            return;
+        }
+        ConversionService service = services.get(request.getCategory());
+        if (service == null) {
+            throw new InvalidUnitException("No service found for category: " + request.getCategory().getValue());
+        }
+        byte[] body = responseWriters[view.ordinal()].writeValueAsBytes(service.convert(request));
+        send(exchange, 200, viewParameter == null ? view.getContentType() : JSON, body);
+    }
+
+    private void units(HttpExchange exchange, String path) throws IOException {
+        String category = queryParameter(exchange, "category");
+        if (category == null) {
+            sendError(exchange, 400, "TypeMismatchException", "Required query parameter 'category' is not present.",
+                    path);
+            return;
+        }
+        Category found = UnitCatalog.findCategory(category.trim().toLowerCase(Locale.ROOT));
+        if (found == null) {
+            throw new InvalidUnitException("Invalid category: " + category);
+        }
+        sendMetadata(exchange, units.get(found));
+    }
+
+    /**
+     * Resolves the view from the {@code view} query parameter, then from a view
+     * media type in the Accept header.
+     */
+    private static ResponseView resolveView(String viewParameter, String accept) {
+        if (viewParameter != null) {
+            return ResponseView.fromValue(viewParameter);
+        }
+        if (accept != null) {
+            for (ResponseView candidate : VIEWS) {
+                if (candidate != ResponseView.FULL && accept.contains(candidate.getContentType())) {
+                    return candidate;
+                }
+            }
+        }
+        return ResponseView.FULL;
+    }
+
+    private void sendMetadata(HttpExchange exchange, Metadata metadata) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", metadata.etag());
+        headers.set("Cache-Control", cacheControl);
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), metadata.etag())) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        send(exchange, 200, JSON, metadata.body());
+    }
+
+    private boolean allow(HttpExchange exchange, String method, String path) throws IOException {
+        if (method.equals(exchange.getRequestMethod())) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        sendError(exchange, 405, "MethodNotAllowed",
+                "Request method '" + exchange.getRequestMethod() + "' is not supported", path);
+        return false;
+    }
+
+    private void sendError(HttpExchange exchange, int status, String error, String message, String path)
+            throws IOException {
+        send(exchange, status, JSON, errorWriter.writeValueAsBytes(new ErrorResponse(error, message, status, path)));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A metadata response serialized once, with the strong ETag the Spring
+     * application derives from the same bytes.
+     */
+    private record Metadata(byte[] body, String etag) {
+
+        static Metadata of(ObjectMapper objectMapper, Object value) {
+            try {
+                byte[] body = objectMapper.writeValueAsBytes(value);
+                return new Metadata(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
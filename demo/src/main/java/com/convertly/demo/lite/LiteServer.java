@@ -0,0 +1,124 @@
+package com.convertly.demo.lite;
+
+import com.convertly.demo.service.LengthService;
+import com.convertly.demo.service.TemperatureService;
+import com.convertly.demo.service.TimeService;
+import com.convertly.demo.service.WeightService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Alternative entry point that serves only {@code /convert}, {@code /categories}
+ * and {@code /units} from the JDK's built-in HTTP server, for running the converter
+ * as a sidecar with a small footprint.
+ *
+ * <p>No application context is started: the conversion services, the request
+ * validator and the JSON mapper are created directly, and there is no history,
+ * Actuator, Swagger UI or Bean Validation. The mapper is configured like Spring
+ * Boot's, so request and response bodies are the same as those of
+ * {@code DemoApplication}.
+ *
+ * <pre>
+ * java -cp demo.jar -Dloader.main=com.convertly.demo.lite.LiteServer \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher --port=8080 --threads=4
+ * </pre>
+ */
+public final class LiteServer implements AutoCloseable {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final Duration METADATA_MAX_AGE = Duration.ofDays(1);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private LiteServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @param threads the number of request threads
+     * @return the running server
+     * @throws IOException if the address cannot be bound
+     */
+    public static LiteServer start(InetSocketAddress address, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        // Headers and body are written separately; with Nagle's algorithm the body would
+        // wait for the client's delayed ACK of the headers on a kept-alive connection
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .modulesToInstall(new BlackbirdModule())
+                .build();
+        ConverterHandler handler = new ConverterHandler(objectMapper,
+                List.of(new TemperatureService(), new LengthService(), new WeightService(), new TimeService()),
+                METADATA_MAX_AGE);
+        HttpServer server = HttpServer.create(address, BACKLOG);
+        server.createContext("/", handler);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("lite-"));
+        server.setExecutor(executor);
+        server.start();
+        return new LiteServer(server, executor);
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long mainStart = System.nanoTime();
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                System.err.println("Usage: LiteServer [--port=8080] [--threads=<processors>]");
+                System.exit(2);
+            }
+        }
+        LiteServer server = start(new InetSocketAddress(port), threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "lite-shutdown"));
+        long started = Duration.ofNanos(System.nanoTime() - mainStart).toMillis();
+        long running = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(started);
+        System.out.printf("Convertly lite started on port %d with %d threads in %d ms (process running for %d ms)%n",
+                server.getPort(), threads, started, running);
+    }
+}
@@ -0,0 +1,147 @@
+package com.convertly.demo.metrics;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Conversion timers, per-stage histograms and validation failure counters.
+ *
+ * <p>Timers are tagged by category, unit pair and outcome. Units are resolved
+ * through {@link UnitCatalog}, so the tags only ever hold catalog names and
+ * anything a client made up is reported as {@value #OTHER}; the number of series
+ * is bounded by the catalog rather than by the requests. Each timer is looked up
+ * in an array by its pair key, so recording does not build tags or hash them.
+ */
+@Component
+public class ConversionMetrics {
+
+    public static final String CONVERSIONS = "convertly.conversions";
+    public static final String VALIDATION_FAILURES = "convertly.validation.failures";
+    public static final String STAGES = "convertly.conversion.stages";
+
+    /**
+     * Tag value of categories and units that are not in the catalog.
+     */
+    public static final String OTHER = "other";
+
+    private static final Stage[] STAGE_VALUES = Stage.values();
+    private static final int CATEGORY_COUNT = Category.values().length;
+    // Known pairs, then one slot per category for unknown units, then one for an unknown category
+    private static final int SLOTS = UnitCatalog.PAIR_KEY_LIMIT + CATEGORY_COUNT + 1;
+
+    private final MeterRegistry registry;
+    private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(SLOTS * 2);
+    private final AtomicReferenceArray<Timer> stageTimers = new AtomicReferenceArray<>(STAGE_VALUES.length);
+    private final Map<String, Counter> validationFailures = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConversionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Records the duration of a conversion.
+     *
+     * @param request the conversion request
+     * @param nanos the time taken, in nanoseconds
+     * @param success false if the conversion was rejected or failed
+     */
+    public void recordConversion(ConversionRequest request, long nanos, boolean success) {
+        int index = slot(request) * 2 + (success ? 0 : 1);
+        Timer timer = timers.get(index);
+        if (timer == null) {
+            // Registering the same ID again returns the existing timer, so racing here is harmless
+            timer = register(index);
+            timers.set(index, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the stages a timed conversion reached into per-stage histograms.
+     * The timers are only registered once stage timing is used.
+     *
+     * @param timer the finished request's timer
+     */
+    public void recordStages(StageTimer timer) {
+        for (Stage stage : STAGE_VALUES) {
+            if (timer.isMarked(stage)) {
+                Timer stageTimer = stageTimers.get(stage.ordinal());
+                if (stageTimer == null) {
+                    stageTimer = Timer.builder(STAGES)
+                            .description("Time spent in each stage of /convert")
+                            .tag("stage", stage.getValue())
+                            .publishPercentileHistogram()
+                            .register(registry);
+                    stageTimers.set(stage.ordinal(), stageTimer);
+                }
+                stageTimer.record(timer.getStageNanos(stage), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Counts a request rejected as invalid.
+     *
+     * @param type the error type reported to the client
+     */
+    public void recordValidationFailure(String type) {
+        Counter counter = validationFailures.get(type);
+        if (counter == null) {
+            // The registering lambda captures this, so it is only created on a miss
+            counter = validationFailures.computeIfAbsent(type, key -> Counter.builder(VALIDATION_FAILURES)
+                    .description("Requests rejected as invalid")
+                    .tag("type", key)
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    private static int slot(ConversionRequest request) {
+        Category category = request.getCategory();
+        if (category == null) {
+            return SLOTS - 1;
+        }
+        int from = UnitCatalog.unitOrdinal(category, request.getFromUnit());
+        int to = UnitCatalog.unitOrdinal(category, request.getToUnit());
+        if (from == UnitCatalog.UNKNOWN || to == UnitCatalog.UNKNOWN) {
+            return UnitCatalog.PAIR_KEY_LIMIT + category.ordinal();
+        }
+        return UnitCatalog.pairKey(category, from, to);
+    }
+
+    private Timer register(int index) {
+        int slot = index / 2;
+        String category = OTHER;
+        String from = OTHER;
+        String to = OTHER;
+        if (slot < UnitCatalog.PAIR_KEY_LIMIT) {
+            Category pairCategory = UnitCatalog.pairCategory(slot);
+            category = pairCategory.getValue();
+            from = UnitCatalog.unitValue(pairCategory, UnitCatalog.pairFromOrdinal(slot));
+            to = UnitCatalog.unitValue(pairCategory, UnitCatalog.pairToOrdinal(slot));
+        } else if (slot < SLOTS - 1) {
+            category = UnitCatalog.category(slot - UnitCatalog.PAIR_KEY_LIMIT).getValue();
+        }
+        return Timer.builder(CONVERSIONS)
+                .description("Time to convert a value and record it in history")
+                .tag("category", category)
+                .tag("from", from)
+                .tag("to", to)
+                .tag("outcome", index % 2 == 0 ? "success" : "error")
+                .register(registry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.convertly.demo.metrics;
+
+import com.convertly.demo.enums.ExportFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and byte counters of history exports, per format and mode. All meters
+ * are registered up front, since there are only a few of them.
+ */
+@Component
+public class ExportMetrics {
+
+    public static final String EXPORTS = "convertly.exports";
+    public static final String EXPORT_BYTES = "convertly.export.bytes";
+
+    /**
+     * How an export was produced.
+     */
+    public enum Mode {
+        /**
+         * Streamed in the response of {@code /history/download/*}.
+         */
+        DOWNLOAD,
+
+        /**
+         * Written to a file by {@code /history/exports}.
+         */
+        BACKGROUND
+    }
+
+    private final Timer[][] succeeded;
+    private final Timer[][] failed;
+    private final Counter[][] bytes;
+
+    @Autowired
+    public ExportMetrics(MeterRegistry registry) {
+        ExportFormat[] formats = ExportFormat.values();
+        Mode[] modes = Mode.values();
+        this.succeeded = new Timer[formats.length][modes.length];
+        this.failed = new Timer[formats.length][modes.length];
+        this.bytes = new Counter[formats.length][modes.length];
+        for (ExportFormat format : formats) {
+            for (Mode mode : modes) {
+                String modeValue = mode.name().toLowerCase(Locale.ROOT);
+                succeeded[format.ordinal()][mode.ordinal()] = timer(registry, format, modeValue, "success");
+                failed[format.ordinal()][mode.ordinal()] = timer(registry, format, modeValue, "error");
+                bytes[format.ordinal()][mode.ordinal()] = Counter.builder(EXPORT_BYTES)
+                        .description("Bytes written by history exports")
+                        .baseUnit("bytes")
+                        .tag("format", format.getValue())
+                        .tag("mode", modeValue)
+                        .register(registry);
+            }
+        }
+    }
+
+    /**
+     * Records a completed export.
+     *
+     * @param format the export format
+     * @param mode how the export was produced
+     * @param nanos the time taken, in nanoseconds
+     * @param byteCount the size of the export
+     */
+    public void recordExport(ExportFormat format, Mode mode, long nanos, long byteCount) {
+        succeeded[format.ordinal()][mode.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        bytes[format.ordinal()][mode.ordinal()].increment(byteCount);
+    }
+
+    /**
+     * Records an export that failed or was cancelled.
+     *
+     * @param format the export format
+     * @param mode how the export was produced
+     * @param nanos the time until it stopped, in nanoseconds
+     */
+    public void recordFailedExport(ExportFormat format, Mode mode, long nanos) {
+        failed[format.ordinal()][mode.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MeterRegistry registry, ExportFormat format, String mode, String outcome) {
+        return Timer.builder(EXPORTS)
+                .description("Time to write a history export")
+                .tag("format", format.getValue())
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
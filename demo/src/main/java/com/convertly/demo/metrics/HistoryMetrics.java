@@ -0,0 +1,78 @@
+package com.convertly.demo.metrics;
+
+import com.convertly.demo.service.ConversionHistoryService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges of history size per tier and the memory it is estimated to retain.
+ *
+ * <p>The tier statistics walk every hot entry, so they are computed at most once
+ * per second and shared by all gauges of a scrape.
+ */
+@Component
+public class HistoryMetrics implements MeterBinder {
+
+    public static final String ENTRIES = "convertly.history.entries";
+    public static final String PARTITIONS = "convertly.history.partitions";
+    public static final String RETAINED_BYTES = "convertly.history.retained.bytes";
+
+    /**
+     * Measured heap size of one hot entry with its request, response and strings,
+     * not counting its cached JSON.
+     */
+    static final long ESTIMATED_HOT_ENTRY_BYTES = 480;
+
+    private static final long STATS_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConversionHistoryService historyService;
+    private volatile TierStats stats;
+
+    @Autowired
+    public HistoryMetrics(ConversionHistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(PARTITIONS, historyService, ConversionHistoryService::getPartitionCount)
+                .description("Clients with a history partition")
+                .register(registry);
+        gauge(registry, ENTRIES, "hot", "History entries held as objects", stats -> stats.get("hotEntries"));
+        gauge(registry, ENTRIES, "cold", "History entries sealed into compressed blocks",
+                stats -> stats.get("coldEntries"));
+        gauge(registry, RETAINED_BYTES, "hot", "Estimated heap retained by hot history entries",
+                stats -> stats.get("hotEntries") * ESTIMATED_HOT_ENTRY_BYTES + stats.get("hotJsonBytes"));
+        gauge(registry, RETAINED_BYTES, "cold", "Bytes of sealed history blocks, on heap or on disk",
+                stats -> stats.get("coldBytes"));
+    }
+
+    private void gauge(MeterRegistry registry, String name, String tier, String description,
+            ToDoubleFunction<Map<String, Long>> value) {
+        Gauge.builder(name, this, metrics -> value.applyAsDouble(metrics.tierStats()))
+                .description(description)
+                .tag("tier", tier)
+                .baseUnit(name.equals(RETAINED_BYTES) ? "bytes" : null)
+                .register(registry);
+    }
+
+    private Map<String, Long> tierStats() {
+        TierStats current = stats;
+        long now = System.nanoTime();
+        if (current == null || now - current.computedAt > STATS_MAX_AGE_NANOS) {
+            current = new TierStats(now, historyService.getTierStats());
+            stats = current;
+        }
+        return current.values;
+    }
+
+    private record TierStats(long computedAt, Map<String, Long> values) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.convertly.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model representing one group of a history aggregation query.
+ * Dimensions that were not grouped by are null and omitted from JSON.
+ */
+@Schema(description = "One group of a history aggregation")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AggregateRow {
+
+    @Schema(description = "Category of the group", example = "length")
+    private String category;
+
+    @Schema(description = "Source unit of the group", example = "meter")
+    private String fromUnit;
+
+    @Schema(description = "Target unit of the group", example = "foot")
+    private String toUnit;
+
+    @Schema(description = "Start of the time bucket", example = "2024-03-01T09:00:00")
+    private LocalDateTime bucketStart;
+
+    @Schema(description = "Number of conversions in the group", example = "1250")
+    private long count;
+
+    @Schema(description = "Sum of the aggregated values", example = "31250.0")
+    private Double sum;
+
+    @Schema(description = "Smallest aggregated value", example = "0.5")
+    private Double min;
+
+    @Schema(description = "Largest aggregated value", example = "1000.0")
+    private Double max;
+
+    @Schema(description = "Average of the aggregated values", example = "25.0")
+    private Double avg;
+
+    // Default constructor
+    public AggregateRow() {
+    }
+
+    // Getters and setters
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getFromUnit() {
+        return fromUnit;
+    }
+
+    public void setFromUnit(String fromUnit) {
+        this.fromUnit = fromUnit;
+    }
+
+    public String getToUnit() {
+        return toUnit;
+    }
+
+    public void setToUnit(String toUnit) {
+        this.toUnit = toUnit;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Double getSum() {
+        return sum;
+    }
+
+    public void setSum(Double sum) {
+        this.sum = sum;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public Double getAvg() {
+        return avg;
+    }
+
+    public void setAvg(Double avg) {
+        this.avg = avg;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregateRow{" +
+                "category='" + category + '\'' +
+                ", fromUnit='" + fromUnit + '\'' +
+                ", toUnit='" + toUnit + '\'' +
+                ", bucketStart=" + bucketStart +
+                ", count=" + count +
+                ", sum=" + sum +
+                ", min=" + min +
+                ", max=" + max +
+                ", avg=" + avg +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.convertly.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonView;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.LocalDateTime;
 
@@ -10,17 +12,25 @@ import java.time.LocalDateTime;
 public class ConversionHistory {
 
     @Schema(description = "Unique identifier for the conversion")
+    @JsonView(Views.Result.class)
     private String id;
 
     @Schema(description = "Timestamp when the conversion was performed")
+    @JsonView(Views.Result.class)
     private LocalDateTime timestamp;
 
     @Schema(description = "The conversion request")
+    @JsonView(Views.Result.class)
     private ConversionRequest request;
 
     @Schema(description = "The conversion response")
+    @JsonView(Views.Result.class)
     private ConversionResponse response;
 
+    // Cached UTF-8 JSON form, kept alongside the fields; entries are not modified once recorded
+    @JsonIgnore
+    private volatile byte[] serializedJson;
+
     // Default constructor
     public ConversionHistory() {
         this.timestamp = LocalDateTime.now();
@@ -67,6 +77,16 @@ public class ConversionHistory {
         this.response = response;
     }
 
+    @JsonIgnore
+    public byte[] getSerializedJson() {
+        return serializedJson;
+    }
+
+    @JsonIgnore
+    public void setSerializedJson(byte[] serializedJson) {
+        this.serializedJson = serializedJson;
+    }
+
     @Override
     public String toString() {
         return "ConversionHistory{" +
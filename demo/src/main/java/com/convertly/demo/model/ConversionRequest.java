@@ -1,6 +1,7 @@
 package com.convertly.demo.model;
 
 import com.convertly.demo.enums.Category;
+import com.fasterxml.jackson.annotation.JsonView;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 
@@ -13,18 +14,22 @@ public class ConversionRequest {
     @NotNull(message = "Category is required")
     @Schema(description = "The conversion category", example = "temperature", allowableValues = { "temperature",
             "length", "weight", "time" })
+    @JsonView(Views.Result.class)
     private Category category;
 
     @NotNull(message = "From unit is required")
     @Schema(description = "The unit to convert from", example = "celsius")
+    @JsonView(Views.Result.class)
     private String fromUnit;
 
     @NotNull(message = "To unit is required")
     @Schema(description = "The unit to convert to", example = "fahrenheit")
+    @JsonView(Views.Result.class)
     private String toUnit;
 
     @NotNull(message = "Value is required")
     @Schema(description = "The value to convert", example = "25")
+    @JsonView(Views.Result.class)
     private Double value;
 
     // Default constructor
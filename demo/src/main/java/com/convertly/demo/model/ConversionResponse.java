@@ -1,5 +1,6 @@
 package com.convertly.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
@@ -9,16 +10,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 public class ConversionResponse {
 
     @Schema(description = "The converted result", example = "77.0")
+    @JsonView(Views.Result.class)
     private Double result;
 
     @Schema(description = "The formula used for conversion", 
             example = "(25°C × 9/5) + 32 = 77°F")
+    @JsonView(Views.Compact.class)
     private String formula;
 
     @Schema(description = "The original input request")
+    @JsonView(Views.Full.class)
     private ConversionRequest originalInput;
 
     @Schema(description = "Status of the conversion", example = "success")
+    @JsonView(Views.Full.class)
     private String status;
 
     // Default constructor
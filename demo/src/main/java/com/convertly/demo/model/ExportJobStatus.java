@@ -0,0 +1,159 @@
+package com.convertly.demo.model;
+
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.ExportState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model representing the progress of a background history export.
+ * Fields that do not apply yet are null and omitted from JSON.
+ */
+@Schema(description = "Status of a background history export")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobStatus {
+
+    @Schema(description = "Export ID", example = "3f2a9c4e-8b1d-4e6f-9a7c-2d5b8e1f0a3c")
+    private String id;
+
+    @Schema(description = "File format", example = "csv")
+    private ExportFormat format;
+
+    @Schema(description = "Export state", example = "running")
+    private ExportState state;
+
+    @Schema(description = "Number of entries in the exported snapshot", example = "250000")
+    private long totalEntries;
+
+    @Schema(description = "Number of entries written so far", example = "125000")
+    private long writtenEntries;
+
+    @Schema(description = "Size of the finished file in bytes", example = "31457280")
+    private Long sizeBytes;
+
+    @Schema(description = "When the export was requested")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When the export finished")
+    private LocalDateTime completedAt;
+
+    @Schema(description = "When the finished file will be deleted")
+    private LocalDateTime expiresAt;
+
+    @Schema(description = "Why the export failed")
+    private String error;
+
+    @Schema(description = "Where to download the finished file", example = "/history/exports/3f2a9c4e-8b1d-4e6f-9a7c-2d5b8e1f0a3c/download")
+    private String downloadUrl;
+
+    // Default constructor
+    public ExportJobStatus() {
+    }
+
+    // Constructor with all fields
+    public ExportJobStatus(String id, ExportFormat format, ExportState state, long totalEntries,
+                           long writtenEntries, Long sizeBytes, LocalDateTime createdAt,
+                           LocalDateTime completedAt, LocalDateTime expiresAt, String error) {
+        this.id = id;
+        this.format = format;
+        this.state = state;
+        this.totalEntries = totalEntries;
+        this.writtenEntries = writtenEntries;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.expiresAt = expiresAt;
+        this.error = error;
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ExportFormat format) {
+        this.format = format;
+    }
+
+    public ExportState getState() {
+        return state;
+    }
+
+    public void setState(ExportState state) {
+        this.state = state;
+    }
+
+    public long getTotalEntries() {
+        return totalEntries;
+    }
+
+    public void setTotalEntries(long totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+
+    public long getWrittenEntries() {
+        return writtenEntries;
+    }
+
+    public void setWrittenEntries(long writtenEntries) {
+        this.writtenEntries = writtenEntries;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public void setDownloadUrl(String downloadUrl) {
+        this.downloadUrl = downloadUrl;
+    }
+}
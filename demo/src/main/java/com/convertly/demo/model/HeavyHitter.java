@@ -0,0 +1,51 @@
+package com.convertly.demo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Model representing a frequently seen item with its estimated count.
+ */
+@Schema(description = "Frequently seen item with its estimated count")
+public class HeavyHitter {
+
+    @Schema(description = "The item, such as a unit pair or an input value", example = "temperature:celsius->fahrenheit")
+    private String item;
+
+    @Schema(description = "Estimated number of occurrences (upper bound)", example = "42")
+    private long count;
+
+    // Default constructor
+    public HeavyHitter() {
+    }
+
+    // Constructor with all fields
+    public HeavyHitter(String item, long count) {
+        this.item = item;
+        this.count = count;
+    }
+
+    // Getters and setters
+    public String getItem() {
+        return item;
+    }
+
+    public void setItem(String item) {
+        this.item = item;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "HeavyHitter{" +
+                "item='" + item + '\'' +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.convertly.demo.model;
+
+import com.convertly.demo.enums.ChangeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Model representing one mutation of a client's history.
+ */
+@Schema(description = "One mutation of the caller's history")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HistoryChange {
+
+    @Schema(description = "Sequence number of the mutation", example = "42")
+    private long sequence;
+
+    @Schema(description = "Kind of mutation", example = "insert")
+    private ChangeType type;
+
+    @Schema(description = "The inserted entry (insert only)")
+    private ConversionHistory entry;
+
+    @Schema(description = "Number of oldest entries removed (evict only)", example = "1")
+    private Integer count;
+
+    // Default constructor
+    public HistoryChange() {
+    }
+
+    // Constructor with all fields
+    public HistoryChange(long sequence, ChangeType type, ConversionHistory entry, Integer count) {
+        this.sequence = sequence;
+        this.type = type;
+        this.entry = entry;
+        this.count = count;
+    }
+
+    // Getters and setters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public ConversionHistory getEntry() {
+        return entry;
+    }
+
+    public void setEntry(ConversionHistory entry) {
+        this.entry = entry;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryChange{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", entry=" + entry +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.convertly.demo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Model representing the history changes after a sequence number.
+ */
+@Schema(description = "History changes after a sequence number")
+public class HistoryChanges {
+
+    @Schema(description = "Sequence number to pass as 'since' on the next poll", example = "42")
+    private long latestSequence;
+
+    @Schema(description = "True if the requested changes are no longer available; " +
+            "reload GET /history and continue from its X-History-Sequence header", example = "false")
+    private boolean resync;
+
+    @Schema(description = "Changes in sequence order")
+    private List<HistoryChange> changes;
+
+    // Default constructor
+    public HistoryChanges() {
+    }
+
+    // Constructor with all fields
+    public HistoryChanges(long latestSequence, boolean resync, List<HistoryChange> changes) {
+        this.latestSequence = latestSequence;
+        this.resync = resync;
+        this.changes = changes;
+    }
+
+    // Getters and setters
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    public void setLatestSequence(long latestSequence) {
+        this.latestSequence = latestSequence;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+
+    public List<HistoryChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<HistoryChange> changes) {
+        this.changes = changes;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryChanges{" +
+                "latestSequence=" + latestSequence +
+                ", resync=" + resync +
+                ", changes=" + changes +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.convertly.demo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Model representing the outcome of a bulk history import.
+ */
+@Schema(description = "Outcome of a bulk history import")
+public class ImportResult {
+
+    @Schema(description = "Number of rows added to the history", example = "9998")
+    private long imported;
+
+    @Schema(description = "Number of rows skipped because their ID was already present", example = "1")
+    private long duplicates;
+
+    @Schema(description = "Number of rows skipped because they were not valid conversions", example = "1")
+    private long rejected;
+
+    @Schema(description = "Number of entries in the history after the import, " +
+            "which is capped at the per-client maximum", example = "10000")
+    private int totalEntries;
+
+    @Schema(description = "Time taken by the import in milliseconds", example = "850")
+    private long durationMillis;
+
+    // Default constructor
+    public ImportResult() {
+    }
+
+    // Constructor with all fields
+    public ImportResult(long imported, long duplicates, long rejected, int totalEntries, long durationMillis) {
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.totalEntries = totalEntries;
+        this.durationMillis = durationMillis;
+    }
+
+    // Getters and setters
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    public void setTotalEntries(int totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
@@ -0,0 +1,77 @@
+package com.convertly.demo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Model representing input and result quantiles for a category or unit pair.
+ */
+@Schema(description = "Input and result quantiles for a category or unit pair")
+public class QuantileSummary {
+
+    @Schema(description = "Category, or category and unit pair", example = "temperature:celsius->fahrenheit")
+    private String key;
+
+    @Schema(description = "Number of conversions observed", example = "1250")
+    private long count;
+
+    @Schema(description = "Quantiles of the input values")
+    private ValueQuantiles input;
+
+    @Schema(description = "Quantiles of the converted results")
+    private ValueQuantiles result;
+
+    // Default constructor
+    public QuantileSummary() {
+    }
+
+    // Constructor with all fields
+    public QuantileSummary(String key, long count, ValueQuantiles input, ValueQuantiles result) {
+        this.key = key;
+        this.count = count;
+        this.input = input;
+        this.result = result;
+    }
+
+    // Getters and setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public ValueQuantiles getInput() {
+        return input;
+    }
+
+    public void setInput(ValueQuantiles input) {
+        this.input = input;
+    }
+
+    public ValueQuantiles getResult() {
+        return result;
+    }
+
+    public void setResult(ValueQuantiles result) {
+        this.result = result;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSummary{" +
+                "key='" + key + '\'' +
+                ", count=" + count +
+                ", input=" + input +
+                ", result=" + result +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+package com.convertly.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model representing a Java Flight Recorder recording started through the admin API.
+ * Fields that do not apply yet are null and omitted from JSON.
+ */
+@Schema(description = "Status of a flight recording")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecordingStatus {
+
+    @Schema(description = "Recording ID", example = "3")
+    private long id;
+
+    @Schema(description = "JFR settings profile", example = "profile")
+    private String profile;
+
+    @Schema(description = "Recording state: running, or closed once its file is written", example = "running")
+    private String state;
+
+    @Schema(description = "When the recording started")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Maximum length of the recording in seconds", example = "120")
+    private long durationSeconds;
+
+    @Schema(description = "Size of the recording file in bytes, once stopped", example = "4194304")
+    private Long sizeBytes;
+
+    @Schema(description = "Where to download the recording once stopped", example = "/admin/jfr/recordings/3/download")
+    private String downloadUrl;
+
+    // Default constructor
+    public RecordingStatus() {
+    }
+
+    // Constructor with all fields
+    public RecordingStatus(long id, String profile, String state, LocalDateTime startedAt,
+                           long durationSeconds, Long sizeBytes) {
+        this.id = id;
+        this.profile = profile;
+        this.state = state;
+        this.startedAt = startedAt;
+        this.durationSeconds = durationSeconds;
+        this.sizeBytes = sizeBytes;
+    }
+
+    // Getters and setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public void setDownloadUrl(String downloadUrl) {
+        this.downloadUrl = downloadUrl;
+    }
+}
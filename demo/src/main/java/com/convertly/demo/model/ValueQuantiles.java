@@ -0,0 +1,90 @@
+package com.convertly.demo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Model representing approximate quantiles of a stream of values.
+ */
+@Schema(description = "Approximate quantiles of a stream of values")
+public class ValueQuantiles {
+
+    @Schema(description = "Smallest value seen", example = "-40.0")
+    private Double min;
+
+    @Schema(description = "Median", example = "25.0")
+    private Double p50;
+
+    @Schema(description = "90th percentile", example = "100.0")
+    private Double p90;
+
+    @Schema(description = "99th percentile", example = "500.0")
+    private Double p99;
+
+    @Schema(description = "Largest value seen", example = "1000.0")
+    private Double max;
+
+    // Default constructor
+    public ValueQuantiles() {
+    }
+
+    // Constructor with all fields
+    public ValueQuantiles(Double min, Double p50, Double p90, Double p99, Double max) {
+        this.min = min;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    // Getters and setters
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getP50() {
+        return p50;
+    }
+
+    public void setP50(Double p50) {
+        this.p50 = p50;
+    }
+
+    public Double getP90() {
+        return p90;
+    }
+
+    public void setP90(Double p90) {
+        this.p90 = p90;
+    }
+
+    public Double getP99() {
+        return p99;
+    }
+
+    public void setP99(Double p99) {
+        this.p99 = p99;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    @Override
+    public String toString() {
+        return "ValueQuantiles{" +
+                "min=" + min +
+                ", p50=" + p50 +
+                ", p90=" + p90 +
+                ", p99=" + p99 +
+                ", max=" + max +
+                '}';
+    }
+}
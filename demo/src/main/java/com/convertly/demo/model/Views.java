@@ -0,0 +1,29 @@
+package com.convertly.demo.model;
+
+/**
+ * Jackson views selecting how much of a conversion is serialized.
+ * Each view also includes the properties of the views it extends.
+ */
+public final class Views {
+
+    /**
+     * Only the converted result, plus what identifies a history entry.
+     */
+    public interface Result {
+    }
+
+    /**
+     * The result and its formula.
+     */
+    public interface Compact extends Result {
+    }
+
+    /**
+     * Everything, including the echoed request and the status of a response.
+     */
+    public interface Full extends Compact {
+    }
+
+    private Views() {
+    }
+}
@@ -0,0 +1,555 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionHistory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service that streams newly recorded conversions to Server-Sent Events subscribers.
+ * A feed only carries the conversions of the client that opened it, the same
+ * partition its history requests read.
+ *
+ * <p>Recording a conversion only appends it to the bounded buffer of each matching
+ * subscriber; a small pool of sender threads writes the buffers to the connections.
+ * A subscriber that reads too slowly loses its oldest buffered entries and is sent a
+ * {@code dropped} event with the number lost, so it never holds up {@code /convert}
+ * or other subscribers. Idle connections hold no thread. Reactive feeds share the
+ * buffers and senders, but are only sent as many events as they have requested.
+ *
+ * <p>A sender writes at most {@value #SEND_BATCH} events before putting the
+ * subscriber back in the queue, so a long buffer does not delay the others. Servlet
+ * writes block while the client's TCP window is full: a write blocked for more than
+ * a second gets the pool a spare sender until it returns, up to
+ * {@code convertly.feed.max-spare-senders} at a time, and a subscriber whose write
+ * takes longer than {@code convertly.feed.write-timeout} is dropped from the feed.
+ * Its connection is closed when the container's own write times out. Entries are
+ * serialized for the feed without caching their JSON bytes.
+ */
+@Service
+public class ConversionFeedService implements ConversionHistoryListener {
+
+    static final String CONVERSION_EVENT = "conversion";
+    static final String DROPPED_EVENT = "dropped";
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+    static final int SEND_BATCH = 64;
+    static final long STALLED_WRITE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HistoryJsonCache historyJsonCache;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final int maxSpareSenders;
+    private final ThreadPoolExecutor senders;
+    private final ReentrantLock sendersLock = new ReentrantLock();
+    private int spareSenders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscriber>> subscribersByClient = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public ConversionFeedService(HistoryJsonCache historyJsonCache,
+            @Value("${convertly.feed.buffer-size:256}") int bufferSize,
+            @Value("${convertly.feed.max-subscribers:10000}") int maxSubscribers,
+            @Value("${convertly.feed.timeout:30m}") Duration timeout,
+            @Value("${convertly.feed.sender-threads:0}") int senderThreads,
+            @Value("${convertly.feed.write-timeout:10s}") Duration writeTimeout,
+            @Value("${convertly.feed.max-spare-senders:8}") int maxSpareSenders) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Feed buffer size must be positive");
+        }
+        this.historyJsonCache = historyJsonCache;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.maxSpareSenders = maxSpareSenders;
+        // Platform threads even in virtual thread mode: SseEmitter.send is synchronized and
+        // blocks on the socket, which would pin the carrier of a virtual thread
+        int threads = senderThreads > 0 ? senderThreads : Runtime.getRuntime().availableProcessors();
+        this.senders = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Opens a feed of a client's conversions recorded from now on.
+     *
+     * @param clientId the client key
+     * @param categories the categories to receive; empty for all
+     * @return the event stream, or null if the subscriber limit has been reached
+     */
+    public SseEmitter subscribe(String clientId, Set<Category> categories) {
+        return subscribe(clientId, new SseEmitter(timeoutMillis), categories);
+    }
+
+    SseEmitter subscribe(String clientId, SseEmitter emitter, Set<Category> categories) {
+        if (!reserve()) {
+            return null;
+        }
+        EmitterSubscriber subscriber = new EmitterSubscriber(emitter, clientId, filter(categories));
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        emitter.onTimeout(emitter::complete);
+        register(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Opens a reactive feed of a client's conversions recorded from now on. Conversions
+     * are only emitted as the subscriber requests them; until then they wait in the
+     * same bounded buffer as for {@link #subscribe(String, Set)}, dropping the oldest.
+     *
+     * @param clientId the client key
+     * @param categories the categories to receive; empty for all
+     * @return the event stream, or null if the subscriber limit has been reached
+     */
+    public Flux<ServerSentEvent<String>> stream(String clientId, Set<Category> categories) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            return null;
+        }
+        Set<Category> filter = filter(categories);
+        return Flux.<ServerSentEvent<String>>create(sink -> {
+            // The limit is checked again because the stream may be subscribed to later
+            if (!reserve()) {
+                sink.complete();
+                return;
+            }
+            SinkSubscriber subscriber = new SinkSubscriber(sink, clientId, filter);
+            sink.onRequest(requested -> subscriber.requestSend());
+            sink.onDispose(subscriber::close);
+            register(subscriber);
+        }).take(Duration.ofMillis(timeoutMillis));
+    }
+
+    private boolean reserve() {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void register(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        subscribersByClient.compute(subscriber.clientId, (key, clientSubscribers) -> {
+            Set<Subscriber> updated = clientSubscribers != null ? clientSubscribers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscribersByClient.computeIfPresent(subscriber.clientId, (key, clientSubscribers) -> {
+            clientSubscribers.remove(subscriber);
+            return clientSubscribers.isEmpty() ? null : clientSubscribers;
+        });
+    }
+
+    private static Set<Category> filter(Set<Category> categories) {
+        return categories.isEmpty() ? EnumSet.allOf(Category.class) : EnumSet.copyOf(categories);
+    }
+
+    /**
+     * Gets the number of open feeds.
+     *
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void onConversionRecorded(String clientId, ConversionHistory history) {
+        Category category = history.getRequest().getCategory();
+        Set<Subscriber> clientSubscribers = subscribersByClient.get(clientId);
+        if (category == null || clientSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : clientSubscribers) {
+            if (subscriber.categories.contains(category)) {
+                subscriber.offer(history);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber so proxies keep idle connections open
+     * and closed connections are noticed.
+     */
+    @Scheduled(fixedDelayString = "${convertly.feed.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+        }
+    }
+
+    /**
+     * Gives the sender pool a spare thread for every write blocked on a full
+     * connection, up to the spare sender limit, and drops subscribers whose write
+     * has exceeded the write timeout.
+     */
+    @Scheduled(fixedDelayString = "${convertly.feed.stall-check-interval-ms:1000}")
+    public void checkStalledWrites() {
+        checkStalledWrites(System.nanoTime());
+    }
+
+    void checkStalledWrites(long now) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.checkWrite(now);
+        }
+    }
+
+    /**
+     * Gets the number of sender threads, including spares for stalled writes.
+     *
+     * @return the sender pool size
+     */
+    int getSenderThreads() {
+        return senders.getMaximumPoolSize();
+    }
+
+    private boolean addSpareSender() {
+        sendersLock.lock();
+        try {
+            if (spareSenders >= maxSpareSenders) {
+                return false;
+            }
+            spareSenders++;
+            resizeSenders(1);
+            return true;
+        } finally {
+            sendersLock.unlock();
+        }
+    }
+
+    private void removeSpareSender() {
+        sendersLock.lock();
+        try {
+            spareSenders--;
+            resizeSenders(-1);
+        } finally {
+            sendersLock.unlock();
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        sendersLock.lock();
+        try {
+            int size = senders.getMaximumPoolSize() + delta;
+            // The core size may never exceed the maximum, so the order depends on the direction
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        } finally {
+            sendersLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.complete();
+        }
+    }
+
+    /**
+     * One open feed. The buffer, the flags and the write state are guarded by the
+     * lock; at most one sender task runs per subscriber, so events are written in order.
+     */
+    private abstract class Subscriber {
+        private final String clientId;
+        private final Set<Category> categories;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<ConversionHistory> buffer = new ArrayDeque<>();
+        private long dropped;
+        private boolean heartbeat;
+        private boolean scheduled;
+        private boolean closed;
+        private boolean writing;
+        private long writeStarted;
+        private boolean spareSender;
+
+        Subscriber(String clientId, Set<Category> categories) {
+            this.clientId = clientId;
+            this.categories = categories;
+        }
+
+        /**
+         * Gets how many events the connection can take now.
+         */
+        abstract int demand();
+
+        /**
+         * Writes a dropped event if any were lost, then the conversions, then a
+         * heartbeat if requested and nothing else was sent.
+         */
+        abstract void write(long droppedCount, ConversionHistory[] pending, boolean sendHeartbeat)
+                throws IOException;
+
+        abstract void complete();
+
+        void offer(ConversionHistory history) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() == bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(history);
+                scheduleLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void requestHeartbeat() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    heartbeat = true;
+                    scheduleLocked();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Resumes sending after the connection has asked for more events.
+         */
+        void requestSend() {
+            lock.lock();
+            try {
+                if (!closed && hasPendingLocked()) {
+                    scheduleLocked();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Adds a spare sender, if the limit allows, once the current write has been blocked
+         * for a second, and drops the subscriber once it has exceeded the write timeout.
+         */
+        void checkWrite(long now) {
+            boolean timedOut;
+            lock.lock();
+            try {
+                if (!writing) {
+                    return;
+                }
+                long elapsed = now - writeStarted;
+                if (elapsed > STALLED_WRITE_NANOS && !spareSender) {
+                    spareSender = addSpareSender();
+                }
+                timedOut = elapsed > writeTimeoutNanos;
+            } finally {
+                lock.unlock();
+            }
+            if (timedOut) {
+                close();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            } finally {
+                lock.unlock();
+            }
+            unregister(this);
+            subscriberCount.decrementAndGet();
+        }
+
+        private void scheduleLocked() {
+            if (!scheduled) {
+                try {
+                    senders.execute(this::send);
+                    scheduled = true;
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; the feed is completed by shutdown()
+                }
+            }
+        }
+
+        private boolean hasPendingLocked() {
+            return !buffer.isEmpty() || dropped > 0 || heartbeat;
+        }
+
+        /**
+         * Writes up to {@value #SEND_BATCH} events, then queues the subscriber again
+         * if more are waiting. Without demand, sending stops until {@link #requestSend()}.
+         */
+        private void send() {
+            ConversionHistory[] pending;
+            long droppedCount;
+            boolean sendHeartbeat;
+            lock.lock();
+            try {
+                int demand = Math.min(demand(), SEND_BATCH);
+                if (closed || demand == 0 || !hasPendingLocked()) {
+                    scheduled = false;
+                    return;
+                }
+                droppedCount = dropped;
+                dropped = 0;
+                pending = new ConversionHistory[Math.min(buffer.size(), droppedCount > 0 ? demand - 1 : demand)];
+                for (int i = 0; i < pending.length; i++) {
+                    pending[i] = buffer.pollFirst();
+                }
+                sendHeartbeat = heartbeat && pending.length == 0 && droppedCount == 0;
+                heartbeat = false;
+                writing = true;
+                writeStarted = System.nanoTime();
+            } finally {
+                lock.unlock();
+            }
+            boolean failed = false;
+            try {
+                write(droppedCount, pending, sendHeartbeat);
+            } catch (IOException | IllegalStateException e) {
+                // The connection is gone; the container completes the emitter
+                failed = true;
+            }
+            lock.lock();
+            try {
+                writing = false;
+                if (spareSender) {
+                    spareSender = false;
+                    removeSpareSender();
+                }
+                scheduled = false;
+                if (!failed && !closed && demand() > 0 && hasPendingLocked()) {
+                    scheduleLocked();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (failed) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * A feed written to a servlet {@link SseEmitter}, which takes events as fast
+     * as the sender can write them.
+     */
+    private final class EmitterSubscriber extends Subscriber {
+        private final SseEmitter emitter;
+
+        EmitterSubscriber(SseEmitter emitter, String clientId, Set<Category> categories) {
+            super(clientId, categories);
+            this.emitter = emitter;
+        }
+
+        @Override
+        int demand() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        void write(long droppedCount, ConversionHistory[] pending, boolean sendHeartbeat) throws IOException {
+            if (droppedCount > 0) {
+                emitter.send(SseEmitter.event()
+                        .name(DROPPED_EVENT)
+                        .data(droppedJson(droppedCount).getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+            }
+            for (ConversionHistory history : pending) {
+                emitter.send(SseEmitter.event()
+                        .id(history.getId())
+                        .name(CONVERSION_EVENT)
+                        .data(historyJsonCache.toTransientJson(history), MediaType.APPLICATION_JSON));
+            }
+            if (sendHeartbeat) {
+                emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+            }
+        }
+
+        @Override
+        void complete() {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * A reactive feed, which takes as many events as its subscriber has requested.
+     */
+    private final class SinkSubscriber extends Subscriber {
+        private final FluxSink<ServerSentEvent<String>> sink;
+
+        SinkSubscriber(FluxSink<ServerSentEvent<String>> sink, String clientId, Set<Category> categories) {
+            super(clientId, categories);
+            this.sink = sink;
+        }
+
+        @Override
+        int demand() {
+            return (int) Math.min(sink.requestedFromDownstream(), Integer.MAX_VALUE);
+        }
+
+        @Override
+        void write(long droppedCount, ConversionHistory[] pending, boolean sendHeartbeat) {
+            if (droppedCount > 0) {
+                sink.next(ServerSentEvent.builder(droppedJson(droppedCount)).event(DROPPED_EVENT).build());
+            }
+            for (ConversionHistory history : pending) {
+                String json = new String(historyJsonCache.toTransientJson(history), StandardCharsets.UTF_8);
+                sink.next(ServerSentEvent.builder(json)
+                        .id(history.getId())
+                        .event(CONVERSION_EVENT)
+                        .build());
+            }
+            if (sendHeartbeat) {
+                sink.next(ServerSentEvent.<String>builder().comment(HEARTBEAT_COMMENT).build());
+            }
+        }
+
+        @Override
+        void complete() {
+            sink.complete();
+        }
+    }
+
+    private static String droppedJson(long count) {
+        return "{\"count\":" + count + "}";
+    }
+}
@@ -0,0 +1,18 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.model.ConversionHistory;
+
+/**
+ * Callback for components that react to conversions being recorded in history.
+ * Implementations are called on the request thread and must be cheap.
+ */
+public interface ConversionHistoryListener {
+
+    /**
+     * Called after a conversion has been added to the history.
+     *
+     * @param clientId the key of the client whose history it was added to
+     * @param history the recorded history entry
+     */
+    void onConversionRecorded(String clientId, ConversionHistory history);
+}
@@ -1,107 +1,452 @@
 package com.convertly.demo.service;
 
+import com.convertly.demo.history.BlockStore;
+import com.convertly.demo.history.ChangeLog;
+import com.convertly.demo.history.ColdTier;
+import com.convertly.demo.history.HistoryPartition;
+import com.convertly.demo.history.HistorySnapshot;
+import com.convertly.demo.history.SealedBlock;
 import com.convertly.demo.model.ConversionHistory;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.model.HistoryChanges;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service for managing conversion history.
- * Stores conversions in memory (session-level).
+ * Stores conversions in memory, partitioned per client so each client only
+ * sees and clears its own entries. Idle partitions are evicted after a TTL, and
+ * the least recently used one, never the shared default partition, when a new
+ * client would exceed the partition limit.
+ * Recent entries of each client stay as live objects; older ones are sealed
+ * into compressed blocks kept in memory or on disk and decoded on read.
  */
 @Service
 public class ConversionHistoryService {
 
-    private final ConcurrentHashMap<String, ConversionHistory> historyMap = new ConcurrentHashMap<>();
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * Client key used when a request carries no client identification.
+     */
+    public static final String DEFAULT_CLIENT = "anonymous";
+
+    static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final String[] CSV_HEADER =
+            {"ID", "Timestamp", "Category", "From Unit", "To Unit", "Input Value", "Result", "Formula"};
 
     /**
-     * Adds a conversion to the history.
-     * 
+     * Bits of a sequence number below the epoch of the run that issued it.
+     */
+    static final int EPOCH_SHIFT = 32;
+    // Keeps sequence numbers below 2^53, so JavaScript clients read them exactly
+    private static final long EPOCH_COUNT = 1L << 21;
+    private static final AtomicLong EPOCHS = new AtomicLong(ThreadLocalRandom.current().nextLong(EPOCH_COUNT));
+
+    private final ConcurrentHashMap<String, HistoryPartition> partitions = new ConcurrentHashMap<>();
+    // Partitions in access order, eldest first, for evicting at the partition limit
+    private final Map<String, HistoryPartition> recency = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock recencyLock = new ReentrantLock();
+    private final List<ConversionHistoryListener> listeners;
+    private final int partitionCapacity;
+    private final long partitionTtlMillis;
+    private final int maxPartitions;
+    private final ColdTier coldTier;
+    // Random per run, and distinct between instances in one JVM
+    private final long epoch = 1 + EPOCHS.getAndIncrement() % (EPOCH_COUNT - 1);
+    private final AtomicLong sequence = new AtomicLong(epoch << EPOCH_SHIFT);
+    private final int changeLogSize;
+
+    @Autowired
+    public ConversionHistoryService(List<ConversionHistoryListener> listeners,
+            List<ConversionService> conversionServices,
+            @Value("${convertly.history.max-entries-per-client:10000}") int partitionCapacity,
+            @Value("${convertly.history.client-ttl:30m}") Duration partitionTtl,
+            @Value("${convertly.history.max-partitions:10000}") int maxPartitions,
+            @Value("${convertly.history.hot-entries:1024}") int hotEntries,
+            @Value("${convertly.history.block-size:1024}") int blockSize,
+            @Value("${convertly.history.cold-directory:}") String coldDirectory,
+            @Value("${convertly.history.change-log-size:1024}") int changeLogSize) {
+        this.listeners = List.copyOf(listeners);
+        this.partitionCapacity = partitionCapacity;
+        if (maxPartitions <= 0) {
+            throw new IllegalArgumentException("Maximum partition count must be positive");
+        }
+        this.partitionTtlMillis = partitionTtl.toMillis();
+        this.maxPartitions = maxPartitions;
+        this.changeLogSize = changeLogSize;
+        List<ConversionService> services = List.copyOf(conversionServices);
+        BlockStore store = coldDirectory.isBlank() ? BlockStore.inMemory() : BlockStore.onDisk(Path.of(coldDirectory));
+        this.coldTier = new ColdTier(hotEntries, blockSize, store, (request, result) -> services.stream()
+                .filter(service -> service.supports(request.getCategory().getValue()))
+                .findFirst()
+                .map(service -> service.generateFormula(request, result))
+                .orElse(null));
+    }
+
+    /**
+     * Adds a conversion to a client's history.
+     *
+     * @param clientId the client key
      * @param request the conversion request
      * @param response the conversion response
      * @return the history entry ID
      */
-    public String addConversion(ConversionRequest request, ConversionResponse response) {
+    public String addConversion(String clientId, ConversionRequest request, ConversionResponse response) {
         String id = UUID.randomUUID().toString();
         ConversionHistory history = new ConversionHistory(id, request, response);
-        historyMap.put(id, history);
+        HistoryPartition partition = partitionFor(clientId);
+        while (!partition.add(history)) {
+            // The partition was evicted concurrently; retry on a fresh one
+            removePartition(clientId, partition);
+            partition = partitionFor(clientId);
+        }
+        for (ConversionHistoryListener listener : listeners) {
+            listener.onConversionRecorded(clientId, history);
+        }
         return id;
     }
 
     /**
-     * Gets all conversion history entries.
-     * 
-     * @return list of all history entries
+     * Appends existing history entries, such as restored ones, to a client's history.
+     * Listeners are not notified: the entries are not new conversions.
+     *
+     * @param clientId the client key
+     * @param entries the entries, oldest first
+     */
+    public void importEntries(String clientId, List<ConversionHistory> entries) {
+        HistoryPartition partition = partitionFor(clientId);
+        while (!partition.addAll(entries)) {
+            // The partition was evicted concurrently; retry on a fresh one
+            removePartition(clientId, partition);
+            partition = partitionFor(clientId);
+        }
+    }
+
+    /**
+     * Gets all of a client's conversion history entries, oldest first.
+     * The list is an immutable point-in-time snapshot that shares storage with
+     * the history instead of copying it; sealed entries are decoded while iterating.
+     *
+     * @param clientId the client key
+     * @return list of the client's history entries
+     */
+    public List<ConversionHistory> getAllHistory(String clientId) {
+        return getHistorySnapshot(clientId);
+    }
+
+    /**
+     * Gets a point-in-time snapshot of a client's history together with the
+     * sequence number of the last change it includes.
+     *
+     * @param clientId the client key
+     * @return the snapshot
+     */
+    public HistorySnapshot getHistorySnapshot(String clientId) {
+        HistoryPartition partition = existingPartition(clientId);
+        return partition == null ? HistorySnapshot.EMPTY : partition.snapshot();
+    }
+
+    /**
+     * Gets the version of a client's history: the sequence number of its latest
+     * change. The version changes whenever entries are added, evicted or cleared,
+     * and reading it does not touch any entries.
+     *
+     * @param clientId the client key
+     * @return the version, or 0 if the client has no history
      */
-    public List<ConversionHistory> getAllHistory() {
-        return new ArrayList<>(historyMap.values());
+    public long getHistoryVersion(String clientId) {
+        HistoryPartition partition = existingPartition(clientId);
+        return partition == null ? 0 : partition.sequence();
+    }
+
+    /**
+     * Gets the changes to a client's history after a sequence number. Sequence
+     * numbers carry the epoch of the run that issued them in their high bits, so a
+     * number from before a restart always gets a resync marker.
+     *
+     * @param clientId the client key
+     * @param since the last sequence number the client has applied, or 0 for none
+     * @return the newer changes, or a resync marker if they are no longer available
+     */
+    public HistoryChanges getChangesSince(String clientId, long since) {
+        HistoryPartition partition = existingPartition(clientId);
+        if (partition == null) {
+            // No history; a client that saw changes before must drop them
+            return new HistoryChanges(0, since != 0, List.of());
+        }
+        if (since != 0 && since >>> EPOCH_SHIFT != epoch) {
+            // Issued by an earlier run; the history it refers to is gone
+            return new HistoryChanges(partition.sequence(), true, List.of());
+        }
+        return partition.changesSince(since);
     }
 
     /**
      * Gets a specific conversion history entry by ID.
-     * 
+     *
+     * @param clientId the client key
      * @param id the history entry ID
-     * @return the history entry, or null if not found
+     * @return the history entry, or null if not found in the client's history
      */
-    public ConversionHistory getHistoryById(String id) {
-        return historyMap.get(id);
+    public ConversionHistory getHistoryById(String clientId, String id) {
+        HistoryPartition partition = existingPartition(clientId);
+        return partition == null ? null : partition.get(id);
     }
 
     /**
-     * Clears all conversion history.
+     * Clears a client's conversion history.
+     *
+     * @param clientId the client key
      */
-    public void clearHistory() {
-        historyMap.clear();
+    public void clearHistory(String clientId) {
+        HistoryPartition partition = existingPartition(clientId);
+        if (partition != null) {
+            partition.clear();
+        }
     }
 
     /**
-     * Gets the count of conversion history entries.
-     * 
+     * Gets the count of a client's conversion history entries.
+     *
+     * @param clientId the client key
      * @return the number of history entries
      */
-    public int getHistoryCount() {
-        return historyMap.size();
+    public int getHistoryCount(String clientId) {
+        HistoryPartition partition = existingPartition(clientId);
+        return partition == null ? 0 : partition.size();
+    }
+
+    /**
+     * Gets the number of clients that currently have a history partition.
+     *
+     * @return the number of partitions
+     */
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Captures point-in-time snapshots of every client's history for analytical scans.
+     *
+     * @return one snapshot per partition
+     */
+    public List<HistorySnapshot> getSnapshots() {
+        List<HistorySnapshot> snapshots = new ArrayList<>(partitions.size());
+        for (HistoryPartition partition : partitions.values()) {
+            snapshots.add(partition.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Gets how history entries are split between the hot and cold tiers across all clients.
+     * Hot entries that have cached JSON bytes are also reported in serialized form.
+     * The bytes are held in addition to the entry objects, not instead of them, so
+     * they add to the hot tier's memory rather than replace it.
+     *
+     * @return map with hotEntries, hotJsonEntries, hotJsonBytes, coldEntries and coldBytes
+     */
+    public Map<String, Long> getTierStats() {
+        long hotEntries = 0;
+        long hotJsonEntries = 0;
+        long hotJsonBytes = 0;
+        long coldEntries = 0;
+        long coldBytes = 0;
+        for (HistoryPartition partition : partitions.values()) {
+            HistorySnapshot snapshot = partition.snapshot();
+            for (ConversionHistory history : snapshot.hotEntries()) {
+                hotEntries++;
+                byte[] json = history.getSerializedJson();
+                if (json != null) {
+                    hotJsonEntries++;
+                    hotJsonBytes += json.length;
+                }
+            }
+            coldEntries += snapshot.size() - snapshot.hotEntries().size();
+            coldBytes += snapshot.sealedBlocks().stream().mapToLong(SealedBlock::encodedBytes).sum();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hotEntries", hotEntries);
+        stats.put("hotJsonEntries", hotJsonEntries);
+        stats.put("hotJsonBytes", hotJsonBytes);
+        stats.put("coldEntries", coldEntries);
+        stats.put("coldBytes", coldBytes);
+        return stats;
     }
 
     /**
-     * Exports conversion history as CSV format.
-     * 
+     * Exports a client's conversion history as CSV format.
+     *
+     * @param clientId the client key
      * @return CSV string representation of the history
      * @throws IOException if there's an error generating the CSV
      */
-    public String exportHistoryAsCSV() throws IOException {
+    public String exportHistoryAsCSV(String clientId) throws IOException {
         StringWriter stringWriter = new StringWriter();
-        
+        writeHistoryAsCSV(getAllHistory(clientId), stringWriter);
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes history entries in the CSV format of {@link #exportHistoryAsCSV}.
+     *
+     * @param entries the entries to write
+     * @param out where to write them; not closed
+     * @throws IOException if writing fails
+     */
+    public void writeHistoryAsCSV(Iterable<ConversionHistory> entries, Appendable out) throws IOException {
         CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                .setHeader("ID", "Timestamp", "Category", "From Unit", "To Unit", "Input Value", "Result", "Formula")
+                .setHeader(CSV_HEADER)
                 .build();
-        
-        try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, csvFormat)) {
-            for (ConversionHistory history : getAllHistory()) {
-                csvPrinter.printRecord(
-                        history.getId(),
-                        history.getTimestamp().format(DATE_FORMATTER),
-                        history.getRequest().getCategory().getValue(),
-                        history.getRequest().getFromUnit(),
-                        history.getRequest().getToUnit(),
-                        history.getRequest().getValue(),
-                        history.getResponse().getResult(),
-                        history.getResponse().getFormula()
-                );
+
+        CSVPrinter csvPrinter = new CSVPrinter(out, csvFormat);
+        for (ConversionHistory history : entries) {
+            csvPrinter.printRecord(
+                    history.getId(),
+                    history.getTimestamp().format(DATE_FORMATTER),
+                    history.getRequest().getCategory().getValue(),
+                    history.getRequest().getFromUnit(),
+                    history.getRequest().getToUnit(),
+                    history.getRequest().getValue(),
+                    history.getResponse().getResult(),
+                    history.getResponse().getFormula()
+            );
+        }
+        csvPrinter.flush();
+    }
+
+    /**
+     * Evicts partitions of clients that have been idle for longer than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${convertly.history.eviction-interval-ms:60000}")
+    public void evictIdlePartitions() {
+        long cutoff = System.currentTimeMillis() - partitionTtlMillis;
+        partitions.forEach((clientId, partition) -> {
+            if (partition.retireIfIdle(cutoff)) {
+                removePartition(clientId, partition);
             }
+        });
+    }
+
+    /**
+     * Releases sealed blocks on shutdown so on-disk blocks do not outlive the process.
+     */
+    @PreDestroy
+    public void releaseColdBlocks() {
+        partitions.values().forEach(HistoryPartition::clear);
+        coldTier.store().close();
+    }
+
+    private HistoryPartition partitionFor(String clientId) {
+        long now = System.currentTimeMillis();
+        HistoryPartition partition = partitions.get(clientId);
+        if (partition != null) {
+            touch(clientId, partition, now);
+            return partition;
         }
-        
-        return stringWriter.toString();
+        partition = partitions.computeIfAbsent(clientId, key ->
+                new HistoryPartition(partitionCapacity, coldTier, new ChangeLog(sequence, changeLogSize), now));
+        recordAccess(clientId, partition);
+        // Partitions are only created here, so checking after each creation keeps the count
+        // at the limit; concurrent creators may exceed it until each has evicted one
+        while (partitions.size() > maxPartitions && evictLeastRecentlyUsed(clientId)) {
+            // Retry until enough partitions are gone
+        }
+        return partition;
+    }
+
+    /**
+     * Records an access. The recency order is only updated once per millisecond, so
+     * a busy client does not take the recency lock on every request.
+     */
+    private void touch(String clientId, HistoryPartition partition, long now) {
+        if (now > partition.getLastAccessMillis()) {
+            partition.touch(now);
+            recordAccess(clientId, partition);
+        }
+    }
+
+    private void recordAccess(String clientId, HistoryPartition partition) {
+        recencyLock.lock();
+        try {
+            recency.put(clientId, partition);
+        } finally {
+            recencyLock.unlock();
+        }
+    }
+
+    private void removePartition(String clientId, HistoryPartition partition) {
+        partitions.remove(clientId, partition);
+        recencyLock.lock();
+        try {
+            recency.remove(clientId, partition);
+        } finally {
+            recencyLock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the partition used longest ago, other than the given client's and the
+     * shared one. Takes the eldest entry of the recency order, skipping at most those two.
+     *
+     * @return false if there is no such partition
+     */
+    private boolean evictLeastRecentlyUsed(String keep) {
+        String eldestClient = null;
+        HistoryPartition eldest = null;
+        recencyLock.lock();
+        try {
+            Iterator<Map.Entry<String, HistoryPartition>> iterator = recency.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, HistoryPartition> entry = iterator.next();
+                if (!entry.getKey().equals(keep) && !entry.getKey().equals(DEFAULT_CLIENT)) {
+                    eldestClient = entry.getKey();
+                    eldest = entry.getValue();
+                    iterator.remove();
+                    break;
+                }
+            }
+        } finally {
+            recencyLock.unlock();
+        }
+        if (eldest == null) {
+            return false;
+        }
+        if (eldest.retireIfIdle(eldest.getLastAccessMillis() + 1)) {
+            partitions.remove(eldestClient, eldest);
+        } else {
+            // Used meanwhile; it goes back to the young end and the caller looks again
+            recordAccess(eldestClient, eldest);
+        }
+        return true;
+    }
+
+    private HistoryPartition existingPartition(String clientId) {
+        HistoryPartition partition = partitions.get(clientId);
+        if (partition != null) {
+            touch(clientId, partition, System.currentTimeMillis());
+        }
+        return partition;
     }
 }
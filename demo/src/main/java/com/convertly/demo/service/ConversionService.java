@@ -16,6 +16,15 @@ public interface ConversionService {
      */
     ConversionResponse convert(ConversionRequest request);
     
+    /**
+     * Generates the formula text for an already computed conversion.
+     * 
+     * @param request the conversion request
+     * @param result the conversion result
+     * @return the formula, identical to the one returned by {@link #convert}
+     */
+    String generateFormula(ConversionRequest request, Double result);
+    
     /**
      * Checks if the service supports the given category.
      * 
@@ -1,9 +1,14 @@
 package com.convertly.demo.service;
 
 import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.UnitCatalog;
 import com.convertly.demo.exception.InvalidUnitException;
+import com.convertly.demo.jfr.ConversionEvent;
+import com.convertly.demo.metrics.ConversionMetrics;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -19,33 +24,71 @@ public class ConversionServiceManager {
 
     private final List<ConversionService> conversionServices;
     private final ConversionHistoryService historyService;
+    private final HeavyHitterService heavyHitterService;
+    private final ConversionMetrics conversionMetrics;
 
     @Autowired
     public ConversionServiceManager(TemperatureService temperatureService,
             LengthService lengthService,
             WeightService weightService,
             TimeService timeService,
-            ConversionHistoryService historyService) {
+            ConversionHistoryService historyService,
+            HeavyHitterService heavyHitterService,
+            ConversionMetrics conversionMetrics) {
         this.conversionServices = Arrays.asList(
                 temperatureService, lengthService, weightService, timeService);
         this.historyService = historyService;
+        this.heavyHitterService = heavyHitterService;
+        this.conversionMetrics = conversionMetrics;
     }
 
     /**
-     * Converts a value from one unit to another.
+     * Converts a value from one unit to another, recording it in the default history partition.
      *
      * @param request the conversion request
      * @return the conversion response
      * @throws InvalidUnitException if the category or units are not supported
      */
     public ConversionResponse convert(ConversionRequest request) {
-        ConversionService service = findServiceForCategory(request.getCategory().getValue());
-        ConversionResponse response = service.convert(request);
+        return convert(request, ConversionHistoryService.DEFAULT_CLIENT);
+    }
 
-        // Add to history
-        historyService.addConversion(request, response);
+    /**
+     * Converts a value from one unit to another, recording it in the client's history.
+     *
+     * @param request the conversion request
+     * @param clientId the client key selecting the history partition
+     * @return the conversion response
+     * @throws InvalidUnitException if the category or units are not supported
+     */
+    public ConversionResponse convert(ConversionRequest request, String clientId) {
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ConversionService service = findServiceForCategory(request.getCategory().getValue());
+            ConversionResponse response = service.convert(request);
+
+            // Add to history
+            historyService.addConversion(clientId, request, response);
+            heavyHitterService.record(request);
+            StageTimer.mark(Stage.HISTORY);
 
-        return response;
+            success = true;
+            return response;
+        } finally {
+            conversionMetrics.recordConversion(request, System.nanoTime() - start, success);
+            event.end();
+            if (event.shouldCommit()) {
+                event.category = request.getCategory() == null ? null : request.getCategory().getValue();
+                event.fromUnit = request.getFromUnit();
+                event.toUnit = request.getToUnit();
+                event.valueCount = 1;
+                event.success = success;
+                event.commit();
+            }
+        }
     }
 
     /**
@@ -54,9 +97,7 @@ public class ConversionServiceManager {
      * @return list of category names
      */
     public List<String> getCategories() {
-        return Arrays.stream(Category.values())
-                .map(Category::getValue)
-                .toList();
+        return UnitCatalog.categoryValues();
     }
 
     /**
@@ -67,33 +108,11 @@ public class ConversionServiceManager {
      * @throws InvalidUnitException if the category is not supported
      */
     public List<String> getUnitsForCategory(String category) {
-        Category cat;
-        try {
-            cat = Category.fromValue(category);
-        } catch (IllegalArgumentException e) {
+        Category cat = UnitCatalog.findCategory(category);
+        if (cat == null) {
             throw new InvalidUnitException("Invalid category: " + category);
         }
-
-        switch (cat) {
-            case TEMPERATURE:
-                return Arrays.stream(com.convertly.demo.enums.TemperatureUnit.values())
-                        .map(com.convertly.demo.enums.TemperatureUnit::getValue)
-                        .toList();
-            case LENGTH:
-                return Arrays.stream(com.convertly.demo.enums.LengthUnit.values())
-                        .map(com.convertly.demo.enums.LengthUnit::getValue)
-                        .toList();
-            case WEIGHT:
-                return Arrays.stream(com.convertly.demo.enums.WeightUnit.values())
-                        .map(com.convertly.demo.enums.WeightUnit::getValue)
-                        .toList();
-            case TIME:
-                return Arrays.stream(com.convertly.demo.enums.TimeUnit.values())
-                        .map(com.convertly.demo.enums.TimeUnit::getValue)
-                        .toList();
-            default:
-                throw new InvalidUnitException("Unsupported category: " + cat);
-        }
+        return UnitCatalog.unitValues(cat);
     }
 
     private ConversionService findServiceForCategory(String category) {
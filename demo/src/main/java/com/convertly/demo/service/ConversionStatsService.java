@@ -0,0 +1,319 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.exception.InvalidUnitException;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.QuantileSummary;
+import com.convertly.demo.model.ValueQuantiles;
+import com.convertly.demo.sketch.KllSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for streaming quantile statistics of conversion inputs and results.
+ * Keeps one pair of KLL sketches per category and per unit pair, so memory
+ * per key is bounded no matter how many conversions are recorded.
+ *
+ * <p>Merging sketches from another node changes the statistics every client sees,
+ * so it is disabled unless {@code convertly.stats.merge-token} is set, and each
+ * merge is limited in keys and in encoded bytes before anything is decoded.
+ */
+@Service
+public class ConversionStatsService implements ConversionHistoryListener {
+
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    private final int k;
+    private final AtomicReferenceArray<ValueSketches> slots;
+    private final String[] slotNames;
+    private final Map<String, Integer> slotsByName = new HashMap<>();
+    private final byte[] mergeToken;
+    private final int maxMergeKeys;
+    private final int maxMergeBytes;
+
+    public ConversionStatsService(@Value("${convertly.stats.sketch-k:200}") int k,
+                                  @Value("${convertly.stats.merge-token:}") String mergeToken,
+                                  @Value("${convertly.stats.max-merge-keys:256}") int maxMergeKeys,
+                                  @Value("${convertly.stats.max-merge-bytes:4194304}") int maxMergeBytes) {
+        this.k = k;
+        this.mergeToken = mergeToken.isBlank() ? null : mergeToken.getBytes(StandardCharsets.UTF_8);
+        this.maxMergeKeys = maxMergeKeys;
+        this.maxMergeBytes = maxMergeBytes;
+        int slotCount = CATEGORY_COUNT + UnitCatalog.PAIR_KEY_LIMIT;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.slotNames = new String[slotCount];
+        for (Category category : Category.values()) {
+            slotNames[category.ordinal()] = category.getValue();
+        }
+        for (int pairKey = 0; pairKey < UnitCatalog.PAIR_KEY_LIMIT; pairKey++) {
+            if (UnitCatalog.isValidPair(pairKey)) {
+                slotNames[CATEGORY_COUNT + pairKey] = UnitCatalog.describePair(pairKey);
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotNames[slot] != null) {
+                slotsByName.put(slotNames[slot], slot);
+            }
+        }
+    }
+
+    @Override
+    public void onConversionRecorded(String clientId, ConversionHistory history) {
+        Category category = history.getRequest().getCategory();
+        double value = history.getRequest().getValue();
+        double result = history.getResponse().getResult();
+
+        sketchesFor(category.ordinal()).update(value, result);
+
+        int from = UnitCatalog.unitOrdinal(category, history.getRequest().getFromUnit());
+        int to = UnitCatalog.unitOrdinal(category, history.getRequest().getToUnit());
+        if (from != UnitCatalog.UNKNOWN && to != UnitCatalog.UNKNOWN) {
+            sketchesFor(CATEGORY_COUNT + UnitCatalog.pairKey(category, from, to)).update(value, result);
+        }
+    }
+
+    /**
+     * Gets quantile summaries. With no category, every observed key is returned;
+     * with a category only, the category and its unit pairs; with both units, that pair only.
+     *
+     * @param category the category, or null
+     * @param fromUnit the source unit, or null
+     * @param toUnit the target unit, or null
+     * @return the summaries for observed keys
+     * @throws InvalidUnitException if only one unit or units without a category are given,
+     *         or a unit does not belong to the category
+     */
+    public List<QuantileSummary> getQuantiles(String category, String fromUnit, String toUnit) {
+        if ((fromUnit == null) != (toUnit == null) || (category == null && fromUnit != null)) {
+            throw new InvalidUnitException("Unit filters need a category and both fromUnit and toUnit");
+        }
+        List<QuantileSummary> summaries = new ArrayList<>();
+        if (category == null) {
+            for (int slot = 0; slot < slots.length(); slot++) {
+                addSummary(summaries, slot);
+            }
+            return summaries;
+        }
+
+        Category cat = Category.fromValue(category);
+        if (fromUnit != null && toUnit != null) {
+            int from = UnitCatalog.unitOrdinal(cat, fromUnit);
+            int to = UnitCatalog.unitOrdinal(cat, toUnit);
+            if (from == UnitCatalog.UNKNOWN || to == UnitCatalog.UNKNOWN) {
+                throw new InvalidUnitException("Invalid unit pair for category " + cat + ": "
+                        + fromUnit + " -> " + toUnit);
+            }
+            addSummary(summaries, CATEGORY_COUNT + UnitCatalog.pairKey(cat, from, to));
+            return summaries;
+        }
+
+        addSummary(summaries, cat.ordinal());
+        String prefix = cat.getValue() + ":";
+        for (int slot = CATEGORY_COUNT; slot < slots.length(); slot++) {
+            if (slotNames[slot] != null && slotNames[slot].startsWith(prefix)) {
+                addSummary(summaries, slot);
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Exports all observed sketches in serialized form so another node can merge them.
+     *
+     * @return map of key to Base64-encoded sketch
+     */
+    public Map<String, String> exportSketches() {
+        Map<String, String> exported = new LinkedHashMap<>();
+        Base64.Encoder encoder = Base64.getEncoder();
+        for (int slot = 0; slot < slots.length(); slot++) {
+            ValueSketches sketches = slots.get(slot);
+            if (sketches != null) {
+                exported.put(slotNames[slot], encoder.encodeToString(sketches.toBytes()));
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Checks whether merging is enabled, i.e. a merge token is configured.
+     *
+     * @return true if sketches may be merged
+     */
+    public boolean isMergeEnabled() {
+        return mergeToken != null;
+    }
+
+    /**
+     * Compares a token with the merge token in constant time, so response times
+     * do not reveal how much of a guess was right.
+     *
+     * @param token the token sent by the caller, or null
+     * @return true if merging is enabled and the token matches
+     */
+    public boolean isMergeAuthorized(String token) {
+        return mergeToken != null && token != null
+                && MessageDigest.isEqual(mergeToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the largest merge request body accepted, in bytes.
+     *
+     * @return the maximum body size
+     */
+    public int getMaxMergeBytes() {
+        return maxMergeBytes;
+    }
+
+    /**
+     * Merges sketches exported by {@link #exportSketches()} on another node.
+     *
+     * @param sketches map of key to Base64-encoded sketch
+     * @return the number of sketches merged
+     * @throws IllegalArgumentException if there are too many keys or bytes, a key
+     *         is unknown or a sketch is malformed
+     */
+    public int mergeSketches(Map<String, String> sketches) {
+        if (sketches.size() > maxMergeKeys) {
+            throw new IllegalArgumentException("At most " + maxMergeKeys + " sketches can be merged at once");
+        }
+        long encodedBytes = 0;
+        for (String encoded : sketches.values()) {
+            encodedBytes += encoded == null ? 0 : encoded.length();
+        }
+        if (encodedBytes > maxMergeBytes) {
+            throw new IllegalArgumentException("Sketches to merge exceed " + maxMergeBytes + " bytes");
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        List<Integer> targets = new ArrayList<>(sketches.size());
+        List<KllSketch[]> decoded = new ArrayList<>(sketches.size());
+
+        // Decode everything first so a malformed entry does not leave a partial merge behind
+        for (Map.Entry<String, String> entry : sketches.entrySet()) {
+            Integer slot = slotsByName.get(entry.getKey());
+            if (slot == null) {
+                throw new IllegalArgumentException("Unknown sketch key: " + entry.getKey());
+            }
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Missing sketch for key: " + entry.getKey());
+            }
+            targets.add(slot);
+            decoded.add(ValueSketches.decode(decoder.decode(entry.getValue())));
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            sketchesFor(targets.get(i)).merge(decoded.get(i));
+        }
+        return targets.size();
+    }
+
+    private void addSummary(List<QuantileSummary> summaries, int slot) {
+        ValueSketches sketches = slots.get(slot);
+        if (sketches != null) {
+            summaries.add(sketches.summarize(slotNames[slot]));
+        }
+    }
+
+    private ValueSketches sketchesFor(int slot) {
+        ValueSketches sketches = slots.get(slot);
+        if (sketches == null) {
+            slots.compareAndSet(slot, null, new ValueSketches(k));
+            sketches = slots.get(slot);
+        }
+        return sketches;
+    }
+
+    /**
+     * Input and result sketches for one key, guarded by a single lock.
+     */
+    private static final class ValueSketches {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final KllSketch input;
+        private final KllSketch result;
+
+        ValueSketches(int k) {
+            this.input = new KllSketch(k);
+            this.result = new KllSketch(k);
+        }
+
+        void update(double value, double converted) {
+            lock.lock();
+            try {
+                input.update(value);
+                result.update(converted);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void merge(KllSketch[] other) {
+            lock.lock();
+            try {
+                input.merge(other[0]);
+                result.merge(other[1]);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        QuantileSummary summarize(String key) {
+            lock.lock();
+            try {
+                return new QuantileSummary(key, input.getCount(), quantiles(input), quantiles(result));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        byte[] toBytes() {
+            byte[] inputBytes;
+            byte[] resultBytes;
+            lock.lock();
+            try {
+                inputBytes = input.toBytes();
+                resultBytes = result.toBytes();
+            } finally {
+                lock.unlock();
+            }
+            return ByteBuffer.allocate(Integer.BYTES + inputBytes.length + resultBytes.length)
+                    .putInt(inputBytes.length)
+                    .put(inputBytes)
+                    .put(resultBytes)
+                    .array();
+        }
+
+        static KllSketch[] decode(byte[] bytes) {
+            if (bytes.length < Integer.BYTES) {
+                throw new IllegalArgumentException("Truncated sketch");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int inputLength = buffer.getInt();
+            if (inputLength < 0 || inputLength > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid sketch length: " + inputLength);
+            }
+            byte[] inputBytes = new byte[inputLength];
+            byte[] resultBytes = new byte[buffer.remaining() - inputLength];
+            buffer.get(inputBytes).get(resultBytes);
+            return new KllSketch[] { KllSketch.fromBytes(inputBytes), KllSketch.fromBytes(resultBytes) };
+        }
+
+        private static ValueQuantiles quantiles(KllSketch sketch) {
+            if (sketch.getCount() == 0) {
+                return new ValueQuantiles();
+            }
+            return new ValueQuantiles(sketch.getMin(), sketch.quantile(0.5),
+                    sketch.quantile(0.9), sketch.quantile(0.99), sketch.getMax());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.jfr.ConversionEvent;
+import com.convertly.demo.jfr.HistoryExportEvent;
+import com.convertly.demo.model.RecordingStatus;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that runs Java Flight Recorder recordings on demand.
+ *
+ * <p>Each recording uses one of the JDK's settings profiles ({@code default} for
+ * always-on overhead, {@code profile} for more detail) plus the application's own
+ * {@link ConversionEvent} and {@link HistoryExportEvent}, and is written to a file
+ * when it is stopped or its duration has passed. Files are kept until the
+ * recording is deleted, and the number of recordings is capped so they cannot
+ * fill the disk. Only registered when {@code convertly.jfr.enabled} is set.
+ */
+@Service
+@ConditionalOnProperty(name = "convertly.jfr.enabled", havingValue = "true")
+public class FlightRecordingService {
+
+    private final Path directory;
+    private final boolean temporaryDirectory;
+    private final int maxRecordings;
+    private final Duration maxDuration;
+    private final Map<Long, ManagedRecording> recordings = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FlightRecordingService(@Value("${convertly.jfr.directory:}") String directory,
+            @Value("${convertly.jfr.max-recordings:4}") int maxRecordings,
+            @Value("${convertly.jfr.max-duration:30m}") Duration maxDuration) {
+        this.temporaryDirectory = directory.isBlank();
+        try {
+            this.directory = temporaryDirectory
+                    ? Files.createTempDirectory("convertly-jfr")
+                    : Files.createDirectories(Path.of(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create recording directory " + directory, e);
+        }
+        this.maxRecordings = maxRecordings;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Starts a recording that stops by itself after the given duration.
+     *
+     * @param profile the name of a JFR settings profile
+     * @param duration how long to record
+     * @return the status of the new recording, or null if too many recordings are kept
+     * @throws IllegalArgumentException if the profile does not exist or the duration is out of range
+     */
+    public RecordingStatus start(String profile, Duration duration) {
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + maxDuration);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(profile);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Invalid profile: " + profile + ". Valid profiles are: "
+                    + String.join(", ", Configuration.getConfigurations().stream().map(Configuration::getName).toList()));
+        }
+        if (recordings.size() >= maxRecordings) {
+            return null;
+        }
+
+        Recording recording = new Recording(configuration);
+        Path file = directory.resolve("convertly-" + recording.getId() + ".jfr");
+        recording.setName("convertly-" + recording.getId());
+        recording.enable(ConversionEvent.class);
+        recording.enable(HistoryExportEvent.class);
+        recording.setToDisk(true);
+        recording.setDuration(duration);
+        try {
+            recording.setDestination(file);
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException("Cannot write recording to " + file, e);
+        }
+        ManagedRecording managed = new ManagedRecording(recording, profile, file);
+        recordings.put(recording.getId(), managed);
+        recording.start();
+        return managed.toStatus();
+    }
+
+    /**
+     * Lists all recordings, oldest first.
+     *
+     * @return the statuses of all recordings
+     */
+    public List<RecordingStatus> getRecordings() {
+        return recordings.values().stream()
+                .map(ManagedRecording::toStatus)
+                .sorted(Comparator.comparingLong(RecordingStatus::getId))
+                .toList();
+    }
+
+    /**
+     * Gets the status of a recording.
+     *
+     * @param id the recording ID
+     * @return the status, or null if there is no such recording
+     */
+    public RecordingStatus getRecording(long id) {
+        ManagedRecording managed = recordings.get(id);
+        return managed == null ? null : managed.toStatus();
+    }
+
+    /**
+     * Stops a recording before its duration has passed and writes its file.
+     *
+     * @param id the recording ID
+     * @return the status, or null if there is no such recording
+     */
+    public RecordingStatus stop(long id) {
+        ManagedRecording managed = recordings.get(id);
+        if (managed == null) {
+            return null;
+        }
+        if (managed.recording.getState() == RecordingState.RUNNING
+                || managed.recording.getState() == RecordingState.DELAYED) {
+            managed.recording.stop();
+        }
+        return managed.toStatus();
+    }
+
+    /**
+     * Gets the file of a stopped recording.
+     *
+     * @param id the recording ID
+     * @return the file, or null if there is no such recording or it is still running
+     */
+    public Path getRecordingFile(long id) {
+        ManagedRecording managed = recordings.get(id);
+        return managed == null || !managed.isWritten() ? null : managed.file;
+    }
+
+    /**
+     * Stops a recording if it is running and deletes its file.
+     *
+     * @param id the recording ID
+     * @return false if there is no such recording
+     */
+    public boolean delete(long id) {
+        ManagedRecording managed = recordings.remove(id);
+        if (managed == null) {
+            return false;
+        }
+        discard(managed);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordings.values().forEach(this::discard);
+        recordings.clear();
+        if (temporaryDirectory) {
+            deleteQuietly(directory);
+        }
+    }
+
+    private void discard(ManagedRecording managed) {
+        managed.recording.close();
+        deleteQuietly(managed.file);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Best effort; the recording is no longer reachable
+        }
+    }
+
+    private record ManagedRecording(Recording recording, String profile, Path file) {
+
+        /**
+         * Checks whether the recording has stopped and its file is complete.
+         */
+        boolean isWritten() {
+            RecordingState state = recording.getState();
+            return (state == RecordingState.STOPPED || state == RecordingState.CLOSED) && Files.exists(file);
+        }
+
+        RecordingStatus toStatus() {
+            Long size = null;
+            if (isWritten()) {
+                try {
+                    size = Files.size(file);
+                } catch (IOException e) {
+                    // Deleted concurrently; report no size
+                }
+            }
+            LocalDateTime startedAt = recording.getStartTime() == null ? null
+                    : LocalDateTime.ofInstant(recording.getStartTime(), ZoneId.systemDefault());
+            return new RecordingStatus(recording.getId(), profile,
+                    recording.getState().name().toLowerCase(Locale.ROOT), startedAt,
+                    recording.getDuration() == null ? 0 : recording.getDuration().toSeconds(), size);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.HeavyHitter;
+import com.convertly.demo.sketch.HeavyHitterSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Service for tracking the most frequent unit pairs and input values.
+ * Uses fixed-size sketches so memory does not grow with traffic.
+ */
+@Service
+public class HeavyHitterService {
+
+    private final HeavyHitterSketch unitPairs;
+    private final HeavyHitterSketch inputValues;
+
+    public HeavyHitterService(
+            @Value("${convertly.heavy-hitters.epsilon:0.005}") double epsilon,
+            @Value("${convertly.heavy-hitters.confidence:0.99}") double confidence,
+            @Value("${convertly.heavy-hitters.capacity:64}") int capacity,
+            @Value("${convertly.heavy-hitters.window:5m}") Duration window,
+            @Value("${convertly.heavy-hitters.window-count:12}") int windowCount) {
+        this.unitPairs = new HeavyHitterSketch(epsilon, confidence, capacity,
+                window.toMillis(), windowCount, System::currentTimeMillis);
+        this.inputValues = new HeavyHitterSketch(epsilon, confidence, capacity,
+                window.toMillis(), windowCount, System::currentTimeMillis);
+    }
+
+    /**
+     * Records a successful conversion.
+     *
+     * @param request the conversion request
+     */
+    public void record(ConversionRequest request) {
+        Category category = request.getCategory();
+        int from = UnitCatalog.unitOrdinal(category, request.getFromUnit());
+        int to = UnitCatalog.unitOrdinal(category, request.getToUnit());
+        if (from != UnitCatalog.UNKNOWN && to != UnitCatalog.UNKNOWN) {
+            unitPairs.add(UnitCatalog.pairKey(category, from, to));
+        }
+        inputValues.add(Double.doubleToLongBits(request.getValue()));
+    }
+
+    /**
+     * Gets the most frequent unit pairs.
+     *
+     * @param limit the maximum number of entries
+     * @return unit pairs with estimated counts, most frequent first
+     */
+    public List<HeavyHitter> getTopUnitPairs(int limit) {
+        return unitPairs.top(limit).stream()
+                .map(entry -> new HeavyHitter(UnitCatalog.describePair(entry.key()), entry.count()))
+                .toList();
+    }
+
+    /**
+     * Gets the most frequent input values.
+     *
+     * @param limit the maximum number of entries
+     * @return input values with estimated counts, most frequent first
+     */
+    public List<HeavyHitter> getTopInputValues(int limit) {
+        return inputValues.top(limit).stream()
+                .map(entry -> new HeavyHitter(String.valueOf(Double.longBitsToDouble(entry.key())), entry.count()))
+                .toList();
+    }
+
+    /**
+     * Gets the time span the counts cover.
+     *
+     * @return the span of the tracked windows
+     */
+    public Duration getWindowSpan() {
+        return Duration.ofMillis(unitPairs.spanMillis());
+    }
+}
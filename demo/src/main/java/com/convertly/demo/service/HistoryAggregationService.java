@@ -0,0 +1,278 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.history.HistoryBlockCodec;
+import com.convertly.demo.history.HistorySnapshot;
+import com.convertly.demo.history.SealedBlock;
+import com.convertly.demo.model.AggregateRow;
+import com.convertly.demo.model.ConversionHistory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Service for group-by aggregation queries over the history of all clients.
+ * Scans run in parallel on a fork-join pool, one task per sealed block or
+ * chunk of hot entries, over point-in-time snapshots of the partitions, so
+ * writers are never blocked while a query runs.
+ */
+@Service
+public class HistoryAggregationService {
+
+    /**
+     * Dimensions a query can group by.
+     */
+    public enum Dimension {
+        CATEGORY, FROM_UNIT, TO_UNIT, TIME;
+
+        /**
+         * Parses a dimension name such as {@code fromUnit} or {@code from_unit}.
+         *
+         * @param value the dimension name
+         * @return the dimension
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Dimension fromValue(String value) {
+            String normalized = value.trim().replace("_", "").toLowerCase(Locale.ROOT);
+            for (Dimension dimension : values()) {
+                if (dimension.name().replace("_", "").toLowerCase(Locale.ROOT).equals(normalized)) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown group-by dimension: " + value
+                    + " (expected category, fromUnit, toUnit or time)");
+        }
+    }
+
+    /**
+     * Which value of each conversion is aggregated.
+     */
+    public enum Field {
+        INPUT, RESULT;
+
+        /**
+         * Parses a field name.
+         *
+         * @param value the field name
+         * @return the field
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Field fromValue(String value) {
+            for (Field field : values()) {
+                if (field.name().equalsIgnoreCase(value.trim())) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown aggregate field: " + value + " (expected input or result)");
+        }
+    }
+
+    private static final int HOT_CHUNK_SIZE = 4096;
+    private static final int GROUP_BITS = 8;
+    private static final Duration MIN_BUCKET = Duration.ofSeconds(1);
+
+    private final ConversionHistoryService historyService;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public HistoryAggregationService(ConversionHistoryService historyService,
+            @Value("${convertly.history.aggregate-parallelism:0}") int parallelism) {
+        this.historyService = historyService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Aggregates the history of all clients.
+     *
+     * @param groupBy the dimensions to group by; empty for a single total
+     * @param bucket the time bucket width, used when grouping by time
+     * @param field which value to aggregate
+     * @return one row per group, ordered by time bucket, category and units
+     * @throws IllegalArgumentException if the bucket is shorter than a second
+     */
+    public List<AggregateRow> aggregate(List<Dimension> groupBy, Duration bucket, Field field) {
+        if (bucket.compareTo(MIN_BUCKET) < 0) {
+            throw new IllegalArgumentException("Time bucket must be at least one second");
+        }
+        Query query = new Query(groupBy.contains(Dimension.CATEGORY), groupBy.contains(Dimension.FROM_UNIT),
+                groupBy.contains(Dimension.TO_UNIT), groupBy.contains(Dimension.TIME) ? bucket.toMillis() : 0,
+                field == Field.RESULT);
+
+        List<ScanUnit> units = new ArrayList<>();
+        for (HistorySnapshot snapshot : historyService.getSnapshots()) {
+            List<SealedBlock> blocks = snapshot.sealedBlocks();
+            for (int i = 0; i < blocks.size(); i++) {
+                units.add(new BlockUnit(blocks.get(i), i == 0 ? snapshot.sealedSkip() : 0));
+            }
+            List<ConversionHistory> hot = snapshot.hotEntries();
+            for (int from = 0; from < hot.size(); from += HOT_CHUNK_SIZE) {
+                units.add(new HotUnit(hot.subList(from, Math.min(hot.size(), from + HOT_CHUNK_SIZE))));
+            }
+        }
+
+        Map<Long, Accumulator> groups = units.isEmpty()
+                ? new HashMap<>()
+                : pool.invoke(new ScanTask(query, units, 0, units.size()));
+        return groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> toRow(query, entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static AggregateRow toRow(Query query, long key, Accumulator accumulator) {
+        AggregateRow row = new AggregateRow();
+        int category = (int) ((key >>> (2 * GROUP_BITS)) & 0xFF) - 1;
+        int from = (int) ((key >>> GROUP_BITS) & 0xFF) - 1;
+        int to = (int) (key & 0xFF) - 1;
+        if (category >= 0) {
+            Category cat = UnitCatalog.category(category);
+            if (query.byCategory) {
+                row.setCategory(cat.getValue());
+            }
+            if (from >= 0) {
+                row.setFromUnit(UnitCatalog.unitValue(cat, from));
+            }
+            if (to >= 0) {
+                row.setToUnit(UnitCatalog.unitValue(cat, to));
+            }
+        }
+        if (query.bucketMillis > 0) {
+            long start = (key >> (3 * GROUP_BITS)) * query.bucketMillis;
+            row.setBucketStart(LocalDateTime.ofEpochSecond(Math.floorDiv(start, 1000),
+                    (int) Math.floorMod(start, 1000) * 1_000_000, ZoneOffset.UTC));
+        }
+        row.setCount(accumulator.count);
+        if (accumulator.valueCount > 0) {
+            row.setSum(accumulator.sum);
+            row.setMin(accumulator.min);
+            row.setMax(accumulator.max);
+            row.setAvg(accumulator.sum / accumulator.valueCount);
+        }
+        return row;
+    }
+
+    /**
+     * Group-by settings of one query. Units are only meaningful within a category,
+     * so grouping by a unit also keeps the category in the group key.
+     */
+    private record Query(boolean byCategory, boolean byFromUnit, boolean byToUnit, long bucketMillis,
+            boolean useResult) {
+
+        long groupKey(long epochMillis, int category, int from, int to) {
+            boolean keepCategory = byCategory || byFromUnit || byToUnit;
+            long bucket = bucketMillis > 0 ? Math.floorDiv(epochMillis, bucketMillis) : 0;
+            return bucket << (3 * GROUP_BITS)
+                    | (long) (keepCategory ? category + 1 : 0) << (2 * GROUP_BITS)
+                    | (long) (byFromUnit ? from + 1 : 0) << GROUP_BITS
+                    | (byToUnit ? to + 1 : 0);
+        }
+    }
+
+    /**
+     * A slice of history scanned by one fork-join leaf task.
+     */
+    private interface ScanUnit {
+        void scan(HistoryBlockCodec.RowVisitor visitor);
+    }
+
+    private record BlockUnit(SealedBlock block, int skip) implements ScanUnit {
+        @Override
+        public void scan(HistoryBlockCodec.RowVisitor visitor) {
+            HistoryBlockCodec.scan(block.load(), skip, visitor);
+        }
+    }
+
+    private record HotUnit(List<ConversionHistory> entries) implements ScanUnit {
+        @Override
+        public void scan(HistoryBlockCodec.RowVisitor visitor) {
+            for (ConversionHistory history : entries) {
+                Category category = history.getRequest().getCategory();
+                LocalDateTime timestamp = history.getTimestamp();
+                Double value = history.getRequest().getValue();
+                Double result = history.getResponse().getResult();
+                visitor.visit(timestamp.toEpochSecond(ZoneOffset.UTC) * 1000 + timestamp.getNano() / 1_000_000,
+                        category == null ? UnitCatalog.UNKNOWN : category.ordinal(),
+                        UnitCatalog.unitOrdinal(category, history.getRequest().getFromUnit()),
+                        UnitCatalog.unitOrdinal(category, history.getRequest().getToUnit()),
+                        value == null ? Double.NaN : value,
+                        result == null ? Double.NaN : result);
+            }
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Map<Long, Accumulator>> {
+        private final Query query;
+        private final List<ScanUnit> units;
+        private final int from;
+        private final int to;
+
+        ScanTask(Query query, List<ScanUnit> units, int from, int to) {
+            this.query = query;
+            this.units = units;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, Accumulator> compute() {
+            if (to - from == 1) {
+                Map<Long, Accumulator> groups = new HashMap<>();
+                units.get(from).scan((epochMillis, category, fromUnit, toUnit, value, result) ->
+                        groups.computeIfAbsent(query.groupKey(epochMillis, category, fromUnit, toUnit),
+                                key -> new Accumulator()).add(query.useResult ? result : value));
+                return groups;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(query, units, from, mid);
+            left.fork();
+            Map<Long, Accumulator> groups = new ScanTask(query, units, mid, to).compute();
+            left.join().forEach((key, accumulator) -> groups.merge(key, accumulator, Accumulator::merge));
+            return groups;
+        }
+    }
+
+    private static final class Accumulator {
+        long count;
+        long valueCount;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            if (!Double.isNaN(value)) {
+                valueCount++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            count += other.count;
+            valueCount += other.valueCount;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.config.VirtualThreads;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.ExportState;
+import com.convertly.demo.history.HistorySnapshot;
+import com.convertly.demo.jfr.HistoryExportEvent;
+import com.convertly.demo.metrics.ExportMetrics;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ExportJobStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service that writes history exports to files in the background.
+ *
+ * <p>An export captures a snapshot of the client's history when it is requested
+ * and streams it to a temporary file on a small worker pool, so neither a request
+ * thread nor a heap-sized buffer is held while the file is built, and a client
+ * that disconnects does not waste the work. Finished files are kept for the
+ * retention period so they can be downloaded repeatedly, then deleted.
+ *
+ * <p>Retained exports count against a global limit and a per-client limit until
+ * they are deleted or expire, so one client cannot take every slot. A slot is
+ * reserved before the job is created, so concurrent requests cannot exceed either.
+ *
+ * <p>With virtual threads enabled, exports are not queued behind the worker pool:
+ * each runs on its own virtual thread, still limited by the maximum number of jobs.
+ *
+ * <p>Downloads open the file through {@link #openExportFile}. A deleted or expired
+ * export disappears at once, but its file is only deleted once no download holds it
+ * open and the last one was handed out longer ago than the delete grace. With
+ * {@code sendfile} the container opens the file only after the request returns,
+ * and once it has, deleting the file no longer affects the transfer; a file that
+ * cannot be deleted yet is retried on the next cleanup.
+ */
+@Service
+public class HistoryExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ConversionHistoryService historyService;
+    private final HistoryJsonCache historyJsonCache;
+    private final ExportMetrics exportMetrics;
+    private final Path directory;
+    private final boolean temporaryDirectory;
+    private final Duration retention;
+    private final Duration deleteGrace;
+    private final int maxJobs;
+    private final int maxJobsPerClient;
+    private final ExecutorService workers;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger retainedJobs = new AtomicInteger();
+    private final Map<String, Integer> retainedJobsByClient = new ConcurrentHashMap<>();
+    private final Set<ExportJob> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public HistoryExportService(ConversionHistoryService historyService,
+            HistoryJsonCache historyJsonCache,
+            ExportMetrics exportMetrics,
+            @Value("${convertly.export.directory:}") String directory,
+            @Value("${convertly.export.retention:1h}") Duration retention,
+            @Value("${convertly.export.delete-grace:1m}") Duration deleteGrace,
+            @Value("${convertly.export.max-jobs:64}") int maxJobs,
+            @Value("${convertly.export.max-jobs-per-client:4}") int maxJobsPerClient,
+            @Value("${convertly.export.threads:2}") int threads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // An export mostly waits on file writes, so with virtual threads each one gets its own
+        this(historyService, historyJsonCache, exportMetrics, directory, retention, deleteGrace, maxJobs,
+                maxJobsPerClient, virtualThreads && VirtualThreads.isSupported()
+                        ? Executors.newCachedThreadPool(VirtualThreads.threadFactory("export-", true))
+                        : Executors.newFixedThreadPool(threads, VirtualThreads.threadFactory("export-", false)));
+    }
+
+    HistoryExportService(ConversionHistoryService historyService, HistoryJsonCache historyJsonCache,
+            ExportMetrics exportMetrics, String directory, Duration retention, Duration deleteGrace, int maxJobs,
+            int maxJobsPerClient, ExecutorService workers) {
+        this.historyService = historyService;
+        this.historyJsonCache = historyJsonCache;
+        this.exportMetrics = exportMetrics;
+        this.temporaryDirectory = directory.isBlank();
+        try {
+            this.directory = temporaryDirectory
+                    ? Files.createTempDirectory("convertly-exports")
+                    : Files.createDirectories(Path.of(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create export directory " + directory, e);
+        }
+        this.retention = retention;
+        this.deleteGrace = deleteGrace;
+        this.maxJobs = maxJobs;
+        this.maxJobsPerClient = maxJobsPerClient;
+        this.workers = workers;
+    }
+
+    /**
+     * Starts exporting a snapshot of a client's history.
+     *
+     * @param clientId the client key
+     * @param format the file format
+     * @return the status of the new export, or null if too many exports are retained
+     *         in total or for the client, or the workers no longer accept exports
+     */
+    public ExportJobStatus startExport(String clientId, ExportFormat format) {
+        if (!reserve(clientId)) {
+            return null;
+        }
+        ExportJob job;
+        HistorySnapshot snapshot;
+        try {
+            snapshot = historyService.getHistorySnapshot(clientId);
+            job = new ExportJob(UUID.randomUUID().toString(), clientId, format, snapshot.size());
+        } catch (RuntimeException e) {
+            release(clientId);
+            throw e;
+        }
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job, snapshot));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job never ran, so give its slot back
+            jobs.remove(job.id, job);
+            release(clientId);
+            return null;
+        }
+        return job.toStatus(retention);
+    }
+
+    /**
+     * Gets the status of one of a client's exports.
+     *
+     * @param clientId the client key
+     * @param exportId the export ID
+     * @return the status, or null if the client has no such export
+     */
+    public ExportJobStatus getExport(String clientId, String exportId) {
+        ExportJob job = find(clientId, exportId);
+        return job == null ? null : job.toStatus(retention);
+    }
+
+    /**
+     * Opens the file of one of a client's finished exports for a download. The file
+     * is not deleted until the returned handle is closed and the delete grace has
+     * passed, which covers a container sending it after the request returns.
+     *
+     * @param clientId the client key
+     * @param exportId the export ID
+     * @return the open file, or null if the client has no such export or it has not finished
+     */
+    public ExportFile openExportFile(String clientId, String exportId) {
+        ExportJob job = find(clientId, exportId);
+        if (job == null || job.state != ExportState.COMPLETED) {
+            return null;
+        }
+        job.downloads.incrementAndGet();
+        if (job.cancelled) {
+            // Deleted meanwhile; discard may already have seen no downloads
+            job.downloads.decrementAndGet();
+            return null;
+        }
+        return new ExportFile(job);
+    }
+
+    /**
+     * Cancels one of a client's exports if it is still running and deletes its file.
+     *
+     * @param clientId the client key
+     * @param exportId the export ID
+     * @return false if the client has no such export
+     */
+    public boolean deleteExport(String clientId, String exportId) {
+        ExportJob job = find(clientId, exportId);
+        if (job == null || !jobs.remove(exportId, job)) {
+            return false;
+        }
+        release(job.clientId);
+        discard(job);
+        return true;
+    }
+
+    /**
+     * Deletes exports whose retention period has passed, and files of deleted
+     * exports whose downloads have finished.
+     */
+    @Scheduled(fixedDelayString = "${convertly.export.cleanup-interval-ms:60000}")
+    public void removeExpiredExports() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().forEach(job -> {
+            LocalDateTime completedAt = job.completedAt;
+            if (completedAt != null && completedAt.isBefore(cutoff) && jobs.remove(job.id, job)) {
+                release(job.clientId);
+                discard(job);
+            }
+        });
+        pendingDeletes.removeIf(this::deleteIfUnused);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        // The web server has stopped, so no download still reads a file
+        jobs.values().forEach(job -> {
+            job.cancelled = true;
+            deleteQuietly(job.file);
+        });
+        pendingDeletes.forEach(job -> deleteQuietly(job.file));
+        jobs.clear();
+        pendingDeletes.clear();
+        retainedJobs.set(0);
+        retainedJobsByClient.clear();
+        if (temporaryDirectory) {
+            deleteQuietly(directory);
+        }
+    }
+
+    /**
+     * Takes a slot for a new export, first from the global limit, then from the client's.
+     */
+    private boolean reserve(String clientId) {
+        if (retainedJobs.incrementAndGet() > maxJobs) {
+            retainedJobs.decrementAndGet();
+            return false;
+        }
+        boolean[] reserved = new boolean[1];
+        retainedJobsByClient.compute(clientId, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxJobsPerClient) {
+                return count;
+            }
+            reserved[0] = true;
+            return current + 1;
+        });
+        if (!reserved[0]) {
+            retainedJobs.decrementAndGet();
+        }
+        return reserved[0];
+    }
+
+    private void release(String clientId) {
+        retainedJobsByClient.computeIfPresent(clientId, (key, count) -> count == 1 ? null : count - 1);
+        retainedJobs.decrementAndGet();
+    }
+
+    private ExportJob find(String clientId, String exportId) {
+        ExportJob job = jobs.get(exportId);
+        return job != null && job.clientId.equals(clientId) ? job : null;
+    }
+
+    private void run(ExportJob job, HistorySnapshot snapshot) {
+        if (job.cancelled) {
+            return;
+        }
+        job.state = ExportState.RUNNING;
+        HistoryExportEvent event = new HistoryExportEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Path partial = directory.resolve(job.id + "." + job.format.getValue() + ".part");
+        Path file = directory.resolve(job.id + "." + job.format.getValue());
+        try {
+            Iterable<ConversionHistory> entries = counting(job, snapshot);
+            if (job.format == ExportFormat.CSV) {
+                try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                    historyService.writeHistoryAsCSV(entries, writer);
+                }
+            } else {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_SIZE)) {
+                    historyJsonCache.writeArray(entries, out);
+                }
+            }
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.sizeBytes = Files.size(file);
+            job.completedAt = LocalDateTime.now();
+            job.state = ExportState.COMPLETED;
+            exportMetrics.recordExport(job.format, ExportMetrics.Mode.BACKGROUND, System.nanoTime() - start,
+                    job.sizeBytes);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partial);
+            job.error = e instanceof CancellationException ? "Export was cancelled" : e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.state = ExportState.FAILED;
+            exportMetrics.recordFailedExport(job.format, ExportMetrics.Mode.BACKGROUND, System.nanoTime() - start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = job.format.getValue();
+            event.mode = "background";
+            event.valueCount = job.written;
+            event.bytes = job.sizeBytes == null ? 0 : job.sizeBytes;
+            event.success = job.state == ExportState.COMPLETED;
+            event.commit();
+        }
+        if (job.cancelled) {
+            // Deleted while running; the file is no longer reachable
+            discard(job);
+        }
+    }
+
+    /**
+     * Wraps the snapshot so iterating it records progress and stops once the export is cancelled.
+     */
+    private static Iterable<ConversionHistory> counting(ExportJob job, HistorySnapshot snapshot) {
+        return () -> new Iterator<>() {
+            private final Iterator<ConversionHistory> delegate = snapshot.iterator();
+
+            @Override
+            public boolean hasNext() {
+                if (job.cancelled) {
+                    throw new CancellationException();
+                }
+                return delegate.hasNext();
+            }
+
+            @Override
+            public ConversionHistory next() {
+                ConversionHistory next = delegate.next();
+                job.written++;
+                return next;
+            }
+        };
+    }
+
+    private void discard(ExportJob job) {
+        job.cancelled = true;
+        if (job.file != null && !deleteIfUnused(job)) {
+            pendingDeletes.add(job);
+        }
+    }
+
+    /**
+     * Deletes the file of a discarded export unless a download may still read it.
+     *
+     * @return true if the file is gone
+     */
+    private boolean deleteIfUnused(ExportJob job) {
+        if (job.downloads.get() > 0
+                || job.downloaded && System.nanoTime() - job.lastDownloadNanos < deleteGrace.toNanos()) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(job.file);
+            return true;
+        } catch (IOException e) {
+            // Still open where open files cannot be deleted; retried on the next cleanup
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Best effort; the export is no longer reachable
+        }
+    }
+
+    /**
+     * The file of a finished export, kept until the download closes it.
+     */
+    public static final class ExportFile implements AutoCloseable {
+        private final ExportJob job;
+        private boolean closed;
+
+        private ExportFile(ExportJob job) {
+            this.job = job;
+        }
+
+        public Path getPath() {
+            return job.file;
+        }
+
+        public ExportFormat getFormat() {
+            return job.format;
+        }
+
+        /**
+         * Ends the download. With sendfile, call it once the file has been handed
+         * to the container; the delete grace covers the transfer starting.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Written before the count drops, so a cleanup that sees no downloads sees the time
+            job.lastDownloadNanos = System.nanoTime();
+            job.downloaded = true;
+            job.downloads.decrementAndGet();
+        }
+    }
+
+    /**
+     * State of one export. Fields are written by the worker running it and read by
+     * status requests; the download fields are written by downloads and read by cleanup.
+     */
+    private static final class ExportJob {
+        final String id;
+        final String clientId;
+        final ExportFormat format;
+        final long total;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile ExportState state = ExportState.PENDING;
+        volatile long written;
+        volatile Path file;
+        volatile Long sizeBytes;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+        volatile boolean cancelled;
+        final AtomicInteger downloads = new AtomicInteger();
+        volatile boolean downloaded;
+        volatile long lastDownloadNanos;
+
+        ExportJob(String id, String clientId, ExportFormat format, long total) {
+            this.id = id;
+            this.clientId = clientId;
+            this.format = format;
+            this.total = total;
+        }
+
+        ExportJobStatus toStatus(Duration retention) {
+            LocalDateTime completed = completedAt;
+            return new ExportJobStatus(id, format, state, total, written, sizeBytes, createdAt, completed,
+                    completed == null ? null : completed.plus(retention), error);
+        }
+    }
+}
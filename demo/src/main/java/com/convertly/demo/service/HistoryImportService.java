@@ -0,0 +1,275 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.UnitCatalog;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.model.ImportResult;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service that restores history from the files produced by the CSV and JSON exports.
+ *
+ * <p>Input is parsed as a stream and appended in batches, each under a single
+ * partition lock. While one batch is inserted on the import pool, the request
+ * thread parses the next, and imports into different clients' partitions run in
+ * parallel. Imported entries are not reported to {@link ConversionHistoryListener}s;
+ * quantile sketches are restored separately through their export.
+ */
+@Service
+public class HistoryImportService {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final ConversionHistoryService historyService;
+    private final ObjectReader historyReader;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ExecutorService inserters;
+
+    @Autowired
+    public HistoryImportService(ConversionHistoryService historyService,
+            ObjectMapper objectMapper,
+            @Value("${convertly.import.batch-size:8192}") int batchSize,
+            @Value("${convertly.import.threads:0}") int threads) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Import batch size must be positive");
+        }
+        this.historyService = historyService;
+        this.objectMapper = objectMapper;
+        this.historyReader = objectMapper.readerFor(ConversionHistory.class);
+        this.batchSize = batchSize;
+        // Inserting is CPU-bound, so these stay platform threads in virtual thread mode
+        this.inserters = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Appends the entries of an exported file to a client's history, oldest first.
+     * Rows that are not valid conversions are skipped and counted.
+     *
+     * @param clientId the client key
+     * @param format the file format
+     * @param in the file contents; not closed
+     * @param dedupe whether to skip rows whose ID is already in the history or earlier in the file
+     * @return the import counts
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the file is not an export of the given format;
+     *         rows before the malformed part have been imported
+     */
+    public ImportResult importHistory(String clientId, ExportFormat format, InputStream in, boolean dedupe)
+            throws IOException {
+        long start = System.nanoTime();
+        BatchWriter writer = new BatchWriter(clientId, dedupe ? existingIds(clientId) : null);
+        try {
+            if (format == ExportFormat.CSV) {
+                readCsv(in, writer);
+            } else {
+                readJson(in, writer);
+            }
+        } finally {
+            writer.finish();
+        }
+        return new ImportResult(writer.imported, writer.duplicates, writer.rejected,
+                historyService.getHistoryCount(clientId), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        inserters.shutdown();
+    }
+
+    private void readCsv(InputStream in, BatchWriter writer) throws IOException {
+        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .build();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        CSVParser parser = csvFormat.parse(reader);
+        if (!parser.getHeaderNames().equals(List.of(ConversionHistoryService.CSV_HEADER))) {
+            throw new IllegalArgumentException("CSV header must be: " + String.join(",", ConversionHistoryService.CSV_HEADER));
+        }
+        try {
+            for (CSVRecord record : parser) {
+                writer.accept(fromCsv(record));
+            }
+        } catch (IllegalStateException | UncheckedIOException e) {
+            // Commons CSV reports malformed input while iterating as unchecked exceptions
+            throw new IllegalArgumentException("Malformed CSV near line " + parser.getCurrentLineNumber(), e);
+        }
+    }
+
+    private static ConversionHistory fromCsv(CSVRecord record) {
+        if (record.size() != ConversionHistoryService.CSV_HEADER.length) {
+            return null;
+        }
+        try {
+            Category category = Category.fromValue(record.get(2));
+            ConversionRequest request = new ConversionRequest(category, record.get(3), record.get(4),
+                    Double.valueOf(record.get(5)));
+            ConversionResponse response = new ConversionResponse(
+                    record.get(6).isEmpty() ? null : Double.valueOf(record.get(6)),
+                    record.get(7).isEmpty() ? null : record.get(7),
+                    request);
+            ConversionHistory history = new ConversionHistory(record.get(0), request, response);
+            history.setTimestamp(LocalDateTime.parse(record.get(1), ConversionHistoryService.DATE_FORMATTER));
+            return history;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void readJson(InputStream in, BatchWriter writer) throws IOException {
+        try {
+            readJsonEntries(in, writer);
+        } catch (JsonProcessingException e) {
+            // Syntax errors, and mapping errors outside an entry, are the client's fault
+            JsonLocation location = e.getLocation();
+            throw new IllegalArgumentException(location == null
+                    ? "Malformed JSON import: " + e.getOriginalMessage()
+                    : "Malformed JSON import at line " + location.getLineNr() + ", column "
+                            + location.getColumnNr() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private void readJsonEntries(InputStream in, BatchWriter writer) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("JSON import must be an array of history entries");
+        }
+        JsonStreamContext array = parser.getParsingContext();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("JSON import must be an array of history entries");
+            }
+            try {
+                writer.accept(historyReader.readValue(parser));
+            } catch (JsonMappingException e) {
+                // Skip the rest of the bad entry and continue with the next one
+                writer.accept(null);
+                while (parser.getParsingContext() != array) {
+                    if (parser.nextToken() == null) {
+                        throw new IllegalArgumentException("JSON import ends inside an entry");
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isValid(ConversionHistory history) {
+        if (history == null || history.getTimestamp() == null || history.getRequest() == null
+                || history.getResponse() == null) {
+            return false;
+        }
+        ConversionRequest request = history.getRequest();
+        return request.getCategory() != null
+                && request.getValue() != null
+                && UnitCatalog.unitOrdinal(request.getCategory(), request.getFromUnit()) != UnitCatalog.UNKNOWN
+                && UnitCatalog.unitOrdinal(request.getCategory(), request.getToUnit()) != UnitCatalog.UNKNOWN;
+    }
+
+    private Set<String> existingIds(String clientId) {
+        Set<String> ids = new HashSet<>();
+        for (ConversionHistory history : historyService.getHistorySnapshot(clientId)) {
+            ids.add(history.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Validates and deduplicates rows and hands full batches to the import pool,
+     * keeping one batch in flight so parsing and insertion overlap.
+     */
+    private final class BatchWriter {
+        private final String clientId;
+        private final Set<String> seenIds;
+        private List<ConversionHistory> batch = new ArrayList<>(batchSize);
+        private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+        private long imported;
+        private long duplicates;
+        private long rejected;
+
+        BatchWriter(String clientId, Set<String> seenIds) {
+            this.clientId = clientId;
+            this.seenIds = seenIds;
+        }
+
+        void accept(ConversionHistory history) {
+            if (!isValid(history)) {
+                rejected++;
+                return;
+            }
+            if (history.getId() == null || history.getId().isBlank()) {
+                history.setId(UUID.randomUUID().toString());
+            } else if (seenIds != null && !seenIds.add(history.getId())) {
+                duplicates++;
+                return;
+            }
+            batch.add(history);
+            imported++;
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            awaitInFlight();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            awaitInFlight();
+            List<ConversionHistory> full = batch;
+            batch = new ArrayList<>(batchSize);
+            inFlight = CompletableFuture.runAsync(() -> historyService.importEntries(clientId, full), inserters);
+        }
+
+        private void awaitInFlight() {
+            try {
+                inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.ResponseView;
+import com.convertly.demo.model.ConversionHistory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service that serializes history entries to compact UTF-8 JSON once and reuses
+ * the bytes for every later read, so reads write them straight to the response
+ * instead of walking the object graph through Jackson again.
+ *
+ * <p>In {@code eager} mode entries are serialized when recorded, in {@code lazy}
+ * mode on first read, and with {@code off} every read serializes afresh. Only the
+ * full form is cached; the smaller {@link ResponseView}s are written on each read.
+ *
+ * <p>Cached bytes trade memory for read speed: they are kept next to the entry's
+ * objects, which the rest of the service still reads, so every cached entry
+ * retains both forms until it is sealed into a cold block or evicted. Caching is
+ * therefore off unless configured.
+ */
+@Service
+public class HistoryJsonCache implements ConversionHistoryListener {
+
+    /**
+     * When entries are serialized to cached bytes.
+     */
+    public enum Mode {
+        OFF, LAZY, EAGER
+    }
+
+    private static final byte[] EMPTY_ARRAY = { '[', ']' };
+
+    private final ObjectWriter writer;
+    private final Map<ResponseView, ObjectWriter> viewWriters = new EnumMap<>(ResponseView.class);
+    private final Mode mode;
+
+    @Autowired
+    public HistoryJsonCache(ObjectMapper objectMapper,
+            @Value("${convertly.history.json-bytes:off}") String mode) {
+        this.writer = objectMapper.writerFor(ConversionHistory.class);
+        for (ResponseView view : ResponseView.values()) {
+            viewWriters.put(view, writer.withView(view.getJsonView())
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+        }
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public void onConversionRecorded(String clientId, ConversionHistory history) {
+        if (mode == Mode.EAGER) {
+            toJson(history);
+        }
+    }
+
+    /**
+     * Gets the JSON form of an entry, serializing and caching it if needed.
+     *
+     * @param history the entry
+     * @return the UTF-8 JSON bytes
+     */
+    public byte[] toJson(ConversionHistory history) {
+        byte[] json = history.getSerializedJson();
+        if (json != null) {
+            return json;
+        }
+        try {
+            json = writer.writeValueAsBytes(history);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (mode != Mode.OFF) {
+            history.setSerializedJson(json);
+        }
+        return json;
+    }
+
+    /**
+     * Gets the JSON form of an entry without caching it, for one-off writes such as
+     * the live feed. Bytes already cached on the entry are reused.
+     *
+     * @param history the entry
+     * @return the UTF-8 JSON bytes
+     */
+    public byte[] toTransientJson(ConversionHistory history) {
+        byte[] json = history.getSerializedJson();
+        if (json != null) {
+            return json;
+        }
+        try {
+            return writer.writeValueAsBytes(history);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the JSON form of an entry in a response view.
+     *
+     * @param history the entry
+     * @param view the view
+     * @return the UTF-8 JSON bytes
+     */
+    public byte[] toJson(ConversionHistory history, ResponseView view) {
+        if (view == ResponseView.FULL) {
+            return toJson(history);
+        }
+        try {
+            return viewWriters.get(view).writeValueAsBytes(history);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes entries as a JSON array.
+     *
+     * @param entries the entries
+     * @param out the stream to write to
+     * @return the number of bytes written
+     * @throws IOException if writing fails
+     */
+    public long writeArray(Iterable<ConversionHistory> entries, OutputStream out) throws IOException {
+        long written = 0;
+        boolean first = true;
+        for (ConversionHistory history : entries) {
+            byte[] json = toJson(history);
+            out.write(first ? '[' : ',');
+            out.write(json);
+            written += json.length + 1;
+            first = false;
+        }
+        if (first) {
+            out.write(EMPTY_ARRAY);
+            return EMPTY_ARRAY.length;
+        }
+        out.write(']');
+        return written + 1;
+    }
+
+    /**
+     * Writes entries as a JSON array in a response view. Entries in a smaller view
+     * are serialized straight to the stream, without intermediate byte arrays.
+     *
+     * @param entries the entries
+     * @param view the view
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeArray(Iterable<ConversionHistory> entries, ResponseView view, OutputStream out)
+            throws IOException {
+        if (view == ResponseView.FULL) {
+            writeArray(entries, out);
+            return;
+        }
+        ObjectWriter viewWriter = viewWriters.get(view);
+        try (JsonGenerator generator = viewWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (ConversionHistory history : entries) {
+                viewWriter.writeValue(generator, history);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.convertly.demo.service;
 
 import com.convertly.demo.enums.Category;
 import com.convertly.demo.enums.LengthUnit;
+import com.convertly.demo.enums.UnitCatalog;
 import com.convertly.demo.exception.InvalidUnitException;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,6 +17,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class LengthService implements ConversionService {
 
+    private static final LengthUnit[] UNITS = LengthUnit.values();
+
     // Conversion factors to meters
     private static final double METER_TO_METER = 1.0;
     private static final double KILOMETER_TO_METER = 1000.0;
@@ -25,16 +30,27 @@ public class LengthService implements ConversionService {
     public ConversionResponse convert(ConversionRequest request) {
         validateRequest(request);
 
-        LengthUnit fromUnit = LengthUnit.fromValue(request.getFromUnit());
-        LengthUnit toUnit = LengthUnit.fromValue(request.getToUnit());
+        LengthUnit fromUnit = parseUnit(request.getFromUnit());
+        LengthUnit toUnit = parseUnit(request.getToUnit());
         Double value = request.getValue();
 
+        StageTimer.mark(Stage.PARSE);
+
         Double result = performConversion(value, fromUnit, toUnit);
+        StageTimer.mark(Stage.CONVERT);
         String formula = generateFormula(value, fromUnit, toUnit, result);
+        StageTimer.mark(Stage.FORMAT);
 
         return new ConversionResponse(result, formula, request);
     }
 
+    @Override
+    public String generateFormula(ConversionRequest request, Double result) {
+        LengthUnit fromUnit = parseUnit(request.getFromUnit());
+        LengthUnit toUnit = parseUnit(request.getToUnit());
+        return generateFormula(request.getValue(), fromUnit, toUnit, result);
+    }
+
     @Override
     public boolean supports(String category) {
         return Category.LENGTH.getValue().equalsIgnoreCase(category);
@@ -44,13 +60,18 @@ public class LengthService implements ConversionService {
         if (!supports(request.getCategory().getValue())) {
             throw new InvalidUnitException("Length service does not support category: " + request.getCategory());
         }
+    }
 
-        try {
-            LengthUnit.fromValue(request.getFromUnit());
-            LengthUnit.fromValue(request.getToUnit());
-        } catch (IllegalArgumentException e) {
-            throw new InvalidUnitException("Invalid length unit: " + e.getMessage());
+    /**
+     * Resolves a length unit name (case-insensitive) through the unit catalog.
+     */
+    private LengthUnit parseUnit(String unit) {
+        int ordinal = UnitCatalog.unitOrdinal(Category.LENGTH, unit);
+        if (ordinal == UnitCatalog.UNKNOWN) {
+            throw new InvalidUnitException("Invalid length unit: "
+                    + UnitCatalog.invalidUnitMessage(Category.LENGTH, unit));
         }
+        return UNITS[ordinal];
     }
 
     private Double performConversion(Double value, LengthUnit from, LengthUnit to) {
@@ -2,9 +2,12 @@ package com.convertly.demo.service;
 
 import com.convertly.demo.enums.Category;
 import com.convertly.demo.enums.TemperatureUnit;
+import com.convertly.demo.enums.UnitCatalog;
 import com.convertly.demo.exception.InvalidUnitException;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,20 +17,33 @@ import org.springframework.stereotype.Service;
 @Service
 public class TemperatureService implements ConversionService {
 
+    private static final TemperatureUnit[] UNITS = TemperatureUnit.values();
+
     @Override
     public ConversionResponse convert(ConversionRequest request) {
         validateRequest(request);
 
-        TemperatureUnit fromUnit = TemperatureUnit.fromValue(request.getFromUnit());
-        TemperatureUnit toUnit = TemperatureUnit.fromValue(request.getToUnit());
+        TemperatureUnit fromUnit = parseUnit(request.getFromUnit());
+        TemperatureUnit toUnit = parseUnit(request.getToUnit());
         Double value = request.getValue();
 
+        StageTimer.mark(Stage.PARSE);
+
         Double result = performConversion(value, fromUnit, toUnit);
+        StageTimer.mark(Stage.CONVERT);
         String formula = generateFormula(value, fromUnit, toUnit, result);
+        StageTimer.mark(Stage.FORMAT);
 
         return new ConversionResponse(result, formula, request);
     }
 
+    @Override
+    public String generateFormula(ConversionRequest request, Double result) {
+        TemperatureUnit fromUnit = parseUnit(request.getFromUnit());
+        TemperatureUnit toUnit = parseUnit(request.getToUnit());
+        return generateFormula(request.getValue(), fromUnit, toUnit, result);
+    }
+
     @Override
     public boolean supports(String category) {
         return Category.TEMPERATURE.getValue().equalsIgnoreCase(category);
@@ -37,13 +53,18 @@ public class TemperatureService implements ConversionService {
         if (!supports(request.getCategory().getValue())) {
             throw new InvalidUnitException("Temperature service does not support category: " + request.getCategory());
         }
+    }
 
-        try {
-            TemperatureUnit.fromValue(request.getFromUnit());
-            TemperatureUnit.fromValue(request.getToUnit());
-        } catch (IllegalArgumentException e) {
-            throw new InvalidUnitException("Invalid temperature unit: " + e.getMessage());
+    /**
+     * Resolves a temperature unit name (case-insensitive) through the unit catalog.
+     */
+    private TemperatureUnit parseUnit(String unit) {
+        int ordinal = UnitCatalog.unitOrdinal(Category.TEMPERATURE, unit);
+        if (ordinal == UnitCatalog.UNKNOWN) {
+            throw new InvalidUnitException("Invalid temperature unit: "
+                    + UnitCatalog.invalidUnitMessage(Category.TEMPERATURE, unit));
         }
+        return UNITS[ordinal];
     }
 
     private Double performConversion(Double value, TemperatureUnit from, TemperatureUnit to) {
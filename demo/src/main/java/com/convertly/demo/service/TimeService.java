@@ -2,9 +2,12 @@ package com.convertly.demo.service;
 
 import com.convertly.demo.enums.Category;
 import com.convertly.demo.enums.TimeUnit;
+import com.convertly.demo.enums.UnitCatalog;
 import com.convertly.demo.exception.InvalidUnitException;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,6 +17,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class TimeService implements ConversionService {
 
+    private static final TimeUnit[] UNITS = TimeUnit.values();
+
     // Conversion factors to seconds
     private static final double SECONDS_TO_SECONDS = 1.0;
     private static final double MINUTES_TO_SECONDS = 60.0;
@@ -24,8 +29,8 @@ public class TimeService implements ConversionService {
     public ConversionResponse convert(ConversionRequest request) {
         validateRequest(request);
 
-        TimeUnit fromUnit = TimeUnit.fromValue(request.getFromUnit());
-        TimeUnit toUnit = TimeUnit.fromValue(request.getToUnit());
+        TimeUnit fromUnit = parseUnit(request.getFromUnit());
+        TimeUnit toUnit = parseUnit(request.getToUnit());
         Double value = request.getValue();
 
         // Validate positive value for time
@@ -33,12 +38,23 @@ public class TimeService implements ConversionService {
             throw new InvalidUnitException("Time value must be non-negative");
         }
 
+        StageTimer.mark(Stage.PARSE);
+
         Double result = performConversion(value, fromUnit, toUnit);
+        StageTimer.mark(Stage.CONVERT);
         String formula = generateFormula(value, fromUnit, toUnit, result);
+        StageTimer.mark(Stage.FORMAT);
 
         return new ConversionResponse(result, formula, request);
     }
 
+    @Override
+    public String generateFormula(ConversionRequest request, Double result) {
+        TimeUnit fromUnit = parseUnit(request.getFromUnit());
+        TimeUnit toUnit = parseUnit(request.getToUnit());
+        return generateFormula(request.getValue(), fromUnit, toUnit, result);
+    }
+
     @Override
     public boolean supports(String category) {
         return Category.TIME.getValue().equalsIgnoreCase(category);
@@ -48,13 +64,18 @@ public class TimeService implements ConversionService {
         if (!supports(request.getCategory().getValue())) {
             throw new InvalidUnitException("Time service does not support category: " + request.getCategory());
         }
+    }
 
-        try {
-            TimeUnit.fromValue(request.getFromUnit());
-            TimeUnit.fromValue(request.getToUnit());
-        } catch (IllegalArgumentException e) {
-            throw new InvalidUnitException("Invalid time unit: " + e.getMessage());
+    /**
+     * Resolves a time unit name (case-insensitive) through the unit catalog.
+     */
+    private TimeUnit parseUnit(String unit) {
+        int ordinal = UnitCatalog.unitOrdinal(Category.TIME, unit);
+        if (ordinal == UnitCatalog.UNKNOWN) {
+            throw new InvalidUnitException("Invalid time unit: "
+                    + UnitCatalog.invalidUnitMessage(Category.TIME, unit));
         }
+        return UNITS[ordinal];
     }
 
     private Double performConversion(Double value, TimeUnit from, TimeUnit to) {
@@ -2,9 +2,12 @@ package com.convertly.demo.service;
 
 import com.convertly.demo.enums.Category;
 import com.convertly.demo.enums.WeightUnit;
+import com.convertly.demo.enums.UnitCatalog;
 import com.convertly.demo.exception.InvalidUnitException;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.timing.Stage;
+import com.convertly.demo.timing.StageTimer;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,6 +17,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class WeightService implements ConversionService {
 
+    private static final WeightUnit[] UNITS = WeightUnit.values();
+
     // Conversion factors to grams
     private static final double GRAM_TO_GRAM = 1.0;
     private static final double KILOGRAM_TO_GRAM = 1000.0;
@@ -24,8 +29,8 @@ public class WeightService implements ConversionService {
     public ConversionResponse convert(ConversionRequest request) {
         validateRequest(request);
 
-        WeightUnit fromUnit = WeightUnit.fromValue(request.getFromUnit());
-        WeightUnit toUnit = WeightUnit.fromValue(request.getToUnit());
+        WeightUnit fromUnit = parseUnit(request.getFromUnit());
+        WeightUnit toUnit = parseUnit(request.getToUnit());
         Double value = request.getValue();
 
         // Validate positive value for weight
@@ -33,12 +38,23 @@ public class WeightService implements ConversionService {
             throw new InvalidUnitException("Weight value must be non-negative");
         }
 
+        StageTimer.mark(Stage.PARSE);
+
         Double result = performConversion(value, fromUnit, toUnit);
+        StageTimer.mark(Stage.CONVERT);
         String formula = generateFormula(value, fromUnit, toUnit, result);
+        StageTimer.mark(Stage.FORMAT);
 
         return new ConversionResponse(result, formula, request);
     }
 
+    @Override
+    public String generateFormula(ConversionRequest request, Double result) {
+        WeightUnit fromUnit = parseUnit(request.getFromUnit());
+        WeightUnit toUnit = parseUnit(request.getToUnit());
+        return generateFormula(request.getValue(), fromUnit, toUnit, result);
+    }
+
     @Override
     public boolean supports(String category) {
         return Category.WEIGHT.getValue().equalsIgnoreCase(category);
@@ -48,13 +64,18 @@ public class WeightService implements ConversionService {
         if (!supports(request.getCategory().getValue())) {
             throw new InvalidUnitException("Weight service does not support category: " + request.getCategory());
         }
+    }
 
-        try {
-            WeightUnit.fromValue(request.getFromUnit());
-            WeightUnit.fromValue(request.getToUnit());
-        } catch (IllegalArgumentException e) {
-            throw new InvalidUnitException("Invalid weight unit: " + e.getMessage());
+    /**
+     * Resolves a weight unit name (case-insensitive) through the unit catalog.
+     */
+    private WeightUnit parseUnit(String unit) {
+        int ordinal = UnitCatalog.unitOrdinal(Category.WEIGHT, unit);
+        if (ordinal == UnitCatalog.UNKNOWN) {
+            throw new InvalidUnitException("Invalid weight unit: "
+                    + UnitCatalog.invalidUnitMessage(Category.WEIGHT, unit));
         }
+        return UNITS[ordinal];
     }
 
     private Double performConversion(Double value, WeightUnit from, WeightUnit to) {
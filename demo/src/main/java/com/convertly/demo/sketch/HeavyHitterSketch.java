@@ -0,0 +1,230 @@
+package com.convertly.demo.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate heavy-hitter tracker over {@code long} keys.
+ * Counts go into a Count-Min Sketch and the most frequent keys are kept in a
+ * small fixed-size candidate table. Both live in a ring of time windows, so
+ * counts older than {@code windowCount} windows decay out of the results.
+ * All updates are lock-free; memory is fixed at construction.
+ */
+public class HeavyHitterSketch {
+
+    /**
+     * Marks an empty candidate slot. This is a non-canonical NaN bit pattern,
+     * so it never collides with {@link Double#doubleToLongBits} or packed unit keys.
+     */
+    static final long EMPTY = 0x7FF0_DEAD_BEEF_0001L;
+
+    private static final int PROBES = 4;
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final long windowMillis;
+    private final AtomicReferenceArray<Window> windows;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a sketch.
+     *
+     * @param epsilon the relative over-count error bound per window (e.g. 0.005)
+     * @param confidence the probability that an estimate stays within the bound (e.g. 0.99)
+     * @param capacity the number of candidate keys tracked per window
+     * @param windowMillis the length of one time window
+     * @param windowCount the number of windows kept before counts expire
+     * @param clock the millisecond clock
+     */
+    public HeavyHitterSketch(double epsilon, double confidence, int capacity,
+            long windowMillis, int windowCount, LongSupplier clock) {
+        if (epsilon <= 0 || epsilon >= 1 || confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("Epsilon and confidence must be between 0 and 1");
+        }
+        if (capacity <= 0 || windowMillis <= 0 || windowCount <= 0) {
+            throw new IllegalArgumentException("Capacity, window length and window count must be positive");
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1.0 / (1.0 - confidence)));
+        this.capacity = Integer.highestOneBit(Math.max(PROBES, capacity - 1)) << 1;
+        this.windowMillis = windowMillis;
+        this.windows = new AtomicReferenceArray<>(windowCount);
+        this.clock = clock;
+    }
+
+    /**
+     * Records one occurrence of a key.
+     *
+     * @param key the key; must not be {@link #EMPTY}
+     */
+    public void add(long key) {
+        Window window = currentWindow();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, window.counts.incrementAndGet(cell(row, key)));
+        }
+        offerCandidate(window, key, estimate);
+    }
+
+    /**
+     * Estimates how often a key was seen across the live windows.
+     *
+     * @param key the key
+     * @return the estimated count (never less than the true count)
+     */
+    public long estimate(long key) {
+        long total = 0;
+        for (Window window : liveWindows()) {
+            total += window.estimate(key);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the most frequent keys across the live windows.
+     *
+     * @param limit the maximum number of keys
+     * @return keys with their estimated counts, most frequent first
+     */
+    public List<Entry> top(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<Window> live = liveWindows();
+        Set<Long> keys = new HashSet<>();
+        for (Window window : live) {
+            for (int slot = 0; slot < capacity; slot++) {
+                long key = window.candidates.get(slot);
+                if (key != EMPTY) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (long key : keys) {
+            long total = 0;
+            for (Window window : live) {
+                total += window.estimate(key);
+            }
+            entries.add(new Entry(key, total));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.size() > limit ? List.copyOf(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Gets the time span covered by the live windows.
+     *
+     * @return the span in milliseconds
+     */
+    public long spanMillis() {
+        return windowMillis * windows.length();
+    }
+
+    private void offerCandidate(Window window, long key, long estimate) {
+        int base = mix(key, 0x9E3779B9) & (capacity - 1);
+        int victim = -1;
+        long victimKey = EMPTY;
+        long victimEstimate = Long.MAX_VALUE;
+
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (base + probe) & (capacity - 1);
+            long current = window.candidates.get(slot);
+            if (current == key) {
+                return;
+            }
+            if (current == EMPTY) {
+                if (window.candidates.compareAndSet(slot, EMPTY, key)) {
+                    return;
+                }
+                current = window.candidates.get(slot);
+                if (current == key) {
+                    return;
+                }
+            }
+            long currentEstimate = window.estimate(current);
+            if (currentEstimate < victimEstimate) {
+                victim = slot;
+                victimKey = current;
+                victimEstimate = currentEstimate;
+            }
+        }
+
+        // Replace the weakest probed candidate only if this key has overtaken it
+        if (victim >= 0 && victimEstimate < estimate) {
+            window.candidates.compareAndSet(victim, victimKey, key);
+        }
+    }
+
+    private Window currentWindow() {
+        long epoch = clock.getAsLong() / windowMillis;
+        int slot = (int) Math.floorMod(epoch, (long) windows.length());
+        Window window = windows.get(slot);
+        if (window != null && window.epoch >= epoch) {
+            return window;
+        }
+        Window fresh = new Window(epoch);
+        if (windows.compareAndSet(slot, window, fresh)) {
+            return fresh;
+        }
+        return windows.get(slot);
+    }
+
+    private List<Window> liveWindows() {
+        long oldest = clock.getAsLong() / windowMillis - windows.length() + 1;
+        List<Window> live = new ArrayList<>(windows.length());
+        for (int i = 0; i < windows.length(); i++) {
+            Window window = windows.get(i);
+            if (window != null && window.epoch >= oldest) {
+                live.add(window);
+            }
+        }
+        return live;
+    }
+
+    private int cell(int row, long key) {
+        return row * width + (mix(key, row + 1) & Integer.MAX_VALUE) % width;
+    }
+
+    private static int mix(long key, int seed) {
+        long h = key * 0x9E3779B97F4A7C15L + seed * 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        h *= 0x94D049BB133111EBL;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    /**
+     * A key with its estimated count.
+     */
+    public record Entry(long key, long count) {
+    }
+
+    private final class Window {
+        final long epoch;
+        final AtomicLongArray counts = new AtomicLongArray(width * depth);
+        final AtomicLongArray candidates = new AtomicLongArray(capacity);
+
+        Window(long epoch) {
+            this.epoch = epoch;
+            for (int slot = 0; slot < capacity; slot++) {
+                candidates.set(slot, EMPTY);
+            }
+        }
+
+        long estimate(long key) {
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                estimate = Math.min(estimate, counts.get(cell(row, key)));
+            }
+            return estimate;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.convertly.demo.sketch;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL streaming quantile sketch over {@code double} values.
+ * Keeps a stack of compactors whose capacities shrink geometrically towards
+ * the bottom, so memory is bounded by roughly {@code 3k} values regardless of
+ * the stream length. Sketches can be merged and serialized.
+ * Not thread-safe; callers must guard concurrent access.
+ */
+public class KllSketch {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int height = 1;
+    private int size;
+    private int maxSize;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a sketch.
+     *
+     * @param k the accuracy parameter; rank error is roughly {@code 1.7 / k}
+     */
+    public KllSketch(int k) {
+        if (k < 8 || k > 65535) {
+            throw new IllegalArgumentException("KLL k must be between 8 and 65535");
+        }
+        this.k = k;
+        this.levels[0] = new double[capacity(0)];
+        this.maxSize = capacity(0);
+    }
+
+    /**
+     * Adds a value to the sketch. NaN values are ignored.
+     *
+     * @param value the value
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        size++;
+        if (size >= maxSize) {
+            compress();
+        }
+    }
+
+    /**
+     * Merges another sketch into this one. The other sketch is not modified.
+     *
+     * @param other the sketch to merge
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (height < other.height) {
+            grow();
+        }
+        for (int h = 0; h < other.height; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        size = Arrays.stream(sizes, 0, height).sum();
+        while (size >= maxSize) {
+            compress();
+        }
+    }
+
+    /**
+     * Estimates the value at the given rank.
+     *
+     * @param rank the normalized rank in {@code [0, 1]}
+     * @return the estimated quantile, or NaN if the sketch is empty
+     */
+    public double quantile(double rank) {
+        if (rank < 0 || rank > 1) {
+            throw new IllegalArgumentException("Rank must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (rank == 0) {
+            return min;
+        }
+        if (rank == 1) {
+            return max;
+        }
+
+        double[] values = new double[size];
+        long[] weights = new long[size];
+        int n = 0;
+        for (int h = 0; h < height; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = 1L << h;
+                n++;
+            }
+        }
+        Integer[] order = new Integer[n];
+        long totalWeight = 0;
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            totalWeight += weights[i];
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double target = rank * totalWeight;
+        long cumulative = 0;
+        for (int index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of values added, including merged sketches.
+     *
+     * @return the stream length
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest value seen.
+     *
+     * @return the minimum, or NaN if the sketch is empty
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Gets the largest value seen.
+     *
+     * @return the maximum, or NaN if the sketch is empty
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Serializes the sketch to a compact binary form.
+     *
+     * @return the serialized sketch
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (4 + height)
+                + Long.BYTES + Double.BYTES * (2 + size));
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(k);
+        buffer.putLong(count);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        buffer.putInt(height);
+        for (int h = 0; h < height; h++) {
+            buffer.putInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putDouble(levels[h][i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a sketch serialized by {@link #toBytes()}.
+     *
+     * @param bytes the serialized sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a valid sketch
+     */
+    public static KllSketch fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported KLL sketch format");
+            }
+            KllSketch sketch = new KllSketch(buffer.getInt());
+            sketch.count = buffer.getLong();
+            sketch.min = buffer.getDouble();
+            sketch.max = buffer.getDouble();
+            int height = buffer.getInt();
+            if (height < 1 || height > 64) {
+                throw new IllegalArgumentException("Invalid KLL sketch height: " + height);
+            }
+            while (sketch.height < height) {
+                sketch.grow();
+            }
+            for (int h = 0; h < height; h++) {
+                int levelSize = buffer.getInt();
+                if (levelSize < 0 || levelSize > buffer.remaining() / Double.BYTES) {
+                    throw new IllegalArgumentException("Invalid KLL sketch level size: " + levelSize);
+                }
+                for (int i = 0; i < levelSize; i++) {
+                    sketch.append(h, buffer.getDouble());
+                }
+                sketch.size += levelSize;
+            }
+            while (sketch.size >= sketch.maxSize) {
+                sketch.compress();
+            }
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated KLL sketch", e);
+        }
+    }
+
+    private int capacity(int level) {
+        int depth = height - level - 1;
+        return (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)) + 1;
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(2, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void grow() {
+        height++;
+        levels = Arrays.copyOf(levels, height);
+        sizes = Arrays.copyOf(sizes, height);
+        levels[height - 1] = new double[capacity(height - 1)];
+        maxSize = 0;
+        for (int h = 0; h < height; h++) {
+            maxSize += capacity(h);
+        }
+    }
+
+    private void compress() {
+        for (int h = 0; h < height; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 >= height) {
+                    grow();
+                }
+                compact(h);
+                if (size < maxSize) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts a level and promotes every other item to the level above, keeping
+     * the smallest item behind when the level has an odd size.
+     */
+    private void compact(int level) {
+        double[] items = levels[level];
+        int n = sizes[level];
+        Arrays.sort(items, 0, n);
+        int start = (n & 1) + (ThreadLocalRandom.current().nextBoolean() ? 1 : 0);
+        int promoted = 0;
+        for (int i = start; i < n; i += 2) {
+            append(level + 1, items[i]);
+            promoted++;
+        }
+        sizes[level] = n & 1;
+        size -= n - (n & 1) - promoted;
+    }
+}
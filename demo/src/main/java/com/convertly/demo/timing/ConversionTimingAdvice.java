@@ -0,0 +1,65 @@
+package com.convertly.demo.timing;
+
+import com.convertly.demo.model.ConversionRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.Type;
+
+/**
+ * Ends the binding stage once a conversion request body has been read and, with
+ * {@code convertly.timing.server-timing}, reports the stages of a timed request in
+ * a {@code Server-Timing} header just before its body (or error) is written.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "convertly.timing.enabled", havingValue = "true")
+public class ConversionTimingAdvice extends RequestBodyAdviceAdapter implements ResponseBodyAdvice<Object> {
+
+    private final boolean serverTiming;
+
+    @Autowired
+    public ConversionTimingAdvice(@Value("${convertly.timing.server-timing:false}") boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == ConversionRequest.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+            Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        StageTimer.mark(Stage.BIND);
+        return body;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return serverTiming;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        StageTimer timer = StageTimer.current();
+        if (timer != null) {
+            response.getHeaders().add("Server-Timing", timer.toServerTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,49 @@
+package com.convertly.demo.timing;
+
+import com.convertly.demo.metrics.ConversionMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times the stages of {@code POST /convert} requests and records them into the
+ * stage histograms. Only registered when {@code convertly.timing.enabled} is set,
+ * so requests are not touched otherwise.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "convertly.timing.enabled", havingValue = "true")
+public class ConversionTimingFilter extends OncePerRequestFilter {
+
+    private final ConversionMetrics conversionMetrics;
+
+    @Autowired
+    public ConversionTimingFilter(ConversionMetrics conversionMetrics) {
+        this.conversionMetrics = conversionMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !"/convert".equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StageTimer timer = StageTimer.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StageTimer.stop();
+            conversionMetrics.recordStages(timer);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.convertly.demo.timing;
+
+/**
+ * Phases of a {@code /convert} request, in the order they run.
+ */
+public enum Stage {
+    BIND("bind", "JSON binding"),
+    VALIDATE("validate", "Request validation"),
+    PARSE("parse", "Routing and unit parsing"),
+    CONVERT("convert", "Arithmetic"),
+    FORMAT("format", "Formula formatting"),
+    HISTORY("history", "History insert");
+
+    private final String value;
+    private final String description;
+
+    Stage(String value, String description) {
+        this.value = value;
+        this.description = description;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,124 @@
+package com.convertly.demo.timing;
+
+import java.util.Locale;
+
+/**
+ * Per-request stage durations of a conversion.
+ *
+ * <p>The timer of the current request is kept in a thread local, so the code of
+ * each stage only calls {@link #mark(Stage)} when it finishes and nothing has to
+ * be passed down the call chain. A mark charges the time since the previous mark
+ * to its stage, so every nanosecond between {@link #start()} and the last mark is
+ * attributed to exactly one stage. Without a started timer a mark is a single
+ * thread-local lookup.
+ */
+public final class StageTimer {
+
+    private static final ThreadLocal<StageTimer> CURRENT = new ThreadLocal<>();
+    private static final Stage[] STAGES = Stage.values();
+
+    private final long startNanos;
+    private final long[] stageNanos = new long[STAGES.length];
+    private long lastNanos;
+    private int marked;
+
+    private StageTimer(long startNanos) {
+        this.startNanos = startNanos;
+        this.lastNanos = startNanos;
+    }
+
+    /**
+     * Starts timing the current thread's request.
+     *
+     * @return the new timer
+     */
+    public static StageTimer start() {
+        StageTimer timer = new StageTimer(System.nanoTime());
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /**
+     * Stops timing the current thread's request.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Gets the timer of the current thread's request.
+     *
+     * @return the timer, or null if timing is off or the request is not timed
+     */
+    public static StageTimer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Ends a stage of the current thread's request, if it is being timed.
+     *
+     * @param stage the stage that has just finished
+     */
+    public static void mark(Stage stage) {
+        StageTimer timer = CURRENT.get();
+        if (timer != null) {
+            long now = System.nanoTime();
+            timer.stageNanos[stage.ordinal()] += now - timer.lastNanos;
+            timer.marked |= 1 << stage.ordinal();
+            timer.lastNanos = now;
+        }
+    }
+
+    /**
+     * Checks whether a stage was reached. Stages after a rejected request are not.
+     *
+     * @param stage the stage
+     * @return true if the stage has been marked
+     */
+    public boolean isMarked(Stage stage) {
+        return (marked & (1 << stage.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the time spent in a stage.
+     *
+     * @param stage the stage
+     * @return the duration in nanoseconds, 0 if the stage was not reached
+     */
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    /**
+     * Gets the time since the timer was started.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Formats the reached stages and the time so far as a {@code Server-Timing}
+     * header value, in milliseconds.
+     *
+     * @return the header value
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(256);
+        for (Stage stage : STAGES) {
+            if (isMarked(stage)) {
+                appendMetric(header, stage.getValue(), stage.getDescription(), stageNanos[stage.ordinal()]);
+                header.append(", ");
+            }
+        }
+        appendMetric(header, "total", "Application time", getElapsedNanos());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, String description, long nanos) {
+        header.append(name)
+                .append(";desc=\"").append(description).append('"')
+                .append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+    }
+}
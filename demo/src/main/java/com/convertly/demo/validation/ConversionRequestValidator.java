@@ -0,0 +1,61 @@
+package com.convertly.demo.validation;
+
+import com.convertly.demo.model.ConversionRequest;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Validator for {@link ConversionRequest} that checks its {@code @NotNull} constraints
+ * with plain null tests instead of Bean Validation.
+ *
+ * <p>Bean Validation walks the constraint metadata and interpolates a message for every
+ * violation on each request. The constraints of a conversion request are fixed, so their
+ * messages are read from the annotations once and reported with the same field and code
+ * ({@code NotNull}) as before. Fields are checked in declaration order.
+ */
+@Component
+public class ConversionRequestValidator implements Validator {
+
+    private static final String NOT_NULL = "NotNull";
+
+    private static final String CATEGORY_MESSAGE = notNullMessage("category");
+    private static final String FROM_UNIT_MESSAGE = notNullMessage("fromUnit");
+    private static final String TO_UNIT_MESSAGE = notNullMessage("toUnit");
+    private static final String VALUE_MESSAGE = notNullMessage("value");
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return ConversionRequest.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        ConversionRequest request = (ConversionRequest) target;
+        if (request.getCategory() == null) {
+            errors.rejectValue("category", NOT_NULL, CATEGORY_MESSAGE);
+        }
+        if (request.getFromUnit() == null) {
+            errors.rejectValue("fromUnit", NOT_NULL, FROM_UNIT_MESSAGE);
+        }
+        if (request.getToUnit() == null) {
+            errors.rejectValue("toUnit", NOT_NULL, TO_UNIT_MESSAGE);
+        }
+        if (request.getValue() == null) {
+            errors.rejectValue("value", NOT_NULL, VALUE_MESSAGE);
+        }
+    }
+
+    private static String notNullMessage(String field) {
+        try {
+            NotNull constraint = ConversionRequest.class.getDeclaredField(field).getAnnotation(NotNull.class);
+            if (constraint == null) {
+                throw new IllegalStateException("ConversionRequest." + field + " is not annotated with @NotNull");
+            }
+            return constraint.message();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("ConversionRequest has no field " + field, e);
+        }
+    }
+}
@@ -5,16 +5,18 @@ import com.convertly.demo.model.ConversionRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
-@AutoConfigureWebMvc
+@AutoConfigureMockMvc
 class DemoApplicationIntegrationTest {
 
     @Autowired
@@ -29,6 +31,7 @@ class DemoApplicationIntegrationTest {
         ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
 
         mockMvc.perform(post("/convert")
+                .header("X-Client-Id", "temperature-flow")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -37,7 +40,7 @@ class DemoApplicationIntegrationTest {
                 .andExpect(jsonPath("$.formula").exists());
 
         // Test that history was recorded
-        mockMvc.perform(get("/history/stats"))
+        mockMvc.perform(get("/history/stats").header("X-Client-Id", "temperature-flow"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalConversions").value(1));
     }
@@ -51,7 +54,7 @@ class DemoApplicationIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.result").value(3.28084))
+                .andExpect(jsonPath("$.result").value(closeTo(3.28084, 1e-5)))
                 .andExpect(jsonPath("$.status").value("success"))
                 .andExpect(jsonPath("$.formula").exists());
     }
@@ -112,30 +115,38 @@ class DemoApplicationIntegrationTest {
 
     @Test
     void testHistoryEndpoints() throws Exception {
-        // Clear history first
+        // Callers without a client ID share a history, which they may not clear
         mockMvc.perform(delete("/history"))
+                .andExpect(status().isForbidden());
+
+        // Clear history first
+        mockMvc.perform(delete("/history").header("X-Client-Id", "integration"))
                 .andExpect(status().isOk());
 
         // Perform a conversion to create history
         ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 0.0);
         mockMvc.perform(post("/convert")
+                .header("X-Client-Id", "integration")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
 
-        // Test get all history
-        mockMvc.perform(get("/history"))
+        // Test get all history; the body is streamed asynchronously
+        MvcResult history = mockMvc.perform(get("/history").header("X-Client-Id", "integration"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(history))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1));
 
         // Test download history as JSON
-        mockMvc.perform(get("/history/download/json"))
+        mockMvc.perform(get("/history/download/json").header("X-Client-Id", "integration"))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=conversion-history.json"));
 
         // Test download history as CSV
-        mockMvc.perform(get("/history/download/csv"))
+        mockMvc.perform(get("/history/download/csv").header("X-Client-Id", "integration"))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=conversion-history.csv"));
     }
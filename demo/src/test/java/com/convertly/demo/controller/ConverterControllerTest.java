@@ -1,14 +1,17 @@
 package com.convertly.demo.controller;
 
 import com.convertly.demo.enums.Category;
+import com.convertly.demo.metrics.ConversionMetrics;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
 import com.convertly.demo.service.ConversionServiceManager;
+import com.convertly.demo.validation.ConversionRequestValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -16,11 +19,15 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ConverterController.class)
+@Import({ClientKeyResolver.class, ConversionRequestValidator.class})
 class ConverterControllerTest {
 
     @Autowired
@@ -29,6 +36,9 @@ class ConverterControllerTest {
     @MockBean
     private ConversionServiceManager conversionServiceManager;
 
+    @MockBean
+    private ConversionMetrics conversionMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -37,7 +47,7 @@ class ConverterControllerTest {
         ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
         ConversionResponse response = new ConversionResponse(77.0, "(25.00°C × 9/5) + 32 = 77.00°F", request);
 
-        when(conversionServiceManager.convert(any(ConversionRequest.class))).thenReturn(response);
+        when(conversionServiceManager.convert(any(ConversionRequest.class), anyString())).thenReturn(response);
 
         mockMvc.perform(post("/convert")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -52,6 +62,36 @@ class ConverterControllerTest {
                 .andExpect(jsonPath("$.originalInput.value").value(25.0));
     }
 
+    @Test
+    void testConvertEndpointCompactViews() throws Exception {
+        ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
+        ConversionResponse response = new ConversionResponse(77.0, "(25.00°C × 9/5) + 32 = 77.00°F", request);
+
+        when(conversionServiceManager.convert(any(ConversionRequest.class), anyString())).thenReturn(response);
+
+        mockMvc.perform(post("/convert?view=compact")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(77.0))
+                .andExpect(jsonPath("$.formula").exists())
+                .andExpect(jsonPath("$.originalInput").doesNotExist())
+                .andExpect(jsonPath("$.status").doesNotExist());
+
+        mockMvc.perform(post("/convert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept("application/vnd.convertly.result+json")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/vnd.convertly.result+json"))
+                .andExpect(content().json("{\"result\":77.0}", true));
+
+        mockMvc.perform(post("/convert?view=tiny")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testConvertEndpointWithInvalidInput() throws Exception {
         ConversionRequest request = new ConversionRequest();
@@ -93,6 +133,23 @@ class ConverterControllerTest {
                 .andExpect(jsonPath("$[2]").value("kelvin"));
     }
 
+    @Test
+    void testMetadataIsServedWithETagAndNotModified() throws Exception {
+        when(conversionServiceManager.getUnitsForCategory("length")).thenReturn(List.of("meter", "foot"));
+
+        String etag = mockMvc.perform(get("/units").param("category", "length"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=86400, public"))
+                .andExpect(jsonPath("$[1]").value("foot"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/units").param("category", "Length").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(conversionServiceManager, times(1)).getUnitsForCategory(anyString());
+    }
+
     @Test
     void testGetSamplePayloadEndpoint() throws Exception {
         mockMvc.perform(get("/sample-payload"))
@@ -0,0 +1,174 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.service.ConversionServiceManager;
+import com.convertly.demo.validation.ConversionRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveConverterController.class)
+@Import({ClientKeyResolver.class, ConversionRequestValidator.class})
+class ReactiveConverterControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ConversionServiceManager conversionServiceManager;
+
+    @MockBean
+    private ConversionMetrics conversionMetrics;
+
+    @Test
+    void testConvertEndpoint() {
+        ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
+        ConversionResponse response = new ConversionResponse(77.0, "(25.00°C × 9/5) + 32 = 77.00°F", request);
+
+        when(conversionServiceManager.convert(any(ConversionRequest.class), eq("client:client-1"))).thenReturn(response);
+
+        webTestClient.post().uri("/convert")
+                .header("X-Client-Id", "client-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.result").isEqualTo(77.0)
+                .jsonPath("$.status").isEqualTo("success")
+                .jsonPath("$.originalInput.fromUnit").isEqualTo("celsius");
+    }
+
+    @Test
+    void testConvertEndpointCompactViews() {
+        ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
+        ConversionResponse response = new ConversionResponse(77.0, "(25.00°C × 9/5) + 32 = 77.00°F", request);
+
+        when(conversionServiceManager.convert(any(ConversionRequest.class), anyString())).thenReturn(response);
+
+        webTestClient.post().uri("/convert?view=compact")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.formula").exists()
+                .jsonPath("$.originalInput").doesNotExist()
+                .jsonPath("$.status").doesNotExist();
+
+        webTestClient.post().uri("/convert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.parseMediaType("application/vnd.convertly.result+json"))
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"result\":77.0}", true);
+
+        webTestClient.post().uri("/convert?view=tiny")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testConvertEndpointWithInvalidInput() {
+        webTestClient.post().uri("/convert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ConversionRequest())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("ValidationException")
+                .jsonPath("$.message").isEqualTo(
+                        "Category is required, From unit is required, To unit is required, Value is required")
+                .jsonPath("$.path").isEqualTo("/convert");
+    }
+
+    @Test
+    void testMetadataIsServedWithETagAndNotModified() {
+        when(conversionServiceManager.getUnitsForCategory("length")).thenReturn(List.of("meter", "foot"));
+
+        String etag = webTestClient.get().uri("/units?category=length")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Cache-Control", "max-age=86400, public")
+                .expectBody().jsonPath("$[1]").isEqualTo("foot")
+                .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/units?category=Length")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", etag)
+                .expectBody().isEmpty();
+        verify(conversionServiceManager, times(1)).getUnitsForCategory(anyString());
+    }
+
+    @Test
+    void testHealthEndpoint() {
+        webTestClient.get().uri("/health")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.status").isEqualTo("Unit Converter API is up and running");
+    }
+
+    @Test
+    void testUnknownPathIsNotFound() {
+        webTestClient.get().uri("/swagger-ui.html")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.path").isEqualTo("/swagger-ui.html");
+
+        webTestClient.put().uri("/convert")
+                .exchange()
+                .expectStatus().isEqualTo(405)
+                .expectHeader().valueEquals("Allow", "POST");
+    }
+
+    @Test
+    void testConversionRunsOffTheEventLoop() {
+        ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit", 25.0);
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(conversionServiceManager.convert(any(ConversionRequest.class), anyString())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return new ConversionResponse(77.0, "formula", request);
+        });
+        ReactiveConverterController controller = new ReactiveConverterController(conversionServiceManager,
+                new ClientKeyResolver("X-Client-Id", "X-API-Key"), new ConversionRequestValidator(),
+                new ObjectMapper(), Duration.ofDays(1));
+
+        MappingJacksonValue body = controller.convert(Mono.just(request), null,
+                MockServerWebExchange.from(MockServerHttpRequest.post("/convert"))).block(Duration.ofSeconds(5));
+
+        assertEquals(77.0, ((ConversionResponse) body.getValue()).getResult());
+        assertTrue(thread.get().startsWith("boundedElastic"), thread.get());
+    }
+}
@@ -0,0 +1,159 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.service.ConversionHistoryService;
+import com.convertly.demo.service.ConversionServiceManager;
+import com.convertly.demo.service.ConversionStatsService;
+import com.convertly.demo.service.HeavyHitterService;
+import com.convertly.demo.service.LengthService;
+import com.convertly.demo.service.TemperatureService;
+import com.convertly.demo.service.TimeService;
+import com.convertly.demo.service.WeightService;
+import com.convertly.demo.validation.ConversionRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subscribes to conversions from threads standing in for Netty event loops while
+ * imports and sealing hold the same client's history lock, and checks with JFR that
+ * the event loop threads never park or wait, the calls BlockHound reports.
+ */
+class ReactiveEventLoopBlockingTest {
+
+    private static final String EVENT_LOOP_PREFIX = "test-event-loop-";
+    private static final int EVENT_LOOPS = 4;
+    private static final int CONVERSIONS = 200;
+
+    private final LengthService lengthService = new LengthService();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEventLoopThreadsNeverWaitForTheHistoryLock() throws Exception {
+        ConversionHistoryService historyService = new ConversionHistoryService(
+                List.of(new ConversionStatsService(200, "", 256, 1 << 22)), List.of(lengthService), 1000,
+                Duration.ofMinutes(30), 10_000, 16, 16, "", 64);
+        ConversionServiceManager manager = new ConversionServiceManager(new TemperatureService(), lengthService,
+                new WeightService(), new TimeService(), historyService,
+                new HeavyHitterService(0.005, 0.99, 64, Duration.ofMinutes(5), 12),
+                new ConversionMetrics(new SimpleMeterRegistry()));
+        ReactiveConverterController controller = new ReactiveConverterController(manager,
+                new ClientKeyResolver("X-Client-Id", "X-API-Key"), new ConversionRequestValidator(),
+                new ObjectMapper(), Duration.ofDays(1));
+        // Load the classes involved first: class initialization may wait, but only once
+        runEventLoops(controller, 1);
+
+        AtomicBoolean importing = new AtomicBoolean(true);
+        Thread importer = new Thread(() -> {
+            while (importing.get()) {
+                historyService.importEntries("client:shared", entries(500));
+            }
+        }, "importer");
+        Path file = directory.resolve("event-loops.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ThreadPark").withThreshold(Duration.ZERO).withStackTrace();
+            recording.enable("jdk.JavaMonitorWait").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            importer.start();
+            try {
+                runEventLoops(controller, CONVERSIONS);
+            } finally {
+                importing.set(false);
+                importer.join(TimeUnit.SECONDS.toMillis(30));
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> blocked = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getThread() != null && event.getThread().getJavaName() != null
+                    && event.getThread().getJavaName().startsWith(EVENT_LOOP_PREFIX) && !isTaskHandOff(event)) {
+                blocked.add(event.getEventType().getName() + " " + event.getStackTrace());
+            }
+        }
+        assertTrue(blocked.isEmpty(), "Event loop threads blocked:\n" + String.join("\n", blocked));
+    }
+
+    /**
+     * Starts event loop threads that subscribe to conversions for the shared client
+     * without ever waiting for a result, and waits until all results have arrived.
+     */
+    private void runEventLoops(ReactiveConverterController controller, int conversionsPerLoop) throws Exception {
+        CountDownLatch done = new CountDownLatch(EVENT_LOOPS * conversionsPerLoop);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> loops = new ArrayList<>();
+        for (int i = 0; i < EVENT_LOOPS; i++) {
+            Thread loop = new Thread(() -> {
+                for (int j = 0; j < conversionsPerLoop; j++) {
+                    ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) j);
+                    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/convert")
+                            .header("X-Client-Id", "shared"));
+                    controller.convert(Mono.just(request), null, exchange).subscribe(body -> done.countDown(),
+                            error -> {
+                                failure.set(error);
+                                done.countDown();
+                            });
+                }
+            }, EVENT_LOOP_PREFIX + i);
+            loops.add(loop);
+            loop.start();
+        }
+        for (Thread loop : loops) {
+            loop.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertNull(failure.get());
+    }
+
+    /**
+     * Handing a task to a scheduler's queue takes the queue's lock for a few
+     * instructions; BlockHound's Reactor integration allows it for the same reason.
+     */
+    private static boolean isTaskHandOff(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().endsWith("ScheduledThreadPoolExecutor$DelayedWorkQueue")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<ConversionHistory> entries(int count) {
+        List<ConversionHistory> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+            entries.add(new ConversionHistory(UUID.randomUUID().toString(), request,
+                    lengthService.convert(request)));
+        }
+        return entries;
+    }
+}
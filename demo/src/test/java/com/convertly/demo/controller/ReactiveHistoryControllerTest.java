@@ -0,0 +1,237 @@
+package com.convertly.demo.controller;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.metrics.ExportMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.service.ConversionFeedService;
+import com.convertly.demo.service.ConversionHistoryService;
+import com.convertly.demo.service.ConversionStatsService;
+import com.convertly.demo.service.HeavyHitterService;
+import com.convertly.demo.service.HistoryAggregationService;
+import com.convertly.demo.service.HistoryExportService;
+import com.convertly.demo.service.HistoryImportService;
+import com.convertly.demo.service.HistoryJsonCache;
+import com.convertly.demo.service.LengthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveHistoryController.class)
+@Import({ClientKeyResolver.class, ConversionHistoryService.class, HistoryJsonCache.class, LengthService.class})
+class ReactiveHistoryControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ConversionHistoryService historyService;
+
+    @Autowired
+    private LengthService lengthService;
+
+    @MockBean
+    private ConversionFeedService feedService;
+
+    @MockBean
+    private HeavyHitterService heavyHitterService;
+
+    @MockBean
+    private ConversionStatsService statsService;
+
+    @MockBean
+    private HistoryAggregationService aggregationService;
+
+    @MockBean
+    private HistoryExportService exportService;
+
+    @MockBean
+    private HistoryImportService importService;
+
+    @MockBean
+    private ExportMetrics exportMetrics;
+
+    @MockBean
+    private ConversionMetrics conversionMetrics;
+
+    @Test
+    void testHistoryIsStreamedAsJsonArray() {
+        webTestClient.get().uri("/history")
+                .header("X-Client-Id", "array")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[]", true);
+
+        record("array", 1.0);
+        record("array", 2.0);
+
+        webTestClient.get().uri("/history")
+                .header("X-Client-Id", "array")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].request.value").isEqualTo(1.0)
+                .jsonPath("$[1].request.value").isEqualTo(2.0);
+    }
+
+    @Test
+    void testETagFromAnEarlierRunIsNotHonoured() {
+        record("restart", 1.0);
+        long changes = historyService.getHistoryVersion("restart") & 0xFFFFFFFFL;
+        // An instance started earlier that made as many changes reaches the same count in another epoch
+        ConversionHistoryService earlier = new ConversionHistoryService(List.of(), List.of(lengthService), 1000,
+                Duration.ofMinutes(30), 10_000, 16, 16, "", 64);
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", 1.0);
+        for (long i = 0; i < changes; i++) {
+            earlier.addConversion("restart", request, lengthService.convert(request));
+        }
+        assertEquals(changes, earlier.getHistoryVersion("restart") & 0xFFFFFFFFL);
+        String earlierETag = HistoryController.historyETag("history", earlier.getHistoryVersion("restart"));
+
+        webTestClient.get().uri("/history")
+                .header("X-Client-Id", "restart")
+                .header("If-None-Match", earlierETag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", etag -> assertNotEquals(earlierETag, etag));
+    }
+
+    @Test
+    void testHistoryIsStreamedAsNdjsonWithItsOwnETag() {
+        record("lines", 1.0);
+        record("lines", 2.0);
+
+        String arrayETag = webTestClient.get().uri("/history")
+                .header("X-Client-Id", "lines")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        String body = webTestClient.get().uri("/history")
+                .header("X-Client-Id", "lines")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().value("ETag", etag -> assertEquals(false, etag.equals(arrayETag)))
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(true, lines[1].contains("\"value\":2.0"));
+    }
+
+    @Test
+    void testUnchangedHistoryIsNotModified() {
+        record("cached", 1.0);
+
+        String etag = webTestClient.get().uri("/history")
+                .header("X-Client-Id", "cached")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HistoryController.SEQUENCE_HEADER)
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/history")
+                .header("X-Client-Id", "cached")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        record("cached", 2.0);
+
+        webTestClient.get().uri("/history")
+                .header("X-Client-Id", "cached")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testSharedHistoryCannotBeCleared() {
+        record("owner", 1.0);
+        historyService.addConversion(ConversionHistoryService.DEFAULT_CLIENT,
+                new ConversionRequest(Category.LENGTH, "meter", "foot", 2.0),
+                lengthService.convert(new ConversionRequest(Category.LENGTH, "meter", "foot", 2.0)));
+
+        webTestClient.delete().uri("/history")
+                .exchange()
+                .expectStatus().isForbidden();
+        assertEquals(1, historyService.getHistoryCount(ConversionHistoryService.DEFAULT_CLIENT));
+
+        webTestClient.delete().uri("/history")
+                .header("X-Client-Id", "owner")
+                .exchange()
+                .expectStatus().isOk();
+        assertEquals(0, historyService.getHistoryCount("client:owner"));
+    }
+
+    @Test
+    void testSketchMergeNeedsTheMergeToken() {
+        webTestClient.post().uri("/history/stats/sketches")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"length\": \"AAAA\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        when(statsService.isMergeEnabled()).thenReturn(true);
+        when(statsService.isMergeAuthorized("secret")).thenReturn(true);
+        when(statsService.getMaxMergeBytes()).thenReturn(1024);
+        when(statsService.mergeSketches(Map.of("length", "AAAA"))).thenReturn(1);
+
+        webTestClient.post().uri("/history/stats/sketches")
+                .header("X-Admin-Token", "guess")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"length\": \"AAAA\"}")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        verify(statsService, never()).mergeSketches(any());
+
+        webTestClient.post().uri("/history/stats/sketches")
+                .header("X-Admin-Token", "secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"length\": \"AAAA\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.merged").isEqualTo(1);
+    }
+
+    @Test
+    void testOversizedSketchMergeIsRefused() {
+        when(statsService.isMergeEnabled()).thenReturn(true);
+        when(statsService.isMergeAuthorized("secret")).thenReturn(true);
+        when(statsService.getMaxMergeBytes()).thenReturn(16);
+
+        webTestClient.post().uri("/history/stats/sketches")
+                .header("X-Admin-Token", "secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"length\": \"" + "A".repeat(64) + "\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verify(statsService, never()).mergeSketches(any());
+    }
+
+    private void record(String clientId, double value) {
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", value);
+        historyService.addConversion("client:" + clientId, request, lengthService.convert(request));
+    }
+}
@@ -0,0 +1,33 @@
+package com.convertly.demo.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitCatalogTest {
+
+    @Test
+    void testInvalidUnitMessageMatchesEnumParsers() {
+        assertSameMessage(Category.TEMPERATURE, TemperatureUnit::fromValue);
+        assertSameMessage(Category.LENGTH, LengthUnit::fromValue);
+        assertSameMessage(Category.WEIGHT, WeightUnit::fromValue);
+        assertSameMessage(Category.TIME, TimeUnit::fromValue);
+    }
+
+    @Test
+    void testFindCategory() {
+        assertEquals(Category.WEIGHT, UnitCatalog.findCategory(" Weight "));
+        assertNull(UnitCatalog.findCategory("volume"));
+        assertNull(UnitCatalog.findCategory(null));
+    }
+
+    private static void assertSameMessage(Category category, Function<String, ?> fromValue) {
+        for (String unit : new String[] {"parsec", null}) {
+            assertEquals(UnitCatalog.UNKNOWN, UnitCatalog.unitOrdinal(category, unit));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> fromValue.apply(unit));
+            assertEquals(e.getMessage(), UnitCatalog.invalidUnitMessage(category, unit));
+        }
+    }
+}
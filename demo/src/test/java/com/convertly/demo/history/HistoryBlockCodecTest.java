@@ -0,0 +1,132 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.service.ConversionService;
+import com.convertly.demo.service.LengthService;
+import com.convertly.demo.service.TemperatureService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryBlockCodecTest {
+
+    private static final ConversionService LENGTH = new LengthService();
+    private static final ConversionService TEMPERATURE = new TemperatureService();
+    private static final FormulaSource FORMULAS = (request, result) ->
+            (request.getCategory() == Category.LENGTH ? LENGTH : TEMPERATURE).generateFormula(request, result);
+
+    @Test
+    void testRoundTripPreservesEveryField() {
+        List<ConversionHistory> entries = realisticEntries(500, new Random(7));
+        ConversionHistory custom = entry("not-a-uuid", new ConversionRequest(Category.LENGTH, "Meter", "FOOT", 2.0),
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0, 123_456_789));
+        custom.getResponse().setFormula("hand-written");
+        entries.add(custom);
+        entries.add(entry(UUID.randomUUID().toString(),
+                new ConversionRequest(Category.TEMPERATURE, "celsius", "kelvin", Double.NaN),
+                LocalDateTime.of(1900, 6, 1, 12, 0)));
+
+        List<ConversionHistory> decoded = HistoryBlockCodec.decode(HistoryBlockCodec.encode(entries, FORMULAS), FORMULAS);
+
+        assertEquals(entries.size(), decoded.size());
+        for (int i = 0; i < entries.size(); i++) {
+            ConversionHistory expected = entries.get(i);
+            ConversionHistory actual = decoded.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getRequest().getCategory(), actual.getRequest().getCategory());
+            assertEquals(expected.getRequest().getFromUnit(), actual.getRequest().getFromUnit());
+            assertEquals(expected.getRequest().getToUnit(), actual.getRequest().getToUnit());
+            assertEquals(expected.getRequest().getValue(), actual.getRequest().getValue());
+            assertEquals(expected.getResponse().getResult(), actual.getResponse().getResult());
+            assertEquals(expected.getResponse().getFormula(), actual.getResponse().getFormula());
+            assertEquals(expected.getResponse().getStatus(), actual.getResponse().getStatus());
+            assertSame(actual.getRequest(), actual.getResponse().getOriginalInput());
+        }
+    }
+
+    @Test
+    void testIndexOfFindsEntriesById() {
+        List<ConversionHistory> entries = realisticEntries(100, new Random(3));
+        byte[] block = HistoryBlockCodec.encode(entries, FORMULAS);
+
+        assertEquals(100, HistoryBlockCodec.count(block));
+        assertEquals(42, HistoryBlockCodec.indexOf(block, entries.get(42).getId()));
+        assertEquals(-1, HistoryBlockCodec.indexOf(block, UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void testRealisticBlockSizePerEntryAndPerNumericSample() {
+        int entryCount = 1024;
+        byte[] block = HistoryBlockCodec.encode(realisticEntries(entryCount, new Random(11)), FORMULAS);
+
+        // Random UUIDs are incompressible, so their cost is reported apart from the rest of the entry
+        double idBytesPerEntry = (double) sectionBytes(block, 0) / entryCount;
+        double bytesPerEntry = (double) block.length / entryCount;
+        // timestamp, input value and result are the only numeric samples of an entry
+        int numericBytes = sectionBytes(block, 1) + sectionBytes(block, 3) + sectionBytes(block, 4);
+        double bytesPerSample = (double) numericBytes / (entryCount * 3);
+        String sizes = String.format("%.2f bytes per entry (%.2f of them UUID), %.2f bytes per numeric sample",
+                bytesPerEntry, idBytesPerEntry, bytesPerSample);
+
+        assertTrue(idBytesPerEntry <= 16.2, sizes);
+        assertTrue(bytesPerEntry - idBytesPerEntry < 16.0, sizes);
+        // Converted results rarely repeat and XOR poorly, so they cost more than timestamps and inputs
+        assertTrue(bytesPerSample < 5.0, sizes);
+    }
+
+    /**
+     * Reads a section's length from the block header: version, entry count, nanos flag, then one offset per section.
+     */
+    private static int sectionBytes(byte[] block, int section) {
+        ByteBuffer header = ByteBuffer.wrap(block);
+        int offsetsStart = 1 + Integer.BYTES + 1;
+        int start = header.getInt(offsetsStart + section * Integer.BYTES);
+        int sections = (header.getInt(offsetsStart) - offsetsStart) / Integer.BYTES;
+        int end = section + 1 == sections ? block.length : header.getInt(offsetsStart + (section + 1) * Integer.BYTES);
+        return end - start;
+    }
+
+    private static List<ConversionHistory> realisticEntries(int count, Random random) {
+        String[][] pairs = {
+                { "meter", "foot" }, { "kilometer", "mile" }, { "inch", "meter" }
+        };
+        double[] commonValues = { 1, 5, 10, 12, 25, 100, 1000 };
+        List<ConversionHistory> entries = new ArrayList<>(count);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 9, 0);
+        for (int i = 0; i < count; i++) {
+            timestamp = timestamp.plusNanos(random.nextInt(2_000_000) * 1000L);
+            ConversionRequest request;
+            if (random.nextInt(4) == 0) {
+                request = new ConversionRequest(Category.TEMPERATURE, "celsius", "fahrenheit",
+                        (double) (random.nextInt(40) - 5));
+            } else {
+                String[] pair = pairs[random.nextInt(pairs.length)];
+                request = new ConversionRequest(Category.LENGTH, pair[0], pair[1],
+                        commonValues[random.nextInt(commonValues.length)]);
+            }
+            entries.add(entry(UUID.randomUUID().toString(), request, timestamp));
+        }
+        return entries;
+    }
+
+    private static ConversionHistory entry(String id, ConversionRequest request, LocalDateTime timestamp) {
+        ConversionService service = request.getCategory() == Category.LENGTH ? LENGTH : TEMPERATURE;
+        ConversionResponse response = request.getValue().isNaN()
+                ? new ConversionResponse(request.getValue(), FORMULAS.formulaFor(request, request.getValue()), request)
+                : service.convert(request);
+        ConversionHistory history = new ConversionHistory(id, request, response);
+        history.setTimestamp(timestamp);
+        return history;
+    }
+}
@@ -0,0 +1,81 @@
+package com.convertly.demo.history;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryPartitionTest {
+
+    private final CountDownLatch encoding = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Regenerates formulas, holding the first block encode until the test releases it.
+     */
+    private final FormulaSource slowFormulas = (request, result) -> {
+        encoding.countDown();
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "formula";
+    };
+
+    @Test
+    void testWritersDoNotWaitForABlockBeingSealed() throws Exception {
+        HistoryPartition partition = new HistoryPartition(100,
+                new ColdTier(2, 4, BlockStore.inMemory(), slowFormulas), null, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(partition.add(entry(i)));
+        }
+
+        CompletableFuture<Boolean> sealer = CompletableFuture.supplyAsync(() -> partition.add(entry(5)));
+        assertTrue(encoding.await(10, TimeUnit.SECONDS));
+        assertTrue(CompletableFuture.supplyAsync(() -> partition.add(entry(6))).get(10, TimeUnit.SECONDS));
+        assertNotNull(partition.get("entry-6"));
+        assertFalse(sealer.isDone());
+
+        release.countDown();
+        assertTrue(sealer.get(10, TimeUnit.SECONDS));
+
+        List<String> ids = partition.snapshot().stream().map(ConversionHistory::getId).toList();
+        assertEquals(List.of("entry-0", "entry-1", "entry-2", "entry-3", "entry-4", "entry-5", "entry-6"), ids);
+        assertEquals("formula", partition.get("entry-0").getResponse().getFormula());
+    }
+
+    @Test
+    void testBlockSealedAfterAClearIsDiscarded() throws Exception {
+        HistoryPartition partition = new HistoryPartition(100,
+                new ColdTier(2, 4, BlockStore.inMemory(), slowFormulas), null, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(partition.add(entry(i)));
+        }
+
+        CompletableFuture<Boolean> sealer = CompletableFuture.supplyAsync(() -> partition.add(entry(5)));
+        assertTrue(encoding.await(10, TimeUnit.SECONDS));
+        partition.clear();
+        assertTrue(partition.add(entry(6)));
+        release.countDown();
+        assertTrue(sealer.get(10, TimeUnit.SECONDS));
+
+        assertEquals(1, partition.size());
+        assertNull(partition.get("entry-0"));
+        assertEquals(List.of("entry-6"), partition.snapshot().stream().map(ConversionHistory::getId).toList());
+    }
+
+    private static ConversionHistory entry(int index) {
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) index);
+        return new ConversionHistory("entry-" + index, request, new ConversionResponse(index * 3.28084, "formula",
+                request));
+    }
+}
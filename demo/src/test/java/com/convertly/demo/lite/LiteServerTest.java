@@ -0,0 +1,153 @@
+package com.convertly.demo.lite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteServerTest {
+
+    private static final String CONVERSION =
+            "{\"category\":\"temperature\",\"fromUnit\":\"celsius\",\"toUnit\":\"fahrenheit\",\"value\":25}";
+
+    private static LiteServer server;
+    private static HttpClient client;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = LiteServer.start(new InetSocketAddress("localhost", 0), 2);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+    }
+
+    @Test
+    void testConvert() throws Exception {
+        HttpResponse<String> response = post("/convert", CONVERSION, null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals(77.0, body.get("result").asDouble(), 1e-9);
+        assertEquals("success", body.get("status").asText());
+        assertEquals("celsius", body.get("originalInput").get("fromUnit").asText());
+    }
+
+    @Test
+    void testConvertViews() throws Exception {
+        JsonNode compact = objectMapper.readTree(post("/convert?view=compact", CONVERSION, null).body());
+        assertTrue(compact.has("formula"));
+        assertFalse(compact.has("originalInput"));
+        assertFalse(compact.has("status"));
+
+        HttpResponse<String> response = post("/convert", CONVERSION, "application/vnd.convertly.result+json");
+        assertEquals("application/vnd.convertly.result+json",
+                response.headers().firstValue("Content-Type").orElse(null));
+        JsonNode result = objectMapper.readTree(response.body());
+        assertEquals(77.0, result.get("result").asDouble(), 1e-9);
+        assertFalse(result.has("formula"));
+    }
+
+    @Test
+    void testConvertValidationErrorsInDeclarationOrder() throws Exception {
+        HttpResponse<String> response = post("/convert", "{}", null);
+
+        assertEquals(400, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals("ValidationException", body.get("error").asText());
+        assertEquals("Category is required, From unit is required, To unit is required, Value is required",
+                body.get("message").asText());
+        assertEquals("/convert", body.get("path").asText());
+    }
+
+    @Test
+    void testConvertInvalidUnit() throws Exception {
+        HttpResponse<String> response = post("/convert",
+                "{\"category\":\"length\",\"fromUnit\":\"parsec\",\"toUnit\":\"foot\",\"value\":1}", null);
+
+        assertEquals(400, response.statusCode());
+        assertEquals("InvalidUnitException", objectMapper.readTree(response.body()).get("error").asText());
+    }
+
+    @Test
+    void testConvertUnreadableBody() throws Exception {
+        HttpResponse<String> response = post("/convert", "{\"value\":", null);
+
+        assertEquals(400, response.statusCode());
+        assertEquals("TypeMismatchException", objectMapper.readTree(response.body()).get("error").asText());
+    }
+
+    @Test
+    void testCategoriesConditionalGet() throws Exception {
+        HttpResponse<String> response = get("/categories", null);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(objectMapper.readTree(response.body()).isArray());
+        assertEquals("max-age=86400, public", response.headers().firstValue("Cache-Control").orElse(null));
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> notModified = get("/categories", etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals(etag, notModified.headers().firstValue("ETag").orElse(null));
+        assertEquals("", notModified.body());
+    }
+
+    @Test
+    void testUnits() throws Exception {
+        HttpResponse<String> response = get("/units?category=%20Length", null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("meter"));
+
+        assertEquals(400, get("/units?category=volume", null).statusCode());
+        HttpResponse<String> missing = get("/units", null);
+        assertEquals(400, missing.statusCode());
+        assertEquals("Required query parameter 'category' is not present.",
+                objectMapper.readTree(missing.body()).get("message").asText());
+    }
+
+    @Test
+    void testUnknownPathAndMethod() throws Exception {
+        assertEquals(404, get("/history", null).statusCode());
+
+        HttpResponse<String> response = get("/convert", null);
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body, String accept) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
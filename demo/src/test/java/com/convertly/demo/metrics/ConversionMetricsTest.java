@@ -0,0 +1,63 @@
+package com.convertly.demo.metrics;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionRequest;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConversionMetrics metrics = new ConversionMetrics(registry);
+
+    @Test
+    void testConversionsAreTimedPerUnitPairAndOutcome() {
+        metrics.recordConversion(new ConversionRequest(Category.LENGTH, "Kilometer", " mile", 1.0), 2_000, true);
+        metrics.recordConversion(new ConversionRequest(Category.LENGTH, "kilometer", "mile", 2.0), 4_000, true);
+        metrics.recordConversion(new ConversionRequest(Category.LENGTH, "kilometer", "mile", -1.0), 1_000, false);
+
+        Timer success = timer("length", "kilometer", "mile", "success");
+        assertEquals(2, success.count());
+        assertEquals(6_000, success.totalTime(TimeUnit.NANOSECONDS), 0.0);
+        assertEquals(1, timer("length", "kilometer", "mile", "error").count());
+    }
+
+    @Test
+    void testUnknownUnitsShareOneSeriesPerCategory() {
+        for (int i = 0; i < 100; i++) {
+            metrics.recordConversion(new ConversionRequest(Category.WEIGHT, "unit-" + i, "gram", 1.0), 1_000, false);
+        }
+        metrics.recordConversion(new ConversionRequest(null, "a", "b", 1.0), 1_000, false);
+
+        assertEquals(100, timer("weight", ConversionMetrics.OTHER, ConversionMetrics.OTHER, "error").count());
+        assertEquals(1, timer(ConversionMetrics.OTHER, ConversionMetrics.OTHER, ConversionMetrics.OTHER, "error")
+                .count());
+        assertEquals(2, registry.find(ConversionMetrics.CONVERSIONS).timers().size());
+    }
+
+    @Test
+    void testValidationFailuresAreCountedByType() {
+        metrics.recordValidationFailure("InvalidUnitException");
+        metrics.recordValidationFailure("InvalidUnitException");
+        metrics.recordValidationFailure("ValidationException");
+
+        assertEquals(2, registry.get(ConversionMetrics.VALIDATION_FAILURES)
+                .tag("type", "InvalidUnitException").counter().count());
+        assertEquals(1, registry.get(ConversionMetrics.VALIDATION_FAILURES)
+                .tag("type", "ValidationException").counter().count());
+    }
+
+    private Timer timer(String category, String from, String to, String outcome) {
+        return registry.get(ConversionMetrics.CONVERSIONS)
+                .tag("category", category)
+                .tag("from", from)
+                .tag("to", to)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,54 @@
+package com.convertly.demo.metrics;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.service.ConversionHistoryService;
+import com.convertly.demo.service.LengthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryMetricsTest {
+
+    private final LengthService lengthService = new LengthService();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConversionHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new ConversionHistoryService(List.of(), List.of(lengthService), 1000,
+                Duration.ofMinutes(30), 10_000, 4, 8, "", 64);
+        for (int i = 0; i < 40; i++) {
+            ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+            historyService.addConversion("client-" + (i % 2), request, lengthService.convert(request));
+        }
+        new HistoryMetrics(historyService).bindTo(registry);
+    }
+
+    @Test
+    void testGaugesReportEntriesPerTier() {
+        long hot = historyService.getTierStats().get("hotEntries");
+        long cold = historyService.getTierStats().get("coldEntries");
+
+        assertEquals(40, hot + cold);
+        assertTrue(cold > 0, "Blocks should have been sealed");
+        assertEquals(hot, registry.get(HistoryMetrics.ENTRIES).tag("tier", "hot").gauge().value());
+        assertEquals(cold, registry.get(HistoryMetrics.ENTRIES).tag("tier", "cold").gauge().value());
+        assertEquals(2, registry.get(HistoryMetrics.PARTITIONS).gauge().value());
+    }
+
+    @Test
+    void testRetainedBytesAreEstimatedPerTier() {
+        long hot = historyService.getTierStats().get("hotEntries");
+
+        assertEquals(hot * HistoryMetrics.ESTIMATED_HOT_ENTRY_BYTES,
+                registry.get(HistoryMetrics.RETAINED_BYTES).tag("tier", "hot").gauge().value());
+        assertEquals((double) historyService.getTierStats().get("coldBytes"),
+                registry.get(HistoryMetrics.RETAINED_BYTES).tag("tier", "cold").gauge().value());
+    }
+}
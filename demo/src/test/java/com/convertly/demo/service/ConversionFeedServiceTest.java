@@ -0,0 +1,365 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionFeedServiceTest {
+
+    private final HistoryJsonCache jsonCache = new HistoryJsonCache(Jackson2ObjectMapperBuilder.json().build(), "lazy");
+    private final LengthService lengthService = new LengthService();
+    private final TemperatureService temperatureService = new TemperatureService();
+    private ConversionFeedService feedService;
+
+    @AfterEach
+    void tearDown() {
+        feedService.shutdown();
+    }
+
+    @Test
+    void testSubscribersOnlyReceiveTheirCategories() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 16, 10, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+        RecordingEmitter length = new RecordingEmitter(null);
+        RecordingEmitter all = new RecordingEmitter(null);
+        feedService.subscribe("alice", length, Set.of(Category.LENGTH));
+        feedService.subscribe("alice", all, Set.of());
+
+        feedService.onConversionRecorded("alice", temperatureEntry("t1"));
+        feedService.onConversionRecorded("alice", lengthEntry("l1"));
+
+        all.awaitEvents(2);
+        length.awaitEvents(1);
+        assertEquals(List.of("conversion:l1"), length.events);
+        assertEquals(List.of("conversion:t1", "conversion:l1"), all.events);
+        assertEquals(2, feedService.getSubscriberCount());
+    }
+
+    @Test
+    void testSubscribersOnlyReceiveTheirClientsConversions() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 16, 10, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+        RecordingEmitter alice = new RecordingEmitter(null);
+        RecordingEmitter bob = new RecordingEmitter(null);
+        feedService.subscribe("alice", alice, Set.of());
+        feedService.subscribe("bob", bob, Set.of());
+
+        feedService.onConversionRecorded("alice", lengthEntry("a1"));
+        feedService.onConversionRecorded("bob", lengthEntry("b1"));
+        feedService.onConversionRecorded("carol", lengthEntry("c1"));
+
+        alice.awaitEvents(1);
+        bob.awaitEvents(1);
+        Thread.sleep(50);
+        assertEquals(List.of("conversion:a1"), alice.events);
+        assertEquals(List.of("conversion:b1"), bob.events);
+    }
+
+    @Test
+    void testFeedDoesNotCacheJsonBytes() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 16, 10, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        feedService.subscribe("alice", emitter, Set.of());
+        ConversionHistory history = lengthEntry("1");
+
+        feedService.onConversionRecorded("alice", history);
+
+        emitter.awaitEvents(1);
+        assertNull(history.getSerializedJson());
+    }
+
+    @Test
+    void testSpareSendersAreLimited() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 2, 10, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecordingEmitter> slow = List.of(new RecordingEmitter(release), new RecordingEmitter(release),
+                new RecordingEmitter(release));
+        slow.forEach(emitter -> feedService.subscribe("alice", emitter, Set.of()));
+
+        try {
+            feedService.onConversionRecorded("alice", lengthEntry("1"));
+            awaitSendsStarted(slow, 1);
+            feedService.checkStalledWrites(System.nanoTime() + 2 * ConversionFeedService.STALLED_WRITE_NANOS);
+            awaitSendsStarted(slow, 2);
+            feedService.checkStalledWrites(System.nanoTime() + 2 * ConversionFeedService.STALLED_WRITE_NANOS);
+            Thread.sleep(50);
+            // The second stalled write gets no spare, so the third subscriber waits
+            assertEquals(2, feedService.getSenderThreads());
+            assertEquals(2, slow.stream().filter(RecordingEmitter::sendStarted).count());
+        } finally {
+            release.countDown();
+        }
+        for (RecordingEmitter emitter : slow) {
+            emitter.awaitEvents(1);
+        }
+        awaitSenderThreads(1);
+    }
+
+    @Test
+    void testSlowSubscriberDropsOldestWithoutStallingOthers() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 2, 10, Duration.ofMinutes(1), 2, Duration.ofMinutes(1), 8);
+        CountDownLatch release = new CountDownLatch(1);
+        // As many blocked subscribers as sender threads
+        RecordingEmitter slow1 = new RecordingEmitter(release);
+        RecordingEmitter slow2 = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        feedService.subscribe("alice", slow1, Set.of());
+        feedService.subscribe("alice", slow2, Set.of());
+        feedService.subscribe("alice", fast, Set.of());
+
+        try {
+            feedService.onConversionRecorded("alice", lengthEntry("1"));
+            slow1.awaitSendStarted();
+            slow2.awaitSendStarted();
+            feedService.checkStalledWrites(System.nanoTime() + 2 * ConversionFeedService.STALLED_WRITE_NANOS);
+            assertEquals(4, feedService.getSenderThreads());
+            for (int i = 2; i <= 5; i++) {
+                fast.awaitEvents(i - 1);
+                feedService.onConversionRecorded("alice", lengthEntry(String.valueOf(i)));
+            }
+
+            fast.awaitEvents(5);
+            assertEquals(List.of("conversion:1", "conversion:2", "conversion:3", "conversion:4", "conversion:5"),
+                    fast.events);
+        } finally {
+            release.countDown();
+        }
+        List<String> expected = List.of("conversion:1", "dropped:{\"count\":2}", "conversion:4", "conversion:5");
+        slow1.awaitEvents(4);
+        slow2.awaitEvents(4);
+        assertEquals(expected, slow1.events);
+        assertEquals(expected, slow2.events);
+        awaitSenderThreads(2);
+    }
+
+    @Test
+    void testStalledSubscriberIsDroppedAfterWriteTimeout() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 2, 10, Duration.ofMinutes(1), 1, Duration.ofSeconds(5), 8);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        feedService.subscribe("alice", stalled, Set.of());
+
+        try {
+            feedService.onConversionRecorded("alice", lengthEntry("1"));
+            stalled.awaitSendStarted();
+            feedService.checkStalledWrites(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+            assertEquals(1, feedService.getSubscriberCount());
+            assertEquals(2, feedService.getSenderThreads());
+            feedService.checkStalledWrites(System.nanoTime() + TimeUnit.SECONDS.toNanos(6));
+            assertEquals(0, feedService.getSubscriberCount());
+
+            // The spare sender serves new subscribers while the dropped write is still blocked
+            feedService.subscribe("alice", fast, Set.of());
+            feedService.onConversionRecorded("alice", lengthEntry("2"));
+            fast.awaitEvents(1);
+        } finally {
+            release.countDown();
+        }
+        stalled.awaitEvents(1);
+        Thread.sleep(50);
+        assertEquals(List.of("conversion:1"), stalled.events);
+        awaitSenderThreads(1);
+    }
+
+    @Test
+    void testLongBufferIsSentInTurns() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 256, 10, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+        List<String> log = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter first = new RecordingEmitter(release, "first", log);
+        RecordingEmitter second = new RecordingEmitter(null, "second", log);
+        feedService.subscribe("alice", first, Set.of());
+        feedService.subscribe("alice", second, Set.of());
+
+        int count = 2 * ConversionFeedService.SEND_BATCH;
+        try {
+            feedService.onConversionRecorded("alice", lengthEntry("1"));
+            first.awaitSendStarted();
+            for (int i = 2; i <= count; i++) {
+                feedService.onConversionRecorded("alice", lengthEntry(String.valueOf(i)));
+            }
+        } finally {
+            release.countDown();
+        }
+        first.awaitEvents(count);
+        second.awaitEvents(count);
+        // The second subscriber got its turn before the first had written its whole buffer
+        assertTrue(log.indexOf("second:" + count) < log.indexOf("first:" + count), String.valueOf(log));
+    }
+
+    @Test
+    void testSubscriberLimit() {
+        feedService = new ConversionFeedService(jsonCache, 16, 1, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+
+        assertNotNull(feedService.subscribe("alice", new RecordingEmitter(null), Set.of()));
+        assertNull(feedService.subscribe("alice", new RecordingEmitter(null), Set.of()));
+        assertEquals(1, feedService.getSubscriberCount());
+    }
+
+    @Test
+    void testStreamSendsOnlyWhatWasRequestedAndDropsOldest() throws InterruptedException {
+        feedService = new ConversionFeedService(jsonCache, 2, 10, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+        List<String> events = new CopyOnWriteArrayList<>();
+        BaseSubscriber<ServerSentEvent<String>> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(ServerSentEvent<String> event) {
+                events.add(event.event() + ":" + (event.id() != null ? event.id() : event.data()));
+            }
+        };
+        feedService.stream("alice", Set.of()).subscribe(subscriber);
+
+        feedService.onConversionRecorded("alice", lengthEntry("1"));
+        awaitSize(events, 1);
+        for (int i = 2; i <= 5; i++) {
+            feedService.onConversionRecorded("alice", lengthEntry(String.valueOf(i)));
+        }
+        Thread.sleep(50);
+        assertEquals(List.of("conversion:1"), events);
+
+        subscriber.request(10);
+        awaitSize(events, 4);
+        assertEquals(List.of("conversion:1", "dropped:{\"count\":2}", "conversion:4", "conversion:5"), events);
+
+        subscriber.dispose();
+        assertEquals(0, feedService.getSubscriberCount());
+    }
+
+    @Test
+    void testStreamSubscriberLimit() {
+        feedService = new ConversionFeedService(jsonCache, 16, 1, Duration.ofMinutes(1), 1, Duration.ofMinutes(1), 8);
+
+        Flux<ServerSentEvent<String>> first = feedService.stream("alice", Set.of());
+        assertNotNull(first);
+        first.subscribe();
+        assertNull(feedService.stream("alice", Set.of()));
+        assertEquals(1, feedService.getSubscriberCount());
+    }
+
+    private void awaitSenderThreads(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (feedService.getSenderThreads() != count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, feedService.getSenderThreads());
+    }
+
+    private static void awaitSendsStarted(List<RecordingEmitter> emitters, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitters.stream().filter(RecordingEmitter::sendStarted).count() < count
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, emitters.stream().filter(RecordingEmitter::sendStarted).count());
+    }
+
+    private static void awaitSize(List<String> events, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, events.size());
+    }
+
+    private ConversionHistory lengthEntry(String id) {
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", 1.0);
+        return new ConversionHistory(id, request, lengthService.convert(request));
+    }
+
+    private ConversionHistory temperatureEntry(String id) {
+        ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "celsius", "kelvin", 1.0);
+        return new ConversionHistory(id, request, temperatureService.convert(request));
+    }
+
+    /**
+     * Emitter that records events as {@code name:id} (or {@code name:data} without an ID),
+     * optionally blocking its first send until released and logging {@code emitter:id}
+     * to a log shared with other emitters.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final String name;
+        private final List<String> log;
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter(CountDownLatch release) {
+            this(release, null, null);
+        }
+
+        RecordingEmitter(CountDownLatch release, String name, List<String> log) {
+            this.release = release;
+            this.name = name;
+            this.log = log;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sendStarted.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType part : builder.build()) {
+                Object data = part.getData();
+                text.append(data instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : data);
+            }
+            String event = field(text.toString(), "event:");
+            String id = field(text.toString(), "id:");
+            events.add(event + ":" + (id != null ? id : field(text.toString(), "data:")));
+            if (log != null) {
+                log.add(name + ":" + id);
+            }
+        }
+
+        boolean sendStarted() {
+            return sendStarted.getCount() == 0;
+        }
+
+        void awaitSendStarted() throws InterruptedException {
+            assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(count, events.size());
+        }
+
+        private static String field(String text, String prefix) {
+            for (String line : text.split("\n")) {
+                if (line.startsWith(prefix)) {
+                    return line.substring(prefix.length());
+                }
+            }
+            return null;
+        }
+    }
+}
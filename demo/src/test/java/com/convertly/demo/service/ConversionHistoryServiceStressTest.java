@@ -0,0 +1,241 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.history.HistorySnapshot;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs writers, readers, exports and clears against one history service at the
+ * same time and checks invariants of what each of them observes. Hot and block
+ * sizes are tiny so readers race with blocks being sealed into the cold tier.
+ */
+class ConversionHistoryServiceStressTest {
+
+    private static final int WRITERS = 6;
+    private static final int WRITES_PER_WRITER = 3000;
+    private static final int READERS = 3;
+    private static final long WRITER_STRIDE = 1_000_000;
+
+    private final LengthService lengthService = new LengthService();
+    private ConversionHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new ConversionHistoryService(List.of(), List.of(lengthService),
+                WRITERS * WRITES_PER_WRITER, Duration.ofMinutes(30), 10_000, 8, 16, "", 64);
+    }
+
+    @Test
+    void testNoInsertsAreLostUnderContention() throws Exception {
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            tasks.add(() -> {
+                try {
+                    for (int seq = 0; seq < WRITES_PER_WRITER; seq++) {
+                        add("shared", writer, seq);
+                        add("writer-" + writer, writer, seq);
+                    }
+                } finally {
+                    writersDone.countDown();
+                }
+                return null;
+            });
+        }
+        for (int r = 0; r < READERS; r++) {
+            tasks.add(() -> {
+                do {
+                    historyService.getAllHistory("shared").size();
+                    historyService.exportHistoryAsCSV("shared");
+                } while (writersDone.getCount() > 0);
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertEquals(WRITERS * WRITES_PER_WRITER, historyService.getHistoryCount("shared"));
+        Set<String> ids = new HashSet<>();
+        int[] next = new int[WRITERS];
+        for (ConversionHistory history : historyService.getHistorySnapshot("shared")) {
+            assertTrue(ids.add(history.getId()), "Duplicate ID " + history.getId());
+            long value = history.getRequest().getValue().longValue();
+            int writer = (int) (value / WRITER_STRIDE);
+            assertEquals(next[writer]++, value % WRITER_STRIDE, "Writer " + writer + " entries out of order");
+        }
+        for (int w = 0; w < WRITERS; w++) {
+            assertEquals(WRITES_PER_WRITER, next[w]);
+            assertEquals(WRITES_PER_WRITER, historyService.getHistoryCount("writer-" + w));
+        }
+    }
+
+    @Test
+    void testReadsSeeConsistentPrefixes() throws Exception {
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            tasks.add(() -> {
+                try {
+                    for (int seq = 0; seq < WRITES_PER_WRITER; seq++) {
+                        add("shared", writer, seq);
+                    }
+                } finally {
+                    writersDone.countDown();
+                }
+                return null;
+            });
+        }
+        for (int r = 0; r < READERS; r++) {
+            tasks.add(() -> {
+                int lastSize = 0;
+                long lastVersion = 0;
+                do {
+                    HistorySnapshot snapshot = historyService.getHistorySnapshot("shared");
+                    int[] next = new int[WRITERS];
+                    int iterated = 0;
+                    for (ConversionHistory history : snapshot) {
+                        long value = history.getRequest().getValue().longValue();
+                        int writer = (int) (value / WRITER_STRIDE);
+                        // Each writer's entries are a gap-free prefix of what it wrote
+                        assertEquals(next[writer]++, value % WRITER_STRIDE);
+                        iterated++;
+                    }
+                    assertEquals(snapshot.size(), iterated, "Snapshot size does not match its entries");
+                    assertTrue(snapshot.size() >= lastSize, "History shrank without a clear");
+                    assertTrue(snapshot.sequence() >= lastVersion, "Snapshot version went backwards");
+                    assertTrue(historyService.getHistoryCount("shared") >= snapshot.size(),
+                            "Count read after a snapshot is smaller than the snapshot");
+                    lastSize = snapshot.size();
+                    lastVersion = snapshot.sequence();
+                } while (writersDone.getCount() > 0);
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+    }
+
+    @Test
+    void testExportsNeverContainPartialEntries() throws Exception {
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            tasks.add(() -> {
+                try {
+                    for (int seq = 0; seq < WRITES_PER_WRITER; seq++) {
+                        add("shared", writer, seq);
+                    }
+                } finally {
+                    writersDone.countDown();
+                }
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            while (writersDone.getCount() > 0) {
+                historyService.clearHistory("shared");
+                Thread.sleep(2);
+            }
+            return null;
+        });
+        for (int r = 0; r < READERS; r++) {
+            tasks.add(() -> {
+                do {
+                    assertCompleteExport(historyService.exportHistoryAsCSV("shared"));
+                } while (writersDone.getCount() > 0);
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        String export = historyService.exportHistoryAsCSV("shared");
+        assertEquals(historyService.getHistoryCount("shared"), assertCompleteExport(export));
+    }
+
+    /**
+     * Checks that every row of an export is a whole, self-consistent entry and that
+     * each writer's rows are consecutive, since a clear removes whole prefixes only.
+     *
+     * @return the number of rows
+     */
+    private int assertCompleteExport(String csv) throws Exception {
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+        long[] previous = new long[WRITERS];
+        Arrays.fill(previous, -1);
+        int rows = 0;
+        try (CSVParser parser = format.parse(new StringReader(csv))) {
+            assertEquals(List.of(ConversionHistoryService.CSV_HEADER), parser.getHeaderNames());
+            for (CSVRecord record : parser) {
+                assertEquals(ConversionHistoryService.CSV_HEADER.length, record.size(), "Truncated row " + record);
+                assertFalse(record.get(0).isBlank(), "Row without ID");
+                ConversionRequest request = new ConversionRequest(Category.LENGTH, record.get(3), record.get(4),
+                        Double.valueOf(record.get(5)));
+                ConversionResponse expected = lengthService.convert(request);
+                assertEquals(expected.getResult(), Double.valueOf(record.get(6)), "Result from another entry");
+                assertEquals(expected.getFormula(), record.get(7), "Formula from another entry");
+
+                long value = request.getValue().longValue();
+                int writer = (int) (value / WRITER_STRIDE);
+                long seq = value % WRITER_STRIDE;
+                assertTrue(previous[writer] < 0 || seq == previous[writer] + 1,
+                        "Writer " + writer + " rows are not consecutive: " + previous[writer] + " then " + seq);
+                previous[writer] = seq;
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private void add(String clientId, int writer, int seq) {
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot",
+                (double) (writer * WRITER_STRIDE + seq));
+        historyService.addConversion(clientId, request, lengthService.convert(request));
+    }
+
+    /**
+     * Starts all tasks at once and rethrows the first failure.
+     */
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
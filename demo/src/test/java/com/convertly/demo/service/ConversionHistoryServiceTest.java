@@ -0,0 +1,280 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ChangeType;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ConversionResponse;
+import com.convertly.demo.model.HistoryChange;
+import com.convertly.demo.model.HistoryChanges;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionHistoryServiceTest {
+
+    private final LengthService lengthService = new LengthService();
+    private ConversionHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = create(List.of(), 3, Duration.ofMinutes(30), 1024);
+    }
+
+    @Test
+    void testClientsHaveIndependentHistory() {
+        String aliceId = record("alice", 1.0);
+        record("bob", 2.0);
+
+        assertEquals(1, historyService.getHistoryCount("alice"));
+        assertEquals(1, historyService.getHistoryCount("bob"));
+        assertNotNull(historyService.getHistoryById("alice", aliceId));
+        assertNull(historyService.getHistoryById("bob", aliceId));
+    }
+
+    @Test
+    void testClearOnlyAffectsOneClient() {
+        record("alice", 1.0);
+        record("bob", 2.0);
+
+        historyService.clearHistory("alice");
+
+        assertEquals(0, historyService.getHistoryCount("alice"));
+        assertEquals(1, historyService.getHistoryCount("bob"));
+    }
+
+    @Test
+    void testPartitionCapacityEvictsOldestEntries() {
+        for (int i = 1; i <= 5; i++) {
+            record("alice", i);
+        }
+
+        List<ConversionHistory> history = historyService.getAllHistory("alice");
+        assertEquals(3, history.size());
+        assertEquals(3.0, history.get(0).getRequest().getValue());
+        assertEquals(5.0, history.get(2).getRequest().getValue());
+    }
+
+    @Test
+    void testIdlePartitionsAreEvicted() throws InterruptedException {
+        ConversionHistoryService shortLived = create(List.of(), 3, Duration.ofMillis(1), 1024);
+        shortLived.addConversion("alice", request(1.0), response(1.0));
+        Thread.sleep(10);
+
+        shortLived.evictIdlePartitions();
+
+        assertEquals(0, shortLived.getPartitionCount());
+        assertEquals(0, shortLived.getHistoryCount("alice"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedPartitionIsEvictedAtLimit() throws InterruptedException {
+        ConversionHistoryService limited = new ConversionHistoryService(List.of(), List.of(lengthService), 3,
+                Duration.ofMinutes(30), 2, 1024, 1024, "", 4);
+        limited.addConversion("alice", request(1.0), response(1.0));
+        Thread.sleep(5);
+        limited.addConversion("bob", request(2.0), response(2.0));
+        Thread.sleep(5);
+        limited.addConversion("alice", request(3.0), response(3.0));
+        Thread.sleep(5);
+
+        limited.addConversion("carol", request(4.0), response(4.0));
+
+        assertEquals(2, limited.getPartitionCount());
+        assertEquals(2, limited.getHistoryCount("alice"));
+        assertEquals(0, limited.getHistoryCount("bob"));
+        assertEquals(1, limited.getHistoryCount("carol"));
+    }
+
+    @Test
+    void testSharedPartitionIsNotEvictedAtLimit() throws InterruptedException {
+        ConversionHistoryService limited = new ConversionHistoryService(List.of(), List.of(lengthService), 3,
+                Duration.ofMinutes(30), 2, 1024, 1024, "", 4);
+        limited.addConversion(ConversionHistoryService.DEFAULT_CLIENT, request(1.0), response(1.0));
+        Thread.sleep(5);
+        limited.addConversion("alice", request(2.0), response(2.0));
+        Thread.sleep(5);
+
+        limited.addConversion("bob", request(3.0), response(3.0));
+
+        assertEquals(2, limited.getPartitionCount());
+        assertEquals(1, limited.getHistoryCount(ConversionHistoryService.DEFAULT_CLIENT));
+        assertEquals(0, limited.getHistoryCount("alice"));
+        assertEquals(1, limited.getHistoryCount("bob"));
+    }
+
+    @Test
+    void testUnknownClientHasEmptyHistory() throws IOException {
+        assertTrue(historyService.getAllHistory("nobody").isEmpty());
+        assertEquals(0, historyService.getHistoryCount("nobody"));
+        assertTrue(historyService.exportHistoryAsCSV("nobody").startsWith("ID,Timestamp"));
+        assertEquals(0, historyService.getPartitionCount());
+    }
+
+    @Test
+    void testListenersAreNotified() {
+        List<String> recorded = new ArrayList<>();
+        ConversionHistoryService notifying = create(
+                List.of((clientId, history) -> recorded.add(clientId + ":" + history.getId())), 3,
+                Duration.ofMinutes(30), 1024);
+
+        String id = notifying.addConversion("alice", request(1.0), response(1.0));
+
+        assertEquals(List.of("alice:" + id), recorded);
+    }
+
+    @Test
+    void testOlderEntriesAreSealedIntoColdBlocks() {
+        ConversionHistoryService tiered = create(List.of(), 5, Duration.ofMinutes(30), 2);
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            ids.add(tiered.addConversion("alice", request(i), lengthService.convert(request(i))));
+        }
+
+        List<ConversionHistory> history = tiered.getAllHistory("alice");
+        assertEquals(5, history.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(ids.get(i + 2), history.get(i).getId());
+            assertEquals(i + 3.0, history.get(i).getRequest().getValue());
+        }
+        assertNull(tiered.getHistoryById("alice", ids.get(1)));
+
+        ConversionHistory cold = tiered.getHistoryById("alice", ids.get(2));
+        assertEquals(lengthService.convert(request(3)).getFormula(), cold.getResponse().getFormula());
+        assertEquals("success", cold.getResponse().getStatus());
+        assertEquals(0.003, cold.getResponse().getResult(), 1e-12);
+
+        assertTrue(tiered.getTierStats().get("coldEntries") > 0);
+        assertTrue(tiered.getTierStats().get("coldBytes") > 0);
+    }
+
+    @Test
+    void testHistoryIsAPointInTimeSnapshot() {
+        ConversionHistoryService tiered = create(List.of(), 100, Duration.ofMinutes(30), 4);
+        for (int i = 1; i <= 20; i++) {
+            tiered.addConversion("alice", request(i), lengthService.convert(request(i)));
+        }
+
+        List<ConversionHistory> snapshot = tiered.getAllHistory("alice");
+        for (int i = 21; i <= 40; i++) {
+            tiered.addConversion("alice", request(i), lengthService.convert(request(i)));
+        }
+        tiered.clearHistory("alice");
+
+        assertEquals(20, snapshot.size());
+        int expected = 1;
+        for (ConversionHistory history : snapshot) {
+            assertEquals(expected++, history.getRequest().getValue());
+        }
+        assertEquals(7.0, snapshot.get(6).getRequest().getValue());
+        assertEquals(20.0, snapshot.get(19).getRequest().getValue());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+        assertEquals(0, tiered.getAllHistory("alice").size());
+    }
+
+    @Test
+    void testChangesSinceSequence() {
+        record("alice", 1.0);
+        long since = historyService.getHistorySnapshot("alice").sequence();
+        String second = record("alice", 2.0);
+
+        HistoryChanges changes = historyService.getChangesSince("alice", since);
+
+        assertFalse(changes.isResync());
+        assertEquals(1, changes.getChanges().size());
+        assertEquals(ChangeType.INSERT, changes.getChanges().get(0).getType());
+        assertEquals(second, changes.getChanges().get(0).getEntry().getId());
+        assertEquals(changes.getLatestSequence(), historyService.getHistorySnapshot("alice").sequence());
+        assertTrue(historyService.getChangesSince("alice", changes.getLatestSequence()).getChanges().isEmpty());
+    }
+
+    @Test
+    void testEvictionsAndClearsAreReported() {
+        for (int i = 1; i <= 3; i++) {
+            record("alice", i);
+        }
+        long since = historyService.getHistorySnapshot("alice").sequence();
+
+        record("alice", 4.0);
+        historyService.clearHistory("alice");
+
+        List<HistoryChange> changes = historyService.getChangesSince("alice", since).getChanges();
+        assertEquals(List.of(ChangeType.INSERT, ChangeType.EVICT, ChangeType.CLEAR),
+                changes.stream().map(HistoryChange::getType).toList());
+        assertEquals(1, changes.get(1).getCount());
+    }
+
+    @Test
+    void testCompactedChangesRequireResync() {
+        record("alice", 1.0);
+        long since = historyService.getHistorySnapshot("alice").sequence();
+        for (int i = 0; i < 5; i++) {
+            record("alice", i);
+        }
+
+        HistoryChanges changes = historyService.getChangesSince("alice", since);
+
+        assertTrue(changes.isResync());
+        assertTrue(changes.getChanges().isEmpty());
+        assertTrue(historyService.getChangesSince("alice", changes.getLatestSequence() + 1).isResync());
+        assertTrue(historyService.getChangesSince("nobody", 5).isResync());
+        assertFalse(historyService.getChangesSince("nobody", 0).isResync());
+    }
+
+    @Test
+    void testChangesFromAnEarlierRunRequireResync() {
+        record("alice", 1.0);
+        long since = historyService.getHistorySnapshot("alice").sequence();
+        // A restarted instance has the client's partition again, with a longer change log
+        ConversionHistoryService restarted = create(List.of(), 10, Duration.ofMinutes(30), 1024);
+        for (int i = 0; i < 3; i++) {
+            restarted.addConversion("alice", request(i), response(i));
+        }
+
+        HistoryChanges changes = restarted.getChangesSince("alice", since);
+
+        assertTrue(changes.isResync());
+        assertTrue(changes.getChanges().isEmpty());
+        assertEquals(restarted.getHistorySnapshot("alice").sequence(), changes.getLatestSequence());
+        assertFalse(restarted.getChangesSince("alice", changes.getLatestSequence()).isResync());
+    }
+
+    @Test
+    void testHistoryVersionChangesWithContent() {
+        assertEquals(0, historyService.getHistoryVersion("alice"));
+        record("alice", 1.0);
+        long afterInsert = historyService.getHistoryVersion("alice");
+        record("bob", 2.0);
+
+        assertEquals(afterInsert, historyService.getHistoryVersion("alice"));
+        assertEquals(afterInsert, historyService.getHistorySnapshot("alice").sequence());
+        assertNotEquals(afterInsert, historyService.getHistoryVersion("bob"));
+
+        historyService.clearHistory("alice");
+        assertTrue(historyService.getHistoryVersion("alice") > afterInsert);
+    }
+
+    private String record(String clientId, double value) {
+        return historyService.addConversion(clientId, request(value), response(value));
+    }
+
+    private ConversionHistoryService create(List<ConversionHistoryListener> listeners, int capacity,
+            Duration ttl, int tierSize) {
+        return new ConversionHistoryService(listeners, List.of(lengthService), capacity, ttl, 10_000, tierSize, tierSize,
+                "", 4);
+    }
+
+    private static ConversionRequest request(double value) {
+        return new ConversionRequest(Category.LENGTH, "meter", "kilometer", value);
+    }
+
+    private static ConversionResponse response(double value) {
+        return new ConversionResponse(value / 1000, "formula", request(value));
+    }
+}
@@ -2,8 +2,10 @@ package com.convertly.demo.service;
 
 import com.convertly.demo.enums.Category;
 import com.convertly.demo.exception.InvalidUnitException;
+import com.convertly.demo.metrics.ConversionMetrics;
 import com.convertly.demo.model.ConversionRequest;
 import com.convertly.demo.model.ConversionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,12 +37,16 @@ class ConversionServiceManagerTest {
     @Mock
     private ConversionHistoryService historyService;
 
+    @Mock
+    private HeavyHitterService heavyHitterService;
+
     private ConversionServiceManager serviceManager;
 
     @BeforeEach
     void setUp() {
         serviceManager = new ConversionServiceManager(
-                temperatureService, lengthService, weightService, timeService, historyService);
+                temperatureService, lengthService, weightService, timeService, historyService, heavyHitterService,
+                new ConversionMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -50,13 +56,14 @@ class ConversionServiceManagerTest {
 
         when(temperatureService.supports("temperature")).thenReturn(true);
         when(temperatureService.convert(request)).thenReturn(expectedResponse);
-        when(historyService.addConversion(any(), any())).thenReturn("history-id");
+        when(historyService.addConversion(any(), any(), any())).thenReturn("history-id");
 
         ConversionResponse actualResponse = serviceManager.convert(request);
 
         assertEquals(expectedResponse, actualResponse);
         verify(temperatureService).convert(request);
-        verify(historyService).addConversion(request, expectedResponse);
+        verify(historyService).addConversion(ConversionHistoryService.DEFAULT_CLIENT, request, expectedResponse);
+        verify(heavyHitterService).record(request);
     }
 
     @Test
@@ -66,13 +73,13 @@ class ConversionServiceManagerTest {
 
         when(lengthService.supports("length")).thenReturn(true);
         when(lengthService.convert(request)).thenReturn(expectedResponse);
-        when(historyService.addConversion(any(), any())).thenReturn("history-id");
+        when(historyService.addConversion(any(), any(), any())).thenReturn("history-id");
 
         ConversionResponse actualResponse = serviceManager.convert(request);
 
         assertEquals(expectedResponse, actualResponse);
         verify(lengthService).convert(request);
-        verify(historyService).addConversion(request, expectedResponse);
+        verify(historyService).addConversion(ConversionHistoryService.DEFAULT_CLIENT, request, expectedResponse);
     }
 
     @Test
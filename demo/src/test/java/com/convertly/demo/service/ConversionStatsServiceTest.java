@@ -0,0 +1,80 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.exception.InvalidUnitException;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.QuantileSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionStatsServiceTest {
+
+    private final LengthService lengthService = new LengthService();
+    private ConversionStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new ConversionStatsService(200, "", 256, 1 << 22);
+        record("meter", "foot", 1.0);
+        record("meter", "mile", 2.0);
+    }
+
+    @Test
+    void testFiltersByCategoryAndUnitPair() {
+        List<QuantileSummary> category = statsService.getQuantiles("length", null, null);
+        assertEquals(List.of("length", "length:meter->mile", "length:meter->foot"),
+                category.stream().map(QuantileSummary::getKey).toList());
+
+        List<QuantileSummary> pair = statsService.getQuantiles("length", "meter", "foot");
+        assertEquals(1, pair.size());
+        assertEquals(1, pair.get(0).getCount());
+    }
+
+    @Test
+    void testSingleUnitFilterIsRejected() {
+        assertThrows(InvalidUnitException.class, () -> statsService.getQuantiles("length", "meter", null));
+        assertThrows(InvalidUnitException.class, () -> statsService.getQuantiles("length", null, "foot"));
+        assertThrows(InvalidUnitException.class, () -> statsService.getQuantiles(null, "meter", "foot"));
+    }
+
+    @Test
+    void testMergeIsDisabledWithoutToken() {
+        assertFalse(statsService.isMergeEnabled());
+        assertFalse(statsService.isMergeAuthorized(""));
+
+        ConversionStatsService merging = new ConversionStatsService(200, "secret", 256, 1 << 22);
+        assertTrue(merging.isMergeEnabled());
+        assertTrue(merging.isMergeAuthorized("secret"));
+        assertFalse(merging.isMergeAuthorized("secreT"));
+        assertFalse(merging.isMergeAuthorized(null));
+    }
+
+    @Test
+    void testMergeIsLimitedBeforeDecoding() {
+        Map<String, String> exported = statsService.exportSketches();
+        assertEquals(3, exported.size());
+        int exportedBytes = exported.values().stream().mapToInt(String::length).sum();
+
+        ConversionStatsService fewKeys = new ConversionStatsService(200, "secret", 2, 1 << 22);
+        assertThrows(IllegalArgumentException.class, () -> fewKeys.mergeSketches(exported));
+        ConversionStatsService fewBytes = new ConversionStatsService(200, "secret", 256, exportedBytes - 1);
+        assertThrows(IllegalArgumentException.class, () -> fewBytes.mergeSketches(exported));
+        assertTrue(fewKeys.getQuantiles(null, null, null).isEmpty());
+        assertTrue(fewBytes.getQuantiles(null, null, null).isEmpty());
+
+        ConversionStatsService enough = new ConversionStatsService(200, "secret", 3, exportedBytes);
+        assertEquals(3, enough.mergeSketches(exported));
+        assertEquals(2, enough.getQuantiles("length", null, null).get(0).getCount());
+    }
+
+    private void record(String fromUnit, String toUnit, double value) {
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, fromUnit, toUnit, value);
+        statsService.onConversionRecorded("alice", new ConversionHistory("1", request, lengthService.convert(request)));
+    }
+}
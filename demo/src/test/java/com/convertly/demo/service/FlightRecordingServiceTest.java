@@ -0,0 +1,104 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.RecordingStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingService recordingService;
+
+    @BeforeEach
+    void setUp() {
+        recordingService = new FlightRecordingService(directory.toString(), 2, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recordingService.shutdown();
+    }
+
+    @Test
+    void testRecordingContainsConversionEvents() throws Exception {
+        LengthService lengthService = new LengthService();
+        ConversionHistoryService historyService = new ConversionHistoryService(List.of(), List.of(lengthService),
+                100, Duration.ofMinutes(30), 10_000, 16, 16, "", 64);
+        ConversionServiceManager manager = new ConversionServiceManager(new TemperatureService(), lengthService,
+                new WeightService(), new TimeService(), historyService,
+                new HeavyHitterService(0.005, 0.99, 64, Duration.ofMinutes(5), 12),
+                new ConversionMetrics(new SimpleMeterRegistry()));
+
+        RecordingStatus started = recordingService.start("default", Duration.ofMinutes(1));
+        assertEquals("running", started.getState());
+        assertNull(recordingService.getRecordingFile(started.getId()), "A running recording has no file");
+
+        manager.convert(new ConversionRequest(Category.LENGTH, "kilometer", "mile", 42.195), "alice");
+        assertThrows(RuntimeException.class,
+                () -> manager.convert(new ConversionRequest(Category.LENGTH, "parsec", "mile", 1.0), "alice"));
+
+        RecordingStatus stopped = recordingService.stop(started.getId());
+        assertEquals("closed", stopped.getState());
+        assertNotNull(stopped.getSizeBytes());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingService.getRecordingFile(started.getId()))
+                .stream()
+                .filter(event -> event.getEventType().getName().equals("com.convertly.Conversion"))
+                .toList();
+        assertEquals(2, events.size());
+        RecordedEvent success = events.stream().filter(event -> event.getBoolean("success")).findFirst().orElseThrow();
+        assertEquals("length", success.getString("category"));
+        assertEquals("kilometer", success.getString("fromUnit"));
+        assertEquals("mile", success.getString("toUnit"));
+        assertEquals(1, success.getInt("valueCount"));
+    }
+
+    @Test
+    void testRecordingStopsAfterDuration() throws Exception {
+        RecordingStatus started = recordingService.start("default", Duration.ofSeconds(1));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (recordingService.getRecordingFile(started.getId()) == null && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertNotNull(recordingService.getRecordingFile(started.getId()), "Recording was not written");
+        assertNotEquals("running", recordingService.getRecording(started.getId()).getState());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> recordingService.start("nonexistent", Duration.ofSeconds(10)));
+        assertThrows(IllegalArgumentException.class, () -> recordingService.start("default", Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> recordingService.start("default", Duration.ZERO));
+        assertTrue(recordingService.getRecordings().isEmpty());
+    }
+
+    @Test
+    void testNumberOfRecordingsIsCapped() {
+        RecordingStatus first = recordingService.start("default", Duration.ofMinutes(1));
+        assertNotNull(recordingService.start("profile", Duration.ofMinutes(1)));
+        assertNull(recordingService.start("default", Duration.ofMinutes(1)));
+
+        assertTrue(recordingService.delete(first.getId()));
+        assertFalse(recordingService.delete(first.getId()));
+        assertNull(recordingService.getRecording(first.getId()));
+        assertNotNull(recordingService.start("default", Duration.ofMinutes(1)));
+        assertEquals(2, recordingService.getRecordings().size());
+    }
+}
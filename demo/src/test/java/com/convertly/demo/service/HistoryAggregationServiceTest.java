@@ -0,0 +1,109 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.AggregateRow;
+import com.convertly.demo.model.ConversionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.convertly.demo.service.HistoryAggregationService.Dimension.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryAggregationServiceTest {
+
+    private final LengthService lengthService = new LengthService();
+    private final TemperatureService temperatureService = new TemperatureService();
+    private ConversionHistoryService historyService;
+    private HistoryAggregationService aggregationService;
+
+    @BeforeEach
+    void setUp() {
+        // Small tiers so most entries end up in sealed blocks
+        historyService = new ConversionHistoryService(List.of(), List.of(lengthService, temperatureService),
+                10_000, Duration.ofMinutes(30), 10_000, 8, 16, "", 1024);
+        aggregationService = new HistoryAggregationService(historyService, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregationService.shutdown();
+    }
+
+    @Test
+    void testTotalsWithoutGrouping() {
+        for (int i = 1; i <= 100; i++) {
+            record("client-" + (i % 3), Category.LENGTH, "meter", "foot", i);
+        }
+
+        List<AggregateRow> rows = aggregationService.aggregate(List.of(), Duration.ofHours(1),
+                HistoryAggregationService.Field.INPUT);
+
+        assertEquals(1, rows.size());
+        assertEquals(100, rows.get(0).getCount());
+        assertEquals(5050.0, rows.get(0).getSum());
+        assertEquals(1.0, rows.get(0).getMin());
+        assertEquals(100.0, rows.get(0).getMax());
+        assertEquals(50.5, rows.get(0).getAvg());
+        assertNull(rows.get(0).getCategory());
+        assertNull(rows.get(0).getBucketStart());
+    }
+
+    @Test
+    void testGroupsByUnitsAcrossHotAndColdEntries() {
+        for (int i = 0; i < 60; i++) {
+            record("alice", Category.LENGTH, "meter", "foot", 2.0);
+            record("bob", Category.LENGTH, "Kilometer", "mile", 4.0);
+            record("bob", Category.TEMPERATURE, "celsius", "kelvin", 10.0);
+        }
+
+        List<AggregateRow> rows = aggregationService.aggregate(List.of(CATEGORY, FROM_UNIT), Duration.ofHours(1),
+                HistoryAggregationService.Field.INPUT);
+
+        assertEquals(3, rows.size());
+        AggregateRow kilometer = find(rows, "kilometer");
+        assertEquals("length", kilometer.getCategory());
+        assertEquals(60, kilometer.getCount());
+        assertEquals(4.0, kilometer.getAvg());
+        assertEquals(60, find(rows, "meter").getCount());
+        assertEquals(60, find(rows, "celsius").getCount());
+
+        List<AggregateRow> results = aggregationService.aggregate(List.of(FROM_UNIT), Duration.ofHours(1),
+                HistoryAggregationService.Field.RESULT);
+        assertEquals(283.15, find(results, "celsius").getAvg(), 1e-9);
+    }
+
+    @Test
+    void testGroupsByTimeBucket() {
+        for (int i = 0; i < 50; i++) {
+            record("alice", Category.LENGTH, "meter", "foot", 1.0);
+        }
+
+        List<AggregateRow> rows = aggregationService.aggregate(List.of(TIME), Duration.ofDays(1),
+                HistoryAggregationService.Field.INPUT);
+
+        assertEquals(50, rows.stream().mapToLong(AggregateRow::getCount).sum());
+        rows.forEach(row -> assertNotNull(row.getBucketStart()));
+    }
+
+    @Test
+    void testRejectsInvalidQueries() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryAggregationService.Dimension.fromValue("color"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryAggregationService.Field.fromValue("formula"));
+        assertThrows(IllegalArgumentException.class, () -> aggregationService.aggregate(List.of(TIME),
+                Duration.ofMillis(10), HistoryAggregationService.Field.INPUT));
+    }
+
+    private void record(String clientId, Category category, String fromUnit, String toUnit, double value) {
+        ConversionRequest request = new ConversionRequest(category, fromUnit, toUnit, value);
+        ConversionService service = category == Category.LENGTH ? lengthService : temperatureService;
+        historyService.addConversion(clientId, request, service.convert(request));
+    }
+
+    private static AggregateRow find(List<AggregateRow> rows, String fromUnit) {
+        return rows.stream().filter(row -> fromUnit.equals(row.getFromUnit())).findFirst().orElseThrow();
+    }
+}
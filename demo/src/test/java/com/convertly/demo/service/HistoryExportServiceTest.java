@@ -0,0 +1,258 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.ExportState;
+import com.convertly.demo.metrics.ExportMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ExportJobStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryExportServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LengthService lengthService = new LengthService();
+    private ConversionHistoryService historyService;
+    private HistoryExportService exportService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new ConversionHistoryService(List.of(), List.of(lengthService), 100,
+                Duration.ofMinutes(30), 10_000, 4, 4, "", 16);
+        exportService = new HistoryExportService(historyService, new HistoryJsonCache(objectMapper, "lazy"),
+                new ExportMetrics(new SimpleMeterRegistry()), directory.toString(), Duration.ofHours(1),
+                Duration.ZERO, 2, 2, 1, false);
+        for (int i = 1; i <= 10; i++) {
+            ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+            historyService.addConversion("alice", request, lengthService.convert(request));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.shutdown();
+    }
+
+    @Test
+    void testCsvExportMatchesSynchronousExport() throws Exception {
+        ExportJobStatus started = exportService.startExport("alice", ExportFormat.CSV);
+        ExportJobStatus finished = awaitCompletion("alice", started.getId());
+
+        assertEquals(10, finished.getTotalEntries());
+        assertEquals(10, finished.getWrittenEntries());
+        try (HistoryExportService.ExportFile export = exportService.openExportFile("alice", started.getId())) {
+            assertEquals(historyService.exportHistoryAsCSV("alice"), Files.readString(export.getPath()));
+            assertEquals(Files.size(export.getPath()), finished.getSizeBytes());
+        }
+        assertNotNull(finished.getExpiresAt());
+    }
+
+    @Test
+    void testJsonExportIsSnapshotAtRequestTime() throws Exception {
+        ExportJobStatus started = exportService.startExport("alice", ExportFormat.JSON);
+        ConversionRequest later = new ConversionRequest(Category.LENGTH, "meter", "foot", 99.0);
+        historyService.addConversion("alice", later, lengthService.convert(later));
+        awaitCompletion("alice", started.getId());
+
+        JsonNode array;
+        try (HistoryExportService.ExportFile export = exportService.openExportFile("alice", started.getId())) {
+            array = objectMapper.readTree(export.getPath().toFile());
+        }
+        assertEquals(10, array.size());
+        assertEquals(10.0, array.get(9).get("request").get("value").asDouble());
+    }
+
+    @Test
+    void testExportsArePrivateAndDeletable() throws Exception {
+        ExportJobStatus started = exportService.startExport("alice", ExportFormat.CSV);
+        awaitCompletion("alice", started.getId());
+        Path file = directory.resolve(started.getId() + ".csv");
+        assertTrue(Files.exists(file));
+
+        assertNull(exportService.getExport("bob", started.getId()));
+        assertNull(exportService.openExportFile("bob", started.getId()));
+        assertFalse(exportService.deleteExport("bob", started.getId()));
+
+        assertTrue(exportService.deleteExport("alice", started.getId()));
+        assertFalse(Files.exists(file));
+        assertNull(exportService.getExport("alice", started.getId()));
+    }
+
+    @Test
+    void testRetainedExportsAreLimited() throws Exception {
+        awaitCompletion("alice", exportService.startExport("alice", ExportFormat.CSV).getId());
+        awaitCompletion("alice", exportService.startExport("alice", ExportFormat.CSV).getId());
+
+        assertNull(exportService.startExport("alice", ExportFormat.CSV));
+    }
+
+    @Test
+    void testOneClientCannotTakeEverySlot() throws Exception {
+        HistoryExportService limited = create(3, 2);
+        try {
+            String first = limited.startExport("alice", ExportFormat.CSV).getId();
+            assertNotNull(limited.startExport("alice", ExportFormat.CSV));
+            assertNull(limited.startExport("alice", ExportFormat.CSV));
+            assertNotNull(limited.startExport("bob", ExportFormat.CSV));
+            assertNull(limited.startExport("carol", ExportFormat.CSV));
+
+            // Deleting an export frees its slot
+            assertTrue(limited.deleteExport("alice", first));
+            assertNotNull(limited.startExport("alice", ExportFormat.CSV));
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentStartsDoNotExceedTheLimit() throws Exception {
+        HistoryExportService limited = create(4, 4);
+        ExecutorService starters = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ExportJobStatus>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String clientId = "client-" + i;
+                results.add(starters.submit(() -> {
+                    start.await();
+                    return limited.startExport(clientId, ExportFormat.CSV);
+                }));
+            }
+            start.countDown();
+            int started = 0;
+            for (Future<ExportJobStatus> result : results) {
+                if (result.get(5, TimeUnit.SECONDS) != null) {
+                    started++;
+                }
+            }
+            assertEquals(4, started);
+        } finally {
+            starters.shutdownNow();
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void testOpenFileIsNotDeletedUntilClosed() throws Exception {
+        ExportJobStatus started = exportService.startExport("alice", ExportFormat.CSV);
+        awaitCompletion("alice", started.getId());
+        HistoryExportService.ExportFile export = exportService.openExportFile("alice", started.getId());
+
+        assertTrue(exportService.deleteExport("alice", started.getId()));
+        assertNull(exportService.getExport("alice", started.getId()));
+        assertNull(exportService.openExportFile("alice", started.getId()));
+        exportService.removeExpiredExports();
+        assertTrue(Files.exists(export.getPath()));
+
+        export.close();
+        exportService.removeExpiredExports();
+        assertFalse(Files.exists(export.getPath()));
+    }
+
+    @Test
+    void testFileOutlivesItsLastDownloadByTheGrace() throws Exception {
+        HistoryExportService graced = new HistoryExportService(historyService,
+                new HistoryJsonCache(objectMapper, "lazy"), new ExportMetrics(new SimpleMeterRegistry()),
+                directory.resolve("graced").toString(), Duration.ofHours(1), Duration.ofHours(1), 2, 2, 1, false);
+        try {
+            String first = graced.startExport("alice", ExportFormat.CSV).getId();
+            String second = graced.startExport("alice", ExportFormat.CSV).getId();
+            awaitCompletion(graced, "alice", first);
+            awaitCompletion(graced, "alice", second);
+            Path downloaded;
+            try (HistoryExportService.ExportFile export = graced.openExportFile("alice", first)) {
+                // Handed to the container, which sends it after the request returns
+                downloaded = export.getPath();
+            }
+            Path untouched = directory.resolve("graced").resolve(second + ".csv");
+
+            assertTrue(graced.deleteExport("alice", first));
+            assertTrue(graced.deleteExport("alice", second));
+            graced.removeExpiredExports();
+
+            assertTrue(Files.exists(downloaded));
+            assertFalse(Files.exists(untouched));
+        } finally {
+            graced.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectedExportReleasesItsSlot() throws Exception {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch busy = new CountDownLatch(1);
+        workers.execute(() -> {
+            try {
+                busy.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        HistoryExportService rejecting = new HistoryExportService(historyService,
+                new HistoryJsonCache(objectMapper, "lazy"), new ExportMetrics(new SimpleMeterRegistry()),
+                directory.resolve("rejecting").toString(), Duration.ofHours(1), Duration.ZERO, 1, 1, workers);
+        try {
+            assertNull(rejecting.startExport("alice", ExportFormat.CSV));
+
+            // Only one export may be retained, so a new one starts only if the rejected one gave its slot back
+            busy.countDown();
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            ExportJobStatus started = null;
+            while (started == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+                started = rejecting.startExport("alice", ExportFormat.CSV);
+            }
+            assertNotNull(started);
+        } finally {
+            rejecting.shutdown();
+        }
+    }
+
+    private HistoryExportService create(int maxJobs, int maxJobsPerClient) {
+        return new HistoryExportService(historyService, new HistoryJsonCache(objectMapper, "lazy"),
+                new ExportMetrics(new SimpleMeterRegistry()), directory.resolve("limited").toString(),
+                Duration.ofHours(1), Duration.ZERO, maxJobs, maxJobsPerClient, 1, false);
+    }
+
+    private ExportJobStatus awaitCompletion(String clientId, String exportId) throws InterruptedException {
+        return awaitCompletion(exportService, clientId, exportId);
+    }
+
+    private static ExportJobStatus awaitCompletion(HistoryExportService service, String clientId, String exportId)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        ExportJobStatus status = service.getExport(clientId, exportId);
+        while (status.getState() != ExportState.COMPLETED && System.nanoTime() < deadline) {
+            assertNotEquals(ExportState.FAILED, status.getState(), status.getError());
+            Thread.sleep(5);
+            status = service.getExport(clientId, exportId);
+        }
+        assertEquals(ExportState.COMPLETED, status.getState());
+        return status;
+    }
+}
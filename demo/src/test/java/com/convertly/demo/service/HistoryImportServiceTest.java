@@ -0,0 +1,138 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryImportServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LengthService lengthService = new LengthService();
+    private ConversionHistoryService historyService;
+    private HistoryImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new ConversionHistoryService(List.of(), List.of(lengthService), 100,
+                Duration.ofMinutes(30), 10_000, 4, 4, "", 16);
+        importService = new HistoryImportService(historyService, objectMapper, 3, 2);
+        for (int i = 1; i <= 10; i++) {
+            ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+            historyService.addConversion("alice", request, lengthService.convert(request));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void testCsvImportRestoresExport() throws Exception {
+        String csv = historyService.exportHistoryAsCSV("alice");
+
+        ImportResult result = importService.importHistory("bob", ExportFormat.CSV, stream(csv), false);
+
+        assertEquals(10, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(10, result.getTotalEntries());
+        assertEquals(csv, historyService.exportHistoryAsCSV("bob"));
+    }
+
+    @Test
+    void testJsonImportRestoresExport() throws Exception {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new HistoryJsonCache(objectMapper, "lazy").writeArray(historyService.getHistorySnapshot("alice"), json);
+
+        ImportResult result = importService.importHistory("bob", ExportFormat.JSON,
+                new ByteArrayInputStream(json.toByteArray()), false);
+
+        assertEquals(10, result.getImported());
+        assertEquals(historyService.exportHistoryAsCSV("alice"), historyService.exportHistoryAsCSV("bob"));
+    }
+
+    @Test
+    void testDedupeSkipsKnownIds() throws Exception {
+        String csv = historyService.exportHistoryAsCSV("alice");
+
+        ImportResult result = importService.importHistory("alice", ExportFormat.CSV, stream(csv), true);
+
+        assertEquals(0, result.getImported());
+        assertEquals(10, result.getDuplicates());
+        assertEquals(10, historyService.getHistoryCount("alice"));
+    }
+
+    @Test
+    void testInvalidRowsAreRejected() throws Exception {
+        String json = "[" +
+                "{\"id\":\"a\",\"timestamp\":\"2024-01-01T10:00:00\",\"request\":{\"category\":\"length\"," +
+                "\"fromUnit\":\"meter\",\"toUnit\":\"foot\",\"value\":1.0},\"response\":{\"result\":3.28}}," +
+                "{\"id\":\"b\",\"timestamp\":\"2024-01-01T10:00:01\",\"request\":{\"category\":\"length\"," +
+                "\"fromUnit\":\"meter\",\"toUnit\":\"parsec\",\"value\":1.0},\"response\":{\"result\":1.0}}," +
+                "{\"id\":\"c\",\"timestamp\":\"not a time\",\"request\":{\"nested\":[1,{\"x\":2}]}}" +
+                "]";
+
+        ImportResult result = importService.importHistory("bob", ExportFormat.JSON, stream(json), false);
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals("a", historyService.getAllHistory("bob").get(0).getId());
+    }
+
+    @Test
+    void testCsvWithWrongHeaderIsRefused() {
+        assertThrows(IllegalArgumentException.class, () ->
+                importService.importHistory("bob", ExportFormat.CSV, stream("a,b,c\n1,2,3\n"), false));
+    }
+
+    @Test
+    void testMalformedJsonIsRefusedWithItsLocation() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                importService.importHistory("bob", ExportFormat.JSON, stream("[{\"id\": \"a\"}\n {\"id\": \"b\"}]"),
+                        false));
+        assertTrue(e.getMessage().startsWith("Malformed JSON import at line 2, column 3"), e.getMessage());
+    }
+
+    @Test
+    void testImportKeepsNewestEntriesUpToCapacity() throws Exception {
+        ConversionHistoryService source = new ConversionHistoryService(List.of(), List.of(lengthService), 1000,
+                Duration.ofMinutes(30), 10_000, 4, 4, "", 16);
+        for (int i = 1; i <= 250; i++) {
+            ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+            source.addConversion("alice", request, lengthService.convert(request));
+        }
+
+        ImportResult result = importService.importHistory("bob", ExportFormat.CSV,
+                stream(source.exportHistoryAsCSV("alice")), false);
+
+        assertEquals(250, result.getImported());
+        assertEquals(100, result.getTotalEntries());
+        List<Double> values = new ArrayList<>();
+        for (ConversionHistory history : historyService.getHistorySnapshot("bob")) {
+            values.add(history.getRequest().getValue());
+        }
+        assertEquals(151.0, values.get(0));
+        assertEquals(250.0, values.get(values.size() - 1));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ResponseView;
+import com.convertly.demo.model.ConversionHistory;
+import com.convertly.demo.model.ConversionRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryJsonCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LengthService lengthService = new LengthService();
+
+    @Test
+    void testBytesMatchJacksonOutputAndAreCached() throws IOException {
+        HistoryJsonCache cache = new HistoryJsonCache(objectMapper, "lazy");
+        ConversionHistory history = entry(5.0);
+
+        byte[] json = cache.toJson(history);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(history), json);
+        assertSame(json, cache.toJson(history));
+        assertFalse(objectMapper.readTree(json).has("serializedJson"));
+    }
+
+    @Test
+    void testEagerModeSerializesOnInsert() {
+        HistoryJsonCache cache = new HistoryJsonCache(objectMapper, "eager");
+        ConversionHistory history = entry(1.0);
+
+        cache.onConversionRecorded("alice", history);
+
+        assertNotNull(history.getSerializedJson());
+    }
+
+    @Test
+    void testOffModeDoesNotCache() {
+        HistoryJsonCache cache = new HistoryJsonCache(objectMapper, "off");
+        ConversionHistory history = entry(1.0);
+
+        cache.onConversionRecorded("alice", history);
+        cache.toJson(history);
+
+        assertNull(history.getSerializedJson());
+    }
+
+    @Test
+    void testTransientJsonIsNotCached() throws IOException {
+        HistoryJsonCache cache = new HistoryJsonCache(objectMapper, "lazy");
+        ConversionHistory history = entry(1.0);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(history), cache.toTransientJson(history));
+        assertNull(history.getSerializedJson());
+    }
+
+    @Test
+    void testWriteArrayProducesJsonArray() throws IOException {
+        HistoryJsonCache cache = new HistoryJsonCache(objectMapper, "lazy");
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        ByteArrayOutputStream two = new ByteArrayOutputStream();
+
+        cache.writeArray(List.of(), empty);
+        cache.writeArray(List.of(entry(1.0), entry(2.0)), two);
+
+        assertEquals("[]", empty.toString());
+        JsonNode array = objectMapper.readTree(two.toByteArray());
+        assertEquals(2, array.size());
+        assertEquals(2.0, array.get(1).get("request").get("value").asDouble());
+    }
+
+    @Test
+    void testViewsLeaveOutEchoedRequest() throws IOException {
+        HistoryJsonCache cache = new HistoryJsonCache(objectMapper, "lazy");
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+
+        cache.writeArray(List.of(entry(1.0), entry(2.0)), ResponseView.COMPACT, compact);
+        JsonNode result = objectMapper.readTree(cache.toJson(entry(3.0), ResponseView.RESULT));
+
+        JsonNode array = objectMapper.readTree(compact.toByteArray());
+        assertEquals(2, array.size());
+        JsonNode response = array.get(1).get("response");
+        assertEquals(List.of("result", "formula"), fieldNames(response));
+        assertEquals(2.0, array.get(1).get("request").get("value").asDouble());
+        assertTrue(array.get(1).has("id"));
+        assertTrue(array.get(1).has("timestamp"));
+        assertEquals(List.of("result"), fieldNames(result.get("response")));
+
+        ConversionHistory full = entry(4.0);
+        assertSame(cache.toJson(full), cache.toJson(full, ResponseView.FULL), "The full view uses the cached bytes");
+    }
+
+    private ConversionHistory entry(double value) {
+        ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", value);
+        return new ConversionHistory("id-" + value, request, lengthService.convert(request));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -112,6 +112,16 @@ class TemperatureServiceTest {
         assertThrows(InvalidUnitException.class, () -> temperatureService.convert(request));
     }
 
+    @Test
+    void testInvalidUnitMessageAndStackTrace() {
+        ConversionRequest request = new ConversionRequest(Category.TEMPERATURE, "rankine", "celsius", 25.0);
+
+        InvalidUnitException e = assertThrows(InvalidUnitException.class, () -> temperatureService.convert(request));
+        assertEquals("Invalid temperature unit: Invalid temperature unit: rankine. "
+                + "Valid units are: celsius, fahrenheit, kelvin", e.getMessage());
+        assertEquals(0, e.getStackTrace().length, "Client errors should not capture a stack trace");
+    }
+
     @Test
     void testInvalidCategory() {
         ConversionRequest request = new ConversionRequest(Category.LENGTH, "celsius", "fahrenheit", 25.0);
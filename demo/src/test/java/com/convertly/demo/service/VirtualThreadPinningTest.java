@@ -0,0 +1,147 @@
+package com.convertly.demo.service;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.enums.ExportFormat;
+import com.convertly.demo.enums.ExportState;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.metrics.ExportMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.model.ExportJobStatus;
+import com.convertly.demo.model.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the conversion and history paths on virtual threads and checks with JFR that
+ * none of them blocks while pinned to its carrier, e.g. inside a synchronized block.
+ */
+class VirtualThreadPinningTest {
+
+    private static final int TASKS = 200;
+    private static final String[] CLIENTS = {"alice", "bob", "carol"};
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LengthService lengthService = new LengthService();
+    private ConversionFeedService feedService;
+    private ConversionHistoryService historyService;
+    private ConversionServiceManager manager;
+    private HistoryImportService importService;
+    private HistoryExportService exportService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+        HistoryJsonCache historyJsonCache = new HistoryJsonCache(objectMapper, "lazy");
+        feedService = new ConversionFeedService(historyJsonCache, 16, 10, Duration.ofMinutes(1), 1,
+                Duration.ofMinutes(1), 8);
+        historyService = new ConversionHistoryService(List.of(feedService), List.of(lengthService), 1000,
+                Duration.ofMinutes(30), 10_000, 16, 16, "", 64);
+        manager = new ConversionServiceManager(new TemperatureService(), lengthService, new WeightService(),
+                new TimeService(), historyService, new HeavyHitterService(0.005, 0.99, 64, Duration.ofMinutes(5), 12),
+                new ConversionMetrics(new SimpleMeterRegistry()));
+        importService = new HistoryImportService(historyService, objectMapper, 4, 2);
+        exportService = new HistoryExportService(historyService, historyJsonCache,
+                new ExportMetrics(new SimpleMeterRegistry()), directory.toString(), Duration.ofHours(1),
+                Duration.ofMinutes(1), TASKS, TASKS, 1, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (exportService != null) {
+            exportService.shutdown();
+            importService.shutdown();
+            feedService.shutdown();
+        }
+    }
+
+    @Test
+    void testConversionAndHistoryPathsDoNotPin() throws Exception {
+        String csv = seedHistory();
+        // Load the classes involved first: class initialization pins, but only once
+        runWorkload(0, csv);
+
+        Path file = directory.resolve("pinning.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("pinning-test-");
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < TASKS; i++) {
+                int task = i;
+                tasks.add(CompletableFuture.runAsync(() -> runWorkload(task, csv), executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> pinned = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("jdk.VirtualThreadPinned")) {
+                pinned.add(String.valueOf(event.getStackTrace()));
+            }
+        }
+        assertTrue(pinned.isEmpty(), "Virtual threads were pinned while blocking:\n" + String.join("\n", pinned));
+    }
+
+    private String seedHistory() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            ConversionRequest request = new ConversionRequest(Category.LENGTH, "meter", "foot", (double) i);
+            historyService.addConversion("seed", request, lengthService.convert(request));
+        }
+        return historyService.exportHistoryAsCSV("seed");
+    }
+
+    /**
+     * Converts, reads the history, imports a file (which waits for the import pool)
+     * and exports, all for a few shared clients so that their locks are contended.
+     */
+    private void runWorkload(int task, String csv) {
+        String clientId = CLIENTS[task % CLIENTS.length];
+        try {
+            for (int i = 0; i < 20; i++) {
+                manager.convert(new ConversionRequest(Category.LENGTH, "meter", "mile", (double) (task + i)), clientId);
+                manager.convert(new ConversionRequest(Category.TEMPERATURE, "celsius", "kelvin", (double) i), clientId);
+            }
+            assertFalse(historyService.getAllHistory(clientId).isEmpty());
+            historyService.getChangesSince(clientId, 0);
+            ImportResult imported = importService.importHistory(clientId, ExportFormat.CSV,
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false);
+            assertEquals(20, imported.getImported());
+            ExportJobStatus export = exportService.startExport(clientId, ExportFormat.JSON);
+            assertNotNull(export);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (exportService.getExport(clientId, export.getId()).getState() != ExportState.COMPLETED
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(exportService.deleteExport(clientId, export.getId()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
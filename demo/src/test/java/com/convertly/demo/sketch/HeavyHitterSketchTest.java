@@ -0,0 +1,98 @@
+package com.convertly.demo.sketch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHitterSketchTest {
+
+    private AtomicLong now;
+    private HeavyHitterSketch sketch;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        sketch = new HeavyHitterSketch(0.01, 0.99, 16, 1000, 3, now::get);
+    }
+
+    @Test
+    void testFindsHeavyHittersAmongNoise() {
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(i);
+            if (i % 10 == 0) {
+                sketch.add(-1L);
+            }
+            if (i % 20 == 0) {
+                sketch.add(-2L);
+            }
+        }
+
+        List<HeavyHitterSketch.Entry> top = sketch.top(2);
+
+        assertEquals(2, top.size());
+        assertEquals(-1L, top.get(0).key());
+        assertEquals(-2L, top.get(1).key());
+        assertTrue(top.get(0).count() >= 1000);
+        assertTrue(top.get(1).count() >= 500);
+    }
+
+    @Test
+    void testEstimateNeverUndercounts() {
+        for (int i = 0; i < 500; i++) {
+            sketch.add(42L);
+            sketch.add(i);
+        }
+
+        assertTrue(sketch.estimate(42L) >= 500);
+        assertTrue(sketch.estimate(7L) >= 1);
+    }
+
+    @Test
+    void testCountsDecayAfterWindowsExpire() {
+        for (int i = 0; i < 100; i++) {
+            sketch.add(42L);
+        }
+        now.addAndGet(1000);
+        sketch.add(42L);
+
+        assertEquals(101, sketch.estimate(42L));
+
+        now.addAndGet(2000);
+        assertEquals(1, sketch.estimate(42L));
+
+        now.addAndGet(1000);
+        assertEquals(0, sketch.estimate(42L));
+        assertTrue(sketch.top(5).isEmpty());
+    }
+
+    @Test
+    void testConcurrentUpdatesAreNotLost() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    sketch.add(99L);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(sketch.estimate(99L) >= 100_000);
+        assertEquals(99L, sketch.top(1).get(0).key());
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeavyHitterSketch(0, 0.99, 16, 1000, 3, now::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeavyHitterSketch(0.01, 0.99, 16, 0, 3, now::get));
+    }
+}
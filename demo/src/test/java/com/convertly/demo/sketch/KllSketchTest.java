@@ -0,0 +1,81 @@
+package com.convertly.demo.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KllSketchTest {
+
+    @Test
+    void testQuantilesOfUniformStream() {
+        KllSketch sketch = new KllSketch(200);
+        for (int i = 1; i <= 100_000; i++) {
+            sketch.update(i);
+        }
+
+        assertEquals(100_000, sketch.getCount());
+        assertEquals(1.0, sketch.getMin());
+        assertEquals(100_000.0, sketch.getMax());
+        assertEquals(50_000, sketch.quantile(0.5), 2_000);
+        assertEquals(90_000, sketch.quantile(0.9), 2_000);
+        assertEquals(99_000, sketch.quantile(0.99), 2_000);
+    }
+
+    @Test
+    void testMemoryStaysBounded() {
+        KllSketch sketch = new KllSketch(100);
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.update(i % 997);
+        }
+
+        assertTrue(sketch.toBytes().length < 8 * 1024);
+    }
+
+    @Test
+    void testMergeMatchesCombinedStream() {
+        KllSketch low = new KllSketch(200);
+        KllSketch high = new KllSketch(200);
+        for (int i = 0; i < 50_000; i++) {
+            low.update(i);
+            high.update(50_000 + i);
+        }
+
+        low.merge(high);
+
+        assertEquals(100_000, low.getCount());
+        assertEquals(0.0, low.getMin());
+        assertEquals(99_999.0, low.getMax());
+        assertEquals(50_000, low.quantile(0.5), 2_000);
+    }
+
+    @Test
+    void testSerializationRoundTrip() {
+        KllSketch sketch = new KllSketch(64);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.update(i * 0.5);
+        }
+
+        KllSketch restored = KllSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.getCount(), restored.getCount());
+        assertEquals(sketch.getMin(), restored.getMin());
+        assertEquals(sketch.getMax(), restored.getMax());
+        assertEquals(sketch.quantile(0.5), restored.quantile(0.5));
+        assertEquals(sketch.quantile(0.99), restored.quantile(0.99));
+    }
+
+    @Test
+    void testEmptySketch() {
+        KllSketch sketch = new KllSketch(64);
+
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertTrue(Double.isNaN(sketch.getMin()));
+    }
+
+    @Test
+    void testRejectsMalformedBytes() {
+        assertThrows(IllegalArgumentException.class, () -> KllSketch.fromBytes(new byte[] { 0, 0, 0, 1 }));
+        assertThrows(IllegalArgumentException.class, () -> KllSketch.fromBytes(new byte[] { 9, 9, 9, 9 }));
+    }
+}
@@ -0,0 +1,95 @@
+package com.convertly.demo.timing;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.metrics.ConversionMetrics;
+import com.convertly.demo.model.ConversionRequest;
+import com.convertly.demo.service.LengthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageTimerTest {
+
+    private final LengthService lengthService = new LengthService();
+
+    @AfterEach
+    void tearDown() {
+        StageTimer.stop();
+    }
+
+    @Test
+    void testMarksWithoutTimerAreIgnored() {
+        assertNull(StageTimer.current());
+        StageTimer.mark(Stage.BIND);
+        lengthService.convert(new ConversionRequest(Category.LENGTH, "meter", "foot", 1.0));
+        assertNull(StageTimer.current());
+    }
+
+    @Test
+    void testServiceStagesAreMarkedInOrder() {
+        StageTimer timer = StageTimer.start();
+        StageTimer.mark(Stage.BIND);
+        lengthService.convert(new ConversionRequest(Category.LENGTH, "meter", "foot", 1.0));
+
+        for (Stage stage : new Stage[] {Stage.BIND, Stage.PARSE, Stage.CONVERT, Stage.FORMAT}) {
+            assertTrue(timer.isMarked(stage), stage + " not marked");
+        }
+        assertFalse(timer.isMarked(Stage.VALIDATE));
+        assertFalse(timer.isMarked(Stage.HISTORY));
+        long stages = 0;
+        for (Stage stage : Stage.values()) {
+            stages += timer.getStageNanos(stage);
+        }
+        assertTrue(stages <= timer.getElapsedNanos(), "Stages overlap");
+    }
+
+    @Test
+    void testServerTimingListsReachedStagesAndTotal() {
+        StageTimer timer = StageTimer.start();
+        StageTimer.mark(Stage.BIND);
+        StageTimer.mark(Stage.VALIDATE);
+
+        String header = timer.toServerTiming();
+        assertTrue(header.matches("bind;desc=\"JSON binding\";dur=\\d+\\.\\d{3}, "
+                + "validate;desc=\"Request validation\";dur=\\d+\\.\\d{3}, "
+                + "total;desc=\"Application time\";dur=\\d+\\.\\d{3}"), header);
+    }
+
+    @Test
+    void testFilterTimesConvertRequestsOnly() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConversionTimingFilter filter = new ConversionTimingFilter(new ConversionMetrics(registry));
+
+        MockHttpServletRequest convert = new MockHttpServletRequest("POST", "/convert");
+        convert.setServletPath("/convert");
+        filter.doFilter(convert, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                assertNotNull(StageTimer.current());
+                StageTimer.mark(Stage.BIND);
+                StageTimer.mark(Stage.VALIDATE);
+            }
+        });
+        assertNull(StageTimer.current(), "Timer leaked to the next request on this thread");
+        assertEquals(1, registry.get(ConversionMetrics.STAGES).tag("stage", "bind").timer().count());
+        assertEquals(1, registry.get(ConversionMetrics.STAGES).tag("stage", "validate").timer().count());
+        assertNull(registry.find(ConversionMetrics.STAGES).tag("stage", "history").timer());
+
+        MockHttpServletRequest history = new MockHttpServletRequest("GET", "/history");
+        history.setServletPath("/history");
+        filter.doFilter(history, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                assertNull(StageTimer.current());
+            }
+        });
+        assertEquals(1, registry.get(ConversionMetrics.STAGES).tag("stage", "bind").timer().count());
+    }
+}
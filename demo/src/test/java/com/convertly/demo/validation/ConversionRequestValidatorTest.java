@@ -0,0 +1,72 @@
+package com.convertly.demo.validation;
+
+import com.convertly.demo.enums.Category;
+import com.convertly.demo.model.ConversionRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionRequestValidatorTest {
+
+    private static ValidatorFactory validatorFactory;
+
+    private final ConversionRequestValidator validator = new ConversionRequestValidator();
+
+    @BeforeAll
+    static void setUpFactory() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    static void closeFactory() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testMatchesBeanValidation() {
+        Validator beanValidator = validatorFactory.getValidator();
+        // Every combination of missing fields
+        for (int missing = 0; missing < 16; missing++) {
+            ConversionRequest request = new ConversionRequest(
+                    (missing & 1) == 0 ? Category.LENGTH : null,
+                    (missing & 2) == 0 ? "meter" : null,
+                    (missing & 4) == 0 ? "foot" : null,
+                    (missing & 8) == 0 ? 10.0 : null);
+
+            Set<String> expected = beanValidator.validate(request).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.toSet());
+            Set<String> actual = validate(request).stream()
+                    .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                    .collect(Collectors.toSet());
+            assertEquals(expected, actual, "Missing fields mask " + missing);
+        }
+    }
+
+    @Test
+    void testErrorsInDeclarationOrder() {
+        List<FieldError> errors = validate(new ConversionRequest());
+
+        assertEquals(List.of("category", "fromUnit", "toUnit", "value"),
+                errors.stream().map(FieldError::getField).toList());
+        assertTrue(errors.stream().allMatch(error -> "NotNull".equals(error.getCode())));
+        assertEquals("Category is required", errors.get(0).getDefaultMessage());
+    }
+
+    private List<FieldError> validate(ConversionRequest request) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(request, "conversionRequest");
+        validator.validate(request, errors);
+        return errors.getFieldErrors();
+    }
+}